@@ -22,6 +22,7 @@ public enum CommonErrorCode implements IErrorCode {
     TOKEN_NOT_EXIST(409, "token not exist"),
     ILLEGAL_REQUEST(503, "Illegal request"),
     DUPLICATE_REQUEST(411, "Duplicate request detected"),
+    TOO_MANY_REQUESTS(429, "Too many requests"),
 
     ;
 
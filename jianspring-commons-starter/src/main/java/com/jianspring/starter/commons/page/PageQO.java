@@ -18,12 +18,18 @@ public class PageQO<T> {
 
     private T query;
 
+    // 游标分页的翻页令牌，取上一页返回的 nextCursor，为空时查询第一页；使用游标时忽略pageNum
+    private String cursor;
+
+    // 是否统计总数，为false时不执行COUNT，只返回是否有下一页
+    private Boolean searchCount;
+
     public T getQuery() {
         return query;
     }
 
     public Integer getPageSize() {
-        if (pageSize > 10000) {
+        if (pageSize != null && pageSize > 10000) {
             return 10000;
         }
         return pageSize;
@@ -37,6 +43,14 @@ public class PageQO<T> {
         return sorts;
     }
 
+    public String getCursor() {
+        return cursor;
+    }
+
+    public boolean isSearchCount() {
+        return searchCount == null || searchCount;
+    }
+
     @Setter
     @ToString
     public static class Sort {
@@ -18,6 +18,12 @@ public class PageVO<T> {
 
     private List<T> data;
 
+    // 是否有下一页，不统计总数时据此判断翻页
+    private Boolean hasNext;
+
+    // 游标分页的下一页令牌，没有下一页时为null
+    private String nextCursor;
+
     public static <T> PageVO<T> of(Integer pageNum, Integer pageSize, Long total, List<T> data) {
         PageVO<T> pageVO = new PageVO<>();
         if (null == pageNum || pageNum < 1) {
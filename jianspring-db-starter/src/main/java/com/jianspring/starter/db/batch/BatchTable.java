@@ -0,0 +1,274 @@
+package com.jianspring.starter.db.batch;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.jianspring.starter.db.tenant.JianTenantLineHandler;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 批量写入用的实体元数据，每个实体类解析一次
+ * <p>
+ * 第0列固定为主键，其余按实体字段顺序排列。取值和赋值使用MyBatis的Reflector，参数绑定使用字段的TypeHandler，
+ * 与MyBatis-Plus单条插入写入的值一致。
+ */
+final class BatchTable {
+
+    private final Class<?> entityClass;
+
+    private final String tableName;
+
+    private final IdType idType;
+
+    private final List<Column> columns;
+
+    // 审计字段和租户字段在columns中的下标，不存在时为-1
+    private final int createdTime;
+
+    private final int createdBy;
+
+    private final int updatedTime;
+
+    private final int updatedBy;
+
+    private final int deleted;
+
+    private final int tenant;
+
+    // 主键由本地生成时，主键列始终出现在INSERT中
+    private final boolean assignKey;
+
+    private BatchTable(Class<?> entityClass, TableInfo tableInfo, List<Column> columns, String tenantColumn) {
+        this.entityClass = entityClass;
+        this.tableName = tableInfo.getTableName();
+        this.idType = tableInfo.getIdType();
+        this.columns = columns;
+        this.createdTime = indexOf(columns, "createdTime");
+        this.createdBy = indexOf(columns, "createdBy");
+        this.updatedTime = indexOf(columns, "updatedTime");
+        this.updatedBy = indexOf(columns, "updatedBy");
+        this.deleted = indexOf(columns, "deleted");
+        int tenantIndex = -1;
+        if (tenantColumn != null) {
+            for (int i = 1; i < columns.size(); i++) {
+                if (tenantColumn.equalsIgnoreCase(columns.get(i).name)) {
+                    tenantIndex = i;
+                }
+            }
+        }
+        this.tenant = tenantIndex;
+        this.assignKey = idType == IdType.ASSIGN_ID || idType == IdType.ASSIGN_UUID;
+    }
+
+    /**
+     * @param entityClass   实体类，需已由MyBatis-Plus注册且有主键
+     * @param tenantHandler 租户规则，为null时不填充租户字段
+     */
+    static BatchTable of(Class<?> entityClass, JianTenantLineHandler tenantHandler) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null || !tableInfo.havePK()) {
+            throw new IllegalArgumentException("批量写入要求实体已注册且有主键: " + entityClass.getName());
+        }
+        Reflector reflector = tableInfo.getConfiguration().getReflectorFactory().findForClass(entityClass);
+        TypeHandlerRegistry registry = tableInfo.getConfiguration().getTypeHandlerRegistry();
+        List<Column> columns = new ArrayList<>(tableInfo.getFieldList().size() + 1);
+        columns.add(new Column(tableInfo.getKeyColumn(), tableInfo.getKeyProperty(), tableInfo.getKeyType(), null,
+                registry.getTypeHandler(tableInfo.getKeyType()), false, reflector));
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            TypeHandler<?> typeHandler = field.getTypeHandler() != null
+                    ? registry.getInstance(field.getPropertyType(), field.getTypeHandler())
+                    : registry.getTypeHandler(field.getPropertyType(), field.getJdbcType());
+            columns.add(new Column(field.getColumn(), field.getProperty(), field.getPropertyType(), field.getJdbcType(),
+                    typeHandler != null ? typeHandler : registry.getUnknownTypeHandler(), field.isWithInsertFill(), reflector));
+        }
+        String tenantColumn = tenantHandler != null && !tenantHandler.ignoreTable(tableInfo.getTableName())
+                ? tenantHandler.getTenantIdColumn()
+                : null;
+        return new BatchTable(entityClass, tableInfo, columns, tenantColumn);
+    }
+
+    /**
+     * 按 CustomMetaObjectHandler.insertFill 的规则填充空的审计字段、逻辑删除字段和租户字段
+     * <p>
+     * 与 strictInsertFill 一致，审计字段和逻辑删除字段只在声明了插入填充（INSERT、INSERT_UPDATE）时填充，
+     * 如 BaseEntity 的更新人、更新时间插入时保持为空。
+     */
+    void fill(Object entity, LocalDateTime now, Long userId, Long tenantId) {
+        insertFill(entity, createdTime, now);
+        insertFill(entity, createdBy, userId);
+        insertFill(entity, updatedTime, now);
+        insertFill(entity, updatedBy, userId);
+        if (deleted >= 0 && columns.get(deleted).type == Long.class) {
+            insertFill(entity, deleted, 0L);
+        }
+        if (tenant >= 0) {
+            Column column = columns.get(tenant);
+            // 与租户拦截器一致，无租户上下文时写入0
+            long value = tenantId != null ? tenantId : 0L;
+            if (column.type == Long.class) {
+                fillIfNull(entity, tenant, value);
+            } else if (column.type == String.class) {
+                fillIfNull(entity, tenant, String.valueOf(value));
+            }
+        }
+    }
+
+    /**
+     * 读取一行的所有列值
+     *
+     * @param entity 实体
+     * @param values 输出，长度为列数
+     * @param mask   输出，非空列和需要生成的主键列置位
+     */
+    void read(Object entity, Object[] values, BitSet mask) {
+        mask.clear();
+        for (int i = 0; i < values.length; i++) {
+            Object value = columns.get(i).get(entity);
+            values[i] = value;
+            if (value != null) {
+                mask.set(i);
+            }
+        }
+        if (assignKey) {
+            mask.set(0);
+        }
+    }
+
+    /**
+     * upsert时冲突后更新的列：默认为除主键、创建人、创建时间、逻辑删除和租户外的所有列
+     * <p>
+     * 逻辑删除字段不参与默认更新，避免按新数据upsert时把已删除的行恢复，或把已有行的删除标记覆盖为插入时的默认值。
+     *
+     * @param properties 指定的属性名，为空时使用默认
+     * @return 列下标
+     */
+    BitSet updateColumns(Collection<String> properties) {
+        BitSet update = new BitSet(columns.size());
+        for (int i = 1; i < columns.size(); i++) {
+            if (properties.isEmpty()) {
+                if (i != createdTime && i != createdBy && i != deleted && i != tenant) {
+                    update.set(i);
+                }
+            } else if (properties.contains(columns.get(i).property)) {
+                update.set(i);
+            }
+        }
+        if (!properties.isEmpty() && update.cardinality() != properties.size()) {
+            throw new IllegalArgumentException("upsert的更新字段不存在或为主键: " + properties + ", entity=" + entityClass.getName());
+        }
+        return update;
+    }
+
+    void setKey(Object entity, Object key) {
+        columns.get(0).set(entity, key);
+    }
+
+    Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    String getTableName() {
+        return tableName;
+    }
+
+    IdType getIdType() {
+        return idType;
+    }
+
+    Class<?> getKeyType() {
+        return columns.get(0).type;
+    }
+
+    boolean isAssignKey() {
+        return assignKey;
+    }
+
+    List<Column> getColumns() {
+        return columns;
+    }
+
+    private void insertFill(Object entity, int index, Object value) {
+        if (index >= 0 && columns.get(index).insertFill) {
+            fillIfNull(entity, index, value);
+        }
+    }
+
+    private void fillIfNull(Object entity, int index, Object value) {
+        if (index < 0 || value == null) {
+            return;
+        }
+        Column column = columns.get(index);
+        if (column.type.isInstance(value) && column.get(entity) == null) {
+            column.set(entity, value);
+        }
+    }
+
+    private static int indexOf(List<Column> columns, String property) {
+        for (int i = 1; i < columns.size(); i++) {
+            if (columns.get(i).property.equals(property)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    static final class Column {
+
+        final String name;
+
+        final String property;
+
+        final Class<?> type;
+
+        final JdbcType jdbcType;
+
+        final TypeHandler<Object> typeHandler;
+
+        // 字段声明了插入填充（FieldFill.INSERT、INSERT_UPDATE）
+        final boolean insertFill;
+
+        private final Invoker getter;
+
+        private final Invoker setter;
+
+        @SuppressWarnings("unchecked")
+        private Column(String name, String property, Class<?> type, JdbcType jdbcType, TypeHandler<?> typeHandler,
+                       boolean insertFill, Reflector reflector) {
+            this.name = name;
+            this.property = property;
+            this.type = type;
+            this.jdbcType = jdbcType;
+            this.typeHandler = (TypeHandler<Object>) typeHandler;
+            this.insertFill = insertFill;
+            this.getter = reflector.getGetInvoker(property);
+            this.setter = reflector.getSetInvoker(property);
+        }
+
+        Object get(Object entity) {
+            try {
+                return getter.invoke(entity, null);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("读取字段失败: " + property, e);
+            }
+        }
+
+        void set(Object entity, Object value) {
+            try {
+                setter.invoke(entity, new Object[]{value});
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("写入字段失败: " + property, e);
+            }
+        }
+    }
+}
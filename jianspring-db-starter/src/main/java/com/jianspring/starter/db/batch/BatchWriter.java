@@ -0,0 +1,385 @@
+package com.jianspring.starter.db.batch;
+
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import com.jianspring.starter.commons.UserContextUtils;
+import com.jianspring.starter.db.id.CustomIdGenerator;
+import com.jianspring.starter.db.routing.ReplicaRouter;
+import com.jianspring.starter.db.tenant.JianTenantLineHandler;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * BaseEntity 系列实体的批量写入
+ * <p>
+ * 直接拼接多行 INSERT ... VALUES (...),(...) 执行，一个分块一次网络往返，
+ * 主键一次批量分配，审计字段、逻辑删除字段和租户字段每个分块只计算一次，不经过MetaObjectHandler。
+ * <ul>
+ *     <li>分块按行数、估算的SQL字节数（需小于max_allowed_packet）和单条语句65535个占位符的上限切分</li>
+ *     <li>实体的所有列都出现在语句中且位置固定，为空的字段写为DEFAULT，使用数据库默认值，同一张表的插入语句列结构相同，
+ *     稀疏为空的字段不影响分块大小</li>
+ *     <li>upsert时为空的更新字段保持原值，冲突更新子句按行共享，更新字段中为空的列不同的相邻行会被切到不同分块</li>
+ *     <li>输入按Iterator流式读取，内存中只保留当前分块</li>
+ *     <li>在事务中时使用事务连接；不在事务中时每个分块单独提交，失败时已写入的分块不会回滚</li>
+ *     <li>自增主键仅在insert时回填，upsert不回填</li>
+ * </ul>
+ */
+public class BatchWriter {
+
+    // MySQL单条预编译语句的占位符上限
+    private static final int MAX_PLACEHOLDERS = 65535;
+
+    // 除字符串和二进制外的值按固定长度估算
+    private static final int FIXED_VALUE_BYTES = 24;
+
+    private final DataSource dataSource;
+
+    private final IdentifierGenerator identifierGenerator;
+
+    private final JianTenantLineHandler tenantHandler;
+
+    private final ReplicaRouter replicaRouter;
+
+    private final int maxRows;
+
+    private final long maxBytes;
+
+    private final Map<Class<?>, BatchTable> tables = new ConcurrentHashMap<>();
+
+    /**
+     * @param dataSource          数据源
+     * @param identifierGenerator 主键生成器，为CustomIdGenerator时每个分块一次分配所有ID
+     * @param tenantHandler       租户规则，为null时不填充租户字段
+     * @param replicaRouter       读写分离路由，为null时不切换数据源
+     * @param maxRows             每条语句的最大行数
+     * @param maxBytes            每条语句估算的最大字节数
+     */
+    public BatchWriter(DataSource dataSource, IdentifierGenerator identifierGenerator, JianTenantLineHandler tenantHandler,
+                       ReplicaRouter replicaRouter, int maxRows, long maxBytes) {
+        this.dataSource = dataSource;
+        this.identifierGenerator = identifierGenerator;
+        this.tenantHandler = tenantHandler;
+        this.replicaRouter = replicaRouter;
+        this.maxRows = Math.max(1, maxRows);
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 批量插入
+     *
+     * @see #insert(Class, Iterator)
+     */
+    public <T> long insert(Class<T> entityClass, Iterable<? extends T> entities) {
+        return insert(entityClass, entities.iterator());
+    }
+
+    /**
+     * 批量插入，主键冲突时抛出异常
+     *
+     * @param entityClass 实体类
+     * @param entities    实体，写入后回填主键和填充字段
+     * @return 插入的行数
+     */
+    public <T> long insert(Class<T> entityClass, Iterator<? extends T> entities) {
+        return write(entityClass, entities, null);
+    }
+
+    /**
+     * 批量插入或更新
+     *
+     * @see #upsert(Class, Iterator, String...)
+     */
+    public <T> long upsert(Class<T> entityClass, Iterable<? extends T> entities, String... updateProperties) {
+        return upsert(entityClass, entities.iterator(), updateProperties);
+    }
+
+    /**
+     * 批量插入或更新（INSERT ... ON DUPLICATE KEY UPDATE），主键或唯一索引冲突时更新已有行
+     *
+     * @param entityClass      实体类
+     * @param entities         实体
+     * @param updateProperties 冲突时更新的属性名，为空时更新除主键、创建人、创建时间、逻辑删除和租户外的所有非空字段
+     * @return MySQL返回的影响行数：插入记1，更新记2，未变化记0
+     */
+    public <T> long upsert(Class<T> entityClass, Iterator<? extends T> entities, String... updateProperties) {
+        return write(entityClass, entities, new LinkedHashSet<>(Arrays.asList(updateProperties)));
+    }
+
+    private long write(Class<?> entityClass, Iterator<?> entities, Set<String> updateProperties) {
+        BatchTable table = tables.computeIfAbsent(entityClass, clazz -> BatchTable.of(clazz, tenantHandler));
+        BitSet updateColumns = updateProperties != null ? table.updateColumns(updateProperties) : null;
+        // 在ReadOnly方法内调用时同样写主库
+        String current = DynamicDataSourceContextHolder.peek();
+        boolean switchToPrimary = replicaRouter != null && current != null && replicaRouter.isReplica(current);
+        if (switchToPrimary) {
+            DynamicDataSourceContextHolder.push(replicaRouter.getPrimary());
+        }
+        try {
+            Connection connection = DataSourceUtils.getConnection(dataSource);
+            try {
+                return write(connection, table, entities, updateColumns);
+            } catch (SQLException e) {
+                throw new IllegalStateException("批量写入失败, table=" + table.getTableName() + ": " + e.getMessage(), e);
+            } finally {
+                DataSourceUtils.releaseConnection(connection, dataSource);
+            }
+        } finally {
+            if (switchToPrimary) {
+                DynamicDataSourceContextHolder.poll();
+            }
+        }
+    }
+
+    private long write(Connection connection, BatchTable table, Iterator<?> entities, BitSet updateColumns) throws SQLException {
+        int columnCount = table.getColumns().size();
+        // 决定分块边界的列：upsert的更新列；插入自增主键表时的主键列，同一分块内要么全部回填要么全部不回填
+        BitSet shapeColumns = new BitSet(columnCount);
+        if (updateColumns != null) {
+            shapeColumns.or(updateColumns);
+        } else if (table.getIdType() == IdType.AUTO) {
+            shapeColumns.set(0);
+        }
+        UserContextUtils.UserContext userContext = UserContextUtils.get();
+        Long userId = userContext != null ? userContext.getUserId() : null;
+        Long tenantId = userContext != null ? userContext.getTenantId() : null;
+
+        Chunk chunk = new Chunk(columnCount);
+        BitSet mask = new BitSet(columnCount);
+        LocalDateTime now = LocalDateTime.now();
+        long affected = 0;
+        while (entities.hasNext()) {
+            Object entity = entities.next();
+            if (entity == null) {
+                continue;
+            }
+            table.fill(entity, now, userId, tenantId);
+            Object[] values = new Object[columnCount];
+            table.read(entity, values, mask);
+            mask.and(shapeColumns);
+            long bytes = estimateBytes(values);
+            if (!chunk.isEmpty() && !chunk.accepts(mask, bytes)) {
+                affected += flush(connection, table, chunk, updateColumns);
+                chunk.clear();
+                now = LocalDateTime.now();
+            }
+            if (chunk.isEmpty()) {
+                chunk.start(mask);
+            }
+            chunk.add(entity, values, bytes);
+        }
+        if (!chunk.isEmpty()) {
+            affected += flush(connection, table, chunk, updateColumns);
+        }
+        return affected;
+    }
+
+    private long flush(Connection connection, BatchTable table, Chunk chunk, BitSet updateColumns) throws SQLException {
+        assignKeys(table, chunk);
+        List<BatchTable.Column> columns = table.getColumns();
+        boolean returnKeys = updateColumns == null && table.getIdType() == IdType.AUTO && !chunk.mask.get(0);
+        String sql = buildSql(table, chunk.values, updateColumns);
+        try (PreparedStatement ps = returnKeys
+                ? connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)
+                : connection.prepareStatement(sql)) {
+            int index = 1;
+            for (Object[] values : chunk.values) {
+                for (int i = 0; i < values.length; i++) {
+                    if (values[i] != null) {
+                        BatchTable.Column column = columns.get(i);
+                        column.typeHandler.setParameter(ps, index++, values[i], column.jdbcType);
+                    }
+                }
+            }
+            long affected = ps.executeLargeUpdate();
+            if (returnKeys) {
+                readGeneratedKeys(ps, table, chunk);
+            }
+            return affected;
+        }
+    }
+
+    private void assignKeys(BatchTable table, Chunk chunk) {
+        if (!table.isAssignKey()) {
+            return;
+        }
+        int missing = 0;
+        for (Object[] values : chunk.values) {
+            if (values[0] == null) {
+                missing++;
+            }
+        }
+        if (missing == 0) {
+            return;
+        }
+        boolean numeric = Number.class.isAssignableFrom(table.getKeyType());
+        long[] ids = table.getIdType() == IdType.ASSIGN_ID && identifierGenerator instanceof CustomIdGenerator customIdGenerator
+                ? customIdGenerator.nextIds(missing)
+                : null;
+        int next = 0;
+        for (int row = 0; row < chunk.size(); row++) {
+            Object[] values = chunk.values.get(row);
+            if (values[0] != null) {
+                continue;
+            }
+            Object entity = chunk.entities.get(row);
+            Object key;
+            if (table.getIdType() == IdType.ASSIGN_UUID) {
+                key = identifierGenerator.nextUUID(entity);
+            } else {
+                Number id = ids != null ? ids[next++] : identifierGenerator.nextId(entity);
+                key = numeric ? id.longValue() : id.toString();
+            }
+            table.setKey(entity, key);
+            values[0] = key;
+        }
+    }
+
+    private void readGeneratedKeys(PreparedStatement ps, BatchTable table, Chunk chunk) throws SQLException {
+        Class<?> keyType = table.getKeyType();
+        try (ResultSet keys = ps.getGeneratedKeys()) {
+            for (int row = 0; row < chunk.size() && keys.next(); row++) {
+                Object key = keyType == Integer.class ? (Object) keys.getInt(1)
+                        : keyType == String.class ? keys.getString(1)
+                        : (Object) keys.getLong(1);
+                table.setKey(chunk.entities.get(row), key);
+            }
+        }
+    }
+
+    /**
+     * 拼接多行INSERT，列为实体的全部列，为空的值写为DEFAULT，其余为占位符
+     *
+     * @param table         实体元数据
+     * @param rows          各行的列值，upsert时同一分块内更新列的空值分布相同
+     * @param updateColumns 冲突时更新的列，为null时为普通插入
+     * @return SQL
+     */
+    static String buildSql(BatchTable table, List<Object[]> rows, BitSet updateColumns) {
+        List<BatchTable.Column> columns = table.getColumns();
+        int columnCount = columns.size();
+        StringBuilder sql = new StringBuilder(64 + columnCount * 16 + rows.size() * (columnCount * 2 + 3));
+        sql.append("INSERT INTO ").append(table.getTableName()).append(" (");
+        for (BatchTable.Column column : columns) {
+            sql.append(column.name).append(',');
+        }
+        sql.setLength(sql.length() - 1);
+        sql.append(") VALUES ");
+        for (int row = 0; row < rows.size(); row++) {
+            Object[] values = rows.get(row);
+            sql.append(row == 0 ? "(" : ",(");
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    sql.append(',');
+                }
+                sql.append(values[i] != null ? "?" : "DEFAULT");
+            }
+            sql.append(')');
+        }
+        if (updateColumns != null) {
+            sql.append(" ON DUPLICATE KEY UPDATE ");
+            int length = sql.length();
+            Object[] first = rows.get(0);
+            for (int i = updateColumns.nextSetBit(0); i >= 0; i = updateColumns.nextSetBit(i + 1)) {
+                // 为空的列保持原值
+                if (first[i] != null) {
+                    String name = columns.get(i).name;
+                    sql.append(name).append("=VALUES(").append(name).append("),");
+                }
+            }
+            if (sql.length() == length) {
+                // 没有可更新的列时相当于INSERT IGNORE，但不会吞掉其它错误
+                String key = columns.get(0).name;
+                sql.append(key).append('=').append(key);
+            } else {
+                sql.setLength(sql.length() - 1);
+            }
+        }
+        return sql.toString();
+    }
+
+    // 按客户端预编译展开后的SQL估算：字符串按UTF-8最多3字节并计入转义，二进制按十六进制
+    private static long estimateBytes(Object[] values) {
+        long bytes = 3;
+        for (Object value : values) {
+            if (value == null) {
+                bytes += 8;
+                continue;
+            }
+            if (value instanceof CharSequence text) {
+                bytes += text.length() * 3L + 3;
+            } else if (value instanceof byte[] binary) {
+                bytes += binary.length * 2L + 4;
+            } else {
+                bytes += FIXED_VALUE_BYTES;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * 当前分块：决定分块边界的列空值分布相同、行数和字节数未超限的连续行
+     */
+    private final class Chunk {
+
+        private final List<Object> entities = new ArrayList<>();
+
+        private final List<Object[]> values = new ArrayList<>();
+
+        private final BitSet mask = new BitSet();
+
+        // 所有列位置固定，按列数计算占位符上限下的最大行数
+        private final int rowLimit;
+
+        private long bytes;
+
+        private Chunk(int columnCount) {
+            this.rowLimit = Math.min(maxRows, Math.max(1, MAX_PLACEHOLDERS / Math.max(1, columnCount)));
+        }
+
+        void start(BitSet rowMask) {
+            mask.clear();
+            mask.or(rowMask);
+        }
+
+        boolean accepts(BitSet rowMask, long rowBytes) {
+            return entities.size() < rowLimit && bytes + rowBytes <= maxBytes && mask.equals(rowMask);
+        }
+
+        void add(Object entity, Object[] row, long rowBytes) {
+            entities.add(entity);
+            values.add(row);
+            bytes += rowBytes;
+        }
+
+        int size() {
+            return entities.size();
+        }
+
+        boolean isEmpty() {
+            return entities.isEmpty();
+        }
+
+        void clear() {
+            entities.clear();
+            values.clear();
+            bytes = 0;
+        }
+    }
+}
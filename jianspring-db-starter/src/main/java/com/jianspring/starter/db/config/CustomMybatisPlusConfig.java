@@ -1,19 +1,41 @@
 package com.jianspring.starter.db.config;
 
+import cn.hutool.core.util.IdUtil;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
-import com.baomidou.mybatisplus.extension.plugins.handler.TenantLineHandler;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
-import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
-import com.jianspring.starter.commons.UserContextUtils;
+import com.jianspring.starter.db.batch.BatchWriter;
 import com.jianspring.starter.db.fill.CustomMetaObjectHandler;
 import com.jianspring.starter.db.id.CustomIdGenerator;
-import net.sf.jsqlparser.expression.Expression;
-import net.sf.jsqlparser.expression.StringValue;
+import com.jianspring.starter.db.id.JdbcSegmentAllocator;
+import com.jianspring.starter.db.id.RedisSegmentAllocator;
+import com.jianspring.starter.db.id.RedisWorkerIdLease;
+import com.jianspring.starter.db.id.SegmentAllocator;
+import com.jianspring.starter.db.id.SegmentIdGenerator;
+import com.jianspring.starter.db.id.SnowflakeIdGenerator;
+import com.jianspring.starter.db.page.CachingPaginationInnerInterceptor;
+import com.jianspring.starter.db.page.CaffeineCountCache;
+import com.jianspring.starter.db.page.CountCache;
+import com.jianspring.starter.db.page.KeysetPaginator;
+import com.jianspring.starter.db.page.OffsetPaginator;
+import com.jianspring.starter.db.page.RedisCountCache;
+import com.jianspring.starter.db.routing.ReplicaRouter;
+import com.jianspring.starter.db.tenant.CachingTenantLineInnerInterceptor;
+import com.jianspring.starter.db.tenant.JianTenantLineHandler;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import javax.sql.DataSource;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @Author: InfoInsights
@@ -21,11 +43,52 @@ import org.springframework.context.annotation.Configuration;
  * @Version: 1.0.0
  */
 @Configuration
+@AutoConfigureAfter(name = "org.springframework.boot.autoconfigure.data.redis.RedisAutoConfiguration")
+@EnableConfigurationProperties(JianDbProperties.class)
 public class CustomMybatisPlusConfig {
 
+    private final JianDbProperties properties;
+
+    public CustomMybatisPlusConfig(JianDbProperties properties) {
+        this.properties = properties;
+    }
+
     @Bean
-    IdentifierGenerator identifierGenerator() {
-        return new CustomIdGenerator();
+    IdentifierGenerator identifierGenerator(ObjectProvider<RedisWorkerIdLease> workerIdLease,
+                                            ObjectProvider<SegmentAllocator> segmentAllocator) {
+        CustomIdGenerator customIdGenerator = new CustomIdGenerator(snowflakeIdGenerator(workerIdLease.getIfAvailable()));
+        JianDbProperties.Segment segment = properties.getId().getSegment();
+        if (segment.getTables().isEmpty()) {
+            return customIdGenerator;
+        }
+        SegmentAllocator allocator = segmentAllocator.getIfAvailable();
+        if (allocator == null) {
+            throw new IllegalStateException("已配置号段模式的表，但未找到号段存储: " + segment.getStore());
+        }
+        return new SegmentIdGenerator(allocator, customIdGenerator, segment.getTables(), segment.getStep(),
+                segment.getMaxStep(), segment.getPrefetchRatio(), segment.getSegmentDuration().toMillis());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(SegmentAllocator.class)
+    @ConditionalOnProperty(prefix = "jianspring.db.id.segment", name = "store", havingValue = "jdbc", matchIfMissing = true)
+    public JdbcSegmentAllocator jdbcSegmentAllocator(DataSource dataSource) {
+        return new JdbcSegmentAllocator(dataSource, properties.getId().getSegment().getTableName());
+    }
+
+    // 机器ID优先级：Redis租约 > 配置 > 按MAC/PID计算，只在启动时确定一次
+    private SnowflakeIdGenerator snowflakeIdGenerator(RedisWorkerIdLease workerIdLease) {
+        JianDbProperties.Id config = properties.getId();
+        if (workerIdLease != null) {
+            return new SnowflakeIdGenerator(workerIdLease, config.getMaxClockBackward().toMillis(), TimeUnit.MILLISECONDS);
+        }
+        long dataCenterId = config.getDataCenterId() != null
+                ? config.getDataCenterId()
+                : IdUtil.getDataCenterId(SnowflakeIdGenerator.MAX_DATA_CENTER_ID);
+        long workerId = config.getWorkerId() != null
+                ? config.getWorkerId()
+                : IdUtil.getWorkerId(dataCenterId, SnowflakeIdGenerator.MAX_WORKER_ID);
+        return new SnowflakeIdGenerator(workerId, dataCenterId, config.getMaxClockBackward().toMillis(), TimeUnit.MILLISECONDS);
     }
 
     @Bean
@@ -35,35 +98,98 @@ public class CustomMybatisPlusConfig {
 
     @Bean
     @ConditionalOnMissingBean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public KeysetPaginator keysetPaginator(DataSource dataSource, ObjectProvider<CountCache> countCache) {
+        JianDbProperties.Tenant tenant = properties.getTenant();
+        return new KeysetPaginator(dataSource,
+                tenant.isEnabled() ? new JianTenantLineHandler(tenant.getColumn(), tenant.getIgnoreTables()) : null,
+                countCache.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OffsetPaginator offsetPaginator(ObjectProvider<CountCache> countCache) {
+        return new OffsetPaginator(countCache.getIfAvailable(), properties.getPage().isParallelCount());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public BatchWriter batchWriter(DataSource dataSource, IdentifierGenerator identifierGenerator,
+                                   ObjectProvider<ReplicaRouter> replicaRouter) {
+        JianDbProperties.Tenant tenant = properties.getTenant();
+        JianDbProperties.Batch batch = properties.getBatch();
+        return new BatchWriter(dataSource, identifierGenerator,
+                tenant.isEnabled() ? new JianTenantLineHandler(tenant.getColumn(), tenant.getIgnoreTables()) : null,
+                replicaRouter.getIfAvailable(), batch.getMaxRows(), batch.getMaxBytes().toBytes());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public MybatisPlusInterceptor mybatisPlusInterceptor(ObjectProvider<CountCache> countCache) {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
 
-        interceptor.addInnerInterceptor(new TenantLineInnerInterceptor(new TenantLineHandler() {
-            @Override
-            public Expression getTenantId() {
-                // 进行空指针检查，确保 UserContextUtils.get() 和 tenantId 不为 null
-                UserContextUtils.UserContext userContext = UserContextUtils.get();
-                if (userContext != null && userContext.getTenantId() != null) {
-                    return new StringValue(userContext.getTenantId().toString());
-                } else {
-                    // 当 userContext 或 tenantId 为 null 时，返回一个默认值或处理逻辑
-                    return new StringValue("0"); // 你可以根据业务逻辑返回适当的默认值
-                }
-            }
+        JianDbProperties.Tenant tenant = properties.getTenant();
+        if (tenant.isEnabled()) {
+            interceptor.addInnerInterceptor(new CachingTenantLineInnerInterceptor(
+                    new JianTenantLineHandler(tenant.getColumn(), tenant.getIgnoreTables()), tenant.getMaxCachedStatements()));
+        }
 
-            @Override
-            public String getTenantIdColumn() {
-                return "tenant_id";
-            }
+        CountCache cache = countCache.getIfAvailable();
+        interceptor.addInnerInterceptor(cache != null
+                ? new CachingPaginationInnerInterceptor(DbType.MYSQL, cache)
+                : new PaginationInnerInterceptor(DbType.MYSQL));
+        return interceptor;
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.data.redis.core.StringRedisTemplate")
+    @ConditionalOnProperty(prefix = "jianspring.db.id.worker-id-lease", name = "enabled", havingValue = "true")
+    static class WorkerIdLeaseConfiguration {
 
-            @Override
-            public boolean ignoreTable(String tableName) {
-                return false;
+        @Bean(initMethod = "start", destroyMethod = "close")
+        @ConditionalOnBean(StringRedisTemplate.class)
+        public RedisWorkerIdLease redisWorkerIdLease(StringRedisTemplate stringRedisTemplate, JianDbProperties properties) {
+            JianDbProperties.WorkerIdLease config = properties.getId().getWorkerIdLease();
+            return new RedisWorkerIdLease(stringRedisTemplate, config.getKeyPrefix(), config.getTtl());
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(prefix = "jianspring.db.page.count-cache", name = "enabled", havingValue = "true")
+    static class CountCacheConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(CountCache.class)
+        @ConditionalOnProperty(prefix = "jianspring.db.page.count-cache", name = "store", havingValue = "caffeine", matchIfMissing = true)
+        public CaffeineCountCache caffeineCountCache(JianDbProperties properties) {
+            JianDbProperties.CountCache config = properties.getPage().getCountCache();
+            return new CaffeineCountCache(config.getTtl(), config.getMaximumSize());
+        }
+
+        @Configuration
+        @ConditionalOnClass(name = "org.springframework.data.redis.core.StringRedisTemplate")
+        @ConditionalOnProperty(prefix = "jianspring.db.page.count-cache", name = "store", havingValue = "redis")
+        static class RedisCountCacheConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean(CountCache.class)
+            @ConditionalOnBean(StringRedisTemplate.class)
+            public RedisCountCache redisCountCache(StringRedisTemplate stringRedisTemplate, JianDbProperties properties) {
+                JianDbProperties.CountCache config = properties.getPage().getCountCache();
+                return new RedisCountCache(stringRedisTemplate, config.getKeyPrefix(), config.getTtl());
             }
-        }));
+        }
+    }
 
-        interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
-        return interceptor;
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.data.redis.core.StringRedisTemplate")
+    @ConditionalOnProperty(prefix = "jianspring.db.id.segment", name = "store", havingValue = "redis")
+    static class RedisSegmentConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(SegmentAllocator.class)
+        public RedisSegmentAllocator redisSegmentAllocator(StringRedisTemplate stringRedisTemplate, JianDbProperties properties) {
+            return new RedisSegmentAllocator(stringRedisTemplate, properties.getId().getSegment().getRedisKeyPrefix());
+        }
     }
 
-}
\ No newline at end of file
+}
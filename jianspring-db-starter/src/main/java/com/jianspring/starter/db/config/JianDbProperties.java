@@ -0,0 +1,605 @@
+package com.jianspring.starter.db.config;
+
+import com.jianspring.starter.db.id.SegmentStoreEnum;
+import com.jianspring.starter.db.page.CountCacheStoreEnum;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DB starter 配置属性
+ */
+@ConfigurationProperties(prefix = "jianspring.db")
+public class JianDbProperties {
+
+    /**
+     * 雪花算法ID配置
+     */
+    private Id id = new Id();
+
+    /**
+     * 多租户隔离配置
+     */
+    private Tenant tenant = new Tenant();
+
+    /**
+     * 读写分离配置，基于dynamic-datasource的多数据源
+     */
+    private Routing routing = new Routing();
+
+    /**
+     * 分页配置
+     */
+    private Page page = new Page();
+
+    /**
+     * 批量写入配置
+     */
+    private Batch batch = new Batch();
+
+    public Id getId() {
+        return id;
+    }
+
+    public void setId(Id id) {
+        this.id = id;
+    }
+
+    public Tenant getTenant() {
+        return tenant;
+    }
+
+    public void setTenant(Tenant tenant) {
+        this.tenant = tenant;
+    }
+
+    public Routing getRouting() {
+        return routing;
+    }
+
+    public void setRouting(Routing routing) {
+        this.routing = routing;
+    }
+
+    public Page getPage() {
+        return page;
+    }
+
+    public void setPage(Page page) {
+        this.page = page;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public void setBatch(Batch batch) {
+        this.batch = batch;
+    }
+
+    /**
+     * 雪花算法ID配置
+     */
+    public static class Id {
+        /**
+         * 机器ID，0~31，为空时按MAC/PID计算，开启Redis租约时忽略
+         */
+        private Long workerId;
+
+        /**
+         * 数据中心ID，0~31，为空时按MAC计算，开启Redis租约时忽略
+         */
+        private Long dataCenterId;
+
+        /**
+         * 允许的最大时钟回拨，回拨期间沿用上次的时间戳继续递增，超出后生成ID抛出异常
+         */
+        private Duration maxClockBackward = Duration.ofSeconds(2);
+
+        /**
+         * 从Redis租用机器ID，保证多实例部署时不重复，需引入spring-data-redis
+         */
+        private WorkerIdLease workerIdLease = new WorkerIdLease();
+
+        /**
+         * 号段模式配置，配置了的表改用连续递增的ID
+         */
+        private Segment segment = new Segment();
+
+        public Long getWorkerId() {
+            return workerId;
+        }
+
+        public void setWorkerId(Long workerId) {
+            this.workerId = workerId;
+        }
+
+        public Long getDataCenterId() {
+            return dataCenterId;
+        }
+
+        public void setDataCenterId(Long dataCenterId) {
+            this.dataCenterId = dataCenterId;
+        }
+
+        public Duration getMaxClockBackward() {
+            return maxClockBackward;
+        }
+
+        public void setMaxClockBackward(Duration maxClockBackward) {
+            this.maxClockBackward = maxClockBackward;
+        }
+
+        public WorkerIdLease getWorkerIdLease() {
+            return workerIdLease;
+        }
+
+        public void setWorkerIdLease(WorkerIdLease workerIdLease) {
+            this.workerIdLease = workerIdLease;
+        }
+
+        public Segment getSegment() {
+            return segment;
+        }
+
+        public void setSegment(Segment segment) {
+            this.segment = segment;
+        }
+    }
+
+    /**
+     * 机器ID租约配置
+     */
+    public static class WorkerIdLease {
+        /**
+         * 是否从Redis租用机器ID
+         */
+        private boolean enabled = false;
+
+        /**
+         * 槽位key前缀，共用同一张表的服务需使用相同前缀
+         */
+        private String keyPrefix = "jianspring:snowflake:worker:";
+
+        /**
+         * 租约时长，实例宕机后槽位在该时长后被回收
+         */
+        private Duration ttl = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+    }
+
+    /**
+     * 号段模式配置
+     */
+    public static class Segment {
+        /**
+         * 使用号段模式的表名，为空时不启用
+         */
+        private List<String> tables = new ArrayList<>();
+
+        /**
+         * 号段存储
+         */
+        private SegmentStoreEnum store = SegmentStoreEnum.JDBC;
+
+        /**
+         * 号段表名，store为JDBC时使用
+         */
+        private String tableName = "jianspring_id_alloc";
+
+        /**
+         * 计数器key前缀，store为REDIS时使用
+         */
+        private String redisKeyPrefix = "jianspring:segment:";
+
+        /**
+         * 初始号段长度，也是号段长度的下限
+         */
+        private int step = 1000;
+
+        /**
+         * 号段长度上限
+         */
+        private int maxStep = 100000;
+
+        /**
+         * 当前号段使用超过该比例时异步预取下一号段
+         */
+        private double prefetchRatio = 0.1;
+
+        /**
+         * 期望一个号段的使用时长，消耗更快时加大号段，更慢时缩小号段
+         */
+        private Duration segmentDuration = Duration.ofMinutes(15);
+
+        public List<String> getTables() {
+            return tables;
+        }
+
+        public void setTables(List<String> tables) {
+            this.tables = tables;
+        }
+
+        public SegmentStoreEnum getStore() {
+            return store;
+        }
+
+        public void setStore(SegmentStoreEnum store) {
+            this.store = store;
+        }
+
+        public String getTableName() {
+            return tableName;
+        }
+
+        public void setTableName(String tableName) {
+            this.tableName = tableName;
+        }
+
+        public String getRedisKeyPrefix() {
+            return redisKeyPrefix;
+        }
+
+        public void setRedisKeyPrefix(String redisKeyPrefix) {
+            this.redisKeyPrefix = redisKeyPrefix;
+        }
+
+        public int getStep() {
+            return step;
+        }
+
+        public void setStep(int step) {
+            this.step = step;
+        }
+
+        public int getMaxStep() {
+            return maxStep;
+        }
+
+        public void setMaxStep(int maxStep) {
+            this.maxStep = maxStep;
+        }
+
+        public double getPrefetchRatio() {
+            return prefetchRatio;
+        }
+
+        public void setPrefetchRatio(double prefetchRatio) {
+            this.prefetchRatio = prefetchRatio;
+        }
+
+        public Duration getSegmentDuration() {
+            return segmentDuration;
+        }
+
+        public void setSegmentDuration(Duration segmentDuration) {
+            this.segmentDuration = segmentDuration;
+        }
+    }
+
+    /**
+     * 多租户隔离配置
+     */
+    public static class Tenant {
+        /**
+         * 是否按租户字段自动改写SQL
+         */
+        private boolean enabled = true;
+
+        /**
+         * 租户字段
+         */
+        private String column = "tenant_id";
+
+        /**
+         * 不做租户隔离的表，如全局字典表；实体类也可标注 @TenantIgnore
+         */
+        private List<String> ignoreTables = new ArrayList<>();
+
+        /**
+         * 最多缓存的改写后SQL条数，超出后新的SQL每次重新解析
+         */
+        private int maxCachedStatements = 4096;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getColumn() {
+            return column;
+        }
+
+        public void setColumn(String column) {
+            this.column = column;
+        }
+
+        public List<String> getIgnoreTables() {
+            return ignoreTables;
+        }
+
+        public void setIgnoreTables(List<String> ignoreTables) {
+            this.ignoreTables = ignoreTables;
+        }
+
+        public int getMaxCachedStatements() {
+            return maxCachedStatements;
+        }
+
+        public void setMaxCachedStatements(int maxCachedStatements) {
+            this.maxCachedStatements = maxCachedStatements;
+        }
+    }
+
+    /**
+     * 读写分离配置
+     */
+    public static class Routing {
+        /**
+         * 是否启用读写分离，@ReadOnly 方法和只读事务的查询路由到从库
+         */
+        private boolean enabled = false;
+
+        /**
+         * 主库数据源名，与 spring.datasource.dynamic.primary 一致
+         */
+        private String primary = "master";
+
+        /**
+         * 从库数据源名 -> 权重
+         */
+        private Map<String, Integer> replicas = new LinkedHashMap<>();
+
+        /**
+         * 是否把 @Transactional(readOnly = true) 也路由到从库
+         */
+        private boolean readOnlyTransactions = true;
+
+        /**
+         * 请求内发生写操作后，剩余的查询是否都走主库
+         */
+        private boolean stickyPrimary = true;
+
+        /**
+         * 从库健康检查间隔
+         */
+        private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+        /**
+         * 允许的最大复制延迟，超过后暂时摘除该从库
+         */
+        private Duration maxLag = Duration.ofSeconds(5);
+
+        /**
+         * 查询复制延迟的SQL，为空时只检查连接；MySQL 8.0.22之前使用 SHOW SLAVE STATUS
+         */
+        private String lagQuery = "SHOW REPLICA STATUS";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getPrimary() {
+            return primary;
+        }
+
+        public void setPrimary(String primary) {
+            this.primary = primary;
+        }
+
+        public Map<String, Integer> getReplicas() {
+            return replicas;
+        }
+
+        public void setReplicas(Map<String, Integer> replicas) {
+            this.replicas = replicas;
+        }
+
+        public boolean isReadOnlyTransactions() {
+            return readOnlyTransactions;
+        }
+
+        public void setReadOnlyTransactions(boolean readOnlyTransactions) {
+            this.readOnlyTransactions = readOnlyTransactions;
+        }
+
+        public boolean isStickyPrimary() {
+            return stickyPrimary;
+        }
+
+        public void setStickyPrimary(boolean stickyPrimary) {
+            this.stickyPrimary = stickyPrimary;
+        }
+
+        public Duration getHealthCheckInterval() {
+            return healthCheckInterval;
+        }
+
+        public void setHealthCheckInterval(Duration healthCheckInterval) {
+            this.healthCheckInterval = healthCheckInterval;
+        }
+
+        public Duration getMaxLag() {
+            return maxLag;
+        }
+
+        public void setMaxLag(Duration maxLag) {
+            this.maxLag = maxLag;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+    }
+
+    /**
+     * 分页配置
+     */
+    public static class Page {
+        /**
+         * 不在事务中时，OffsetPaginator的COUNT是否与数据查询并行执行
+         */
+        private boolean parallelCount = true;
+
+        /**
+         * 分页总数缓存配置
+         */
+        private CountCache countCache = new CountCache();
+
+        public boolean isParallelCount() {
+            return parallelCount;
+        }
+
+        public void setParallelCount(boolean parallelCount) {
+            this.parallelCount = parallelCount;
+        }
+
+        public CountCache getCountCache() {
+            return countCache;
+        }
+
+        public void setCountCache(CountCache countCache) {
+            this.countCache = countCache;
+        }
+    }
+
+    /**
+     * 分页总数缓存配置
+     */
+    public static class CountCache {
+        /**
+         * 是否缓存分页总数，开启后TTL内的总数可能与实际略有出入
+         */
+        private boolean enabled = false;
+
+        /**
+         * 缓存存储
+         */
+        private CountCacheStoreEnum store = CountCacheStoreEnum.CAFFEINE;
+
+        /**
+         * 缓存时长
+         */
+        private Duration ttl = Duration.ofSeconds(10);
+
+        /**
+         * 本地缓存最大条目数
+         */
+        private long maximumSize = 10000;
+
+        /**
+         * Redis key前缀
+         */
+        private String keyPrefix = "jianspring:page:count:";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public CountCacheStoreEnum getStore() {
+            return store;
+        }
+
+        public void setStore(CountCacheStoreEnum store) {
+            this.store = store;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public String getKeyPrefix() {
+            return keyPrefix;
+        }
+
+        public void setKeyPrefix(String keyPrefix) {
+            this.keyPrefix = keyPrefix;
+        }
+    }
+
+    /**
+     * 批量写入配置
+     */
+    public static class Batch {
+        /**
+         * 每条INSERT语句的最大行数
+         */
+        private int maxRows = 1000;
+
+        /**
+         * 每条INSERT语句估算的最大大小，需小于数据库的max_allowed_packet
+         */
+        private DataSize maxBytes = DataSize.ofMegabytes(4);
+
+        public int getMaxRows() {
+            return maxRows;
+        }
+
+        public void setMaxRows(int maxRows) {
+            this.maxRows = maxRows;
+        }
+
+        public DataSize getMaxBytes() {
+            return maxBytes;
+        }
+
+        public void setMaxBytes(DataSize maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+    }
+}
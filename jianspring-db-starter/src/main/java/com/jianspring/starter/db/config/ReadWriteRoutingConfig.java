@@ -0,0 +1,63 @@
+package com.jianspring.starter.db.config;
+
+import com.jianspring.starter.db.routing.PrimaryWriteInterceptor;
+import com.jianspring.starter.db.routing.ReadOnly;
+import com.jianspring.starter.db.routing.ReadOnlyRoutingInterceptor;
+import com.jianspring.starter.db.routing.ReplicaRouter;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.ComposablePointcut;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+
+/**
+ * 读写分离：@ReadOnly 方法和只读事务路由到从库，写操作和读写事务走主库
+ */
+@Configuration
+@ConditionalOnClass(name = "com.baomidou.dynamic.datasource.DynamicRoutingDataSource")
+@ConditionalOnProperty(prefix = "jianspring.db.routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(JianDbProperties.class)
+public class ReadWriteRoutingConfig {
+
+    private final JianDbProperties.Routing routing;
+
+    public ReadWriteRoutingConfig(JianDbProperties properties) {
+        this.routing = properties.getRouting();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public ReplicaRouter replicaRouter(DataSource dataSource) {
+        return new ReplicaRouter(dataSource, routing.getPrimary(), routing.getReplicas(), routing.getHealthCheckInterval(),
+                routing.getMaxLag(), routing.getLagQuery());
+    }
+
+    // 排在@DS之后、事务拦截器之前，显式指定的数据源优先，事务开启时已确定路由
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public Advisor readOnlyRoutingAdvisor(ReplicaRouter replicaRouter) {
+        // @Transactional 始终拦截：只读方法内调用的读写事务需要切回主库
+        ComposablePointcut pointcut = new ComposablePointcut(new AnnotationMatchingPointcut(ReadOnly.class, true))
+                .union(new AnnotationMatchingPointcut(null, ReadOnly.class, true))
+                .union(new AnnotationMatchingPointcut(Transactional.class, true))
+                .union(new AnnotationMatchingPointcut(null, Transactional.class, true));
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(pointcut,
+                new ReadOnlyRoutingInterceptor(replicaRouter, routing.isReadOnlyTransactions(), routing.isStickyPrimary()));
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return advisor;
+    }
+
+    @Bean
+    public PrimaryWriteInterceptor primaryWriteInterceptor(ReplicaRouter replicaRouter) {
+        return new PrimaryWriteInterceptor(replicaRouter, routing.isStickyPrimary());
+    }
+}
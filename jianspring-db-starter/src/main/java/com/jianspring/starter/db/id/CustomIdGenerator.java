@@ -1,6 +1,5 @@
 package com.jianspring.starter.db.id;
 
-import cn.hutool.core.util.IdUtil;
 import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
 
 /**
@@ -10,11 +9,30 @@ import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
  */
 public class CustomIdGenerator implements IdentifierGenerator {
 
+    // 机器ID在启动时确定，生成器全局唯一
+    private final SnowflakeIdGenerator snowflake;
+
+    public CustomIdGenerator(SnowflakeIdGenerator snowflake) {
+        this.snowflake = snowflake;
+    }
+
     @Override
     public Number nextId(Object entity) {
-        long dataCenterId = IdUtil.getDataCenterId(31L);
-        long workerId = IdUtil.getWorkerId(dataCenterId, 31L);
-        return IdUtil.getSnowflake(workerId, dataCenterId).nextId();
+        return snowflake.nextId();
+    }
+
+    /**
+     * 批量分配ID，一次CAS得到连续的n个ID
+     *
+     * @param n 数量
+     * @return 递增的ID数组
+     */
+    public long[] nextIds(int n) {
+        return snowflake.nextIds(n);
+    }
+
+    public SnowflakeIdGenerator getSnowflake() {
+        return snowflake;
     }
 
 }
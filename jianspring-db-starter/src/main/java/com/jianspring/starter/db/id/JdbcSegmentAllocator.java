@@ -0,0 +1,97 @@
+package com.jianspring.starter.db.id;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+
+/**
+ * 基于数据库表的号段存储，每个业务标识一行，更新和读取在同一个事务中完成
+ * <p>
+ * 使用独立连接提交，不参与调用方的事务。表结构：
+ * <pre>
+ * CREATE TABLE jianspring_id_alloc (
+ *     biz_tag     VARCHAR(128) NOT NULL PRIMARY KEY,
+ *     max_id      BIGINT       NOT NULL,
+ *     update_time DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+ * );
+ * </pre>
+ * 业务标识不存在时自动插入，已有数据的表可预先插入 max_id 为当前最大ID的行，号段从其后开始。
+ */
+public class JdbcSegmentAllocator implements SegmentAllocator {
+
+    private final DataSource dataSource;
+
+    private final String updateSql;
+
+    private final String selectSql;
+
+    private final String insertSql;
+
+    /**
+     * @param dataSource 数据源
+     * @param tableName  号段表名
+     */
+    public JdbcSegmentAllocator(DataSource dataSource, String tableName) {
+        this.dataSource = dataSource;
+        this.updateSql = "UPDATE " + tableName + " SET max_id = max_id + ? WHERE biz_tag = ?";
+        this.selectSql = "SELECT max_id FROM " + tableName + " WHERE biz_tag = ?";
+        this.insertSql = "INSERT INTO " + tableName + " (biz_tag, max_id) VALUES (?, ?)";
+    }
+
+    @Override
+    public long allocate(String bizTag, int step) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            try {
+                long max = allocate(connection, bizTag, step);
+                connection.commit();
+                return max;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("号段分配失败, bizTag=" + bizTag + ": " + e.getMessage(), e);
+        }
+    }
+
+    private long allocate(Connection connection, String bizTag, int step) throws SQLException {
+        if (update(connection, bizTag, step) == 0) {
+            try (PreparedStatement insert = connection.prepareStatement(insertSql)) {
+                insert.setString(1, bizTag);
+                insert.setLong(2, step);
+                insert.executeUpdate();
+                return step;
+            } catch (SQLIntegrityConstraintViolationException e) {
+                // 其它实例已插入，回滚后重新更新
+                connection.rollback();
+                if (update(connection, bizTag, step) == 0) {
+                    throw e;
+                }
+            }
+        }
+        try (PreparedStatement select = connection.prepareStatement(selectSql)) {
+            select.setString(1, bizTag);
+            try (ResultSet resultSet = select.executeQuery()) {
+                if (!resultSet.next()) {
+                    throw new IllegalStateException("号段记录不存在, bizTag=" + bizTag);
+                }
+                return resultSet.getLong(1);
+            }
+        }
+    }
+
+    private int update(Connection connection, String bizTag, int step) throws SQLException {
+        try (PreparedStatement update = connection.prepareStatement(updateSql)) {
+            update.setLong(1, step);
+            update.setString(2, bizTag);
+            return update.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.jianspring.starter.db.id;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * 基于Redis INCRBY的号段存储，每个业务标识一个计数器key
+ * <p>
+ * 需开启AOF持久化，否则Redis重启后计数器回退会产生重复ID。
+ */
+public class RedisSegmentAllocator implements SegmentAllocator {
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String keyPrefix;
+
+    public RedisSegmentAllocator(StringRedisTemplate redisTemplate, String keyPrefix) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+    }
+
+    @Override
+    public long allocate(String bizTag, int step) {
+        Long max = redisTemplate.opsForValue().increment(keyPrefix + bizTag, step);
+        if (max == null) {
+            throw new IllegalStateException("号段分配失败, bizTag=" + bizTag);
+        }
+        return max;
+    }
+}
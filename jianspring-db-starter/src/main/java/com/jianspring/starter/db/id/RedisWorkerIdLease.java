@@ -0,0 +1,160 @@
+package com.jianspring.starter.db.id;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从Redis租用雪花算法的数据中心ID和机器ID，保证同一时刻各实例的组合唯一
+ * <p>
+ * 1024个槽位（dataCenterId * 32 + workerId）各对应一个key，启动时从随机位置开始用 SET NX PX 抢占，
+ * 之后每隔 ttl/3 续期，关闭时删除。实例宕机后槽位在 ttl 后被回收。
+ * <p>
+ * 超过 ttl 未续期成功，或槽位已被其它实例占用时租约失效，{@link #isValid()} 返回false，ID生成随之失败；
+ * 之后续期或重新占回成功即恢复。
+ */
+public class RedisWorkerIdLease implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisWorkerIdLease.class);
+
+    private static final int SLOTS = (int) ((SnowflakeIdGenerator.MAX_DATA_CENTER_ID + 1) * (SnowflakeIdGenerator.MAX_WORKER_ID + 1));
+
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) end return 0", Long.class);
+
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end return 0", Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String keyPrefix;
+
+    private final Duration ttl;
+
+    private final String owner = UUID.randomUUID().toString();
+
+    private int slot = -1;
+
+    // 最近一次续期成功后租约的到期时间（System.nanoTime）
+    private volatile long validUntilNanos;
+
+    // 槽位已被其它实例占用
+    private volatile boolean lost;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param redisTemplate redis
+     * @param keyPrefix     槽位key前缀，不同ID空间使用不同前缀
+     * @param ttl           租约时长
+     */
+    public RedisWorkerIdLease(StringRedisTemplate redisTemplate, String keyPrefix, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.ttl = ttl;
+    }
+
+    /**
+     * 抢占一个空闲槽位并开始续期
+     */
+    public synchronized void start() {
+        if (slot >= 0) {
+            return;
+        }
+        int offset = ThreadLocalRandom.current().nextInt(SLOTS);
+        for (int i = 0; i < SLOTS; i++) {
+            int candidate = (offset + i) % SLOTS;
+            long requestNanos = System.nanoTime();
+            Boolean acquired = redisTemplate.opsForValue().setIfAbsent(key(candidate), owner, ttl);
+            if (Boolean.TRUE.equals(acquired)) {
+                slot = candidate;
+                validUntilNanos = requestNanos + ttl.toNanos();
+                break;
+            }
+        }
+        if (slot < 0) {
+            throw new IllegalStateException("雪花算法机器ID已全部被占用, keyPrefix=" + keyPrefix);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jianspring-worker-id-lease");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1L, ttl.toMillis() / 3);
+        scheduler.scheduleAtFixedRate(this::renew, period, period, TimeUnit.MILLISECONDS);
+        log.info("租用雪花算法机器ID成功, dataCenterId={}, workerId={}", getDataCenterId(), getWorkerId());
+    }
+
+    public long getDataCenterId() {
+        return slot / (SnowflakeIdGenerator.MAX_WORKER_ID + 1);
+    }
+
+    public long getWorkerId() {
+        return slot % (SnowflakeIdGenerator.MAX_WORKER_ID + 1);
+    }
+
+    /**
+     * @return 租约是否仍由本实例持有且未过期
+     */
+    public boolean isValid() {
+        return slot >= 0 && !lost && System.nanoTime() - validUntilNanos < 0;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        if (slot < 0) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, Collections.singletonList(key(slot)), owner);
+        } catch (Exception e) {
+            log.warn("释放雪花算法机器ID失败，等待过期: {}", e.getMessage());
+        }
+    }
+
+    void renew() {
+        try {
+            // 以发出请求的时间计算到期时间，不把请求耗时算进租期
+            long requestNanos = System.nanoTime();
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, Collections.singletonList(key(slot)), owner,
+                    String.valueOf(ttl.toMillis()));
+            if (renewed != null && renewed == 1L) {
+                validUntilNanos = requestNanos + ttl.toNanos();
+                lost = false;
+                return;
+            }
+            // 租约已过期（如长时间GC或网络中断），槽位空闲时重新占回；被其它实例占用时停止生成ID，直到对方释放后占回
+            Boolean reacquired = redisTemplate.opsForValue().setIfAbsent(key(slot), owner, ttl);
+            if (Boolean.TRUE.equals(reacquired)) {
+                validUntilNanos = requestNanos + ttl.toNanos();
+                lost = false;
+                log.warn("雪花算法机器ID租约过期后已重新占回, dataCenterId={}, workerId={}", getDataCenterId(), getWorkerId());
+                return;
+            }
+            if (!lost) {
+                log.error("雪花算法机器ID租约已被其它实例占用，停止生成ID, dataCenterId={}, workerId={}",
+                        getDataCenterId(), getWorkerId());
+            }
+            lost = true;
+        } catch (Exception e) {
+            log.warn("雪花算法机器ID续期失败: {}", e.getMessage());
+        }
+    }
+
+    private String key(int candidate) {
+        return keyPrefix + candidate;
+    }
+}
@@ -0,0 +1,16 @@
+package com.jianspring.starter.db.id;
+
+/**
+ * 号段分配的存储，每次调用预留一段连续的ID
+ */
+public interface SegmentAllocator {
+
+    /**
+     * 把业务标识的最大ID增加step并返回增加后的值，本次预留的号段为 (返回值 - step, 返回值]
+     *
+     * @param bizTag 业务标识，通常为表名
+     * @param step   号段长度
+     * @return 号段的最大ID
+     */
+    long allocate(String bizTag, int step);
+}
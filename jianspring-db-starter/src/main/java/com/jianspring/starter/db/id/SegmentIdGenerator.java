@@ -0,0 +1,220 @@
+package com.jianspring.starter.db.id;
+
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * 号段模式ID生成器（Leaf-segment），生成连续递增的ID
+ * <p>
+ * 每个业务标识（表名）在本地持有一个号段，分配ID只是一次原子自增；号段使用超过 prefetchRatio 时
+ * 异步预取下一号段，当前号段用完时直接切换，存储的访问次数降为每个号段一次。
+ * 号段长度随消耗速度调整：一个号段在 segmentDuration 内用完则翻倍（不超过 maxStep），用时超过两倍则减半（不低于 step）。
+ * <p>
+ * 单实例内ID严格递增；多实例时各自持有不同号段，整体趋势递增。实例重启后未用完的号段被丢弃，ID会出现空洞。
+ * 未配置号段的表交给 fallback 生成器（雪花算法）。
+ */
+public class SegmentIdGenerator implements IdentifierGenerator, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(SegmentIdGenerator.class);
+
+    private final SegmentAllocator allocator;
+
+    private final IdentifierGenerator fallback;
+
+    private final Set<String> tables;
+
+    private final int minStep;
+
+    private final int maxStep;
+
+    private final double prefetchRatio;
+
+    private final long segmentDurationNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final Map<String, SegmentBuffer> buffers = new ConcurrentHashMap<>();
+
+    // 号段统一在加载线程中申请，不受调用线程上的数据源切换和事务影响
+    private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "jianspring-segment-loader");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * @param allocator       号段存储
+     * @param fallback        未配置号段的表使用的生成器
+     * @param tables          使用号段模式的表名
+     * @param step            初始号段长度，也是号段长度的下限
+     * @param maxStep         号段长度上限
+     * @param prefetchRatio   当前号段使用超过该比例时预取下一号段
+     * @param segmentDuration 期望一个号段的使用时长，单位毫秒
+     */
+    public SegmentIdGenerator(SegmentAllocator allocator, IdentifierGenerator fallback, Collection<String> tables,
+                              int step, int maxStep, double prefetchRatio, long segmentDuration) {
+        this(allocator, fallback, tables, step, maxStep, prefetchRatio, segmentDuration, System::nanoTime);
+    }
+
+    SegmentIdGenerator(SegmentAllocator allocator, IdentifierGenerator fallback, Collection<String> tables,
+                       int step, int maxStep, double prefetchRatio, long segmentDuration, LongSupplier nanoClock) {
+        this.allocator = allocator;
+        this.fallback = fallback;
+        this.tables = tables.stream().map(t -> t.toLowerCase(Locale.ROOT)).collect(Collectors.toUnmodifiableSet());
+        this.minStep = Math.max(1, step);
+        this.maxStep = Math.max(this.minStep, maxStep);
+        this.prefetchRatio = prefetchRatio;
+        this.segmentDurationNanos = segmentDuration * 1_000_000L;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Number nextId(Object entity) {
+        String tableName = tableName(entity);
+        if (tableName == null || !tables.contains(tableName)) {
+            return fallback.nextId(entity);
+        }
+        return nextId(tableName);
+    }
+
+    /**
+     * 按业务标识分配ID，不要求业务标识在 tables 中
+     *
+     * @param bizTag 业务标识
+     * @return ID
+     */
+    public long nextId(String bizTag) {
+        SegmentBuffer buffer = buffers.computeIfAbsent(bizTag, SegmentBuffer::new);
+        while (true) {
+            Segment segment = buffer.current;
+            if (segment == null) {
+                buffer.switchSegment(null);
+                continue;
+            }
+            long id = segment.value.getAndIncrement();
+            if (id <= segment.max) {
+                // 每个ID只分配一次，恰好一个线程触发预取
+                if (id == segment.prefetchAt) {
+                    buffer.prefetch();
+                }
+                return id;
+            }
+            buffer.switchSegment(segment);
+        }
+    }
+
+    @Override
+    public void close() {
+        loader.shutdownNow();
+    }
+
+    private static String tableName(Object entity) {
+        if (entity == null) {
+            return null;
+        }
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entity.getClass());
+        return tableInfo == null ? null : tableInfo.getTableName().toLowerCase(Locale.ROOT);
+    }
+
+    private final class SegmentBuffer {
+
+        private final String bizTag;
+
+        private volatile Segment current;
+
+        // 预取中或已预取的下一号段
+        private CompletableFuture<Segment> next;
+
+        private int step = minStep;
+
+        private long loadedNanos;
+
+        private boolean loaded;
+
+        private SegmentBuffer(String bizTag) {
+            this.bizTag = bizTag;
+        }
+
+        synchronized void prefetch() {
+            if (next == null) {
+                next = load();
+            }
+        }
+
+        // 当前号段用完时切换到下一号段，已被其它线程切换时直接返回
+        synchronized void switchSegment(Segment exhausted) {
+            if (current != exhausted) {
+                return;
+            }
+            CompletableFuture<Segment> pending = next != null ? next : load();
+            next = null;
+            try {
+                current = pending.join();
+            } catch (CompletionException e) {
+                // 预取失败时同步重试一次，仍失败则抛给调用方
+                log.warn("号段预取失败，重新加载, bizTag={}: {}", bizTag, e.getCause().getMessage());
+                try {
+                    current = load().join();
+                } catch (CompletionException retry) {
+                    throw retry.getCause() instanceof RuntimeException runtime ? runtime : retry;
+                }
+            }
+        }
+
+        private CompletableFuture<Segment> load() {
+            adjustStep();
+            int segmentStep = step;
+            return CompletableFuture.supplyAsync(() -> {
+                long max = allocator.allocate(bizTag, segmentStep);
+                return new Segment(max - segmentStep + 1, max, prefetchRatio);
+            }, loader);
+        }
+
+        // 按上一号段的消耗速度调整本次申请的长度
+        private void adjustStep() {
+            long now = nanoClock.getAsLong();
+            if (loaded) {
+                long elapsed = now - loadedNanos;
+                if (elapsed < segmentDurationNanos && step < maxStep) {
+                    step = (int) Math.min((long) step * 2, maxStep);
+                } else if (elapsed > segmentDurationNanos * 2 && step > minStep) {
+                    step = Math.max(step / 2, minStep);
+                }
+            }
+            loadedNanos = now;
+            loaded = true;
+        }
+    }
+
+    private static final class Segment {
+
+        private final AtomicLong value;
+
+        private final long max;
+
+        // 分配到该ID时开始预取下一号段
+        private final long prefetchAt;
+
+        private Segment(long min, long max, double prefetchRatio) {
+            this.value = new AtomicLong(min);
+            this.max = max;
+            this.prefetchAt = min + (long) ((max - min + 1) * prefetchRatio);
+        }
+    }
+}
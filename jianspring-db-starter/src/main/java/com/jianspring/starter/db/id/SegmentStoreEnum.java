@@ -0,0 +1,22 @@
+package com.jianspring.starter.db.id;
+
+/**
+ * 号段存储类型
+ */
+public enum SegmentStoreEnum {
+
+    JDBC("数据库号段表"),
+    REDIS("Redis INCRBY计数器"),
+    ;
+
+    private final String desc;
+
+    SegmentStoreEnum(String desc) {
+        this.desc = desc;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+}
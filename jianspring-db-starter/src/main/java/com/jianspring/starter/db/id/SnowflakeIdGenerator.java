@@ -0,0 +1,166 @@
+package com.jianspring.starter.db.id;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * 无锁雪花ID生成器
+ * <p>
+ * 位布局与起始时间与hutool的Snowflake一致（41位时间戳 + 5位数据中心 + 5位机器 + 12位序列），新旧ID可以混排且保持递增。
+ * 时间戳和序列合并存放在一个AtomicLong中，通过CAS推进：
+ * <ul>
+ *     <li>系统时间前进时，从新毫秒的序列0开始</li>
+ *     <li>同一毫秒内序列加一，序列用尽时进位到下一毫秒，即向未来借用时间</li>
+ *     <li>时钟回拨时继续沿用上次的时间戳递增，不会生成重复ID</li>
+ * </ul>
+ * 借用的时间超过 maxClockBackward 时抛出异常，避免长时间回拨后ID与未来的ID冲突。
+ * 机器ID来自 {@link RedisWorkerIdLease} 时，租约失效期间同样抛出异常，避免与接管该机器ID的实例生成重复ID。
+ */
+public class SnowflakeIdGenerator {
+
+    // 与hutool Snowflake.DEFAULT_TWEPOCH一致
+    public static final long DEFAULT_EPOCH = 1288834974657L;
+
+    public static final long MAX_WORKER_ID = 31L;
+
+    public static final long MAX_DATA_CENTER_ID = 31L;
+
+    private static final int SEQUENCE_BITS = 12;
+
+    private static final int WORKER_SHIFT = SEQUENCE_BITS;
+
+    private static final int DATA_CENTER_SHIFT = SEQUENCE_BITS + 5;
+
+    private static final int TIMESTAMP_SHIFT = SEQUENCE_BITS + 10;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long epoch;
+
+    private final long workerId;
+
+    private final long dataCenterId;
+
+    private final long nodeBits;
+
+    private final long maxClockBackwardMillis;
+
+    private final BooleanSupplier nodeValid;
+
+    private final LongSupplier clock;
+
+    // (时间戳 - epoch) << 12 | 序列，即上一个已分配的ID去掉机器位
+    private final AtomicLong state = new AtomicLong();
+
+    /**
+     * @param workerId         机器ID，0~31
+     * @param dataCenterId     数据中心ID，0~31
+     * @param maxClockBackward 允许的最大时钟回拨（含序列用尽时借用的时间）
+     */
+    public SnowflakeIdGenerator(long workerId, long dataCenterId, long maxClockBackward, TimeUnit unit) {
+        this(DEFAULT_EPOCH, workerId, dataCenterId, unit.toMillis(maxClockBackward));
+    }
+
+    /**
+     * 使用Redis租约的机器ID，租约失效期间拒绝生成ID
+     *
+     * @param lease            已启动的租约
+     * @param maxClockBackward 允许的最大时钟回拨（含序列用尽时借用的时间）
+     */
+    public SnowflakeIdGenerator(RedisWorkerIdLease lease, long maxClockBackward, TimeUnit unit) {
+        this(DEFAULT_EPOCH, lease.getWorkerId(), lease.getDataCenterId(), unit.toMillis(maxClockBackward), lease::isValid,
+                System::currentTimeMillis);
+    }
+
+    public SnowflakeIdGenerator(long epoch, long workerId, long dataCenterId, long maxClockBackwardMillis) {
+        this(epoch, workerId, dataCenterId, maxClockBackwardMillis, () -> true, System::currentTimeMillis);
+    }
+
+    SnowflakeIdGenerator(long epoch, long workerId, long dataCenterId, long maxClockBackwardMillis,
+                         BooleanSupplier nodeValid, LongSupplier clock) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId必须在0~" + MAX_WORKER_ID + "之间: " + workerId);
+        }
+        if (dataCenterId < 0 || dataCenterId > MAX_DATA_CENTER_ID) {
+            throw new IllegalArgumentException("dataCenterId必须在0~" + MAX_DATA_CENTER_ID + "之间: " + dataCenterId);
+        }
+        this.epoch = epoch;
+        this.workerId = workerId;
+        this.dataCenterId = dataCenterId;
+        this.nodeBits = (dataCenterId << DATA_CENTER_SHIFT) | (workerId << WORKER_SHIFT);
+        this.maxClockBackwardMillis = maxClockBackwardMillis;
+        this.nodeValid = nodeValid;
+        this.clock = clock;
+    }
+
+    /**
+     * 生成一个ID
+     *
+     * @return ID
+     */
+    public long nextId() {
+        return toId(reserve(1));
+    }
+
+    /**
+     * 一次CAS分配连续的n个ID，用于批量插入
+     *
+     * @param n 数量
+     * @return 递增的ID数组
+     */
+    public long[] nextIds(int n) {
+        if (n <= 0) {
+            return new long[0];
+        }
+        long first = reserve(n);
+        long[] ids = new long[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = toId(first + i);
+        }
+        return ids;
+    }
+
+    /**
+     * 从ID中解析生成时间
+     *
+     * @param id ID
+     * @return 毫秒时间戳
+     */
+    public long getGenerateTime(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + epoch;
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    public long getDataCenterId() {
+        return dataCenterId;
+    }
+
+    // 预留n个连续的状态值，返回第一个
+    private long reserve(int n) {
+        if (!nodeValid.getAsBoolean()) {
+            throw new IllegalStateException("机器ID租约已失效，暂停生成ID, dataCenterId=" + dataCenterId + ", workerId=" + workerId);
+        }
+        while (true) {
+            long current = state.get();
+            long now = clock.getAsLong() - epoch;
+            long first = now > (current >>> SEQUENCE_BITS) ? now << SEQUENCE_BITS : current + 1;
+            long last = first + n - 1;
+            long ahead = (last >>> SEQUENCE_BITS) - now;
+            if (ahead > maxClockBackwardMillis) {
+                throw new IllegalStateException("时钟回拨或ID分配过快，超出允许范围 " + maxClockBackwardMillis + "ms，当前领先 " + ahead + "ms");
+            }
+            if (state.compareAndSet(current, last)) {
+                return first;
+            }
+        }
+    }
+
+    private long toId(long value) {
+        return ((value >>> SEQUENCE_BITS) << TIMESTAMP_SHIFT) | nodeBits | (value & SEQUENCE_MASK);
+    }
+}
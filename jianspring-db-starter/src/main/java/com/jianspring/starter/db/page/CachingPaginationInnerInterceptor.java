@@ -0,0 +1,74 @@
+package com.jianspring.starter.db.page;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.ParameterUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 缓存COUNT结果的分页拦截器
+ * <p>
+ * 按 (MappedStatement ID, SQL, 参数值, 租户) 缓存总数，命中时不再执行COUNT。
+ * 租户拦截器排在分页拦截器之前，此时SQL已带上租户条件。
+ */
+public class CachingPaginationInnerInterceptor extends PaginationInnerInterceptor {
+
+    private final CountCache countCache;
+
+    public CachingPaginationInnerInterceptor(DbType dbType, CountCache countCache) {
+        super(dbType);
+        this.countCache = countCache;
+    }
+
+    @Override
+    public boolean willDoQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                               ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        IPage<?> page = ParameterUtils.findPage(parameter).orElse(null);
+        if (page == null || page.getSize() < 0 || !page.searchCount() || resultHandler != Executor.NO_RESULT_HANDLER) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+        String key = CountCache.key(ms.getId() + ":" + boundSql.getSql(), parameterValues(ms, parameter, boundSql));
+        Long total = countCache.get(key);
+        if (total != null) {
+            page.setTotal(total);
+            return continuePage(page);
+        }
+        boolean result = super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        countCache.put(key, page.getTotal());
+        return result;
+    }
+
+    // 与DefaultParameterHandler取参数值的方式一致
+    private static List<Object> parameterValues(MappedStatement ms, Object parameter, BoundSql boundSql) {
+        List<ParameterMapping> mappings = boundSql.getParameterMappings();
+        List<Object> values = new ArrayList<>(mappings.size());
+        MetaObject metaObject = null;
+        for (ParameterMapping mapping : mappings) {
+            String property = mapping.getProperty();
+            if (boundSql.hasAdditionalParameter(property)) {
+                values.add(boundSql.getAdditionalParameter(property));
+            } else if (parameter == null) {
+                values.add(null);
+            } else if (ms.getConfiguration().getTypeHandlerRegistry().hasTypeHandler(parameter.getClass())) {
+                values.add(parameter);
+            } else {
+                if (metaObject == null) {
+                    metaObject = ms.getConfiguration().newMetaObject(parameter);
+                }
+                values.add(metaObject.getValue(property));
+            }
+        }
+        return values;
+    }
+}
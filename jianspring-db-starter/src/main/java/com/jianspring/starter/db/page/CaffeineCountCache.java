@@ -0,0 +1,28 @@
+package com.jianspring.starter.db.page;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+
+/**
+ * 基于Caffeine的本地分页总数缓存
+ */
+public class CaffeineCountCache implements CountCache {
+
+    private final Cache<String, Long> cache;
+
+    public CaffeineCountCache(Duration ttl, long maximumSize) {
+        this.cache = Caffeine.newBuilder().expireAfterWrite(ttl).maximumSize(maximumSize).build();
+    }
+
+    @Override
+    public Long get(String key) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void put(String key, long total) {
+        cache.put(key, total);
+    }
+}
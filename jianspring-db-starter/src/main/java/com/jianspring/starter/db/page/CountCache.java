@@ -0,0 +1,40 @@
+package com.jianspring.starter.db.page;
+
+import com.jianspring.starter.commons.UserContextUtils;
+
+/**
+ * 分页总数缓存，短时间内相同条件的翻页复用同一个总数
+ * <p>
+ * key由语句、参数值和租户组成，同一租户同一查询条件命中同一条缓存。总数在TTL内可能与实际略有出入。
+ */
+public interface CountCache {
+
+    /**
+     * @param key 缓存key
+     * @return 缓存的总数，未命中时为null
+     */
+    Long get(String key);
+
+    /**
+     * @param key   缓存key
+     * @param total 总数
+     */
+    void put(String key, long total);
+
+    /**
+     * 生成缓存key
+     *
+     * @param statement 语句标识，如 MappedStatement ID + SQL
+     * @param params    按出现顺序排列的参数值
+     * @return 缓存key
+     */
+    static String key(String statement, Iterable<?> params) {
+        UserContextUtils.UserContext userContext = UserContextUtils.get();
+        StringBuilder key = new StringBuilder(statement.length() + 64);
+        key.append(userContext != null ? userContext.getTenantId() : null).append('|').append(statement);
+        for (Object param : params) {
+            key.append('|').append(param);
+        }
+        return key.toString();
+    }
+}
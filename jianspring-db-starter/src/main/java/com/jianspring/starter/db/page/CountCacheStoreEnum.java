@@ -0,0 +1,22 @@
+package com.jianspring.starter.db.page;
+
+/**
+ * 分页总数缓存的存储类型
+ */
+public enum CountCacheStoreEnum {
+
+    CAFFEINE("本地缓存，各实例独立"),
+    REDIS("Redis缓存，多实例共享"),
+    ;
+
+    private final String desc;
+
+    CountCacheStoreEnum(String desc) {
+        this.desc = desc;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+}
@@ -0,0 +1,151 @@
+package com.jianspring.starter.db.page;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * 游标分页的翻页令牌：上一页最后一行的 (排序字段值, 主键)，连同排序字段和方向一起编码
+ * <p>
+ * 格式为各字段URL安全Base64后以 . 连接，值带类型标记，解码后按原类型作为SQL参数绑定。
+ * 排序字段值可以为null；字段类型需满足 {@link #supports(Class)}。
+ */
+public final class KeysetCursor {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final String sortColumn;
+
+    private final boolean asc;
+
+    private final Object sortValue;
+
+    private final Object id;
+
+    public KeysetCursor(String sortColumn, boolean asc, Object sortValue, Object id) {
+        this.sortColumn = sortColumn;
+        this.asc = asc;
+        this.sortValue = sortValue;
+        this.id = id;
+    }
+
+    /**
+     * @param type 排序字段或主键的类型
+     * @return 是否可以编码到游标中
+     */
+    public static boolean supports(Class<?> type) {
+        return type == Long.class || type == long.class || type == Integer.class || type == int.class
+                || type == Short.class || type == short.class || type == Byte.class || type == byte.class
+                || type == Double.class || type == double.class || type == Float.class || type == float.class
+                || type == Boolean.class || type == boolean.class
+                || type == BigDecimal.class || type == String.class || type == LocalDateTime.class || type == LocalDate.class
+                || Date.class.isAssignableFrom(type);
+    }
+
+    public String encode() {
+        return String.join(".", encodePart(sortColumn), encodePart(asc ? "a" : "d"), encodeValue(sortValue), encodeValue(id));
+    }
+
+    /**
+     * @param token 翻页令牌
+     * @return 游标
+     * @throws IllegalArgumentException 令牌格式错误
+     */
+    public static KeysetCursor decode(String token) {
+        String[] parts = token.split("\\.", -1);
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("游标格式错误");
+        }
+        return new KeysetCursor(decodePart(parts[0]), "a".equals(decodePart(parts[1])), decodeValue(parts[2]), decodeValue(parts[3]));
+    }
+
+    public String getSortColumn() {
+        return sortColumn;
+    }
+
+    public boolean isAsc() {
+        return asc;
+    }
+
+    public Object getSortValue() {
+        return sortValue;
+    }
+
+    public Object getId() {
+        return id;
+    }
+
+    private static String encodeValue(Object value) {
+        String tagged;
+        if (value == null) {
+            tagged = "N";
+        } else if (value instanceof Long) {
+            tagged = "L" + value;
+        } else if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            tagged = "I" + value;
+        } else if (value instanceof Double) {
+            tagged = "F" + value;
+        } else if (value instanceof Float) {
+            tagged = "f" + value;
+        } else if (value instanceof Boolean) {
+            tagged = "B" + value;
+        } else if (value instanceof BigDecimal decimal) {
+            tagged = "D" + decimal.toPlainString();
+        } else if (value instanceof String) {
+            tagged = "S" + value;
+        } else if (value instanceof LocalDateTime) {
+            tagged = "T" + value;
+        } else if (value instanceof LocalDate) {
+            tagged = "d" + value;
+        } else if (value instanceof Date date) {
+            tagged = "M" + date.getTime();
+        } else {
+            throw new IllegalArgumentException("游标分页不支持的字段类型: " + value.getClass().getName());
+        }
+        return encodePart(tagged);
+    }
+
+    private static Object decodeValue(String part) {
+        String tagged = decodePart(part);
+        if (tagged.isEmpty()) {
+            throw new IllegalArgumentException("游标格式错误");
+        }
+        String value = tagged.substring(1);
+        return switch (tagged.charAt(0)) {
+            case 'N' -> {
+                if (!value.isEmpty()) {
+                    throw new IllegalArgumentException("游标格式错误");
+                }
+                yield null;
+            }
+            case 'L' -> Long.valueOf(value);
+            case 'I' -> Integer.valueOf(value);
+            case 'F' -> Double.valueOf(value);
+            case 'f' -> Float.valueOf(value);
+            case 'B' -> switch (value) {
+                case "true" -> Boolean.TRUE;
+                case "false" -> Boolean.FALSE;
+                default -> throw new IllegalArgumentException("游标格式错误");
+            };
+            case 'D' -> new BigDecimal(value);
+            case 'S' -> value;
+            case 'T' -> LocalDateTime.parse(value);
+            case 'd' -> LocalDate.parse(value);
+            case 'M' -> new Date(Long.parseLong(value));
+            default -> throw new IllegalArgumentException("游标格式错误");
+        };
+    }
+
+    private static String encodePart(String value) {
+        return ENCODER.encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodePart(String part) {
+        return new String(DECODER.decode(part), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,241 @@
+package com.jianspring.starter.db.page;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableFieldInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.jianspring.starter.commons.error.CommonErrorCode;
+import com.jianspring.starter.commons.exception.BizException;
+import com.jianspring.starter.commons.page.PageQO;
+import com.jianspring.starter.commons.page.PageVO;
+import com.jianspring.starter.db.tenant.JianTenantLineHandler;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 游标（keyset）分页
+ * <p>
+ * 以上一页最后一行的 (排序字段, 主键) 为起点，按 WHERE (sort, id) > (?, ?) ORDER BY sort, id LIMIT size + 1 查询，
+ * 不使用OFFSET，任意深度的翻页耗时都与第一页相同；多查的一行用于判断是否有下一页。
+ * <p>
+ * 排序取 PageQO.sorts 的第一个字段（实体属性名或列名，其余忽略），未指定时按主键升序；排序字段应与主键建立联合索引，
+ * 类型需为数值、布尔、字符串或日期时间（枚举等类型的数据库取值依赖TypeHandler，不支持）。
+ * 排序字段为null的行按MySQL规则排在升序的最前、降序的最后；排序字段为非空列时查询条件更简单。
+ * 不支持跳页，pageNum仅原样返回。
+ * <p>
+ * ESTIMATED统计方式取的是整表的估算行数，不区分租户，只用于不做租户隔离的表；租户隔离的表改为按查询条件COUNT，
+ * 配置了总数缓存时结果按查询条件和租户缓存。
+ */
+public class KeysetPaginator {
+
+    private static final String ESTIMATE_SQL = "SELECT TABLE_ROWS FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?";
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    private final DataSource dataSource;
+
+    private final JianTenantLineHandler tenantHandler;
+
+    private final CountCache countCache;
+
+    /**
+     * @param dataSource 数据源，ESTIMATED统计方式使用
+     */
+    public KeysetPaginator(DataSource dataSource) {
+        this(dataSource, null, null);
+    }
+
+    /**
+     * @param dataSource    数据源，ESTIMATED统计方式使用
+     * @param tenantHandler 租户规则，为null时未开启租户隔离
+     * @param countCache    总数缓存，为null时不缓存
+     */
+    public KeysetPaginator(DataSource dataSource, JianTenantLineHandler tenantHandler, CountCache countCache) {
+        this.dataSource = dataSource;
+        this.tenantHandler = tenantHandler;
+        this.countCache = countCache;
+    }
+
+    /**
+     * 不统计总数的游标分页
+     *
+     * @see #page(BaseMapper, Class, PageQO, QueryWrapper, PageCountModeEnum)
+     */
+    public <T> PageVO<T> page(BaseMapper<T> mapper, Class<T> entityClass, PageQO<?> pageQO, QueryWrapper<T> wrapper) {
+        return page(mapper, entityClass, pageQO, wrapper, PageCountModeEnum.NONE);
+    }
+
+    /**
+     * 游标分页
+     *
+     * @param mapper      实体的mapper
+     * @param entityClass 实体类
+     * @param pageQO      分页参数，cursor为上一页的nextCursor
+     * @param wrapper     查询条件，不要设置排序和last，会被追加游标条件
+     * @param countMode   总数统计方式
+     * @return 当前页数据和下一页令牌
+     */
+    public <T> PageVO<T> page(BaseMapper<T> mapper, Class<T> entityClass, PageQO<?> pageQO, QueryWrapper<T> wrapper,
+                              PageCountModeEnum countMode) {
+        TableInfo tableInfo = TableInfoHelper.getTableInfo(entityClass);
+        if (tableInfo == null || !tableInfo.havePK()) {
+            throw new IllegalArgumentException("游标分页要求实体已注册且有主键: " + entityClass.getName());
+        }
+        if (!KeysetCursor.supports(tableInfo.getKeyType())) {
+            throw new IllegalArgumentException("游标分页不支持的主键类型: " + tableInfo.getKeyType().getName());
+        }
+        int size = pageQO.getPageSize() == null || pageQO.getPageSize() < 1 ? DEFAULT_PAGE_SIZE : pageQO.getPageSize();
+        String idColumn = tableInfo.getKeyColumn();
+        String idProperty = tableInfo.getKeyProperty();
+        String sortColumn = idColumn;
+        String sortProperty = idProperty;
+        boolean asc = true;
+        PageQO.Sort sort = firstSort(pageQO);
+        if (sort != null) {
+            asc = "asc".equals(sort.getOrderBy());
+            if (!sort.getSortName().equals(idProperty) && !sort.getSortName().equals(idColumn)) {
+                TableFieldInfo field = findField(tableInfo, sort.getSortName());
+                sortColumn = field.getColumn();
+                sortProperty = field.getProperty();
+            }
+        }
+
+        Long total = switch (countMode) {
+            case NONE -> null;
+            case EXACT -> mapper.selectCount(wrapper);
+            case ESTIMATED -> tenantHandler == null || tenantHandler.ignoreTable(tableInfo.getTableName())
+                    ? estimateRows(tableInfo.getTableName())
+                    : cachedCount(mapper, entityClass, wrapper);
+        };
+
+        if (StringUtils.hasText(pageQO.getCursor())) {
+            seek(wrapper, decode(pageQO.getCursor(), sortColumn, asc), idColumn, asc);
+        }
+        wrapper.orderBy(true, asc, sortColumn);
+        if (!sortColumn.equals(idColumn)) {
+            wrapper.orderBy(true, asc, idColumn);
+        }
+        wrapper.last("LIMIT " + (size + 1));
+        List<T> rows = mapper.selectList(wrapper);
+
+        String nextCursor = null;
+        if (rows.size() > size) {
+            rows = new ArrayList<>(rows.subList(0, size));
+            T last = rows.get(size - 1);
+            nextCursor = new KeysetCursor(sortColumn, asc, tableInfo.getPropertyValue(last, sortProperty),
+                    tableInfo.getPropertyValue(last, idProperty)).encode();
+        }
+        PageVO<T> pageVO = PageVO.of(pageQO.getPageNum(), size, total, rows);
+        pageVO.setTotal(total);
+        pageVO.setNextCursor(nextCursor);
+        pageVO.setHasNext(nextCursor != null);
+        return pageVO;
+    }
+
+    // (sort, id) 在排序方向上严格位于游标之后，null按MySQL规则视为最小值
+    static <T> void seek(QueryWrapper<T> wrapper, KeysetCursor cursor, String idColumn, boolean asc) {
+        String sortColumn = cursor.getSortColumn();
+        Object sortValue = cursor.getSortValue();
+        Object id = cursor.getId();
+        if (sortColumn.equals(idColumn)) {
+            if (asc) {
+                wrapper.gt(idColumn, id);
+            } else {
+                wrapper.lt(idColumn, id);
+            }
+            return;
+        }
+        if (sortValue == null) {
+            if (asc) {
+                wrapper.and(w -> w.and(n -> n.isNull(sortColumn).gt(idColumn, id)).or().isNotNull(sortColumn));
+            } else {
+                wrapper.isNull(sortColumn).lt(idColumn, id);
+            }
+        } else if (asc) {
+            wrapper.and(w -> w.gt(sortColumn, sortValue).or(o -> o.eq(sortColumn, sortValue).gt(idColumn, id)));
+        } else {
+            wrapper.and(w -> w.lt(sortColumn, sortValue).or(o -> o.eq(sortColumn, sortValue).lt(idColumn, id))
+                    .or().isNull(sortColumn));
+        }
+    }
+
+    private static KeysetCursor decode(String token, String sortColumn, boolean asc) {
+        KeysetCursor cursor;
+        try {
+            cursor = KeysetCursor.decode(token);
+        } catch (RuntimeException e) {
+            throw new BizException(CommonErrorCode.PARAM_ERROR.getCode(), "分页游标无效");
+        }
+        if (cursor.getId() == null) {
+            throw new BizException(CommonErrorCode.PARAM_ERROR.getCode(), "分页游标无效");
+        }
+        if (!cursor.getSortColumn().equals(sortColumn) || cursor.isAsc() != asc) {
+            throw new BizException(CommonErrorCode.PARAM_ERROR.getCode(), "分页游标与排序条件不一致");
+        }
+        return cursor;
+    }
+
+    private static PageQO.Sort firstSort(PageQO<?> pageQO) {
+        if (pageQO.getSorts() == null) {
+            return null;
+        }
+        for (PageQO.Sort sort : pageQO.getSorts()) {
+            if (sort != null && sort.getSortName() != null) {
+                return sort;
+            }
+        }
+        return null;
+    }
+
+    // 排序字段来自请求参数，只允许实体中可编码到游标的字段，防止SQL注入
+    static TableFieldInfo findField(TableInfo tableInfo, String sortName) {
+        for (TableFieldInfo field : tableInfo.getFieldList()) {
+            if (field.getProperty().equals(sortName) || field.getColumn().equals(sortName)) {
+                if (!KeysetCursor.supports(field.getPropertyType())) {
+                    throw new BizException(CommonErrorCode.PARAM_ERROR.getCode(), "不支持按该字段游标分页: " + sortName);
+                }
+                return field;
+            }
+        }
+        throw new BizException(CommonErrorCode.PARAM_ERROR.getCode(), "不支持的排序字段: " + sortName);
+    }
+
+    // 租户隔离的表不能用整表行数，按查询条件COUNT，结果与偏移分页共用同一个缓存key
+    private <T> Long cachedCount(BaseMapper<T> mapper, Class<T> entityClass, QueryWrapper<T> wrapper) {
+        String key = null;
+        if (countCache != null) {
+            key = CountCache.key(entityClass.getName() + ".selectCount:" + wrapper.getCustomSqlSegment(),
+                    OffsetPaginator.parameterValues(wrapper));
+            Long total = countCache.get(key);
+            if (total != null) {
+                return total;
+            }
+        }
+        Long total = mapper.selectCount(wrapper);
+        if (key != null && total != null) {
+            countCache.put(key, total);
+        }
+        return total;
+    }
+
+    private Long estimateRows(String tableName) {
+        String table = JianTenantLineHandler.normalizeTableName(tableName);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(ESTIMATE_SQL)) {
+            statement.setString(1, table);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : null;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("估算表行数失败, table=" + table + ": " + e.getMessage(), e);
+        }
+    }
+}
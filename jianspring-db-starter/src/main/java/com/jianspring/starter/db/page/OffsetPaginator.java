@@ -0,0 +1,194 @@
+package com.jianspring.starter.db.page;
+
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
+import com.baomidou.mybatisplus.core.conditions.AbstractWrapper;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.jianspring.starter.commons.UserContextUtils;
+import com.jianspring.starter.commons.page.PageQO;
+import com.jianspring.starter.commons.page.PageVO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 按 PageQO 的偏移分页
+ * <ul>
+ *     <li>searchCount 为false时不执行COUNT，多查一行判断是否有下一页</li>
+ *     <li>需要总数且不在事务中时，COUNT与数据查询并行执行，COUNT结果按查询条件和租户缓存</li>
+ *     <li>在事务中时顺序执行，COUNT由分页拦截器完成，保证与数据查询看到同一事务内的数据</li>
+ * </ul>
+ * 并行COUNT优先使用虚拟线程（JDK 21+），低版本JDK使用守护线程池。
+ */
+public class OffsetPaginator implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(OffsetPaginator.class);
+
+    private static final int DEFAULT_PAGE_SIZE = 10;
+
+    private final CountCache countCache;
+
+    private final boolean parallelCount;
+
+    private final ExecutorService countExecutor;
+
+    /**
+     * @param countCache    总数缓存，为null时不缓存
+     * @param parallelCount 是否并行执行COUNT
+     */
+    public OffsetPaginator(CountCache countCache, boolean parallelCount) {
+        this.countCache = countCache;
+        this.parallelCount = parallelCount;
+        this.countExecutor = parallelCount ? newCountExecutor() : null;
+    }
+
+    /**
+     * 偏移分页
+     *
+     * @param mapper      实体的mapper
+     * @param entityClass 实体类，用作缓存key
+     * @param pageQO      分页参数
+     * @param wrapper     查询条件
+     * @return 当前页数据，searchCount为false时total为null
+     */
+    public <T> PageVO<T> page(BaseMapper<T> mapper, Class<T> entityClass, PageQO<?> pageQO, Wrapper<T> wrapper) {
+        long current = pageQO.getPageNum() == null || pageQO.getPageNum() < 1 ? 1 : pageQO.getPageNum();
+        int size = pageQO.getPageSize() == null || pageQO.getPageSize() < 1 ? DEFAULT_PAGE_SIZE : pageQO.getPageSize();
+
+        if (!pageQO.isSearchCount()) {
+            List<T> rows = mapper.selectPage(new LookaheadPage<>(current, size), wrapper).getRecords();
+            boolean hasNext = rows.size() > size;
+            if (hasNext) {
+                rows = new ArrayList<>(rows.subList(0, size));
+            }
+            return toPageVO(current, size, null, hasNext, rows);
+        }
+
+        if (!parallelCount || TransactionSynchronizationManager.isActualTransactionActive()) {
+            Page<T> page = mapper.selectPage(new Page<>(current, size), wrapper);
+            return toPageVO(current, size, page.getTotal(), current * size < page.getTotal(), page.getRecords());
+        }
+
+        // 先生成一次SQL片段，两个线程只读取条件
+        String sqlSegment = wrapper.getCustomSqlSegment();
+        CompletableFuture<Long> count = CompletableFuture.supplyAsync(
+                withContext(() -> cachedCount(mapper, entityClass, wrapper, sqlSegment)), countExecutor);
+        List<T> rows = mapper.selectPage(new Page<>(current, size, false), wrapper).getRecords();
+        long total;
+        try {
+            total = count.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException runtime ? runtime : e;
+        }
+        return toPageVO(current, size, total, current * size < total, rows);
+    }
+
+    @Override
+    public void close() {
+        if (countExecutor != null) {
+            countExecutor.shutdownNow();
+        }
+    }
+
+    private <T> long cachedCount(BaseMapper<T> mapper, Class<T> entityClass, Wrapper<T> wrapper, String sqlSegment) {
+        String key = null;
+        if (countCache != null) {
+            key = CountCache.key(entityClass.getName() + ".selectCount:" + sqlSegment, parameterValues(wrapper));
+            Long total = countCache.get(key);
+            if (total != null) {
+                return total;
+            }
+        }
+        Long total = mapper.selectCount(wrapper);
+        long count = total == null ? 0L : total;
+        if (key != null) {
+            countCache.put(key, count);
+        }
+        return count;
+    }
+
+    // 条件值按参数名排序，与SQL片段中的占位符一一对应
+    static Iterable<?> parameterValues(Wrapper<?> wrapper) {
+        if (wrapper instanceof AbstractWrapper<?, ?, ?> abstractWrapper) {
+            Map<String, Object> pairs = abstractWrapper.getParamNameValuePairs();
+            return new TreeMap<>(pairs).values();
+        }
+        return List.of();
+    }
+
+    // 并行COUNT在另一线程执行，带上租户和数据源路由
+    private static <R> Supplier<R> withContext(Supplier<R> supplier) {
+        UserContextUtils.UserContext userContext = UserContextUtils.get();
+        String dataSource = DynamicDataSourceContextHolder.peek();
+        return () -> {
+            UserContextUtils.set(userContext);
+            if (dataSource != null) {
+                DynamicDataSourceContextHolder.push(dataSource);
+            }
+            try {
+                return supplier.get();
+            } finally {
+                if (dataSource != null) {
+                    DynamicDataSourceContextHolder.poll();
+                }
+                UserContextUtils.clear();
+            }
+        };
+    }
+
+    private static <T> PageVO<T> toPageVO(long current, int size, Long total, boolean hasNext, List<T> rows) {
+        PageVO<T> pageVO = PageVO.of((int) current, size, total, rows);
+        pageVO.setTotal(total);
+        pageVO.setHasNext(hasNext);
+        return pageVO;
+    }
+
+    private static ExecutorService newCountExecutor() {
+        try {
+            return (ExecutorService) MethodHandles.publicLookup()
+                    .findStatic(Executors.class, "newVirtualThreadPerTaskExecutor", MethodType.methodType(ExecutorService.class))
+                    .invoke();
+        } catch (Throwable e) {
+            log.debug("当前JDK不支持虚拟线程，并行COUNT使用线程池");
+            return Executors.newCachedThreadPool(r -> {
+                Thread thread = new Thread(r, "jianspring-page-count");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    /**
+     * 多取一行的分页：LIMIT为 size + 1，偏移量仍按 size 计算
+     */
+    private static final class LookaheadPage<T> extends Page<T> {
+
+        private LookaheadPage(long current, long size) {
+            super(current, size, false);
+        }
+
+        @Override
+        public long getSize() {
+            return super.getSize() + 1;
+        }
+
+        @Override
+        public long offset() {
+            long current = getCurrent();
+            return current <= 1L ? 0L : (current - 1) * super.getSize();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.jianspring.starter.db.page;
+
+/**
+ * 游标分页的总数统计方式
+ */
+public enum PageCountModeEnum {
+
+    NONE("不统计，total为null"),
+    EXACT("按查询条件执行COUNT"),
+    ESTIMATED("取information_schema中的表行数估算值，忽略查询条件，适合无过滤条件的列表；租户隔离的表改为缓存的COUNT"),
+    ;
+
+    private final String desc;
+
+    PageCountModeEnum(String desc) {
+        this.desc = desc;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+}
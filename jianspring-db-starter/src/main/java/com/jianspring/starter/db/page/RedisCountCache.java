@@ -0,0 +1,55 @@
+package com.jianspring.starter.db.page;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+/**
+ * 基于Redis的分页总数缓存，多实例共享
+ * <p>
+ * key取摘要避免SQL过长；Redis异常时按未命中处理，不影响查询。
+ */
+public class RedisCountCache implements CountCache {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisCountCache.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    private final String keyPrefix;
+
+    private final Duration ttl;
+
+    public RedisCountCache(StringRedisTemplate redisTemplate, String keyPrefix, Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.keyPrefix = keyPrefix;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Long get(String key) {
+        try {
+            String value = redisTemplate.opsForValue().get(redisKey(key));
+            return value == null ? null : Long.valueOf(value);
+        } catch (Exception e) {
+            log.warn("读取分页总数缓存失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void put(String key, long total) {
+        try {
+            redisTemplate.opsForValue().set(redisKey(key), String.valueOf(total), ttl);
+        } catch (Exception e) {
+            log.warn("写入分页总数缓存失败: {}", e.getMessage());
+        }
+    }
+
+    private String redisKey(String key) {
+        return keyPrefix + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,44 @@
+package com.jianspring.starter.db.routing;
+
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+
+/**
+ * 写操作始终走主库，并把本次请求粘滞到主库
+ * <p>
+ * 在 {@link ReadOnly} 方法内调用的写操作同样会被路由到从库，这里临时切回主库，避免写入从库。
+ */
+@Intercepts({@Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class})})
+public class PrimaryWriteInterceptor implements Interceptor {
+
+    private final ReplicaRouter replicaRouter;
+
+    private final boolean stickyPrimary;
+
+    public PrimaryWriteInterceptor(ReplicaRouter replicaRouter, boolean stickyPrimary) {
+        this.replicaRouter = replicaRouter;
+        this.stickyPrimary = stickyPrimary;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        if (stickyPrimary) {
+            RoutingContext.stickToPrimary();
+        }
+        String current = DynamicDataSourceContextHolder.peek();
+        if (current == null || !replicaRouter.isReplica(current)) {
+            return invocation.proceed();
+        }
+        DynamicDataSourceContextHolder.push(replicaRouter.getPrimary());
+        try {
+            return invocation.proceed();
+        } finally {
+            DynamicDataSourceContextHolder.poll();
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.jianspring.starter.db.routing;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 只读方法，查询路由到从库
+ * <p>
+ * 以下情况仍访问主库：已处于读写事务中、方法本身是读写事务、本次请求已发生过写操作、没有健康且延迟在范围内的从库、方法上显式指定了 @DS。
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface ReadOnly {
+}
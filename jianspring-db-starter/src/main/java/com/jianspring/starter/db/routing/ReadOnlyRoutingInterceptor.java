@@ -0,0 +1,107 @@
+package com.jianspring.starter.db.routing;
+
+import com.baomidou.dynamic.datasource.annotation.DS;
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.Method;
+
+/**
+ * 把 {@link ReadOnly} 方法和只读事务路由到从库
+ * <p>
+ * 在事务拦截器之前执行，事务开启时取到的就是从库连接。方法上已通过 @DS 指定数据源时不做处理。
+ * <p>
+ * 在 {@link ReadOnly} 方法内调用读写事务方法时，当前数据源已是从库，这里先切回主库，避免读写事务在从库上开启。
+ */
+public class ReadOnlyRoutingInterceptor implements MethodInterceptor {
+
+    private final ReplicaRouter replicaRouter;
+
+    private final boolean readOnlyTransactions;
+
+    private final boolean stickyPrimary;
+
+    /**
+     * @param replicaRouter        从库选择
+     * @param readOnlyTransactions 是否把 @Transactional(readOnly = true) 也路由到从库
+     * @param stickyPrimary        请求内写过之后是否粘滞主库
+     */
+    public ReadOnlyRoutingInterceptor(ReplicaRouter replicaRouter, boolean readOnlyTransactions, boolean stickyPrimary) {
+        this.replicaRouter = replicaRouter;
+        this.readOnlyTransactions = readOnlyTransactions;
+        this.stickyPrimary = stickyPrimary;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String current = DynamicDataSourceContextHolder.peek();
+        String target;
+        if (current == null) {
+            target = isReadOnly(invocation) ? route() : null;
+        } else {
+            target = replicaRouter.isReplica(current) && isReadWriteTransaction(invocation) ? replicaRouter.getPrimary() : null;
+        }
+        if (target == null) {
+            return invocation.proceed();
+        }
+        DynamicDataSourceContextHolder.push(target);
+        try {
+            return invocation.proceed();
+        } finally {
+            DynamicDataSourceContextHolder.poll();
+        }
+    }
+
+    private String route() {
+        // 外层读写事务已绑定主库连接，或本次请求已写过
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return replicaRouter.getPrimary();
+        }
+        if (stickyPrimary && RoutingContext.isPrimarySticky()) {
+            return replicaRouter.getPrimary();
+        }
+        String replica = replicaRouter.select();
+        return replica != null ? replica : replicaRouter.getPrimary();
+    }
+
+    private boolean isReadOnly(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Class<?> targetClass = targetClass(invocation);
+        if (AnnotatedElementUtils.hasAnnotation(method, ReadOnly.class)
+                || AnnotatedElementUtils.hasAnnotation(targetClass, ReadOnly.class)) {
+            return true;
+        }
+        if (!readOnlyTransactions) {
+            return false;
+        }
+        Transactional transactional = findTransactional(method, targetClass);
+        return transactional != null && transactional.readOnly();
+    }
+
+    // 显式 @DS 指定的数据源由使用方负责，不改写
+    private boolean isReadWriteTransaction(MethodInvocation invocation) {
+        Method method = invocation.getMethod();
+        Class<?> targetClass = targetClass(invocation);
+        if (AnnotatedElementUtils.hasAnnotation(method, ReadOnly.class)
+                || AnnotatedElementUtils.hasAnnotation(method, DS.class)
+                || AnnotatedElementUtils.hasAnnotation(targetClass, DS.class)) {
+            return false;
+        }
+        Transactional transactional = findTransactional(method, targetClass);
+        return transactional != null && !transactional.readOnly();
+    }
+
+    private static Transactional findTransactional(Method method, Class<?> targetClass) {
+        Transactional transactional = AnnotatedElementUtils.findMergedAnnotation(method, Transactional.class);
+        return transactional != null ? transactional : AnnotatedElementUtils.findMergedAnnotation(targetClass, Transactional.class);
+    }
+
+    private static Class<?> targetClass(MethodInvocation invocation) {
+        return invocation.getThis() != null ? invocation.getThis().getClass() : invocation.getMethod().getDeclaringClass();
+    }
+}
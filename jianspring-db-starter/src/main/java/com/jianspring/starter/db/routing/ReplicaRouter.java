@@ -0,0 +1,232 @@
+package com.jianspring.starter.db.routing;
+
+import com.baomidou.dynamic.datasource.DynamicRoutingDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 从库选择
+ * <p>
+ * 定期检查每个从库：连接失败、复制中断或复制延迟超过 maxLag 的从库暂时摘除，恢复后重新加入。
+ * 在可用的从库中按权重随机选择，没有可用从库时返回null，由调用方回退到主库。
+ */
+public class ReplicaRouter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRouter.class);
+
+    // MySQL 8.0.22起为Seconds_Behind_Source，之前为Seconds_Behind_Master
+    private static final String[] LAG_COLUMNS = {"Seconds_Behind_Source", "Seconds_Behind_Master"};
+
+    private final DataSource dataSource;
+
+    private final String primary;
+
+    private final Map<String, Integer> weights;
+
+    private final Duration checkInterval;
+
+    private final long maxLagSeconds;
+
+    private final String lagQuery;
+
+    private volatile Available available = Available.NONE;
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * @param dataSource    动态数据源
+     * @param primary       主库数据源名
+     * @param weights       从库数据源名 -> 权重
+     * @param checkInterval 健康检查间隔
+     * @param maxLag        允许的最大复制延迟
+     * @param lagQuery      查询复制延迟的SQL，为空时只检查连接
+     */
+    public ReplicaRouter(DataSource dataSource, String primary, Map<String, Integer> weights, Duration checkInterval,
+                         Duration maxLag, String lagQuery) {
+        this.dataSource = dataSource;
+        this.primary = primary;
+        this.weights = new LinkedHashMap<>(weights);
+        this.checkInterval = checkInterval;
+        this.maxLagSeconds = maxLag.getSeconds();
+        this.lagQuery = lagQuery;
+    }
+
+    /**
+     * 同步检查一次后开始定期检查
+     */
+    public synchronized void start() {
+        if (weights.isEmpty()) {
+            log.warn("读写分离未配置从库，查询全部走主库");
+            return;
+        }
+        check();
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jianspring-replica-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = checkInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::check, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * 按权重选择一个可用从库
+     *
+     * @return 从库数据源名，没有可用从库时为null
+     */
+    public String select() {
+        Available current = available;
+        if (current.names.length == 0) {
+            return null;
+        }
+        int point = ThreadLocalRandom.current().nextInt(current.totalWeight);
+        for (int i = 0; i < current.names.length; i++) {
+            if (point < current.cumulativeWeights[i]) {
+                return current.names[i];
+            }
+        }
+        return current.names[current.names.length - 1];
+    }
+
+    /**
+     * @param name 数据源名
+     * @return 是否为配置的从库
+     */
+    public boolean isReplica(String name) {
+        return weights.containsKey(name);
+    }
+
+    public String getPrimary() {
+        return primary;
+    }
+
+    /**
+     * @return 当前可用的从库
+     */
+    public List<String> getAvailableReplicas() {
+        return List.of(available.names);
+    }
+
+    private void check() {
+        Map<String, DataSource> dataSources = dataSources();
+        List<String> names = new ArrayList<>();
+        List<Integer> replicaWeights = new ArrayList<>();
+        for (Map.Entry<String, Integer> entry : weights.entrySet()) {
+            DataSource replica = dataSources.get(entry.getKey());
+            if (replica == null || entry.getValue() <= 0) {
+                continue;
+            }
+            if (isAvailable(entry.getKey(), replica)) {
+                names.add(entry.getKey());
+                replicaWeights.add(entry.getValue());
+            }
+        }
+        Available previous = available;
+        available = new Available(names, replicaWeights);
+        if (!List.of(previous.names).equals(names)) {
+            log.info("可用从库变更: {} -> {}", List.of(previous.names), names);
+        }
+    }
+
+    private boolean isAvailable(String name, DataSource replica) {
+        int timeoutSeconds = (int) Math.max(1, checkInterval.getSeconds());
+        try (Connection connection = replica.getConnection()) {
+            if (!StringUtils.hasText(lagQuery)) {
+                return connection.isValid(timeoutSeconds);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(timeoutSeconds);
+                try (ResultSet resultSet = statement.executeQuery(lagQuery)) {
+                    if (!resultSet.next()) {
+                        log.warn("从库{}未查询到复制状态，暂不使用", name);
+                        return false;
+                    }
+                    Long lag = readLag(resultSet);
+                    if (lag == null) {
+                        log.warn("从库{}复制已中断，暂不使用", name);
+                        return false;
+                    }
+                    if (lag > maxLagSeconds) {
+                        log.warn("从库{}复制延迟{}s，超过{}s，暂不使用", name, lag, maxLagSeconds);
+                        return false;
+                    }
+                    return true;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("从库{}健康检查失败，暂不使用: {}", name, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Long readLag(ResultSet resultSet) throws Exception {
+        ResultSetMetaData metaData = resultSet.getMetaData();
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            String column = metaData.getColumnLabel(i);
+            for (String lagColumn : LAG_COLUMNS) {
+                if (lagColumn.equalsIgnoreCase(column)) {
+                    long lag = resultSet.getLong(i);
+                    return resultSet.wasNull() ? null : lag;
+                }
+            }
+        }
+        // 自定义查询的第一列即为延迟秒数
+        long lag = resultSet.getLong(1);
+        return resultSet.wasNull() ? null : lag;
+    }
+
+    private Map<String, DataSource> dataSources() {
+        if (dataSource instanceof DynamicRoutingDataSource dynamicRoutingDataSource) {
+            return dynamicRoutingDataSource.getDataSources();
+        }
+        return Map.of();
+    }
+
+    /**
+     * 一次健康检查后的可用从库，整体替换保证选择时看到一致的快照
+     */
+    private static final class Available {
+
+        private static final Available NONE = new Available(List.of(), List.of());
+
+        private final String[] names;
+
+        private final int[] cumulativeWeights;
+
+        private final int totalWeight;
+
+        private Available(List<String> names, List<Integer> weights) {
+            this.names = names.toArray(new String[0]);
+            this.cumulativeWeights = new int[weights.size()];
+            int total = 0;
+            for (int i = 0; i < weights.size(); i++) {
+                total += weights.get(i);
+                cumulativeWeights[i] = total;
+            }
+            this.totalWeight = total;
+        }
+    }
+}
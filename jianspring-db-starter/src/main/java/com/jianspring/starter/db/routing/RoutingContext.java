@@ -0,0 +1,56 @@
+package com.jianspring.starter.db.routing;
+
+import org.springframework.util.ClassUtils;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * 读写分离的请求级状态
+ * <p>
+ * 请求内发生写操作后，剩余的查询都走主库，避免读到从库上尚未同步的旧数据。
+ * 状态保存在请求属性中，随请求结束自动清除；非Web请求（定时任务、消息消费）以及未引入spring-web的应用没有粘滞状态。
+ */
+public final class RoutingContext {
+
+    private static final boolean WEB_PRESENT = ClassUtils.isPresent(
+            "org.springframework.web.context.request.RequestContextHolder", RoutingContext.class.getClassLoader());
+
+    private static final String STICKY_PRIMARY = RoutingContext.class.getName() + ".STICKY_PRIMARY";
+
+    private RoutingContext() {
+    }
+
+    /**
+     * 本次请求剩余的查询都走主库
+     */
+    public static void stickToPrimary() {
+        if (WEB_PRESENT) {
+            RequestScope.stickToPrimary();
+        }
+    }
+
+    /**
+     * @return 本次请求是否已粘滞到主库
+     */
+    public static boolean isPrimarySticky() {
+        return WEB_PRESENT && RequestScope.isPrimarySticky();
+    }
+
+    /**
+     * 单独放在内部类中，未引入spring-web时不加载RequestContextHolder
+     */
+    private static final class RequestScope {
+
+        static void stickToPrimary() {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            if (attributes != null) {
+                attributes.setAttribute(STICKY_PRIMARY, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+            }
+        }
+
+        static boolean isPrimarySticky() {
+            RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+            return attributes != null && Boolean.TRUE.equals(attributes.getAttribute(STICKY_PRIMARY, RequestAttributes.SCOPE_REQUEST));
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.jianspring.starter.db.tenant;
+
+import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 缓存改写结果的租户拦截器
+ * <p>
+ * 同一条SQL的改写结果只与SQL文本有关（租户值为占位符），按SQL文本缓存后JSqlParser对每种SQL只解析一次，
+ * 执行时把占位符替换为当前租户即可。动态SQL同一个MappedStatement会产生多种SQL，因此以SQL文本而非MappedStatement ID为key。
+ * 缓存条数达到上限后新的SQL不再缓存，按原方式解析改写。
+ */
+public class CachingTenantLineInnerInterceptor extends TenantLineInnerInterceptor {
+
+    private final JianTenantLineHandler tenantLineHandler;
+
+    private final int maxCachedStatements;
+
+    private final Map<String, String> singleCache = new ConcurrentHashMap<>();
+
+    private final Map<String, String> multiCache = new ConcurrentHashMap<>();
+
+    /**
+     * @param tenantLineHandler   租户隔离规则
+     * @param maxCachedStatements 最多缓存的SQL条数
+     */
+    public CachingTenantLineInnerInterceptor(JianTenantLineHandler tenantLineHandler, int maxCachedStatements) {
+        super(tenantLineHandler);
+        this.tenantLineHandler = tenantLineHandler;
+        this.maxCachedStatements = maxCachedStatements;
+    }
+
+    @Override
+    public String parserSingle(String sql, Object obj) {
+        String rewritten = singleCache.get(sql);
+        if (rewritten == null) {
+            rewritten = super.parserSingle(sql, obj);
+            cache(singleCache, sql, rewritten);
+        }
+        return bindTenant(rewritten);
+    }
+
+    @Override
+    public String parserMulti(String sql, Object obj) {
+        String rewritten = multiCache.get(sql);
+        if (rewritten == null) {
+            rewritten = super.parserMulti(sql, obj);
+            cache(multiCache, sql, rewritten);
+        }
+        return bindTenant(rewritten);
+    }
+
+    public int getCachedStatements() {
+        return singleCache.size() + multiCache.size();
+    }
+
+    private void cache(Map<String, String> cache, String sql, String rewritten) {
+        if (cache.size() < maxCachedStatements) {
+            cache.putIfAbsent(sql, rewritten);
+        }
+    }
+
+    // 不涉及租户表的SQL没有占位符，原样返回
+    private String bindTenant(String rewritten) {
+        if (!rewritten.contains(JianTenantLineHandler.PLACEHOLDER)) {
+            return rewritten;
+        }
+        return rewritten.replace(JianTenantLineHandler.PLACEHOLDER, tenantLineHandler.currentTenantLiteral());
+    }
+}
@@ -0,0 +1,122 @@
+package com.jianspring.starter.db.tenant;
+
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.baomidou.mybatisplus.extension.plugins.handler.TenantLineHandler;
+import com.jianspring.starter.commons.UserContextUtils;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.StringValue;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 租户隔离规则
+ * <p>
+ * SQL改写时租户条件只写入占位符，改写结果由 {@link CachingTenantLineInnerInterceptor} 按SQL缓存，
+ * 执行时再把占位符替换为当前租户，因此 {@link #getTenantId()} 返回固定的占位符表达式。
+ * 配置的表和标注了 {@link TenantIgnore} 的实体对应的表不做隔离；同一张表对应多个实体时，需全部标注才不做隔离。
+ */
+public class JianTenantLineHandler implements TenantLineHandler {
+
+    /**
+     * 改写后SQL中租户值的占位符
+     */
+    public static final String PLACEHOLDER = "'__JIANSPRING_TENANT_ID__'";
+
+    private static final Expression PLACEHOLDER_EXPRESSION = new StringValue("__JIANSPRING_TENANT_ID__");
+
+    // 无租户上下文时使用的租户
+    private static final String DEFAULT_TENANT_ID = "0";
+
+    private final String tenantIdColumn;
+
+    private final Set<String> ignoreTables;
+
+    // 规范化后的表名 -> 实体是否标注了TenantIgnore，由已注册的实体构建，注册数变化时重建
+    private volatile Map<String, Boolean> annotatedTables = Map.of();
+
+    private volatile int registeredEntities = -1;
+
+    /**
+     * @param tenantIdColumn 租户字段
+     * @param ignoreTables   不做隔离的表
+     */
+    public JianTenantLineHandler(String tenantIdColumn, Collection<String> ignoreTables) {
+        this.tenantIdColumn = tenantIdColumn;
+        this.ignoreTables = ignoreTables.stream().map(JianTenantLineHandler::normalizeTableName).collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public Expression getTenantId() {
+        return PLACEHOLDER_EXPRESSION;
+    }
+
+    @Override
+    public String getTenantIdColumn() {
+        return tenantIdColumn;
+    }
+
+    @Override
+    public boolean ignoreTable(String tableName) {
+        String table = normalizeTableName(tableName);
+        if (ignoreTables.contains(table)) {
+            return true;
+        }
+        Boolean annotated = annotatedTables.get(table);
+        if (annotated == null) {
+            // 实体可能在上次构建后才注册
+            annotated = refreshAnnotatedTables().get(table);
+        }
+        return annotated != null && annotated;
+    }
+
+    /**
+     * 当前租户的SQL字面量，无租户上下文时为'0'
+     *
+     * @return 带引号的租户值
+     */
+    public String currentTenantLiteral() {
+        UserContextUtils.UserContext userContext = UserContextUtils.get();
+        String tenantId = userContext != null && userContext.getTenantId() != null
+                ? userContext.getTenantId().toString()
+                : DEFAULT_TENANT_ID;
+        return "'" + tenantId.replace("'", "''") + "'";
+    }
+
+    // TableInfoHelper按实体声明的表名索引，SQL中的表名可能带库名、反引号或大小写不同，这里按规范化的表名重新索引
+    private synchronized Map<String, Boolean> refreshAnnotatedTables() {
+        List<TableInfo> tableInfos = TableInfoHelper.getTableInfos();
+        if (tableInfos.size() == registeredEntities) {
+            return annotatedTables;
+        }
+        Map<String, Boolean> tables = new HashMap<>(tableInfos.size() * 2);
+        for (TableInfo tableInfo : tableInfos) {
+            tables.merge(normalizeTableName(tableInfo.getTableName()), tableInfo.getEntityType().isAnnotationPresent(TenantIgnore.class),
+                    Boolean::logicalAnd);
+        }
+        annotatedTables = tables;
+        registeredEntities = tableInfos.size();
+        return tables;
+    }
+
+    /**
+     * 规范化表名：去掉反引号和库名前缀，统一小写
+     *
+     * @param tableName SQL或实体中的表名
+     * @return 规范化的表名
+     */
+    public static String normalizeTableName(String tableName) {
+        String table = tableName.replace("`", "");
+        int dot = table.lastIndexOf('.');
+        if (dot >= 0) {
+            table = table.substring(dot + 1);
+        }
+        return table.toLowerCase(Locale.ROOT);
+    }
+}
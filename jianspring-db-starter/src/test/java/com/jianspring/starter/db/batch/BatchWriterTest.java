@@ -0,0 +1,243 @@
+package com.jianspring.starter.db.batch;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.jianspring.starter.db.entity.BaseLogicEntity;
+import com.jianspring.starter.db.id.CustomIdGenerator;
+import com.jianspring.starter.db.id.SnowflakeIdGenerator;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * BatchWriter 的SQL拼接、字段填充和分块的单元测试，数据库连接为mock
+ */
+public class BatchWriterTest {
+
+    private final List<String> statements = new ArrayList<>();
+
+    private DataSource dataSource;
+
+    @BeforeAll
+    static void initTableInfo() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), TestOrder.class);
+    }
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            return mock(PreparedStatement.class);
+        });
+    }
+
+    @Test
+    @DisplayName("测试插入时只填充声明了插入填充的字段")
+    void testInsertFill() {
+        TestOrder order = new TestOrder("a");
+        writer(100, Long.MAX_VALUE).insert(TestOrder.class, List.of(order));
+
+        assertNotNull(order.getId());
+        assertNotNull(order.getCreatedTime());
+        assertEquals(0L, order.getDeleted());
+        assertNull(order.getUpdatedTime());
+        assertNull(order.getUpdatedBy());
+    }
+
+    @Test
+    @DisplayName("测试多行INSERT语句包含全部列，为空的值写为DEFAULT")
+    void testInsertSql() {
+        BatchTable table = BatchTable.of(TestOrder.class, null);
+        List<BatchTable.Column> columns = table.getColumns();
+        int name = indexOf(table, "name");
+        int amount = indexOf(table, "amount");
+        String sql = BatchWriter.buildSql(table, List.of(row(table, "id", "name"), row(table, "id", "amount")), null);
+
+        // 列顺序取决于实体字段顺序，按列位置拼接期望值
+        StringBuilder expected = new StringBuilder("INSERT INTO t_order (");
+        StringBuilder first = new StringBuilder("(");
+        StringBuilder second = new StringBuilder("(");
+        for (int i = 0; i < columns.size(); i++) {
+            String separator = i == 0 ? "" : ",";
+            expected.append(separator).append(columns.get(i).name);
+            first.append(separator).append(i == 0 || i == name ? "?" : "DEFAULT");
+            second.append(separator).append(i == 0 || i == amount ? "?" : "DEFAULT");
+        }
+        expected.append(") VALUES ").append(first).append("),").append(second).append(')');
+        assertEquals(expected.toString(), sql);
+    }
+
+    @Test
+    @DisplayName("测试upsert默认不更新创建字段和逻辑删除字段")
+    void testUpsertDefaultColumns() {
+        BatchTable table = BatchTable.of(TestOrder.class, null);
+        BitSet update = table.updateColumns(Collections.emptySet());
+
+        assertFalse(update.get(0));
+        assertFalse(update.get(indexOf(table, "createdTime")));
+        assertFalse(update.get(indexOf(table, "createdBy")));
+        assertFalse(update.get(indexOf(table, "deleted")));
+        assertTrue(update.get(indexOf(table, "name")));
+
+        // 列顺序取决于实体字段顺序，只校验更新部分
+        Object[] row = row(table, "id", "createdTime", "deleted", "name");
+        String sql = BatchWriter.buildSql(table, List.<Object[]>of(row), update);
+        assertTrue(sql.endsWith(" ON DUPLICATE KEY UPDATE name=VALUES(name)"), sql);
+    }
+
+    @Test
+    @DisplayName("测试upsert没有可更新的列时更新主键为自身")
+    void testUpsertWithoutUpdateColumns() {
+        BatchTable table = BatchTable.of(TestOrder.class, null);
+        Object[] row = row(table, "id", "name");
+        BitSet update = table.updateColumns(Set.of("amount"));
+
+        String sql = BatchWriter.buildSql(table, List.<Object[]>of(row), update);
+        assertTrue(sql.endsWith(" ON DUPLICATE KEY UPDATE id=id"), sql);
+    }
+
+    @Test
+    @DisplayName("测试upsert指定不存在的字段时报错")
+    void testUpsertUnknownProperty() {
+        BatchTable table = BatchTable.of(TestOrder.class, null);
+        assertThrows(IllegalArgumentException.class, () -> table.updateColumns(Set.of("missing")));
+    }
+
+    @Test
+    @DisplayName("测试按行数切分分块")
+    void testChunkByRows() {
+        List<TestOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orders.add(new TestOrder("order" + i));
+        }
+        writer(2, Long.MAX_VALUE).insert(TestOrder.class, orders);
+
+        assertEquals(List.of(2, 2, 1), rows());
+    }
+
+    @Test
+    @DisplayName("测试按估算字节数切分分块")
+    void testChunkByBytes() {
+        String name = "x".repeat(1000);
+        List<TestOrder> orders = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            orders.add(new TestOrder(name));
+        }
+        // 每行约3100字节
+        writer(100, 7000).insert(TestOrder.class, orders);
+
+        assertEquals(List.of(2, 2, 1), rows());
+    }
+
+    @Test
+    @DisplayName("测试插入时为空的字段不切分分块")
+    void testInsertSparseColumns() {
+        TestOrder withAmount = new TestOrder("b");
+        withAmount.setAmount(10);
+        writer(100, Long.MAX_VALUE).insert(TestOrder.class, List.of(new TestOrder("a"), withAmount, new TestOrder("c")));
+
+        assertEquals(List.of(3), rows());
+        assertTrue(statements.get(0).contains("amount"));
+        assertTrue(statements.get(0).contains("DEFAULT"));
+    }
+
+    @Test
+    @DisplayName("测试upsert时更新字段为空的分布不同的相邻行切到不同分块")
+    void testUpsertChunkByUpdateColumns() {
+        TestOrder withAmount = new TestOrder("b");
+        withAmount.setAmount(10);
+        TestOrder other = new TestOrder("c");
+        other.setAmount(20);
+        writer(100, Long.MAX_VALUE).upsert(TestOrder.class, List.of(new TestOrder("a"), withAmount, other), "name", "amount");
+
+        assertEquals(List.of(1, 2), rows());
+        assertTrue(statements.get(0).endsWith(" ON DUPLICATE KEY UPDATE name=VALUES(name)"), statements.get(0));
+        assertTrue(statements.get(1).endsWith(" ON DUPLICATE KEY UPDATE name=VALUES(name),amount=VALUES(amount)"),
+                statements.get(1));
+    }
+
+    private BatchWriter writer(int maxRows, long maxBytes) {
+        CustomIdGenerator idGenerator = new CustomIdGenerator(new SnowflakeIdGenerator(1, 1, 1, TimeUnit.SECONDS));
+        return new BatchWriter(dataSource, idGenerator, null, null, maxRows, maxBytes);
+    }
+
+    // 每条语句的行数
+    private List<Integer> rows() {
+        List<Integer> rows = new ArrayList<>();
+        for (String sql : statements) {
+            rows.add(sql.split("\\(\\?", -1).length - 1);
+        }
+        return rows;
+    }
+
+    // 给定属性非空的一行，其余列为空
+    private static Object[] row(BatchTable table, String... properties) {
+        Object[] row = new Object[table.getColumns().size()];
+        for (String property : properties) {
+            row[indexOf(table, property)] = property;
+        }
+        return row;
+    }
+
+    private static int indexOf(BatchTable table, String property) {
+        List<BatchTable.Column> columns = table.getColumns();
+        for (int i = 0; i < columns.size(); i++) {
+            if (columns.get(i).property.equals(property)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(property);
+    }
+
+    @TableName("t_order")
+    public static class TestOrder extends BaseLogicEntity<TestOrder> {
+
+        private String name;
+
+        private Integer amount;
+
+        public TestOrder() {
+        }
+
+        TestOrder(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getAmount() {
+            return amount;
+        }
+
+        public void setAmount(Integer amount) {
+            this.amount = amount;
+        }
+    }
+}
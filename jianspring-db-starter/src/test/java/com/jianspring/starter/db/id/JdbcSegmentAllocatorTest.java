@@ -0,0 +1,102 @@
+package com.jianspring.starter.db.id;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+/**
+ * JdbcSegmentAllocator 的单元测试，数据库连接为mock
+ */
+public class JdbcSegmentAllocatorTest {
+
+    private Connection connection;
+
+    private PreparedStatement update;
+
+    private PreparedStatement insert;
+
+    private PreparedStatement select;
+
+    private ResultSet resultSet;
+
+    private JdbcSegmentAllocator allocator;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        connection = mock(Connection.class);
+        update = mock(PreparedStatement.class);
+        insert = mock(PreparedStatement.class);
+        select = mock(PreparedStatement.class);
+        resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.getAutoCommit()).thenReturn(true);
+        when(connection.prepareStatement(startsWith("UPDATE"))).thenReturn(update);
+        when(connection.prepareStatement(startsWith("INSERT"))).thenReturn(insert);
+        when(connection.prepareStatement(startsWith("SELECT"))).thenReturn(select);
+        when(select.executeQuery()).thenReturn(resultSet);
+        allocator = new JdbcSegmentAllocator(dataSource, "jianspring_id_alloc");
+    }
+
+    @Test
+    @DisplayName("测试已有记录时更新后读取最大ID")
+    void testUpdateExisting() throws SQLException {
+        when(update.executeUpdate()).thenReturn(1);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(3000L);
+
+        assertEquals(3000L, allocator.allocate("t_order", 1000));
+        verify(insert, never()).executeUpdate();
+        verify(connection).commit();
+        verify(connection).setAutoCommit(true);
+    }
+
+    @Test
+    @DisplayName("测试记录不存在时插入第一个号段")
+    void testInsertFirst() throws SQLException {
+        when(update.executeUpdate()).thenReturn(0);
+
+        assertEquals(1000L, allocator.allocate("t_order", 1000));
+        verify(insert).setLong(2, 1000L);
+        verify(select, never()).executeQuery();
+        verify(connection).commit();
+    }
+
+    @Test
+    @DisplayName("测试并发插入冲突时回滚后重新更新")
+    void testInsertRace() throws SQLException {
+        when(update.executeUpdate()).thenReturn(0, 1);
+        when(insert.executeUpdate()).thenThrow(new SQLIntegrityConstraintViolationException("Duplicate entry"));
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(2000L);
+
+        assertEquals(2000L, allocator.allocate("t_order", 1000));
+        verify(update, times(2)).executeUpdate();
+        verify(connection).rollback();
+        verify(connection).commit();
+    }
+
+    @Test
+    @DisplayName("测试插入冲突后仍更新不到记录时失败并回滚")
+    void testInsertRaceFailed() throws SQLException {
+        when(update.executeUpdate()).thenReturn(0, 0);
+        when(insert.executeUpdate()).thenThrow(new SQLIntegrityConstraintViolationException("Duplicate entry"));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> allocator.allocate("t_order", 1000));
+        assertInstanceOf(SQLIntegrityConstraintViolationException.class, e.getCause());
+        verify(connection, times(2)).rollback();
+        verify(connection, never()).commit();
+        verify(connection).setAutoCommit(true);
+    }
+}
@@ -0,0 +1,89 @@
+package com.jianspring.starter.db.id;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * RedisWorkerIdLease 租约失效与恢复的单元测试
+ */
+public class RedisWorkerIdLeaseTest {
+
+    private StringRedisTemplate redisTemplate;
+
+    private ValueOperations<String, String> valueOperations;
+
+    private RedisWorkerIdLease lease;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        lease = new RedisWorkerIdLease(redisTemplate, "test:worker:", Duration.ofMinutes(1));
+        lease.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        lease.close();
+    }
+
+    @Test
+    @DisplayName("测试续期成功时租约有效")
+    void testRenewed() {
+        mockRenew(1L);
+        lease.renew();
+        assertTrue(lease.isValid());
+    }
+
+    @Test
+    @DisplayName("测试槽位被其它实例占用时租约失效，占回后恢复")
+    void testLostToOtherInstance() {
+        mockRenew(0L);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        lease.renew();
+        assertFalse(lease.isValid());
+
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+        lease.renew();
+        assertTrue(lease.isValid());
+    }
+
+    @Test
+    @DisplayName("测试超过租期未续期成功时租约失效")
+    void testExpiredWithoutRenew() {
+        // 先打桩再启动，续期线程每毫秒执行一次
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenThrow(new IllegalStateException("timeout"));
+        RedisWorkerIdLease shortLease = new RedisWorkerIdLease(redisTemplate, "test:worker:", Duration.ofMillis(1));
+        try {
+            shortLease.start();
+            long deadline = System.nanoTime() + Duration.ofSeconds(1).toNanos();
+            while (shortLease.isValid() && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            assertFalse(shortLease.isValid());
+        } finally {
+            shortLease.close();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void mockRenew(long result) {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any())).thenReturn(result);
+    }
+}
@@ -0,0 +1,166 @@
+package com.jianspring.starter.db.id;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SegmentIdGenerator 的单元测试，号段存储和时钟由测试控制
+ */
+public class SegmentIdGeneratorTest {
+
+    private static final String TAG = "t_order";
+
+    // 期望一个号段用1秒
+    private static final long SEGMENT_DURATION = 1000L;
+
+    private final FakeAllocator allocator = new FakeAllocator();
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private SegmentIdGenerator generator;
+
+    @AfterEach
+    void tearDown() {
+        if (generator != null) {
+            generator.close();
+        }
+    }
+
+    @Test
+    @DisplayName("测试号段用完后切换到下一号段，ID连续递增")
+    void testSwitchSegment() {
+        // 预取比例为1时不预取，只在号段用完时加载
+        generator = generator(10, 10, 1.0);
+        for (long expected = 1; expected <= 25; expected++) {
+            assertEquals(expected, generator.nextId(TAG));
+        }
+        assertEquals(List.of(10, 10, 10), allocator.steps);
+    }
+
+    @Test
+    @DisplayName("测试号段使用到预取比例时异步预取下一号段")
+    void testPrefetch() throws InterruptedException {
+        generator = generator(10, 10, 0.5);
+        for (int i = 0; i < 5; i++) {
+            generator.nextId(TAG);
+        }
+        assertEquals(1, allocator.calls.get());
+
+        // 第6个ID触发预取
+        generator.nextId(TAG);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (allocator.calls.get() < 2 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        assertEquals(2, allocator.calls.get());
+
+        for (long expected = 7; expected <= 15; expected++) {
+            assertEquals(expected, generator.nextId(TAG));
+        }
+        // 第二个号段尚未使用到预取比例
+        assertEquals(2, allocator.calls.get());
+    }
+
+    @Test
+    @DisplayName("测试号段消耗快时长度翻倍，不超过上限")
+    void testStepDoubling() {
+        generator = generator(10, 40, 1.0);
+        for (int i = 0; i < 110; i++) {
+            generator.nextId(TAG);
+        }
+        assertEquals(List.of(10, 20, 40, 40), allocator.steps);
+        assertEquals(111L, generator.nextId(TAG));
+    }
+
+    @Test
+    @DisplayName("测试号段消耗慢时长度减半，不低于初始长度")
+    void testStepHalving() {
+        generator = generator(10, 40, 1.0);
+        consume(70);
+        assertEquals(List.of(10, 20, 40), allocator.steps);
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(SEGMENT_DURATION * 3));
+        consume(20);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(SEGMENT_DURATION * 3));
+        consume(10);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(SEGMENT_DURATION * 3));
+        consume(10);
+        // 用时在1~2倍之间时保持不变
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(SEGMENT_DURATION * 3 / 2));
+        consume(1);
+
+        assertEquals(List.of(10, 20, 40, 20, 10, 10, 10), allocator.steps);
+    }
+
+    @Test
+    @DisplayName("测试预取失败时切换号段同步重试")
+    void testPrefetchFailureRetried() throws InterruptedException {
+        generator = generator(10, 10, 0.5);
+        for (int i = 0; i < 5; i++) {
+            generator.nextId(TAG);
+        }
+        allocator.failures.set(1);
+        generator.nextId(TAG);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (allocator.failures.get() > 0 && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+
+        for (long expected = 7; expected <= 15; expected++) {
+            assertEquals(expected, generator.nextId(TAG));
+        }
+    }
+
+    @Test
+    @DisplayName("测试存储失败时抛给调用方")
+    void testAllocateFailure() {
+        generator = generator(10, 10, 1.0);
+        allocator.failures.set(2);
+        assertThrows(IllegalStateException.class, () -> generator.nextId(TAG));
+        assertEquals(1L, generator.nextId(TAG));
+    }
+
+    private SegmentIdGenerator generator(int step, int maxStep, double prefetchRatio) {
+        return new SegmentIdGenerator(allocator, entity -> 0L, List.of(TAG), step, maxStep, prefetchRatio,
+                SEGMENT_DURATION, clock::get);
+    }
+
+    private void consume(int n) {
+        for (int i = 0; i < n; i++) {
+            generator.nextId(TAG);
+        }
+    }
+
+    // 内存中的号段存储，可指定接下来失败的次数
+    private static final class FakeAllocator implements SegmentAllocator {
+
+        private final Map<String, Long> maxIds = new ConcurrentHashMap<>();
+
+        private final List<Integer> steps = new CopyOnWriteArrayList<>();
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private final AtomicInteger failures = new AtomicInteger();
+
+        @Override
+        public long allocate(String bizTag, int step) {
+            calls.incrementAndGet();
+            if (failures.getAndUpdate(n -> Math.max(0, n - 1)) > 0) {
+                throw new IllegalStateException("allocate failed");
+            }
+            steps.add(step);
+            return maxIds.merge(bizTag, (long) step, Long::sum);
+        }
+    }
+}
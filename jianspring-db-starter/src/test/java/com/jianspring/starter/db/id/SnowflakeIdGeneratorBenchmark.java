@@ -0,0 +1,82 @@
+package com.jianspring.starter.db.id;
+
+import cn.hutool.core.lang.Snowflake;
+import cn.hutool.core.util.IdUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 多线程下的ID生成吞吐量对比：legacy 为每次都计算机器ID并获取hutool生成器的旧实现，
+ * snowflake 为hutool的synchronized生成器，lockFree 与 batch 为 {@link SnowflakeIdGenerator}
+ * <p>
+ * 单机每毫秒最多4096个ID，吞吐量达到上限后各实现都会受时钟限制，比较时关注达到上限前的开销和线程数增加后的退化。
+ * 运行：直接执行 main 方法，可用 -t 调整线程数
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class SnowflakeIdGeneratorBenchmark {
+
+    private static final int BATCH_SIZE = 100;
+
+    private Snowflake snowflake;
+
+    private SnowflakeIdGenerator generator;
+
+    @Setup
+    public void setUp() {
+        long dataCenterId = IdUtil.getDataCenterId(SnowflakeIdGenerator.MAX_DATA_CENTER_ID);
+        long workerId = IdUtil.getWorkerId(dataCenterId, SnowflakeIdGenerator.MAX_WORKER_ID);
+        snowflake = new Snowflake(workerId, dataCenterId);
+        // 压测会持续超过每毫秒4096个的上限，放宽借用时间的限制
+        generator = new SnowflakeIdGenerator(workerId, dataCenterId, 1, TimeUnit.HOURS);
+    }
+
+    @Benchmark
+    public long legacy() {
+        long dataCenterId = IdUtil.getDataCenterId(31L);
+        long workerId = IdUtil.getWorkerId(dataCenterId, 31L);
+        return IdUtil.getSnowflake(workerId, dataCenterId).nextId();
+    }
+
+    @Benchmark
+    public long snowflake() {
+        return snowflake.nextId();
+    }
+
+    @Benchmark
+    public long lockFree() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public long[] batch() {
+        return generator.nextIds(BATCH_SIZE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SnowflakeIdGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,110 @@
+package com.jianspring.starter.db.id;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * SnowflakeIdGenerator 的单元测试，时钟由测试控制
+ */
+public class SnowflakeIdGeneratorTest {
+
+    private static final long EPOCH = 0L;
+
+    private static final long MAX_CLOCK_BACKWARD = 50L;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000L);
+
+    private final AtomicBoolean nodeValid = new AtomicBoolean(true);
+
+    private SnowflakeIdGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new SnowflakeIdGenerator(EPOCH, 3, 5, MAX_CLOCK_BACKWARD, nodeValid::get, clock::get);
+    }
+
+    @Test
+    @DisplayName("测试ID包含时间戳和机器位且同一毫秒内递增")
+    void testLayout() {
+        long first = generator.nextId();
+        long second = generator.nextId();
+
+        assertEquals(1_000_000L, generator.getGenerateTime(first));
+        assertEquals(3L, (first >>> 12) & 31);
+        assertEquals(5L, (first >>> 17) & 31);
+        assertEquals(0L, first & 4095);
+        assertEquals(first + 1, second);
+    }
+
+    @Test
+    @DisplayName("测试时钟回拨时沿用上次时间戳继续递增")
+    void testClockRollback() {
+        long before = generator.nextId();
+        clock.addAndGet(-20);
+        long after = generator.nextId();
+
+        assertTrue(after > before);
+        assertEquals(1_000_000L, generator.getGenerateTime(after));
+
+        clock.addAndGet(30);
+        long advanced = generator.nextId();
+        assertEquals(1_000_010L, generator.getGenerateTime(advanced));
+        assertEquals(0L, advanced & 4095);
+    }
+
+    @Test
+    @DisplayName("测试序列用尽时进位到下一毫秒")
+    void testSequenceCarry() {
+        long[] ids = generator.nextIds(4097);
+
+        assertEquals(1_000_000L, generator.getGenerateTime(ids[4095]));
+        assertEquals(4095L, ids[4095] & 4095);
+        assertEquals(1_000_001L, generator.getGenerateTime(ids[4096]));
+        assertEquals(0L, ids[4096] & 4095);
+        for (int i = 1; i < ids.length; i++) {
+            assertTrue(ids[i] > ids[i - 1]);
+        }
+        assertEquals(1L, generator.getGenerateTime(generator.nextId()) - 1_000_000L);
+    }
+
+    @Test
+    @DisplayName("测试时钟回拨超出maxClockBackward时拒绝生成")
+    void testMaxClockBackward() {
+        generator.nextId();
+        clock.addAndGet(-MAX_CLOCK_BACKWARD);
+        assertDoesNotThrow(() -> generator.nextId());
+
+        clock.addAndGet(-1);
+        assertThrows(IllegalStateException.class, () -> generator.nextId());
+
+        // 时钟追上后恢复
+        clock.addAndGet(MAX_CLOCK_BACKWARD + 1);
+        assertDoesNotThrow(() -> generator.nextId());
+    }
+
+    @Test
+    @DisplayName("测试借用时间超出maxClockBackward时批量分配失败")
+    void testBatchBorrowLimit() {
+        int perMillis = 4096;
+        assertThrows(IllegalStateException.class, () -> generator.nextIds(perMillis * (int) (MAX_CLOCK_BACKWARD + 2)));
+        assertEquals(1_000_000L, generator.getGenerateTime(generator.nextId()));
+    }
+
+    @Test
+    @DisplayName("测试机器ID租约失效时拒绝生成")
+    void testLeaseLost() {
+        generator.nextId();
+        nodeValid.set(false);
+        assertThrows(IllegalStateException.class, () -> generator.nextId());
+        assertThrows(IllegalStateException.class, () -> generator.nextIds(10));
+
+        nodeValid.set(true);
+        assertDoesNotThrow(() -> generator.nextId());
+    }
+}
@@ -0,0 +1,76 @@
+package com.jianspring.starter.db.page;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * KeysetCursor 编解码的单元测试
+ */
+public class KeysetCursorTest {
+
+    @Test
+    @DisplayName("测试各类型排序值编码后按原类型解码")
+    void testRoundTrip() {
+        List<Object> values = Arrays.asList(123L, 45, new BigDecimal("12.50"), "名称.a", LocalDateTime.of(2024, 1, 2, 3, 4, 5, 6),
+                LocalDate.of(2024, 1, 2), new Date(1700000000000L), 1.5d, 2.25f, true, false, null);
+        for (Object value : values) {
+            KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor("sort_col", false, value, 99L).encode());
+
+            assertEquals("sort_col", cursor.getSortColumn());
+            assertFalse(cursor.isAsc());
+            assertEquals(value, cursor.getSortValue());
+            assertEquals(99L, cursor.getId());
+        }
+    }
+
+    @Test
+    @DisplayName("测试短整型按Integer解码")
+    void testShortDecodedAsInteger() {
+        KeysetCursor cursor = KeysetCursor.decode(new KeysetCursor("id", true, (short) 7, (byte) 8).encode());
+
+        assertEquals(7, cursor.getSortValue());
+        assertEquals(8, cursor.getId());
+    }
+
+    @Test
+    @DisplayName("测试支持的字段类型")
+    void testSupports() {
+        assertTrue(KeysetCursor.supports(Long.class));
+        assertTrue(KeysetCursor.supports(long.class));
+        assertTrue(KeysetCursor.supports(Boolean.class));
+        assertTrue(KeysetCursor.supports(Double.class));
+        assertTrue(KeysetCursor.supports(java.sql.Timestamp.class));
+        assertFalse(KeysetCursor.supports(Thread.State.class));
+        assertFalse(KeysetCursor.supports(Object.class));
+    }
+
+    @Test
+    @DisplayName("测试不支持的类型编码失败")
+    void testUnsupportedValue() {
+        assertThrows(IllegalArgumentException.class, () -> new KeysetCursor("state", true, Thread.State.NEW, 1L).encode());
+    }
+
+    @Test
+    @DisplayName("测试格式错误的令牌")
+    void testInvalidToken() {
+        String valid = new KeysetCursor("id", true, 1L, 1L).encode();
+        String[] parts = valid.split("\\.");
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("abc"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(valid + ".x"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(parts[0] + "." + parts[1] + ".." + parts[3]));
+        // 未知类型标记
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(parts[0] + "." + parts[1] + ".WDE." + parts[3]));
+        // 非法数字
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(parts[0] + "." + parts[1] + ".TGFiYw." + parts[3]));
+    }
+}
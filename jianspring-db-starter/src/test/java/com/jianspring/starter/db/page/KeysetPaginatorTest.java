@@ -0,0 +1,227 @@
+package com.jianspring.starter.db.page;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfo;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import com.jianspring.starter.commons.error.CommonErrorCode;
+import com.jianspring.starter.commons.exception.BizException;
+import com.jianspring.starter.commons.page.PageQO;
+import com.jianspring.starter.commons.page.PageVO;
+import com.jianspring.starter.db.tenant.JianTenantLineHandler;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * KeysetPaginator 游标条件、排序字段校验和总数统计的单元测试
+ */
+public class KeysetPaginatorTest {
+
+    @Test
+    @DisplayName("测试按主键排序的游标条件")
+    void testSeekById() {
+        QueryWrapper<Object> asc = new QueryWrapper<>();
+        KeysetPaginator.seek(asc, new KeysetCursor("id", true, 10L, 10L), "id", true);
+        assertEquals("(id > ?)", asc.getTargetSql());
+        assertEquals(List.of(10L), params(asc));
+
+        QueryWrapper<Object> desc = new QueryWrapper<>();
+        KeysetPaginator.seek(desc, new KeysetCursor("id", false, 10L, 10L), "id", false);
+        assertEquals("(id < ?)", desc.getTargetSql());
+    }
+
+    @Test
+    @DisplayName("测试升序游标条件")
+    void testSeekAsc() {
+        QueryWrapper<Object> wrapper = new QueryWrapper<>();
+        KeysetPaginator.seek(wrapper, new KeysetCursor("created_time", true, 5L, 10L), "id", true);
+
+        String sql = wrapper.getTargetSql();
+        assertTrue(sql.contains("created_time > ?"), sql);
+        assertTrue(sql.contains("created_time = ? AND id > ?"), sql);
+        assertFalse(sql.contains("NULL"), sql);
+        assertEquals(List.of(5L, 5L, 10L), params(wrapper));
+    }
+
+    @Test
+    @DisplayName("测试降序游标条件包含排在最后的null")
+    void testSeekDesc() {
+        QueryWrapper<Object> wrapper = new QueryWrapper<>();
+        KeysetPaginator.seek(wrapper, new KeysetCursor("created_time", false, 5L, 10L), "id", false);
+
+        String sql = wrapper.getTargetSql();
+        assertTrue(sql.contains("created_time < ?"), sql);
+        assertTrue(sql.contains("created_time = ? AND id < ?"), sql);
+        assertTrue(sql.contains("OR created_time IS NULL"), sql);
+        assertEquals(List.of(5L, 5L, 10L), params(wrapper));
+    }
+
+    @Test
+    @DisplayName("测试排序值为null时的游标条件")
+    void testSeekNullSortValue() {
+        QueryWrapper<Object> asc = new QueryWrapper<>();
+        KeysetPaginator.seek(asc, new KeysetCursor("created_time", true, null, 10L), "id", true);
+        String ascSql = asc.getTargetSql();
+        assertTrue(ascSql.contains("created_time IS NULL AND id > ?"), ascSql);
+        assertTrue(ascSql.contains("OR created_time IS NOT NULL"), ascSql);
+        assertEquals(List.of(10L), params(asc));
+
+        QueryWrapper<Object> desc = new QueryWrapper<>();
+        KeysetPaginator.seek(desc, new KeysetCursor("created_time", false, null, 10L), "id", false);
+        String descSql = desc.getTargetSql();
+        assertTrue(descSql.contains("created_time IS NULL AND id < ?"), descSql);
+        assertFalse(descSql.contains("OR"), descSql);
+    }
+
+    @Test
+    @DisplayName("测试排序字段按属性名或列名匹配，不支持的类型返回参数错误")
+    void testFindField() {
+        TableInfo tableInfo = TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), TestArticle.class);
+
+        assertEquals("created_time", KeysetPaginator.findField(tableInfo, "createdTime").getColumn());
+        assertEquals("createdTime", KeysetPaginator.findField(tableInfo, "created_time").getProperty());
+        assertEquals("top", KeysetPaginator.findField(tableInfo, "top").getColumn());
+
+        BizException unsupported = assertThrows(BizException.class, () -> KeysetPaginator.findField(tableInfo, "state"));
+        assertEquals(CommonErrorCode.PARAM_ERROR.getCode(), unsupported.getCode());
+        BizException unknown = assertThrows(BizException.class, () -> KeysetPaginator.findField(tableInfo, "title; drop table"));
+        assertEquals(CommonErrorCode.PARAM_ERROR.getCode(), unknown.getCode());
+    }
+
+    @Test
+    @DisplayName("测试租户隔离的表ESTIMATED改为缓存的COUNT")
+    @SuppressWarnings("unchecked")
+    void testEstimatedOnTenantTable() {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), TestArticle.class);
+        DataSource dataSource = mock(DataSource.class);
+        BaseMapper<TestArticle> mapper = mock(BaseMapper.class);
+        when(mapper.selectCount(any())).thenReturn(5L);
+        when(mapper.selectList(any(QueryWrapper.class))).thenReturn(new ArrayList<>());
+        KeysetPaginator paginator = new KeysetPaginator(dataSource, new JianTenantLineHandler("tenant_id", Set.of()),
+                new CaffeineCountCache(Duration.ofMinutes(1), 100));
+
+        PageVO<TestArticle> first = paginator.page(mapper, TestArticle.class, new PageQO<>(), new QueryWrapper<>(),
+                PageCountModeEnum.ESTIMATED);
+        PageVO<TestArticle> second = paginator.page(mapper, TestArticle.class, new PageQO<>(), new QueryWrapper<>(),
+                PageCountModeEnum.ESTIMATED);
+
+        assertEquals(5L, first.getTotal());
+        assertEquals(5L, second.getTotal());
+        verify(mapper, times(1)).selectCount(any());
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    @DisplayName("测试不做租户隔离的表ESTIMATED按规范化的表名估算")
+    @SuppressWarnings("unchecked")
+    void testEstimatedOnIgnoredTable() throws SQLException {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), TestLog.class);
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        ResultSet resultSet = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(any())).thenReturn(statement);
+        when(statement.executeQuery()).thenReturn(resultSet);
+        when(resultSet.next()).thenReturn(true);
+        when(resultSet.getLong(1)).thenReturn(1000L);
+        BaseMapper<TestLog> mapper = mock(BaseMapper.class);
+        when(mapper.selectList(any(QueryWrapper.class))).thenReturn(new ArrayList<>());
+        KeysetPaginator paginator = new KeysetPaginator(dataSource, new JianTenantLineHandler("tenant_id", Set.of("t_log")), null);
+
+        PageVO<TestLog> page = paginator.page(mapper, TestLog.class, new PageQO<>(), new QueryWrapper<>(),
+                PageCountModeEnum.ESTIMATED);
+
+        assertEquals(1000L, page.getTotal());
+        verify(statement).setString(1, "t_log");
+        verify(mapper, never()).selectCount(any());
+    }
+
+    // 参数表为HashMap，排序后比较
+    private static List<Long> params(QueryWrapper<Object> wrapper) {
+        List<Long> params = new ArrayList<>();
+        wrapper.getParamNameValuePairs().values().forEach(value -> params.add((Long) value));
+        params.sort(null);
+        return params;
+    }
+
+    @TableName("`T_Log`")
+    public static class TestLog {
+
+        @TableId(type = IdType.ASSIGN_ID)
+        private Long id;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+
+    @TableName("t_article")
+    public static class TestArticle {
+
+        @TableId(type = IdType.ASSIGN_ID)
+        private Long id;
+
+        private LocalDateTime createdTime;
+
+        private Boolean top;
+
+        private Thread.State state;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public LocalDateTime getCreatedTime() {
+            return createdTime;
+        }
+
+        public void setCreatedTime(LocalDateTime createdTime) {
+            this.createdTime = createdTime;
+        }
+
+        public Boolean getTop() {
+            return top;
+        }
+
+        public void setTop(Boolean top) {
+            this.top = top;
+        }
+
+        public Thread.State getState() {
+            return state;
+        }
+
+        public void setState(Thread.State state) {
+            this.state = state;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.jianspring.starter.db.tenant;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JianTenantLineHandler 忽略表判断的单元测试
+ */
+public class JianTenantLineHandlerTest {
+
+    @Test
+    @DisplayName("测试配置的忽略表按规范化表名匹配")
+    void testConfiguredIgnoreTables() {
+        JianTenantLineHandler handler = new JianTenantLineHandler("tenant_id", List.of("`Sys_Dict`"));
+
+        assertTrue(handler.ignoreTable("sys_dict"));
+        assertTrue(handler.ignoreTable("`db`.`SYS_DICT`"));
+        assertFalse(handler.ignoreTable("sys_user"));
+    }
+
+    @Test
+    @DisplayName("测试标注TenantIgnore的实体按规范化表名匹配")
+    void testAnnotatedEntity() {
+        register(GlobalConfig.class);
+        register(TenantOrder.class);
+        JianTenantLineHandler handler = new JianTenantLineHandler("tenant_id", List.of());
+
+        assertTrue(handler.ignoreTable("t_global_config"));
+        assertTrue(handler.ignoreTable("`T_Global_Config`"));
+        assertTrue(handler.ignoreTable("db.t_global_config"));
+        assertFalse(handler.ignoreTable("t_tenant_order"));
+        assertFalse(handler.ignoreTable("t_unknown"));
+    }
+
+    @Test
+    @DisplayName("测试判断后才注册的实体同样生效")
+    void testLateRegisteredEntity() {
+        JianTenantLineHandler handler = new JianTenantLineHandler("tenant_id", List.of());
+        assertFalse(handler.ignoreTable("t_late_config"));
+
+        register(LateConfig.class);
+        assertTrue(handler.ignoreTable("T_LATE_CONFIG"));
+    }
+
+    private static void register(Class<?> entityClass) {
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""), entityClass);
+    }
+
+    @TenantIgnore
+    @TableName("T_Global_Config")
+    public static class GlobalConfig {
+
+        @TableId(type = IdType.ASSIGN_ID)
+        private Long id;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+
+    @TableName("t_tenant_order")
+    public static class TenantOrder {
+
+        @TableId(type = IdType.ASSIGN_ID)
+        private Long id;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+
+    @TenantIgnore
+    @TableName("t_late_config")
+    public static class LateConfig {
+
+        @TableId(type = IdType.ASSIGN_ID)
+        private Long id;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+    }
+}
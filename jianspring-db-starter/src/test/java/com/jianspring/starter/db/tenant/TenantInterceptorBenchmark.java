@@ -0,0 +1,113 @@
+package com.jianspring.starter.db.tenant;
+
+import com.baomidou.mybatisplus.extension.plugins.handler.TenantLineHandler;
+import com.baomidou.mybatisplus.extension.plugins.inner.TenantLineInnerInterceptor;
+import com.jianspring.starter.commons.UserContextUtils;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.StringValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 租户拦截器的SQL改写耗时对比：legacy 为改造前每次解析改写且不忽略任何表的实现，cached 为按SQL缓存改写结果的实现
+ * <p>
+ * 租户上下文是线程变量，状态按线程初始化。运行：直接执行 main 方法
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TenantInterceptorBenchmark {
+
+    private static final String SELECT = "SELECT o.id, o.amount, u.name FROM t_order o LEFT JOIN t_user u ON o.user_id = u.id "
+            + "WHERE o.status = ? AND o.created_time > ? ORDER BY o.id DESC";
+
+    private static final String INSERT = "INSERT INTO t_order (id, user_id, amount, status) VALUES (?, ?, ?, ?)";
+
+    private static final String DICT_SELECT = "SELECT code, name FROM sys_dict WHERE type = ?";
+
+    private TenantLineInnerInterceptor legacy;
+
+    private CachingTenantLineInnerInterceptor cached;
+
+    @Setup
+    public void setUp() {
+        UserContextUtils.UserContext userContext = new UserContextUtils.UserContext();
+        userContext.setTenantId(10086L);
+        UserContextUtils.set(userContext);
+        legacy = new TenantLineInnerInterceptor(new TenantLineHandler() {
+            @Override
+            public Expression getTenantId() {
+                UserContextUtils.UserContext context = UserContextUtils.get();
+                if (context != null && context.getTenantId() != null) {
+                    return new StringValue(context.getTenantId().toString());
+                }
+                return new StringValue("0");
+            }
+
+            @Override
+            public String getTenantIdColumn() {
+                return "tenant_id";
+            }
+
+            @Override
+            public boolean ignoreTable(String tableName) {
+                return false;
+            }
+        });
+        cached = new CachingTenantLineInnerInterceptor(
+                new JianTenantLineHandler("tenant_id", Collections.singletonList("sys_dict")), 4096);
+    }
+
+    @Benchmark
+    public String legacySelect() {
+        return legacy.parserSingle(SELECT, null);
+    }
+
+    @Benchmark
+    public String cachedSelect() {
+        return cached.parserSingle(SELECT, null);
+    }
+
+    @Benchmark
+    public String legacyInsert() {
+        return legacy.parserMulti(INSERT, null);
+    }
+
+    @Benchmark
+    public String cachedInsert() {
+        return cached.parserMulti(INSERT, null);
+    }
+
+    @Benchmark
+    public String legacyDictSelect() {
+        return legacy.parserSingle(DICT_SELECT, null);
+    }
+
+    @Benchmark
+    public String cachedDictSelect() {
+        return cached.parserSingle(DICT_SELECT, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TenantInterceptorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
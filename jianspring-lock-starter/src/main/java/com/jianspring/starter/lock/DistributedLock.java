@@ -15,12 +15,21 @@ public @interface DistributedLock {
     // 锁的key 表达式，支持spel
     String key() default "";
 
+    // 多个锁的key 表达式，支持spel，非空时忽略key()，全部加锁成功才执行（联锁），按锁名排序加锁避免死锁
+    String[] keys() default {};
+
+    // 是否公平锁，按请求顺序获取
+    boolean fair() default false;
+
     //锁的前缀
     String prefixKey() default "RedissonLock:";
 
-    // 租约时长
+    // 租约时长，单位秒；WATCHDOG模式下为持有超时告警阈值，ADAPTIVE模式下为租约上限和样本不足时的租约
     int leaseTime() default 10;
 
+    // 租约模式，默认固定租约
+    LeaseModeEnum leaseMode() default LeaseModeEnum.FIXED;
+
     //获取不到锁后是否等待
     boolean needWait() default true;
 
@@ -4,61 +4,161 @@ import cn.hutool.core.exceptions.ExceptionUtil;
 import com.jianspring.starter.commons.error.CommonErrorCode;
 import com.jianspring.starter.commons.exception.BizException;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.reflect.MethodSignature;
+import org.redisson.api.RLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
+/**
+ * {@link DistributedLock} 切面
+ * <p>
+ * 返回 CompletableFuture/CompletionStage 或 Mono 的方法异步加锁，不阻塞调用线程，结果完成后释放锁；
+ * 其它方法同步加锁，方法返回后释放锁。异步加锁成功后方法不在Redisson的IO线程上执行：CompletableFuture方法交给
+ * 异步执行器（默认公共线程池），Mono方法切换到 boundedElastic 调度器，执行时恢复调用线程的用户上下文、MDC和数据源key，
+ * 见 {@link LockContext}。
+ * <p>
+ * 租约模式见 {@link LeaseModeEnum}：WATCHDOG 交给Redisson看门狗续期；ADAPTIVE 按方法最近持有时长的p99计算租约，
+ * 由 {@link LeaseRenewer} 定期续期，方法结束后立即停止续期并释放。续期模式下持有时长超过预期租约时告警并上报指标。
+ */
 @Aspect
-public class DistributedLockHandler {
+public class DistributedLockHandler implements AutoCloseable {
     private static final Logger log = LoggerFactory.getLogger(DistributedLockHandler.class);
 
+    private static final boolean REACTOR_PRESENT = ClassUtils.isPresent("reactor.core.publisher.Mono",
+            DistributedLockHandler.class.getClassLoader());
+
+    // 异步加锁的持有者标识，取负数避免与真实线程ID重复
+    private static final AtomicLong ASYNC_HOLDER_ID = new AtomicLong();
+
     private final RedissonLock redissonLock;
 
+    private final LockMetrics lockMetrics;
+
+    private final RedissonLockProperties.Lease leaseConfig;
+
+    private final LeaseRenewer leaseRenewer;
+
+    // 异步加锁成功后执行CompletableFuture方法的线程池
+    private final Executor asyncExecutor;
+
+    // 表达式被频繁求值时编译为字节码，无法编译的表达式继续解释执行
+    private final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, DistributedLockHandler.class.getClassLoader()));
+
+    private final ParameterNameDiscoverer nameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    // 每次加锁都要解析锁名，表达式、参数名和前缀按方法缓存
+    private final Map<Method, LockKeyMetadata> metadataCache = new ConcurrentHashMap<>();
+
     public DistributedLockHandler(RedissonLock redissonLock) {
+        this(redissonLock, LockMetrics.NOOP);
+    }
+
+    public DistributedLockHandler(RedissonLock redissonLock, LockMetrics lockMetrics) {
+        this(redissonLock, lockMetrics, new RedissonLockProperties.Lease());
+    }
+
+    public DistributedLockHandler(RedissonLock redissonLock, LockMetrics lockMetrics, RedissonLockProperties.Lease leaseConfig) {
+        this(redissonLock, lockMetrics, leaseConfig, ForkJoinPool.commonPool());
+    }
+
+    public DistributedLockHandler(RedissonLock redissonLock, LockMetrics lockMetrics, RedissonLockProperties.Lease leaseConfig,
+                                  Executor asyncExecutor) {
         this.redissonLock = redissonLock;
+        this.asyncExecutor = asyncExecutor;
+        this.lockMetrics = lockMetrics;
+        this.leaseConfig = leaseConfig;
+        this.leaseRenewer = new LeaseRenewer(redissonLock);
     }
 
     @Around("@annotation(distributedLock)")
     public Object around(ProceedingJoinPoint proceedingJoinPoint, DistributedLock distributedLock) throws Throwable {
 
-        String redisKey = this.getRedisKey(proceedingJoinPoint, distributedLock);
-        if (distributedLock.needMethodPrefix()) {
-            String methodString = proceedingJoinPoint.getSignature().toShortString();
-            redisKey = distributedLock.prefixKey() + methodString + ":" + redisKey;
-        } else {
-            redisKey = distributedLock.prefixKey() + redisKey;
-        }
+        Signature signature = proceedingJoinPoint.getSignature();
+        LockKeyMetadata metadata = getMetadata(((MethodSignature) signature).getMethod(), distributedLock, signature::toShortString);
+        Object[] parameterValues = proceedingJoinPoint.getArgs();
 
         int leaseTime = distributedLock.leaseTime();
         String errorDesc = distributedLock.errorDesc();
         int waitTime = distributedLock.waitTime();
         boolean needWait = distributedLock.needWait();
+        LeaseModeEnum leaseMode = distributedLock.leaseMode();
+
+        // 自适应租约需要自行续期，走RLock路径，不经过本地两级锁
+        if (metadata.resultType != ResultType.SYNC || metadata.keys.size() > 1 || distributedLock.fair()
+                || leaseMode == LeaseModeEnum.ADAPTIVE) {
+            List<String> lockNames = resolveLockNames(metadata, parameterValues);
+            RLock lock = lockNames.size() > 1
+                    ? redissonLock.getMultiLock(lockNames, distributedLock.fair())
+                    : redissonLock.getLock(lockNames.get(0), distributedLock.fair());
+            long lockWaitTime = needWait ? 0L : TimeUnit.SECONDS.toMillis(waitTime);
+            LockCall call = new LockCall(metadata, lockNames, leaseMode, leaseTime);
+            return switch (metadata.resultType) {
+                case FUTURE -> aroundFuture(proceedingJoinPoint, LockContext.capture(), lock, call, lockWaitTime, errorDesc);
+                case MONO -> ReactiveLocks.around(this, proceedingJoinPoint, LockContext.capture(), lock, call, lockWaitTime,
+                        errorDesc);
+                case SYNC -> aroundLock(proceedingJoinPoint, lock, call, lockWaitTime, errorDesc);
+            };
+        }
+
+        String redisKey = metadata.prefix + evaluateKey(metadata.keys.get(0), metadata, parameterValues);
+        LockCall call = new LockCall(metadata, Collections.singletonList(redisKey), leaseMode, leaseTime);
 
         Object o;
         try {
             boolean lock;
-            if (needWait) {
-                lock = redissonLock.tryLock(redisKey, leaseTime);
-            } else {
-                lock = redissonLock.tryLock(redisKey, leaseTime, waitTime);
+            try {
+                if (needWait) {
+                    lock = redissonLock.tryLock(redisKey, call.leaseSeconds());
+                } else {
+                    lock = redissonLock.tryLock(redisKey, call.leaseSeconds(), waitTime);
+                }
+            } catch (RuntimeException e) {
+                call.failed();
+                throw e;
             }
             if (!lock) {
+                call.failed();
                 throw new BizException(CommonErrorCode.ERROR.getCode(), errorDesc);
             }
+            call.acquired(Thread.currentThread().getId());
             o = proceedingJoinPoint.proceed();
         } catch (Exception e) {
             log.error("加锁方法异常" + e.getMessage());
             throw e;
         } finally {
+            call.released();
             if (this.redissonLock.isHeldByCurrentThread(redisKey)) {
                 redissonLock.unlock(redisKey);
             }
@@ -66,23 +166,176 @@ public class DistributedLockHandler {
         return o;
     }
 
-    private String getRedisKey(ProceedingJoinPoint proceedingJoinPoint, DistributedLock distributedLock) {
-        String key = distributedLock.key();
-        Object[] parameterValues = proceedingJoinPoint.getArgs();
-        MethodSignature signature = (MethodSignature) proceedingJoinPoint.getSignature();
-        Method method = signature.getMethod();
+    /**
+     * 解析完整的锁名：前缀 + [方法签名:] + key表达式的值
+     *
+     * @param method          被注解的方法
+     * @param parameterValues 方法参数
+     * @param distributedLock 注解
+     * @param methodString    方法签名的短格式，只在首次解析该方法时调用
+     * @return 锁名，多个key时为第一个
+     */
+    String getRedisKey(Method method, Object[] parameterValues, DistributedLock distributedLock, Supplier<String> methodString) {
+        LockKeyMetadata metadata = getMetadata(method, distributedLock, methodString);
+        return metadata.prefix + evaluateKey(metadata.keys.get(0), metadata, parameterValues);
+    }
+
+    // 公平锁、联锁的同步加锁，联锁不支持isHeldByCurrentThread，按加锁结果决定是否释放
+    private Object aroundLock(ProceedingJoinPoint proceedingJoinPoint, RLock lock, LockCall call,
+                              long waitTime, String errorDesc) throws Throwable {
+        boolean locked = false;
+        try {
+            try {
+                locked = redissonLock.tryLock(lock, call.lockName, call.leaseMillis, waitTime, TimeUnit.MILLISECONDS);
+            } catch (RuntimeException e) {
+                call.failed();
+                throw e;
+            }
+            if (!locked) {
+                call.failed();
+                throw new BizException(CommonErrorCode.ERROR.getCode(), errorDesc);
+            }
+            call.acquired(Thread.currentThread().getId());
+            return proceedingJoinPoint.proceed();
+        } catch (Exception e) {
+            log.error("加锁方法异常" + e.getMessage());
+            throw e;
+        } finally {
+            if (locked) {
+                call.released();
+                redissonLock.unlock(lock, call.lockName);
+            }
+        }
+    }
+
+    // 异步加锁成功后在异步执行器中恢复调用线程的上下文并执行方法，避免业务代码跑在Redisson的IO线程上
+    private Object aroundFuture(ProceedingJoinPoint proceedingJoinPoint, LockContext context, RLock lock, LockCall call,
+                                long waitTime, String errorDesc) {
+        long holderId = nextHolderId();
+        CompletableFuture<Boolean> acquire = redissonLock.tryLockAsync(lock, call.leaseMillis, waitTime, TimeUnit.MILLISECONDS, holderId);
+        return acquire.<CompletableFuture<Object>>handleAsync((locked, error) -> {
+            if (error != null || !Boolean.TRUE.equals(locked)) {
+                call.failed();
+                return CompletableFuture.failedFuture(error != null
+                        ? unwrap(error)
+                        : new BizException(CommonErrorCode.ERROR.getCode(), errorDesc));
+            }
+            call.acquired(holderId);
+            CompletableFuture<Object> result;
+            try {
+                CompletionStage<?> stage = (CompletionStage<?>) context.proceed(proceedingJoinPoint);
+                result = stage == null ? CompletableFuture.completedFuture(null) : stage.toCompletableFuture().thenApply(v -> v);
+            } catch (Throwable e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            return result.whenComplete((v, e) -> releaseAsync(lock, call, holderId));
+        }, asyncExecutor).thenCompose(Function.identity());
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    void releaseAsync(RLock lock, LockCall call, long holderId) {
+        call.released();
+        redissonLock.unlockAsync(lock, holderId).whenComplete((v, e) -> {
+            if (e != null) {
+                log.warn("异步释放Redisson分布式锁失败，lockName={}: {}", call.lockName, e.getMessage());
+            }
+        });
+    }
+
+    static long nextHolderId() {
+        return -ASYNC_HOLDER_ID.incrementAndGet();
+    }
+
+    @Override
+    public void close() {
+        leaseRenewer.close();
+    }
+
+    private long adaptiveLeaseMillis(LockKeyMetadata metadata, long leaseTime) {
+        return adaptiveLeaseMillis(metadata.holdTimes == null ? -1 : metadata.holdTimes.p99Millis(), leaseTime, leaseConfig);
+    }
+
+    // 学习到的租约：p99 * multiplier，限制在[minLease, leaseTime]之间，样本不足（p99为-1）时使用leaseTime
+    static long adaptiveLeaseMillis(long p99, long leaseTime, RedissonLockProperties.Lease leaseConfig) {
+        long maxLease = TimeUnit.SECONDS.toMillis(leaseTime);
+        if (p99 < 0) {
+            return maxLease;
+        }
+        long learned = (long) Math.ceil(p99 * leaseConfig.getMultiplier());
+        return Math.min(maxLease, Math.max(leaseConfig.getMinLease().toMillis(), learned));
+    }
+
+    private LockKeyMetadata getMetadata(Method method, DistributedLock distributedLock, Supplier<String> methodString) {
+        LockKeyMetadata metadata = metadataCache.get(method);
+        if (metadata == null) {
+            metadata = metadataCache.computeIfAbsent(method, m -> createMetadata(m, distributedLock, methodString.get()));
+        }
+        return metadata;
+    }
+
+    private LockKeyMetadata createMetadata(Method method, DistributedLock distributedLock, String methodString) {
+        String prefix = distributedLock.needMethodPrefix()
+                ? distributedLock.prefixKey() + methodString + ":"
+                : distributedLock.prefixKey();
+        List<KeyExpression> keys = new ArrayList<>();
+        if (distributedLock.keys().length > 0) {
+            for (String key : distributedLock.keys()) {
+                keys.add(parseKey(key));
+            }
+        } else {
+            keys.add(parseKey(distributedLock.key()));
+        }
+        HoldTimeStats holdTimes = distributedLock.leaseMode() == LeaseModeEnum.ADAPTIVE
+                ? new HoldTimeStats(leaseConfig.getSampleSize(), leaseConfig.getMinSamples())
+                : null;
+        return new LockKeyMetadata(prefix, keys, nameDiscoverer.getParameterNames(method), resultType(method.getReturnType()),
+                holdTimes);
+    }
+
+    private KeyExpression parseKey(String key) {
+        if (!StringUtils.hasText(key)) {
+            return new KeyExpression(key, null);
+        }
+        try {
+            return new KeyExpression(key, parser.parseExpression(key));
+        } catch (Exception e) {
+            log.error("解析spel表达式失败：{}", ExceptionUtil.stacktraceToString(e));
+            return new KeyExpression(key, null);
+        }
+    }
 
-        DefaultParameterNameDiscoverer nameDiscoverer = new DefaultParameterNameDiscoverer();
-        String[] parameterNames = nameDiscoverer.getParameterNames(method);
+    private static ResultType resultType(Class<?> returnType) {
+        if (CompletionStage.class.isAssignableFrom(returnType)) {
+            return ResultType.FUTURE;
+        }
+        if (REACTOR_PRESENT && ReactiveLocks.isMono(returnType)) {
+            return ResultType.MONO;
+        }
+        return ResultType.SYNC;
+    }
 
+    private List<String> resolveLockNames(LockKeyMetadata metadata, Object[] parameterValues) {
+        List<String> lockNames = new ArrayList<>(metadata.keys.size());
+        for (KeyExpression key : metadata.keys) {
+            lockNames.add(metadata.prefix + evaluateKey(key, metadata, parameterValues));
+        }
+        return lockNames;
+    }
+
+    private String evaluateKey(KeyExpression keyExpression, LockKeyMetadata metadata, Object[] parameterValues) {
+        String key = keyExpression.key;
         if (!StringUtils.hasText(key)) {
             return "redissionLock";
         }
+        if (keyExpression.expression == null || keyExpression.literal) {
+            return key;
+        }
 
-        // SpEL表达式
-        SpelExpressionParser parser = new SpelExpressionParser();
         StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
-
+        String[] parameterNames = metadata.parameterNames;
         if (parameterNames != null && parameterNames.length > 0) {
             for (int i = 0; i < parameterNames.length; ++i) {
                 evaluationContext.setVariable(parameterNames[i], parameterValues[i]);
@@ -90,17 +343,216 @@ public class DistributedLockHandler {
         }
 
         try {
-            Expression expression = parser.parseExpression(key);
-            Object expressionValue = expression.getValue(evaluationContext);
+            Object expressionValue = keyExpression.expression.getValue(evaluationContext);
 
             return (expressionValue != null && !"".equals(expressionValue.toString())) ? expressionValue.toString() : key;
         } catch (Exception e) {
+            if (key.indexOf('#') < 0) {
+                // 不引用参数的表达式每次结果相同，按字面量处理，后续不再求值
+                keyExpression.literal = true;
+                return key;
+            }
             log.error("执行spel表达式失败：{}", ExceptionUtil.stacktraceToString(e));
             return key;
         }
     }
 
+    /**
+     * 一次加锁调用的计时和续期，依次经历 加锁 -> 持有 -> 释放
+     */
+    private final class LockCall {
 
-}
+        private final LockKeyMetadata metadata;
+
+        private final List<String> lockNames;
+
+        private final String lockName;
+
+        private final LeaseModeEnum leaseMode;
+
+        private final long leaseTime;
+
+        // 传给Redisson的租约，-1表示由看门狗续期
+        private final long leaseMillis;
+
+        private final long startNanos = System.nanoTime();
+
+        private boolean acquired;
+
+        private long acquiredNanos;
+
+        private LeaseRenewer.Renewal renewal;
+
+        private LockCall(LockKeyMetadata metadata, List<String> lockNames, LeaseModeEnum leaseMode, long leaseTime) {
+            this.metadata = metadata;
+            this.lockNames = lockNames;
+            this.lockName = lockNames.size() == 1 ? lockNames.get(0) : String.join(",", lockNames);
+            this.leaseMode = leaseMode;
+            this.leaseTime = leaseTime;
+            this.leaseMillis = switch (leaseMode) {
+                case FIXED -> TimeUnit.SECONDS.toMillis(leaseTime);
+                case WATCHDOG -> -1L;
+                case ADAPTIVE -> adaptiveLeaseMillis(metadata, leaseTime);
+            };
+        }
+
+        // 响应式方法在每次订阅时才开始加锁
+        LockCall newCall() {
+            return new LockCall(metadata, lockNames, leaseMode, leaseTime);
+        }
+
+        long leaseSeconds() {
+            return leaseMode == LeaseModeEnum.WATCHDOG ? -1L : leaseTime;
+        }
+
+        void acquired(long holderId) {
+            acquired = true;
+            acquiredNanos = System.nanoTime();
+            lockMetrics.onAcquired(metadata.prefix, lockName, acquiredNanos - startNanos);
+            if (leaseMode == LeaseModeEnum.ADAPTIVE) {
+                renewal = leaseRenewer.schedule(lockNames, holderId, leaseMillis);
+            }
+        }
+
+        void failed() {
+            lockMetrics.onFailed(metadata.prefix, lockName, System.nanoTime() - startNanos);
+        }
+
+        // 在释放锁之前调用，先停止续期
+        void released() {
+            if (renewal != null) {
+                renewal.cancel();
+            }
+            if (!acquired) {
+                return;
+            }
+            long holdNanos = System.nanoTime() - acquiredNanos;
+            lockMetrics.onReleased(metadata.prefix, lockName, holdNanos, leaseMode == LeaseModeEnum.FIXED ? leaseTime : 0L);
+            if (metadata.holdTimes != null) {
+                metadata.holdTimes.record(TimeUnit.NANOSECONDS.toMillis(holdNanos));
+            }
+            if (leaseMode != LeaseModeEnum.FIXED) {
+                long leaseNanos = leaseMode == LeaseModeEnum.ADAPTIVE
+                        ? TimeUnit.MILLISECONDS.toNanos(leaseMillis)
+                        : TimeUnit.SECONDS.toNanos(leaseTime);
+                if (holdNanos > leaseNanos) {
+                    log.warn("分布式锁持有时长超过预期租约，lockName={}, leaseMode={}, holdMillis={}, leaseMillis={}", lockName,
+                            leaseMode, TimeUnit.NANOSECONDS.toMillis(holdNanos), TimeUnit.NANOSECONDS.toMillis(leaseNanos));
+                    lockMetrics.onLeaseOverrun(metadata.prefix, lockName, holdNanos, leaseNanos);
+                }
+            }
+        }
+    }
+
+    private enum ResultType {
+        SYNC, FUTURE, MONO
+    }
+
+    /**
+     * 按方法缓存的锁名解析信息
+     */
+    private static final class LockKeyMetadata {
+
+        private final String prefix;
+
+        private final List<KeyExpression> keys;
+
+        private final String[] parameterNames;
+
+        private final ResultType resultType;
+
+        // 仅自适应租约的方法采样持有时长
+        private final HoldTimeStats holdTimes;
+
+        private LockKeyMetadata(String prefix, List<KeyExpression> keys, String[] parameterNames, ResultType resultType,
+                                HoldTimeStats holdTimes) {
+            this.prefix = prefix;
+            this.keys = keys;
+            this.parameterNames = parameterNames;
+            this.resultType = resultType;
+            this.holdTimes = holdTimes;
+        }
+    }
+
+    private static final class KeyExpression {
+
+        private final String key;
 
+        private final Expression expression;
 
+        private volatile boolean literal;
+
+        private KeyExpression(String key, Expression expression) {
+            this.key = key;
+            this.expression = expression;
+        }
+    }
+
+    /**
+     * 单独放在内部类中，未引入reactor时不加载Mono
+     */
+    private static final class ReactiveLocks {
+
+        // 加锁结果尚未交给方法执行
+        private static final int PENDING = 0;
+
+        // 加锁成功，已由方法执行的doFinally负责释放
+        private static final int HANDED_OFF = 1;
+
+        // 订阅在加锁完成前被取消
+        private static final int CANCELLED = 2;
+
+        static boolean isMono(Class<?> returnType) {
+            return Mono.class.isAssignableFrom(returnType);
+        }
+
+        static Object around(DistributedLockHandler handler, ProceedingJoinPoint proceedingJoinPoint, LockContext context,
+                             RLock lock, LockCall lockCall, long waitTime, String errorDesc) {
+            return Mono.defer(() -> {
+                LockCall call = lockCall.newCall();
+                long holderId = nextHolderId();
+                CompletableFuture<Boolean> acquire = handler.redissonLock.tryLockAsync(lock, call.leaseMillis, waitTime,
+                        TimeUnit.MILLISECONDS, holderId);
+                AtomicInteger state = new AtomicInteger(PENDING);
+                // 订阅取消不会中止已发出的加锁命令，只取消派生的future，原future加锁成功后由doOnCancel释放
+                // 加锁结果在Redisson的IO线程上完成，切换到boundedElastic后再执行方法
+                return Mono.fromCompletionStage(acquire.thenApply(Function.identity()))
+                        .publishOn(Schedulers.boundedElastic())
+                        .doOnError(e -> call.failed())
+                        .flatMap(locked -> {
+                            if (!Boolean.TRUE.equals(locked)) {
+                                call.failed();
+                                return Mono.error(new BizException(CommonErrorCode.ERROR.getCode(), errorDesc));
+                            }
+                            if (!state.compareAndSet(PENDING, HANDED_OFF)) {
+                                return Mono.empty();
+                            }
+                            call.acquired(holderId);
+                            return Mono.defer(() -> proceed(proceedingJoinPoint, context))
+                                    .doFinally(signal -> handler.releaseAsync(lock, call, holderId));
+                        })
+                        .doOnCancel(() -> {
+                            if (state.compareAndSet(PENDING, CANCELLED)) {
+                                call.failed();
+                                acquire.thenAccept(locked -> {
+                                    if (Boolean.TRUE.equals(locked)) {
+                                        handler.releaseAsync(lock, call, holderId);
+                                    }
+                                });
+                            }
+                        });
+            });
+        }
+
+        @SuppressWarnings("unchecked")
+        private static Mono<Object> proceed(ProceedingJoinPoint proceedingJoinPoint, LockContext context) {
+            try {
+                Mono<Object> result = (Mono<Object>) context.proceed(proceedingJoinPoint);
+                return result == null ? Mono.empty() : result;
+            } catch (Throwable e) {
+                return Mono.error(e);
+            }
+        }
+    }
+
+}
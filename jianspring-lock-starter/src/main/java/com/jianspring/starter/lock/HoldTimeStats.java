@@ -0,0 +1,53 @@
+package com.jianspring.starter.lock;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 单个方法最近若干次持有时长的采样，用于计算自适应租约
+ * <p>
+ * 环形缓冲区只保留最近 sampleSize 次，分位数每 {@link #RECOMPUTE_INTERVAL} 次采样重新计算一次，读取时无排序开销。
+ */
+final class HoldTimeStats {
+
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private final AtomicLongArray samples;
+
+    private final int minSamples;
+
+    private final AtomicLong count = new AtomicLong();
+
+    private volatile long p99Millis = -1;
+
+    HoldTimeStats(int sampleSize, int minSamples) {
+        this.samples = new AtomicLongArray(Math.max(1, sampleSize));
+        this.minSamples = Math.max(1, Math.min(minSamples, samples.length()));
+    }
+
+    void record(long holdMillis) {
+        long n = count.incrementAndGet();
+        samples.set((int) ((n - 1) % samples.length()), holdMillis);
+        if (n >= minSamples && (n == minSamples || n % RECOMPUTE_INTERVAL == 0)) {
+            p99Millis = computeP99(n);
+        }
+    }
+
+    /**
+     * @return 最近持有时长的p99，样本不足时返回-1
+     */
+    long p99Millis() {
+        return p99Millis;
+    }
+
+    private long computeP99(long n) {
+        int size = (int) Math.min(n, samples.length());
+        long[] sorted = new long[size];
+        for (int i = 0; i < size; i++) {
+            sorted[i] = samples.get(i);
+        }
+        Arrays.sort(sorted);
+        return sorted[Math.max(0, (int) Math.ceil(size * 0.99) - 1)];
+    }
+}
@@ -0,0 +1,23 @@
+package com.jianspring.starter.lock;
+
+/**
+ * 分布式锁的租约模式
+ */
+public enum LeaseModeEnum {
+
+    FIXED("固定租约，到期后锁自动释放，不续期"),
+    WATCHDOG("由Redisson看门狗续期，持有者存活期间一直持有，leaseTime只作为超时告警的阈值"),
+    ADAPTIVE("按方法历史持有时长的p99计算租约并定期续期，持有者宕机后锁在较短时间内过期"),
+    ;
+
+    private final String desc;
+
+    LeaseModeEnum(String desc) {
+        this.desc = desc;
+    }
+
+    public String getDesc() {
+        return desc;
+    }
+
+}
@@ -0,0 +1,116 @@
+package com.jianspring.starter.lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 自适应租约的续期调度
+ * <p>
+ * 加锁成功后每隔租约的1/3把锁的过期时间重置为完整租约，方法结束后立即取消。
+ * 续期只在持有者进程内进行，进程宕机后锁在一个租约内过期。
+ */
+final class LeaseRenewer implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaseRenewer.class);
+
+    private final RedissonLock redissonLock;
+
+    private volatile ScheduledExecutorService scheduler;
+
+    LeaseRenewer(RedissonLock redissonLock) {
+        this.redissonLock = redissonLock;
+    }
+
+    /**
+     * 开始续期
+     *
+     * @param lockNames   锁名，联锁时逐个续期
+     * @param holderId    持有者标识
+     * @param leaseMillis 每次续期后的租约时长
+     * @return 续期任务，释放锁前需取消
+     */
+    Renewal schedule(List<String> lockNames, long holderId, long leaseMillis) {
+        Renewal renewal = new Renewal(lockNames, holderId, leaseMillis);
+        long period = Math.max(1L, leaseMillis / 3);
+        renewal.future = scheduler().scheduleAtFixedRate(renewal, period, period, TimeUnit.MILLISECONDS);
+        return renewal;
+    }
+
+    @Override
+    public void close() {
+        ScheduledExecutorService executor = this.scheduler;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    // 未使用自适应租约时不创建线程
+    private ScheduledExecutorService scheduler() {
+        ScheduledExecutorService executor = this.scheduler;
+        if (executor == null) {
+            synchronized (this) {
+                executor = this.scheduler;
+                if (executor == null) {
+                    executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread thread = new Thread(r, "jianspring-lock-renewal");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    this.scheduler = executor;
+                }
+            }
+        }
+        return executor;
+    }
+
+    final class Renewal implements Runnable {
+
+        private final List<String> lockNames;
+
+        private final long holderId;
+
+        private final long leaseMillis;
+
+        private volatile ScheduledFuture<?> future;
+
+        private volatile boolean cancelled;
+
+        private Renewal(List<String> lockNames, long holderId, long leaseMillis) {
+            this.lockNames = lockNames;
+            this.holderId = holderId;
+            this.leaseMillis = leaseMillis;
+        }
+
+        @Override
+        public void run() {
+            for (String lockName : lockNames) {
+                redissonLock.renewLeaseAsync(lockName, holderId, leaseMillis).whenComplete((renewed, e) -> {
+                    if (cancelled) {
+                        return;
+                    }
+                    if (e != null) {
+                        // 单次续期失败不取消，下一周期重试，剩余租约仍覆盖两个周期
+                        log.warn("Redisson分布式锁续期异常，lockName={}: {}", lockName, e.getMessage());
+                    } else if (!Boolean.TRUE.equals(renewed)) {
+                        log.warn("Redisson分布式锁续期失败，锁已过期或被释放，lockName={}", lockName);
+                        cancel();
+                    }
+                });
+            }
+        }
+
+        void cancel() {
+            cancelled = true;
+            ScheduledFuture<?> scheduled = future;
+            if (scheduled != null) {
+                scheduled.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.jianspring.starter.lock;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 进程内按锁名的本地锁，两级加锁模式的第一级
+ * <p>
+ * 同一JVM内竞争同一锁名的线程先在本地锁上排队，同一时刻每个JVM只有一个线程去竞争Redisson锁；
+ * 不同锁名各自独立，互不等待。本地锁按引用计数保存，没有线程持有或等待时即移除。
+ * 重入和持有判断使用 ReentrantLock 的持有状态，不访问Redis。
+ */
+final class LocalLocks {
+
+    private final ConcurrentHashMap<String, Entry> locks = new ConcurrentHashMap<>();
+
+    boolean isHeld(String lockName) {
+        Entry entry = locks.get(lockName);
+        return entry != null && entry.lock.isHeldByCurrentThread();
+    }
+
+    /**
+     * 当前线程已持有时重入计数加一
+     *
+     * @return 是否重入成功
+     */
+    boolean reenter(String lockName) {
+        Entry entry = locks.get(lockName);
+        if (entry == null || !entry.lock.isHeldByCurrentThread()) {
+            return false;
+        }
+        entry.lock.lock();
+        return true;
+    }
+
+    void lock(String lockName) {
+        retain(lockName).lock.lock();
+    }
+
+    boolean tryLock(String lockName, long timeout, TimeUnit unit) throws InterruptedException {
+        Entry entry = retain(lockName);
+        boolean locked = false;
+        try {
+            locked = entry.lock.tryLock(timeout, unit);
+            return locked;
+        } finally {
+            if (!locked) {
+                release(lockName);
+            }
+        }
+    }
+
+    /**
+     * 重入计数减一
+     *
+     * @return 是否为最外层释放，此时需释放Redisson锁后调用 {@link #unlock}
+     */
+    boolean exit(String lockName) {
+        Entry entry = locks.get(lockName);
+        if (entry == null || !entry.lock.isHeldByCurrentThread()) {
+            throw new IllegalMonitorStateException("当前线程未持有锁: " + lockName);
+        }
+        if (entry.lock.getHoldCount() > 1) {
+            entry.lock.unlock();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 释放最外层的本地锁
+     */
+    void unlock(String lockName) {
+        locks.get(lockName).lock.unlock();
+        release(lockName);
+    }
+
+    // 当前保存的本地锁数量
+    int size() {
+        return locks.size();
+    }
+
+    private Entry retain(String lockName) {
+        return locks.compute(lockName, (name, entry) -> {
+            Entry retained = entry != null ? entry : new Entry();
+            retained.refs++;
+            return retained;
+        });
+    }
+
+    private void release(String lockName) {
+        locks.computeIfPresent(lockName, (name, entry) -> --entry.refs == 0 ? null : entry);
+    }
+
+    private static final class Entry {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // 持有和等待该锁的线程数，只在compute中修改
+        private int refs;
+    }
+}
@@ -0,0 +1,89 @@
+package com.jianspring.starter.lock;
+
+import com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder;
+import com.jianspring.starter.commons.UserContextUtils;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.slf4j.MDC;
+import org.springframework.util.ClassUtils;
+
+import java.util.Map;
+
+/**
+ * 调用线程上下文的快照，异步加锁成功后在其它线程执行方法时恢复
+ * <p>
+ * 包括用户上下文（租户SQL改写、审计字段填充依赖）、MDC以及引入dynamic-datasource时的数据源key。
+ * 事务绑定在线程上无法跨线程传递，方法上的@Transactional在执行线程上开启新事务。
+ */
+final class LockContext {
+
+    private static final boolean DYNAMIC_DATASOURCE_PRESENT = ClassUtils.isPresent(
+            "com.baomidou.dynamic.datasource.toolkit.DynamicDataSourceContextHolder", LockContext.class.getClassLoader());
+
+    private final UserContextUtils.UserContext userContext;
+
+    private final Map<String, String> mdc;
+
+    private final String dataSource;
+
+    private LockContext(UserContextUtils.UserContext userContext, Map<String, String> mdc, String dataSource) {
+        this.userContext = userContext;
+        this.mdc = mdc;
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * 在调用线程上捕获上下文
+     */
+    static LockContext capture() {
+        return new LockContext(UserContextUtils.get(), MDC.getCopyOfContextMap(),
+                DYNAMIC_DATASOURCE_PRESENT ? DataSourceKeys.peek() : null);
+    }
+
+    /**
+     * 恢复捕获的上下文后执行方法，返回后清理，不影响执行线程上的后续任务
+     *
+     * @param proceedingJoinPoint 被加锁的方法
+     * @return 方法返回值
+     */
+    Object proceed(ProceedingJoinPoint proceedingJoinPoint) throws Throwable {
+        Map<String, String> previousMdc = MDC.getCopyOfContextMap();
+        UserContextUtils.set(userContext);
+        if (mdc != null) {
+            MDC.setContextMap(mdc);
+        }
+        if (dataSource != null) {
+            DataSourceKeys.push(dataSource);
+        }
+        try {
+            return proceedingJoinPoint.proceed();
+        } finally {
+            if (dataSource != null) {
+                DataSourceKeys.poll();
+            }
+            if (previousMdc != null) {
+                MDC.setContextMap(previousMdc);
+            } else {
+                MDC.clear();
+            }
+            UserContextUtils.clear();
+        }
+    }
+
+    /**
+     * 单独放在内部类中，未引入dynamic-datasource时不加载
+     */
+    private static final class DataSourceKeys {
+
+        static String peek() {
+            return DynamicDataSourceContextHolder.peek();
+        }
+
+        static void push(String dataSource) {
+            DynamicDataSourceContextHolder.push(dataSource);
+        }
+
+        static void poll() {
+            DynamicDataSourceContextHolder.poll();
+        }
+    }
+}
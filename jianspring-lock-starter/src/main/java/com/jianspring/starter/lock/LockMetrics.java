@@ -0,0 +1,55 @@
+package com.jianspring.starter.lock;
+
+/**
+ * 分布式锁的加锁、持有、释放埋点
+ * <p>
+ * prefix 为注解解析出的锁名前缀（prefixKey + 方法签名），用作指标维度，数量与被注解的方法数一致；
+ * lockName 为完整锁名，只用于统计竞争最激烈的锁。
+ */
+public interface LockMetrics {
+
+    LockMetrics NOOP = new LockMetrics() {
+    };
+
+    /**
+     * 加锁成功
+     *
+     * @param prefix    锁名前缀
+     * @param lockName  锁名
+     * @param waitNanos 加锁耗时
+     */
+    default void onAcquired(String prefix, String lockName, long waitNanos) {
+    }
+
+    /**
+     * 等待超时或加锁异常
+     *
+     * @param prefix    锁名前缀
+     * @param lockName  锁名
+     * @param waitNanos 加锁耗时
+     */
+    default void onFailed(String prefix, String lockName, long waitNanos) {
+    }
+
+    /**
+     * 释放锁
+     *
+     * @param prefix           锁名前缀
+     * @param lockName         锁名
+     * @param holdNanos        持有时长
+     * @param leaseTimeSeconds 租约时长，小于等于0表示由看门狗续期
+     */
+    default void onReleased(String prefix, String lockName, long holdNanos, long leaseTimeSeconds) {
+    }
+
+    /**
+     * 续期模式下持有时长超过预期租约，锁靠续期保住，可能是方法变慢或租约设置过短
+     *
+     * @param prefix     锁名前缀
+     * @param lockName   锁名
+     * @param holdNanos  持有时长
+     * @param leaseNanos 预期租约
+     */
+    default void onLeaseOverrun(String prefix, String lockName, long holdNanos, long leaseNanos) {
+    }
+}
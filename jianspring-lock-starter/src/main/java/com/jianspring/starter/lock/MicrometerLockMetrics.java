@@ -0,0 +1,170 @@
+package com.jianspring.starter.lock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于Micrometer的锁指标
+ * <ul>
+ *     <li>jianspring.lock.wait：加锁耗时，按 prefix、result(acquired/failed) 区分</li>
+ *     <li>jianspring.lock.hold：持有时长，按 prefix 区分</li>
+ *     <li>jianspring.lock.acquire.failures：加锁失败次数</li>
+ *     <li>jianspring.lock.lease.expirations：持有时长超过租约的次数，此时锁可能已被其它节点获取</li>
+ *     <li>jianspring.lock.lease.overruns：续期模式下持有时长超过预期租约的次数</li>
+ *     <li>jianspring.lock.contended：上一统计窗口内竞争次数最多的锁，按 key 区分，只保留前 topKeys 个</li>
+ * </ul>
+ * 等待超过 contentionThreshold 或加锁失败计为一次竞争。
+ */
+public class MicrometerLockMetrics implements LockMetrics, AutoCloseable {
+
+    private final MeterRegistry registry;
+
+    private final RedissonLockProperties.Metrics config;
+
+    private final long contentionThresholdNanos;
+
+    private final Map<String, Timer> acquiredTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> failedTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Timer> holdTimers = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> failureCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> expirationCounters = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter> overrunCounters = new ConcurrentHashMap<>();
+
+    // 当前统计窗口内各锁的竞争次数
+    private final Map<String, LongAdder> contention = new ConcurrentHashMap<>();
+
+    private final MultiGauge contended;
+
+    private final ScheduledExecutorService scheduler;
+
+    public MicrometerLockMetrics(MeterRegistry registry, RedissonLockProperties.Metrics config) {
+        this.registry = registry;
+        this.config = config;
+        this.contentionThresholdNanos = config.getContentionThreshold().toNanos();
+        this.contended = MultiGauge.builder("jianspring.lock.contended")
+                .description("上一统计窗口内竞争次数最多的锁")
+                .register(registry);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jianspring-lock-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long window = config.getTopKeysWindow().toMillis();
+        scheduler.scheduleAtFixedRate(this::publishTopContended, window, window, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void onAcquired(String prefix, String lockName, long waitNanos) {
+        acquiredTimers.computeIfAbsent(prefix, p -> waitTimer(p, "acquired")).record(waitNanos, TimeUnit.NANOSECONDS);
+        if (waitNanos >= contentionThresholdNanos) {
+            recordContention(lockName);
+        }
+    }
+
+    @Override
+    public void onFailed(String prefix, String lockName, long waitNanos) {
+        failedTimers.computeIfAbsent(prefix, p -> waitTimer(p, "failed")).record(waitNanos, TimeUnit.NANOSECONDS);
+        failureCounters.computeIfAbsent(prefix, p -> Counter.builder("jianspring.lock.acquire.failures")
+                .description("加锁失败次数")
+                .tag("prefix", p)
+                .register(registry)).increment();
+        recordContention(lockName);
+    }
+
+    @Override
+    public void onReleased(String prefix, String lockName, long holdNanos, long leaseTimeSeconds) {
+        holdTimers.computeIfAbsent(prefix, p -> timer("jianspring.lock.hold", "锁持有时长", Tags.of("prefix", p)))
+                .record(holdNanos, TimeUnit.NANOSECONDS);
+        if (leaseTimeSeconds > 0 && holdNanos > TimeUnit.SECONDS.toNanos(leaseTimeSeconds)) {
+            expirationCounters.computeIfAbsent(prefix, p -> Counter.builder("jianspring.lock.lease.expirations")
+                    .description("持有时长超过租约的次数")
+                    .tag("prefix", p)
+                    .register(registry)).increment();
+        }
+    }
+
+    @Override
+    public void onLeaseOverrun(String prefix, String lockName, long holdNanos, long leaseNanos) {
+        overrunCounters.computeIfAbsent(prefix, p -> Counter.builder("jianspring.lock.lease.overruns")
+                .description("续期模式下持有时长超过预期租约的次数")
+                .tag("prefix", p)
+                .register(registry)).increment();
+    }
+
+    /**
+     * 当前统计窗口内竞争次数最多的锁
+     *
+     * @param limit 返回数量
+     * @return 锁名 -> 竞争次数，按次数降序
+     */
+    public Map<String, Long> getTopContended(int limit) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(contention.size());
+        for (Map.Entry<String, LongAdder> entry : contention.entrySet()) {
+            entries.add(Map.entry(entry.getKey(), entry.getValue().sum()));
+        }
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(limit, entries.size()); i++) {
+            top.put(entries.get(i).getKey(), entries.get(i).getValue());
+        }
+        return top;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void recordContention(String lockName) {
+        LongAdder counter = contention.get(lockName);
+        if (counter == null) {
+            // 窗口内跟踪的锁数量有上限，超出后只统计已跟踪的锁
+            if (contention.size() >= config.getMaxTrackedKeys()) {
+                return;
+            }
+            counter = contention.computeIfAbsent(lockName, k -> new LongAdder());
+        }
+        counter.increment();
+    }
+
+    // 统计窗口结束时发布竞争最多的锁并开始新窗口
+    void publishTopContended() {
+        Map<String, Long> top = getTopContended(config.getTopKeys());
+        contention.clear();
+        List<MultiGauge.Row<?>> rows = new ArrayList<>(top.size());
+        for (Map.Entry<String, Long> entry : top.entrySet()) {
+            rows.add(MultiGauge.Row.of(Tags.of("key", entry.getKey()), entry.getValue()));
+        }
+        contended.register(rows, true);
+    }
+
+    private Timer waitTimer(String prefix, String result) {
+        return timer("jianspring.lock.wait", "加锁耗时", Tags.of("prefix", prefix, "result", result));
+    }
+
+    private Timer timer(String name, String description, Tags tags) {
+        Timer.Builder builder = Timer.builder(name).description(description).tags(tags);
+        if (config.isPercentileHistogram()) {
+            builder.publishPercentileHistogram();
+        }
+        return builder.register(registry);
+    }
+}
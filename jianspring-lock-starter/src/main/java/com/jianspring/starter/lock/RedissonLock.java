@@ -2,20 +2,46 @@ package com.jianspring.starter.lock;
 
 import cn.hutool.core.exceptions.ExceptionUtil;
 import org.redisson.api.RLock;
+import org.redisson.api.RScript;
 import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
+/**
+ * Redisson分布式锁操作
+ * <p>
+ * 开启两级加锁（jianspring.redisson.lock.local-lock）后，加锁前先获取同名的进程内锁，同一JVM同一时刻只有一个线程竞争同一个Redisson锁；
+ * 已持有时的重入只在本地计数，isHeldByCurrentThread 按本地持有状态判断，均不访问Redis。跨节点互斥仍由Redisson锁保证。
+ * 两级加锁只作用于按锁名操作的方法，公平锁、联锁和异步加锁直接使用Redisson。
+ */
 public class RedissonLock {
 
     private final Logger log = LoggerFactory.getLogger(getClass());
 
+    private static final String RENEW_SCRIPT = "if (redis.call('hexists', KEYS[1], ARGV[2]) == 1) then "
+            + "redis.call('pexpire', KEYS[1], ARGV[1]); return 1; end; return 0;";
+
     private final RedissonClient redisson;
 
+    // 未开启两级加锁时为null
+    private final LocalLocks localLocks;
+
     public RedissonLock(RedissonClient redisson) {
+        this(redisson, new RedissonLockProperties());
+    }
+
+    public RedissonLock(RedissonClient redisson, RedissonLockProperties properties) {
         this.redisson = redisson;
+        this.localLocks = properties.isLocalLock() ? new LocalLocks() : null;
     }
 
     /**
@@ -26,7 +52,20 @@ public class RedissonLock {
      */
     public void lock(String lockName, long leaseTime) {
         RLock rLock = redisson.getLock(lockName);
-        rLock.lock(leaseTime, TimeUnit.SECONDS);
+        if (localLocks == null) {
+            rLock.lock(leaseTime, TimeUnit.SECONDS);
+            return;
+        }
+        if (localLocks.reenter(lockName)) {
+            return;
+        }
+        localLocks.lock(lockName);
+        try {
+            rLock.lock(leaseTime, TimeUnit.SECONDS);
+        } catch (RuntimeException e) {
+            localLocks.unlock(lockName);
+            throw e;
+        }
     }
 
     /**
@@ -35,8 +74,7 @@ public class RedissonLock {
      * @param lockName 锁名称
      */
     public void lock(String lockName) {
-        RLock rLock = redisson.getLock(lockName);
-        rLock.lock();
+        lock(lockName, -1);
     }
 
     /**
@@ -46,17 +84,7 @@ public class RedissonLock {
      * @param leaseTime 锁有效时间
      */
     public boolean tryLock(String lockName, long leaseTime) {
-
-        RLock rLock = redisson.getLock(lockName);
-        boolean getLock;
-        try {
-            getLock = rLock.tryLock(0L, leaseTime, TimeUnit.SECONDS);
-        } catch (InterruptedException e) {
-            log.error("获取Redisson分布式锁[异常]，lockName=" + lockName, e);
-            log.error(ExceptionUtil.stacktraceToString(e));
-            return false;
-        }
-        return getLock;
+        return tryLock(lockName, leaseTime, 0L);
     }
 
     /**
@@ -71,7 +99,11 @@ public class RedissonLock {
         RLock rLock = redisson.getLock(lockName);
         boolean getLock = false;
         try {
-            getLock = rLock.tryLock(waitTime, leaseTime, TimeUnit.SECONDS);
+            if (localLocks == null) {
+                getLock = rLock.tryLock(waitTime, leaseTime, TimeUnit.SECONDS);
+            } else {
+                getLock = tryLockTwoLevel(rLock, lockName, leaseTime, waitTime);
+            }
         } catch (InterruptedException e) {
             log.error("获取Redisson分布式锁[异常]，lockName=" + lockName, e);
             log.error(ExceptionUtil.stacktraceToString(e));
@@ -86,7 +118,21 @@ public class RedissonLock {
      * @param lockName 锁名称
      */
     public void unlock(String lockName) {
-        redisson.getLock(lockName).unlock();
+        if (localLocks == null) {
+            redisson.getLock(lockName).unlock();
+            return;
+        }
+        if (!localLocks.exit(lockName)) {
+            return;
+        }
+        try {
+            redisson.getLock(lockName).unlock();
+        } catch (IllegalMonitorStateException e) {
+            // 租约已过期，锁可能已被其它节点获取
+            log.warn("释放Redisson分布式锁时锁已过期，lockName={}", lockName);
+        } finally {
+            localLocks.unlock(lockName);
+        }
     }
 
     /**
@@ -106,6 +152,9 @@ public class RedissonLock {
      * @param lockName 锁名称
      */
     public boolean isHeldByCurrentThread(String lockName) {
+        if (localLocks != null) {
+            return localLocks.isHeld(lockName);
+        }
         RLock rLock = redisson.getLock(lockName);
         return rLock.isHeldByCurrentThread();
     }
@@ -114,4 +163,128 @@ public class RedissonLock {
         return redisson.getLock(lockName).forceUnlock();
     }
 
+    /**
+     * 获取锁对象
+     *
+     * @param lockName 锁名称
+     * @param fair     是否公平锁，公平锁按请求顺序获取
+     */
+    public RLock getLock(String lockName, boolean fair) {
+        return fair ? redisson.getFairLock(lockName) : redisson.getLock(lockName);
+    }
+
+    /**
+     * 获取联锁，全部锁都获取成功才算加锁成功
+     * <p>
+     * 锁名去重后按字典序排列，所有节点以相同顺序加锁，避免交叉等待造成死锁
+     *
+     * @param lockNames 锁名称
+     * @param fair      是否公平锁
+     */
+    public RLock getMultiLock(Collection<String> lockNames, boolean fair) {
+        List<RLock> locks = new ArrayList<>(lockNames.size());
+        for (String lockName : new TreeSet<>(lockNames)) {
+            locks.add(getLock(lockName, fair));
+        }
+        return redisson.getMultiLock(locks.toArray(new RLock[0]));
+    }
+
+    /**
+     * 加锁操作(tryLock锁，有等待时间）
+     *
+     * @param rLock     锁对象
+     * @param lockName  锁名称，用于日志
+     * @param leaseTime 锁有效时间，-1表示由看门狗续期
+     * @param waitTime  等待时间
+     * @param unit      时间单位
+     */
+    public boolean tryLock(RLock rLock, String lockName, long leaseTime, long waitTime, TimeUnit unit) {
+        try {
+            return rLock.tryLock(waitTime, leaseTime, unit);
+        } catch (InterruptedException e) {
+            log.error("获取Redisson分布式锁[异常]，lockName=" + lockName, e);
+            return false;
+        }
+    }
+
+    /**
+     * 解锁，锁已过期时只记录日志
+     *
+     * @param rLock    锁对象
+     * @param lockName 锁名称，用于日志
+     */
+    public void unlock(RLock rLock, String lockName) {
+        try {
+            rLock.unlock();
+        } catch (IllegalMonitorStateException e) {
+            log.warn("释放Redisson分布式锁时锁已过期，lockName={}", lockName);
+        }
+    }
+
+    /**
+     * 异步加锁，不阻塞调用线程
+     * <p>
+     * Redisson锁按线程标识持有者，异步场景的加锁和解锁可能在不同线程执行，需由调用方生成唯一的threadId并在解锁时传入
+     *
+     * @param rLock     锁对象
+     * @param leaseTime 锁有效时间，-1表示由看门狗续期
+     * @param waitTime  等待时间
+     * @param unit      时间单位
+     * @param threadId  持有者标识
+     */
+    public CompletableFuture<Boolean> tryLockAsync(RLock rLock, long leaseTime, long waitTime, TimeUnit unit, long threadId) {
+        return rLock.tryLockAsync(waitTime, leaseTime, unit, threadId).toCompletableFuture();
+    }
+
+    /**
+     * 异步解锁
+     *
+     * @param rLock    锁对象
+     * @param threadId 加锁时传入的持有者标识
+     */
+    public CompletableFuture<Void> unlockAsync(RLock rLock, long threadId) {
+        return rLock.unlockAsync(threadId).toCompletableFuture();
+    }
+
+    /**
+     * 持有者仍持有锁时把过期时间重置为leaseMillis，与Redisson看门狗的续期方式相同，但租约长度由调用方决定
+     *
+     * @param lockName    锁名称
+     * @param threadId    持有者标识，同步加锁时为线程ID
+     * @param leaseMillis 新的租约时长
+     * @return 是否续期成功，false表示锁已过期或已被释放
+     */
+    public CompletableFuture<Boolean> renewLeaseAsync(String lockName, long threadId, long leaseMillis) {
+        return redisson.getScript(StringCodec.INSTANCE).<Boolean>evalAsync(lockName, RScript.Mode.READ_WRITE, RENEW_SCRIPT,
+                RScript.ReturnType.BOOLEAN, Collections.<Object>singletonList(lockName), leaseMillis, redisson.getId() + ":" + threadId)
+                .toCompletableFuture();
+    }
+
+    // 本地锁的等待时间计入waitTime，Redisson锁只等待剩余部分
+    private boolean tryLockTwoLevel(RLock rLock, String lockName, long leaseTime, long waitTime) throws InterruptedException {
+        if (localLocks.reenter(lockName)) {
+            return true;
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(waitTime);
+        if (!localLocks.tryLock(lockName, waitTime, TimeUnit.SECONDS)) {
+            return false;
+        }
+        boolean getLock = false;
+        try {
+            long remaining = Math.max(0L, deadline - System.nanoTime());
+            long leaseMillis = leaseTime > 0 ? TimeUnit.SECONDS.toMillis(leaseTime) : leaseTime;
+            getLock = rLock.tryLock(TimeUnit.NANOSECONDS.toMillis(remaining), leaseMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            if (!getLock) {
+                localLocks.unlock(lockName);
+            }
+        }
+        return getLock;
+    }
+
+    // 测试用，当前保存的本地锁数量
+    int localLockCount() {
+        return localLocks == null ? 0 : localLocks.size();
+    }
+
 }
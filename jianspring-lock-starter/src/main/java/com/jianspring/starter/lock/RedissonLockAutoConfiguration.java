@@ -1,15 +1,21 @@
 package com.jianspring.starter.lock;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
 
 @Configuration
-@AutoConfigureAfter(name = "org.redisson.spring.starter.RedissonAutoConfiguration")
+@AutoConfigureAfter(name = {"org.redisson.spring.starter.RedissonAutoConfiguration",
+        "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"})
 @EnableAspectJAutoProxy
 @EnableConfigurationProperties(RedissonLockProperties.class)
 public class RedissonLockAutoConfiguration {
@@ -22,13 +28,26 @@ public class RedissonLockAutoConfiguration {
     @Bean
     @ConditionalOnMissingBean
     public RedissonLock redissonLock(RedissonClient redisson) {
-        return new RedissonLock(redisson);
+        return new RedissonLock(redisson, properties);
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public DistributedLockHandler distributedLockHandler(RedissonLock redissonLock) {
-        return new DistributedLockHandler(redissonLock);
+    public DistributedLockHandler distributedLockHandler(RedissonLock redissonLock, ObjectProvider<LockMetrics> lockMetrics) {
+        return new DistributedLockHandler(redissonLock, lockMetrics.getIfAvailable(() -> LockMetrics.NOOP), properties.getLease());
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "io.micrometer.core.instrument.MeterRegistry")
+    @ConditionalOnProperty(prefix = "jianspring.redisson.lock.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    static class LockMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(LockMetrics.class)
+        @ConditionalOnBean(MeterRegistry.class)
+        public MicrometerLockMetrics lockMetrics(MeterRegistry meterRegistry, RedissonLockProperties properties) {
+            return new MicrometerLockMetrics(meterRegistry, properties.getMetrics());
+        }
     }
 }
 
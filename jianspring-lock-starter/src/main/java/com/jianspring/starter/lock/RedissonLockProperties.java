@@ -2,6 +2,188 @@ package com.jianspring.starter.lock;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @ConfigurationProperties(prefix = "jianspring.redisson.lock")
 public class RedissonLockProperties {
+
+    /**
+     * 是否启用两级加锁：先获取同名的进程内锁再获取Redisson锁，同一JVM内的竞争不访问Redis，
+     * 重入和持有判断也在本地完成
+     */
+    private boolean localLock = false;
+
+    /**
+     * 锁指标配置，需引入micrometer
+     */
+    private Metrics metrics = new Metrics();
+
+    /**
+     * 自适应租约配置，对 leaseMode = ADAPTIVE 的方法生效
+     */
+    private Lease lease = new Lease();
+
+    public boolean isLocalLock() {
+        return localLock;
+    }
+
+    public void setLocalLock(boolean localLock) {
+        this.localLock = localLock;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public Lease getLease() {
+        return lease;
+    }
+
+    public void setLease(Lease lease) {
+        this.lease = lease;
+    }
+
+    /**
+     * 锁指标配置
+     */
+    public static class Metrics {
+        /**
+         * 是否启用锁指标
+         */
+        private boolean enabled = true;
+
+        /**
+         * 加锁耗时、持有时长是否发布直方图，用于在监控端计算分位数
+         */
+        private boolean percentileHistogram = false;
+
+        /**
+         * 加锁等待超过该时长计为一次竞争
+         */
+        private Duration contentionThreshold = Duration.ofMillis(10);
+
+        /**
+         * 发布竞争最多的锁的数量
+         */
+        private int topKeys = 10;
+
+        /**
+         * 竞争统计窗口
+         */
+        private Duration topKeysWindow = Duration.ofMinutes(1);
+
+        /**
+         * 每个统计窗口内最多跟踪的锁数量
+         */
+        private int maxTrackedKeys = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isPercentileHistogram() {
+            return percentileHistogram;
+        }
+
+        public void setPercentileHistogram(boolean percentileHistogram) {
+            this.percentileHistogram = percentileHistogram;
+        }
+
+        public Duration getContentionThreshold() {
+            return contentionThreshold;
+        }
+
+        public void setContentionThreshold(Duration contentionThreshold) {
+            this.contentionThreshold = contentionThreshold;
+        }
+
+        public int getTopKeys() {
+            return topKeys;
+        }
+
+        public void setTopKeys(int topKeys) {
+            this.topKeys = topKeys;
+        }
+
+        public Duration getTopKeysWindow() {
+            return topKeysWindow;
+        }
+
+        public void setTopKeysWindow(Duration topKeysWindow) {
+            this.topKeysWindow = topKeysWindow;
+        }
+
+        public int getMaxTrackedKeys() {
+            return maxTrackedKeys;
+        }
+
+        public void setMaxTrackedKeys(int maxTrackedKeys) {
+            this.maxTrackedKeys = maxTrackedKeys;
+        }
+    }
+
+    /**
+     * 自适应租约配置
+     */
+    public static class Lease {
+        /**
+         * 租约为方法持有时长p99的倍数
+         */
+        private double multiplier = 2.0;
+
+        /**
+         * 租约下限，避免续期过于频繁
+         */
+        private Duration minLease = Duration.ofSeconds(1);
+
+        /**
+         * 采样数达到该值后才使用学习到的租约，此前使用注解的leaseTime
+         */
+        private int minSamples = 20;
+
+        /**
+         * 每个方法保留的最近持有时长样本数
+         */
+        private int sampleSize = 128;
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+
+        public Duration getMinLease() {
+            return minLease;
+        }
+
+        public void setMinLease(Duration minLease) {
+            this.minLease = minLease;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public int getSampleSize() {
+            return sampleSize;
+        }
+
+        public void setSampleSize(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+    }
 }
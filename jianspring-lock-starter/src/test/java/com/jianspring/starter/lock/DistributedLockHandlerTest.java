@@ -0,0 +1,277 @@
+package com.jianspring.starter.lock;
+
+import com.jianspring.starter.commons.UserContextUtils;
+import com.jianspring.starter.commons.exception.BizException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.redisson.api.RLock;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * DistributedLockHandler 联锁、公平锁、异步加锁和自适应租约的单元测试
+ */
+public class DistributedLockHandlerTest {
+
+    private RedissonLock redissonLock;
+
+    private RLock rLock;
+
+    private ExecutorService executor;
+
+    private DistributedLockHandler handler;
+
+    private LockedService target;
+
+    // 代理类的字段未初始化，调用记录从target上读取
+    private LockedService service;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redissonLock = mock(RedissonLock.class);
+        rLock = mock(RLock.class);
+        when(redissonLock.getLock(anyString(), anyBoolean())).thenReturn(rLock);
+        when(redissonLock.getMultiLock(anyList(), anyBoolean())).thenReturn(rLock);
+        when(redissonLock.tryLock(eq(rLock), anyString(), anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        when(redissonLock.unlockAsync(eq(rLock), anyLong())).thenReturn(CompletableFuture.completedFuture(null));
+
+        // 先启动线程，避免InheritableThreadLocal把测试线程的上下文带过去
+        executor = Executors.newSingleThreadExecutor();
+        executor.submit(() -> {
+        }).get();
+        handler = new DistributedLockHandler(redissonLock, LockMetrics.NOOP, new RedissonLockProperties.Lease(), executor);
+        target = new LockedService();
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(handler);
+        service = factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        UserContextUtils.clear();
+        executor.shutdownNow();
+        handler.close();
+    }
+
+    @Test
+    @DisplayName("测试多个key使用联锁")
+    void testMultiLock() throws Exception {
+        assertEquals("ok", service.multi());
+        verify(redissonLock).getMultiLock(List.of("lock:b", "lock:a", "lock:b"), false);
+        verify(redissonLock).tryLock(eq(rLock), eq("lock:b,lock:a,lock:b"), eq(10000L), eq(0L), eq(TimeUnit.MILLISECONDS));
+        verify(redissonLock).unlock(rLock, "lock:b,lock:a,lock:b");
+    }
+
+    @Test
+    @DisplayName("测试公平锁")
+    void testFairLock() throws Exception {
+        assertEquals("ok", service.fair());
+        verify(redissonLock).getLock("lock:fair", true);
+        verify(redissonLock).unlock(rLock, "lock:fair");
+    }
+
+    @Test
+    @DisplayName("测试CompletableFuture方法异步加锁并以同一持有者释放，执行时恢复调用方上下文")
+    void testFuture() {
+        when(redissonLock.tryLockAsync(eq(rLock), anyLong(), anyLong(), any(TimeUnit.class), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        UserContextUtils.UserContext userContext = UserContextUtils.UserContext.defaultContext();
+        userContext.setTenantId(7L);
+        UserContextUtils.set(userContext);
+
+        assertEquals(7L, service.future().join());
+        ArgumentCaptor<Long> holderId = ArgumentCaptor.forClass(Long.class);
+        verify(redissonLock).tryLockAsync(eq(rLock), eq(10000L), eq(0L), eq(TimeUnit.MILLISECONDS), holderId.capture());
+        assertTrue(holderId.getValue() < 0);
+        verify(redissonLock).unlockAsync(rLock, holderId.getValue());
+        verify(redissonLock, never()).unlock(any(RLock.class), anyString());
+        assertNotEquals(Thread.currentThread().getName(), target.threadName.get());
+
+        // 执行线程上的上下文已清理
+        Long tenantAfter = CompletableFuture.supplyAsync(() -> UserContextUtils.get().getTenantId(), executor).join();
+        assertEquals(0L, tenantAfter);
+    }
+
+    @Test
+    @DisplayName("测试CompletableFuture方法加锁失败时不执行方法")
+    void testFutureLockFailed() {
+        when(redissonLock.tryLockAsync(eq(rLock), anyLong(), anyLong(), any(TimeUnit.class), anyLong()))
+                .thenReturn(CompletableFuture.completedFuture(false));
+
+        CompletionException e = assertThrows(CompletionException.class, () -> service.future().join());
+        assertInstanceOf(BizException.class, e.getCause());
+        assertEquals(0, target.invocations.get());
+        verify(redissonLock, never()).unlockAsync(any(RLock.class), anyLong());
+    }
+
+    @Test
+    @DisplayName("测试Mono方法在boundedElastic上执行并以同一持有者释放")
+    void testMono() {
+        when(redissonLock.tryLockAsync(eq(rLock), anyLong(), anyLong(), any(TimeUnit.class), anyLong()))
+                .thenAnswer(invocation -> CompletableFuture.supplyAsync(() -> true));
+        UserContextUtils.UserContext userContext = UserContextUtils.UserContext.defaultContext();
+        userContext.setTenantId(9L);
+        UserContextUtils.set(userContext);
+
+        assertEquals(9L, service.mono().block());
+        ArgumentCaptor<Long> holderId = ArgumentCaptor.forClass(Long.class);
+        verify(redissonLock).tryLockAsync(eq(rLock), eq(10000L), eq(0L), eq(TimeUnit.MILLISECONDS), holderId.capture());
+        assertTrue(holderId.getValue() < 0);
+        verify(redissonLock).unlockAsync(rLock, holderId.getValue());
+        assertTrue(target.threadName.get().startsWith("boundedElastic"));
+
+        // 每次订阅重新加锁，持有者不同
+        assertEquals(9L, service.mono().block());
+        ArgumentCaptor<Long> holderIds = ArgumentCaptor.forClass(Long.class);
+        verify(redissonLock, times(2)).unlockAsync(eq(rLock), holderIds.capture());
+        assertNotEquals(holderIds.getAllValues().get(0), holderIds.getAllValues().get(1));
+    }
+
+    @Test
+    @DisplayName("测试加锁完成前取消订阅，加锁成功后释放且不执行方法")
+    void testMonoCancelledBeforeAcquire() {
+        CompletableFuture<Boolean> acquire = new CompletableFuture<>();
+        when(redissonLock.tryLockAsync(eq(rLock), anyLong(), anyLong(), any(TimeUnit.class), anyLong())).thenReturn(acquire);
+
+        Disposable subscription = service.mono().subscribe();
+        subscription.dispose();
+        verify(redissonLock, never()).unlockAsync(any(RLock.class), anyLong());
+
+        acquire.complete(true);
+        ArgumentCaptor<Long> holderId = ArgumentCaptor.forClass(Long.class);
+        verify(redissonLock).tryLockAsync(eq(rLock), anyLong(), anyLong(), any(TimeUnit.class), holderId.capture());
+        verify(redissonLock, timeout(1000)).unlockAsync(rLock, holderId.getValue());
+        assertEquals(0, target.invocations.get());
+    }
+
+    @Test
+    @DisplayName("测试加锁完成前取消订阅，加锁失败时不释放")
+    void testMonoCancelledBeforeAcquireFailed() throws InterruptedException {
+        CompletableFuture<Boolean> acquire = new CompletableFuture<>();
+        when(redissonLock.tryLockAsync(eq(rLock), anyLong(), anyLong(), any(TimeUnit.class), anyLong())).thenReturn(acquire);
+
+        service.mono().subscribe().dispose();
+        acquire.complete(false);
+        Thread.sleep(50);
+        verify(redissonLock, never()).unlockAsync(any(RLock.class), anyLong());
+        assertEquals(0, target.invocations.get());
+    }
+
+    @Test
+    @DisplayName("测试自适应租约限制在[minLease, leaseTime]之间，样本不足时使用leaseTime")
+    void testAdaptiveLeaseClamp() {
+        RedissonLockProperties.Lease lease = new RedissonLockProperties.Lease();
+        lease.setMultiplier(2.0);
+        lease.setMinLease(Duration.ofSeconds(1));
+
+        assertEquals(10000L, DistributedLockHandler.adaptiveLeaseMillis(-1, 10, lease));
+        assertEquals(1000L, DistributedLockHandler.adaptiveLeaseMillis(100, 10, lease));
+        assertEquals(6000L, DistributedLockHandler.adaptiveLeaseMillis(3000, 10, lease));
+        assertEquals(10000L, DistributedLockHandler.adaptiveLeaseMillis(8000, 10, lease));
+    }
+
+    @Test
+    @DisplayName("测试自适应租约：按学习到的租约加锁，持有期间续期，释放前停止续期，超时上报")
+    void testAdaptiveLease() throws Exception {
+        RedissonLockProperties.Lease lease = new RedissonLockProperties.Lease();
+        lease.setMinLease(Duration.ofMillis(30));
+        lease.setMinSamples(1);
+        lease.setSampleSize(1);
+        LockMetrics lockMetrics = mock(LockMetrics.class);
+        when(redissonLock.renewLeaseAsync(anyString(), anyLong(), anyLong())).thenReturn(CompletableFuture.completedFuture(true));
+        AtomicInteger renewalsAtUnlock = new AtomicInteger(-1);
+        doAnswer(invocation -> {
+            renewalsAtUnlock.set(renewals());
+            return null;
+        }).when(redissonLock).unlock(rLock, "lock:adaptive");
+        DistributedLockHandler adaptiveHandler = new DistributedLockHandler(redissonLock, lockMetrics, lease, executor);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.setProxyTargetClass(true);
+        factory.addAspect(adaptiveHandler);
+        LockedService adaptiveService = factory.getProxy();
+        try {
+            // 没有样本时使用leaseTime
+            adaptiveService.adaptive(0);
+            verify(redissonLock).tryLock(eq(rLock), eq("lock:adaptive"), eq(10000L), anyLong(), eq(TimeUnit.MILLISECONDS));
+            verify(lockMetrics, never()).onLeaseOverrun(anyString(), anyString(), anyLong(), anyLong());
+
+            // 上次持有不到1ms，租约取minLease，持有100ms期间续期并上报超时
+            adaptiveService.adaptive(100);
+            verify(redissonLock).tryLock(eq(rLock), eq("lock:adaptive"), eq(30L), anyLong(), eq(TimeUnit.MILLISECONDS));
+            verify(redissonLock, atLeastOnce()).renewLeaseAsync(eq("lock:adaptive"), eq(Thread.currentThread().getId()), eq(30L));
+            ArgumentCaptor<Long> holdNanos = ArgumentCaptor.forClass(Long.class);
+            verify(lockMetrics).onLeaseOverrun(eq("lock:"), eq("lock:adaptive"), holdNanos.capture(),
+                    eq(TimeUnit.MILLISECONDS.toNanos(30)));
+            assertTrue(holdNanos.getValue() >= TimeUnit.MILLISECONDS.toNanos(100));
+
+            int renewals = renewalsAtUnlock.get();
+            assertTrue(renewals > 0);
+            Thread.sleep(50);
+            assertEquals(renewals, renewals());
+        } finally {
+            adaptiveHandler.close();
+        }
+    }
+
+    private int renewals() {
+        return (int) mockingDetails(redissonLock).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("renewLeaseAsync"))
+                .count();
+    }
+
+    public static class LockedService {
+
+        final AtomicInteger invocations = new AtomicInteger();
+
+        final AtomicReference<String> threadName = new AtomicReference<>();
+
+        @DistributedLock(keys = {"'b'", "'a'", "'b'"}, prefixKey = "lock:", needMethodPrefix = false)
+        public String multi() {
+            return "ok";
+        }
+
+        @DistributedLock(key = "'fair'", fair = true, prefixKey = "lock:", needMethodPrefix = false)
+        public String fair() {
+            return "ok";
+        }
+
+        @DistributedLock(key = "'adaptive'", leaseMode = LeaseModeEnum.ADAPTIVE, prefixKey = "lock:", needMethodPrefix = false)
+        public void adaptive(long holdMillis) throws InterruptedException {
+            Thread.sleep(holdMillis);
+        }
+
+        @DistributedLock(key = "'future'", prefixKey = "lock:", needMethodPrefix = false)
+        public CompletableFuture<Long> future() {
+            invocations.incrementAndGet();
+            threadName.set(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(UserContextUtils.get().getTenantId());
+        }
+
+        @DistributedLock(key = "'mono'", prefixKey = "lock:", needMethodPrefix = false)
+        public Mono<Long> mono() {
+            invocations.incrementAndGet();
+            threadName.set(Thread.currentThread().getName());
+            return Mono.just(UserContextUtils.get().getTenantId());
+        }
+    }
+}
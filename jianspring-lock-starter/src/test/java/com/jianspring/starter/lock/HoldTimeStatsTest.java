@@ -0,0 +1,51 @@
+package com.jianspring.starter.lock;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * HoldTimeStats 持有时长采样的单元测试
+ */
+public class HoldTimeStatsTest {
+
+    @Test
+    @DisplayName("测试样本不足时没有p99")
+    void testBelowMinSamples() {
+        HoldTimeStats stats = new HoldTimeStats(100, 20);
+        for (int i = 0; i < 19; i++) {
+            stats.record(5);
+        }
+        assertEquals(-1, stats.p99Millis());
+
+        stats.record(5);
+        assertEquals(5, stats.p99Millis());
+    }
+
+    @Test
+    @DisplayName("测试p99只统计最近sampleSize次")
+    void testWindow() {
+        HoldTimeStats stats = new HoldTimeStats(100, 100);
+        for (int i = 1; i <= 100; i++) {
+            stats.record(i);
+        }
+        assertEquals(99, stats.p99Millis());
+
+        // 第208次采样时重新计算，窗口内只剩新的样本
+        for (int i = 0; i < 108; i++) {
+            stats.record(5);
+        }
+        assertEquals(5, stats.p99Millis());
+    }
+
+    @Test
+    @DisplayName("测试minSamples不超过sampleSize")
+    void testMinSamplesCapped() {
+        HoldTimeStats stats = new HoldTimeStats(4, 20);
+        for (int i = 1; i <= 4; i++) {
+            stats.record(i * 10L);
+        }
+        assertEquals(40, stats.p99Millis());
+    }
+}
@@ -0,0 +1,77 @@
+package com.jianspring.starter.lock;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * LeaseRenewer 自适应租约续期的单元测试
+ */
+public class LeaseRenewerTest {
+
+    private RedissonLock redissonLock;
+
+    private LeaseRenewer leaseRenewer;
+
+    @BeforeEach
+    void setUp() {
+        redissonLock = mock(RedissonLock.class);
+        when(redissonLock.renewLeaseAsync(anyString(), anyLong(), anyLong())).thenReturn(CompletableFuture.completedFuture(true));
+        leaseRenewer = new LeaseRenewer(redissonLock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        leaseRenewer.close();
+    }
+
+    @Test
+    @DisplayName("测试每隔租约的1/3续期联锁中的每个锁")
+    void testRenew() {
+        LeaseRenewer.Renewal renewal = leaseRenewer.schedule(List.of("lock:a", "lock:b"), -1L, 30L);
+        verify(redissonLock, timeout(1000).atLeast(2)).renewLeaseAsync("lock:a", -1L, 30L);
+        verify(redissonLock, timeout(1000).atLeast(2)).renewLeaseAsync("lock:b", -1L, 30L);
+        renewal.cancel();
+    }
+
+    @Test
+    @DisplayName("测试取消后不再续期")
+    void testCancel() throws InterruptedException {
+        LeaseRenewer.Renewal renewal = leaseRenewer.schedule(List.of("lock:a"), -1L, 30L);
+        verify(redissonLock, timeout(1000).atLeastOnce()).renewLeaseAsync(eq("lock:a"), anyLong(), anyLong());
+        renewal.cancel();
+        Thread.sleep(20);
+        clearInvocations(redissonLock);
+        Thread.sleep(100);
+        verify(redissonLock, never()).renewLeaseAsync(anyString(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("测试锁已过期或被释放时停止续期")
+    void testStopWhenLost() throws InterruptedException {
+        when(redissonLock.renewLeaseAsync(anyString(), anyLong(), anyLong())).thenReturn(CompletableFuture.completedFuture(false));
+        leaseRenewer.schedule(List.of("lock:a"), -1L, 30L);
+        verify(redissonLock, timeout(1000).times(1)).renewLeaseAsync("lock:a", -1L, 30L);
+        Thread.sleep(100);
+        verify(redissonLock, times(1)).renewLeaseAsync("lock:a", -1L, 30L);
+    }
+
+    @Test
+    @DisplayName("测试单次续期异常时继续续期")
+    void testRetryOnError() {
+        when(redissonLock.renewLeaseAsync(anyString(), anyLong(), anyLong()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("timeout")))
+                .thenReturn(CompletableFuture.completedFuture(true));
+        LeaseRenewer.Renewal renewal = leaseRenewer.schedule(List.of("lock:a"), -1L, 30L);
+        verify(redissonLock, timeout(1000).atLeast(3)).renewLeaseAsync("lock:a", -1L, 30L);
+        renewal.cancel();
+    }
+}
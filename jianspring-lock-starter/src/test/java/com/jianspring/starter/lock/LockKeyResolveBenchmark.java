@@ -0,0 +1,110 @@
+package com.jianspring.starter.lock;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 锁名解析耗时对比：legacy 为每次新建解析器、参数名发现器并重新解析表达式，cached 为 DistributedLockHandler 按方法缓存后的实现
+ * <p>
+ * 运行：直接执行 main 方法，加 -prof gc 可查看每次调用的分配量
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LockKeyResolveBenchmark {
+
+    private DistributedLockHandler handler;
+
+    private Method method;
+
+    private DistributedLock distributedLock;
+
+    private final Object[] args = {new Account(10086L), 100};
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        handler = new DistributedLockHandler(null);
+        method = LockKeyResolveBenchmark.class.getDeclaredMethod("transfer", Account.class, int.class);
+        distributedLock = method.getAnnotation(DistributedLock.class);
+    }
+
+    @Benchmark
+    public String legacy() {
+        String redisKey = legacyGetRedisKey(method, args, distributedLock);
+        return distributedLock.prefixKey() + "LockKeyResolveBenchmark.transfer(..)" + ":" + redisKey;
+    }
+
+    @Benchmark
+    public String cached() {
+        return handler.getRedisKey(method, args, distributedLock, () -> "LockKeyResolveBenchmark.transfer(..)");
+    }
+
+    @DistributedLock(key = "#account.id")
+    public void transfer(Account account, int amount) {
+    }
+
+    // 缓存前的实现
+    private static String legacyGetRedisKey(Method method, Object[] parameterValues, DistributedLock distributedLock) {
+        String key = distributedLock.key();
+        DefaultParameterNameDiscoverer nameDiscoverer = new DefaultParameterNameDiscoverer();
+        String[] parameterNames = nameDiscoverer.getParameterNames(method);
+        if (!StringUtils.hasText(key)) {
+            return "redissionLock";
+        }
+        SpelExpressionParser parser = new SpelExpressionParser();
+        StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+        if (parameterNames != null && parameterNames.length > 0) {
+            for (int i = 0; i < parameterNames.length; ++i) {
+                evaluationContext.setVariable(parameterNames[i], parameterValues[i]);
+            }
+        }
+        try {
+            Expression expression = parser.parseExpression(key);
+            Object expressionValue = expression.getValue(evaluationContext);
+            return (expressionValue != null && !"".equals(expressionValue.toString())) ? expressionValue.toString() : key;
+        } catch (Exception e) {
+            return key;
+        }
+    }
+
+    public static class Account {
+
+        private final Long id;
+
+        public Account(Long id) {
+            this.id = id;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LockKeyResolveBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,120 @@
+package com.jianspring.starter.lock;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MicrometerLockMetrics 的单元测试
+ */
+public class MicrometerLockMetricsTest {
+
+    private SimpleMeterRegistry registry;
+
+    private MicrometerLockMetrics lockMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        RedissonLockProperties.Metrics config = new RedissonLockProperties.Metrics();
+        config.setContentionThreshold(Duration.ofMillis(10));
+        config.setTopKeys(2);
+        config.setMaxTrackedKeys(3);
+        // 窗口由测试手动结束
+        config.setTopKeysWindow(Duration.ofHours(1));
+        lockMetrics = new MicrometerLockMetrics(registry, config);
+    }
+
+    @AfterEach
+    void tearDown() {
+        lockMetrics.close();
+    }
+
+    @Test
+    @DisplayName("测试计时器和计数器按前缀区分")
+    void testTimersAndCountersPerPrefix() {
+        lockMetrics.onAcquired("order:", "order:1", TimeUnit.MILLISECONDS.toNanos(1));
+        lockMetrics.onAcquired("order:", "order:2", TimeUnit.MILLISECONDS.toNanos(3));
+        lockMetrics.onAcquired("stock:", "stock:1", TimeUnit.MILLISECONDS.toNanos(1));
+        lockMetrics.onFailed("order:", "order:1", TimeUnit.SECONDS.toNanos(3));
+        lockMetrics.onReleased("stock:", "stock:1", TimeUnit.MILLISECONDS.toNanos(5), 10);
+        lockMetrics.onLeaseOverrun("stock:", "stock:1", TimeUnit.SECONDS.toNanos(2), TimeUnit.SECONDS.toNanos(1));
+
+        assertEquals(2, registry.get("jianspring.lock.wait").tags("prefix", "order:", "result", "acquired").timer().count());
+        assertEquals(1, registry.get("jianspring.lock.wait").tags("prefix", "stock:", "result", "acquired").timer().count());
+        assertEquals(1, registry.get("jianspring.lock.wait").tags("prefix", "order:", "result", "failed").timer().count());
+        assertEquals(1.0, registry.get("jianspring.lock.acquire.failures").tags("prefix", "order:").counter().count());
+        assertNull(registry.find("jianspring.lock.acquire.failures").tags("prefix", "stock:").counter());
+        assertEquals(1, registry.get("jianspring.lock.hold").tags("prefix", "stock:").timer().count());
+        assertEquals(1.0, registry.get("jianspring.lock.lease.overruns").tags("prefix", "stock:").counter().count());
+    }
+
+    @Test
+    @DisplayName("测试只有固定租约下持有超过租约才计为过期")
+    void testLeaseExpirations() {
+        // 续期模式传入的租约为0
+        lockMetrics.onReleased("order:", "order:1", TimeUnit.SECONDS.toNanos(60), 0);
+        assertNull(registry.find("jianspring.lock.lease.expirations").counter());
+
+        lockMetrics.onReleased("order:", "order:1", TimeUnit.SECONDS.toNanos(1), 10);
+        lockMetrics.onReleased("order:", "order:1", TimeUnit.SECONDS.toNanos(10), 10);
+        assertNull(registry.find("jianspring.lock.lease.expirations").counter());
+
+        lockMetrics.onReleased("order:", "order:1", TimeUnit.SECONDS.toNanos(11), 10);
+        assertEquals(1.0, registry.get("jianspring.lock.lease.expirations").tags("prefix", "order:").counter().count());
+        assertEquals(4, registry.get("jianspring.lock.hold").tags("prefix", "order:").timer().count());
+    }
+
+    @Test
+    @DisplayName("测试等待超过阈值或失败计为竞争，跟踪的锁数量有上限")
+    void testContentionTrackedKeysCapped() {
+        lockMetrics.onAcquired("order:", "order:fast", TimeUnit.MILLISECONDS.toNanos(1));
+        lockMetrics.onAcquired("order:", "order:1", TimeUnit.MILLISECONDS.toNanos(20));
+        lockMetrics.onFailed("order:", "order:2", 0);
+        lockMetrics.onFailed("order:", "order:3", 0);
+        lockMetrics.onFailed("order:", "order:4", 0);
+        lockMetrics.onFailed("order:", "order:1", 0);
+
+        Map<String, Long> top = lockMetrics.getTopContended(10);
+        assertEquals(3, top.size());
+        assertEquals(2L, top.get("order:1"));
+        assertFalse(top.containsKey("order:fast"));
+        assertFalse(top.containsKey("order:4"));
+        assertEquals("order:1", top.keySet().iterator().next());
+    }
+
+    @Test
+    @DisplayName("测试窗口结束时发布竞争最多的前topKeys个锁")
+    void testTopContendedGauge() {
+        for (int i = 0; i < 3; i++) {
+            lockMetrics.onFailed("order:", "order:1", 0);
+        }
+        lockMetrics.onFailed("order:", "order:2", 0);
+        lockMetrics.onFailed("order:", "order:2", 0);
+        lockMetrics.onFailed("order:", "order:3", 0);
+
+        lockMetrics.publishTopContended();
+        assertEquals(2, registry.find("jianspring.lock.contended").gauges().size());
+        assertEquals(3.0, registry.get("jianspring.lock.contended").tag("key", "order:1").gauge().value());
+        assertEquals(2.0, registry.get("jianspring.lock.contended").tag("key", "order:2").gauge().value());
+        assertNull(registry.find("jianspring.lock.contended").tag("key", "order:3").gauge());
+        assertTrue(lockMetrics.getTopContended(10).isEmpty());
+
+        // 新窗口覆盖上一窗口的行
+        lockMetrics.onFailed("order:", "order:3", 0);
+        lockMetrics.publishTopContended();
+        Gauge gauge = registry.get("jianspring.lock.contended").gauge();
+        assertEquals("order:3", gauge.getId().getTag("key"));
+        assertEquals(1.0, gauge.value());
+        assertEquals(1, registry.find("jianspring.lock.contended").gauges().size());
+    }
+}
@@ -0,0 +1,148 @@
+package com.jianspring.starter.lock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * RedissonLock 两级加锁的单元测试
+ */
+public class RedissonLockTest {
+
+    private RedissonClient redisson;
+
+    private RLock rLock;
+
+    private RedissonLock redissonLock;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        redisson = mock(RedissonClient.class);
+        rLock = mock(RLock.class);
+        when(redisson.getLock(anyString())).thenReturn(rLock);
+        when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(true);
+        RedissonLockProperties properties = new RedissonLockProperties();
+        properties.setLocalLock(true);
+        redissonLock = new RedissonLock(redisson, properties);
+    }
+
+    @Test
+    @DisplayName("测试重入只在本地计数")
+    void testReentry() throws InterruptedException {
+        assertTrue(redissonLock.tryLock("order:1", 30));
+        assertTrue(redissonLock.tryLock("order:1", 30));
+        assertTrue(redissonLock.isHeldByCurrentThread("order:1"));
+        verify(rLock, times(1)).tryLock(anyLong(), anyLong(), any(TimeUnit.class));
+
+        redissonLock.unlock("order:1");
+        assertTrue(redissonLock.isHeldByCurrentThread("order:1"));
+        verify(rLock, never()).unlock();
+
+        redissonLock.unlock("order:1");
+        assertFalse(redissonLock.isHeldByCurrentThread("order:1"));
+        verify(rLock, times(1)).unlock();
+        assertEquals(0, redissonLock.localLockCount());
+    }
+
+    @Test
+    @DisplayName("测试不同锁名互不等待")
+    void testDifferentNamesIndependent() {
+        // "Aa" 与 "BB" 的hashCode相同，按哈希分段时会落在同一段上
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertTrue(redissonLock.tryLock("Aa", 30));
+
+        boolean other = CompletableFuture.supplyAsync(() -> {
+            boolean locked = redissonLock.tryLock("BB", 30);
+            if (locked) {
+                redissonLock.unlock("BB");
+            }
+            return locked;
+        }).join();
+        assertTrue(other);
+        redissonLock.unlock("Aa");
+        assertEquals(0, redissonLock.localLockCount());
+    }
+
+    @Test
+    @DisplayName("测试同名锁被本JVM其它线程持有时不访问Redis")
+    void testSameNameContendedLocally() throws InterruptedException {
+        assertTrue(redissonLock.tryLock("order:1", 30));
+
+        boolean other = CompletableFuture.supplyAsync(() -> redissonLock.tryLock("order:1", 30)).join();
+        assertFalse(other);
+        verify(rLock, times(1)).tryLock(anyLong(), anyLong(), any(TimeUnit.class));
+        redissonLock.unlock("order:1");
+        assertEquals(0, redissonLock.localLockCount());
+    }
+
+    @Test
+    @DisplayName("测试Redisson加锁失败时释放本地锁")
+    void testRedissonFailureReleasesLocal() throws InterruptedException {
+        when(rLock.tryLock(anyLong(), anyLong(), any(TimeUnit.class))).thenReturn(false);
+
+        assertFalse(redissonLock.tryLock("order:1", 30));
+        assertFalse(redissonLock.isHeldByCurrentThread("order:1"));
+        assertEquals(0, redissonLock.localLockCount());
+    }
+
+    @Test
+    @DisplayName("测试租约过期后解锁仍释放本地锁")
+    void testUnlockAfterLeaseExpired() throws InterruptedException {
+        doThrow(new IllegalMonitorStateException("expired")).when(rLock).unlock();
+        assertTrue(redissonLock.tryLock("order:1", 1));
+
+        assertDoesNotThrow(() -> redissonLock.unlock("order:1"));
+        assertFalse(redissonLock.isHeldByCurrentThread("order:1"));
+        assertEquals(0, redissonLock.localLockCount());
+        boolean other = CompletableFuture.supplyAsync(() -> redissonLock.tryLock("order:1", 1)).join();
+        assertTrue(other);
+        verify(rLock, times(2)).tryLock(anyLong(), eq(1000L), any(TimeUnit.class));
+    }
+
+    @Test
+    @DisplayName("测试联锁按锁名去重并按字典序加锁")
+    void testMultiLockSortedAndDistinct() {
+        RLock lockA = mock(RLock.class);
+        RLock lockB = mock(RLock.class);
+        RLock lockC = mock(RLock.class);
+        RLock multiLock = mock(RLock.class);
+        when(redisson.getLock("order:a")).thenReturn(lockA);
+        when(redisson.getLock("order:b")).thenReturn(lockB);
+        when(redisson.getLock("order:c")).thenReturn(lockC);
+        when(redisson.getMultiLock(any(RLock[].class))).thenReturn(multiLock);
+
+        assertSame(multiLock, redissonLock.getMultiLock(Arrays.asList("order:c", "order:a", "order:b", "order:a"), false));
+        verify(redisson).getMultiLock(lockA, lockB, lockC);
+        verify(redisson, times(1)).getLock("order:a");
+        verify(redisson, never()).getFairLock(anyString());
+    }
+
+    @Test
+    @DisplayName("测试公平锁选择")
+    void testFairLock() {
+        RLock fairLock = mock(RLock.class);
+        when(redisson.getFairLock("order:1")).thenReturn(fairLock);
+
+        assertSame(fairLock, redissonLock.getLock("order:1", true));
+        assertSame(rLock, redissonLock.getLock("order:1", false));
+
+        RLock multiLock = mock(RLock.class);
+        when(redisson.getMultiLock(any(RLock[].class))).thenReturn(multiLock);
+        when(redisson.getFairLock("order:2")).thenReturn(fairLock);
+        redissonLock.getMultiLock(Arrays.asList("order:2", "order:1"), true);
+        verify(redisson).getFairLock("order:2");
+        verify(redisson, times(2)).getFairLock("order:1");
+    }
+}
@@ -0,0 +1,208 @@
+package com.jianspring.starter.redis.cache;
+
+import com.jianspring.starter.redis.enums.IRedisKey;
+import io.lettuce.core.AbstractRedisClient;
+import io.lettuce.core.RedisChannelHandler;
+import io.lettuce.core.RedisClient;
+import io.lettuce.core.RedisConnectionStateListener;
+import io.lettuce.core.TrackingArgs;
+import io.lettuce.core.api.StatefulRedisConnection;
+import io.lettuce.core.api.push.PushListener;
+import io.lettuce.core.api.push.PushMessage;
+import io.lettuce.core.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * 基于 RESP3 客户端缓存（CLIENT TRACKING BCAST）的本地缓存
+ * <p>
+ * 用一条独立的Lettuce连接按白名单前缀开启广播模式的跟踪，任何连接修改了这些前缀下的key，
+ * Redis都会向该连接推送invalidate消息，本地副本随即失效，不一致窗口只有网络延迟。
+ * 跟踪连接断开期间不使用本地副本，重连后清空缓存并重新开启跟踪。
+ * 仅支持单机/哨兵模式，集群模式下不启用。
+ */
+public class ClientTrackingCache implements PushListener, RedisConnectionStateListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ClientTrackingCache.class);
+
+    private static final String INVALIDATE = "invalidate";
+
+    private final RedisConnectionFactory connectionFactory;
+
+    private final Set<String> prefixes;
+
+    // 失效通知、断开和重连都会失效本地副本，回源期间发生过失效的结果不写入本地
+    private final LocalValueCache cache;
+
+    private volatile boolean active;
+
+    private volatile StatefulRedisConnection<String, String> trackingConnection;
+
+    private volatile AbstractRedisClient client;
+
+    /**
+     * @param connectionFactory 连接工厂，需为Lettuce单机或哨兵模式
+     * @param prefixes          开启跟踪的IRedisKey前缀白名单
+     * @param maximumSize       本地最大条目数
+     */
+    public ClientTrackingCache(RedisConnectionFactory connectionFactory, Collection<String> prefixes, long maximumSize) {
+        this.connectionFactory = connectionFactory;
+        this.prefixes = new LinkedHashSet<>(prefixes);
+        this.cache = new LocalValueCache(maximumSize);
+    }
+
+    /**
+     * 建立跟踪连接并开启广播模式跟踪，失败时不启用本地缓存
+     */
+    public void start() {
+        if (prefixes.isEmpty()) {
+            return;
+        }
+        if (!(connectionFactory instanceof LettuceConnectionFactory lettuceConnectionFactory)
+                || lettuceConnectionFactory.isClusterAware()
+                || !(lettuceConnectionFactory.getNativeClient() instanceof RedisClient redisClient)) {
+            log.warn("客户端缓存仅支持Lettuce单机/哨兵模式，未启用");
+            return;
+        }
+        try {
+            StatefulRedisConnection<String, String> connection = redisClient.connect(StringCodec.UTF8);
+            // 推送式失效通知依赖RESP3，CLIENT INFO 中 resp=3 表示协商成功
+            if (!connection.sync().clientInfo().contains("resp=3")) {
+                connection.close();
+                log.warn("Redis连接未使用RESP3协议，客户端缓存未启用");
+                return;
+            }
+            connection.addListener(this);
+            redisClient.addListener(this);
+            this.client = redisClient;
+            this.trackingConnection = connection;
+            connection.sync().clientTracking(trackingArgs());
+            active = true;
+            log.info("客户端缓存已启用, prefixes={}", prefixes);
+        } catch (Exception e) {
+            log.warn("客户端缓存开启失败，未启用: {}", e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * 关闭跟踪连接并清空本地缓存
+     */
+    public void close() {
+        active = false;
+        AbstractRedisClient redisClient = this.client;
+        if (redisClient != null) {
+            redisClient.removeListener(this);
+        }
+        StatefulRedisConnection<String, String> connection = this.trackingConnection;
+        if (connection != null) {
+            connection.close();
+        }
+        cache.invalidateAll();
+    }
+
+    /**
+     * 前缀是否在白名单中且跟踪连接可用
+     *
+     * @param iRedisKey key前缀
+     * @return 是否使用客户端缓存
+     */
+    public boolean isTracked(IRedisKey iRedisKey) {
+        return active && prefixes.contains(iRedisKey.getPrefixKey());
+    }
+
+    /**
+     * 读取普通值，本地未命中时调用loader从Redis读取并写入本地
+     *
+     * @param key    完整key
+     * @param loader 本地未命中时的加载函数
+     * @return 值
+     */
+    public Object get(String key, Function<String, Object> loader) {
+        return cache.get(key, LocalValueCache.NO_EXPIRY, loader);
+    }
+
+    /**
+     * 读取Hash字段，本地未命中时调用loader从Redis读取并写入本地
+     *
+     * @param key     完整key
+     * @param hashKey hash字段
+     * @param loader  本地未命中时的加载函数
+     * @return 字段值
+     */
+    public Object getHashField(String key, Object hashKey, Function<String, Object> loader) {
+        return cache.getHashField(key, hashKey, LocalValueCache.NO_EXPIRY, loader);
+    }
+
+    /**
+     * 本节点写入后立即失效本地副本，不必等待服务端推送
+     *
+     * @param keys 完整key列表
+     */
+    public void invalidate(Collection<String> keys) {
+        cache.invalidateAll(keys);
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void onPushMessage(PushMessage message) {
+        if (!INVALIDATE.equals(message.getType())) {
+            return;
+        }
+        List<Object> content = message.getContent(StringCodec.UTF8::decodeKey);
+        Object keys = content.size() > 1 ? content.get(1) : null;
+        // keys为null表示服务端执行了FLUSHDB/FLUSHALL
+        if (keys instanceof List) {
+            cache.invalidateAll((List<String>) keys);
+        } else {
+            cache.invalidateAll();
+        }
+    }
+
+    @Override
+    public void onRedisConnected(RedisChannelHandler<?, ?> connection, SocketAddress socketAddress) {
+        if (connection != trackingConnection) {
+            return;
+        }
+        // 重连后服务端的跟踪状态已丢失，断开期间的失效通知也无法补回
+        cache.invalidateAll();
+        trackingConnection.async().clientTracking(trackingArgs()).whenComplete((result, e) -> {
+            if (e == null) {
+                active = true;
+            } else {
+                log.warn("客户端缓存重新开启跟踪失败: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void onRedisDisconnected(RedisChannelHandler<?, ?> connection) {
+        if (connection == trackingConnection) {
+            active = false;
+            cache.invalidateAll();
+        }
+    }
+
+    @Override
+    public void onRedisExceptionCaught(RedisChannelHandler<?, ?> connection, Throwable cause) {
+    }
+
+    private TrackingArgs trackingArgs() {
+        List<String> list = new ArrayList<>(prefixes);
+        return TrackingArgs.Builder.enabled().bcast().prefixes(list.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,60 @@
+package com.jianspring.starter.redis.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的 Count-Min Sketch，用固定内存估算key的访问次数，估算值只会偏大不会偏小
+ */
+final class CountMinSketch {
+
+    private static final int DEPTH = 4;
+
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    private final AtomicLongArray counters;
+
+    private final int mask;
+
+    /**
+     * @param width 每行的计数器个数，向上取整为2的幂
+     */
+    CountMinSketch(int width) {
+        int size = Integer.highestOneBit(Math.max(16, width - 1)) << 1;
+        this.mask = size - 1;
+        this.counters = new AtomicLongArray(size * DEPTH);
+    }
+
+    /**
+     * 计数加一并返回加一后的估算值
+     */
+    long increment(String key) {
+        int hash = spread(key.hashCode());
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            long count = counters.incrementAndGet(index(hash, i));
+            estimate = Math.min(estimate, count);
+        }
+        return estimate;
+    }
+
+    long estimate(String key) {
+        int hash = spread(key.hashCode());
+        long estimate = Long.MAX_VALUE;
+        for (int i = 0; i < DEPTH; i++) {
+            estimate = Math.min(estimate, counters.get(index(hash, i)));
+        }
+        return estimate;
+    }
+
+    private int index(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x45D9F3B;
+        h ^= h >>> 16;
+        return row * (mask + 1) + (h & mask);
+    }
+
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+}
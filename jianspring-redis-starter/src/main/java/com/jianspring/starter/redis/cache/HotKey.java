@@ -0,0 +1,40 @@
+package com.jianspring.starter.redis.cache;
+
+/**
+ * 探测到的热点key
+ */
+public class HotKey {
+
+    /**
+     * IRedisKey前缀
+     */
+    private final String prefix;
+
+    /**
+     * 完整key
+     */
+    private final String key;
+
+    /**
+     * 当前统计窗口内估算的访问次数
+     */
+    private final long estimatedCount;
+
+    public HotKey(String prefix, String key, long estimatedCount) {
+        this.prefix = prefix;
+        this.key = key;
+        this.estimatedCount = estimatedCount;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public long getEstimatedCount() {
+        return estimatedCount;
+    }
+}
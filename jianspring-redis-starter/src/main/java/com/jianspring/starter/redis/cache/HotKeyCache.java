@@ -0,0 +1,163 @@
+package com.jianspring.starter.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jianspring.starter.redis.enums.IRedisKey;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * 热点key探测与本地副本
+ * <p>
+ * 按采样率抽样访问，用 Count-Min Sketch 统计当前窗口内每个key的访问次数，
+ * 估算次数达到阈值的key标记为热点，热点key的读取结果在本地缓存很短的时间，分担单个分片的压力。
+ * 本节点的写操作会失效本地副本，其它节点的写入最多延迟一个本地TTL可见，
+ * 对一致性敏感的前缀可通过 IRedisKey.isHotKeyCacheable() 关闭本地副本。
+ */
+public class HotKeyCache {
+
+    private final double sampleRate;
+
+    private final long threshold;
+
+    private final long windowNanos;
+
+    private final int sketchWidth;
+
+    private volatile CountMinSketch sketch;
+
+    private volatile long windowStart = System.nanoTime();
+
+    // 当前的热点key，超过两个窗口未再达到阈值则移除
+    private final Cache<String, HotKey> hotKeys;
+
+    private final LocalValueCache values;
+
+    private final long ttlNanos;
+
+    /**
+     * @param sampleRate 采样率，(0, 1]
+     * @param threshold  窗口内估算访问次数达到该值视为热点
+     * @param window     统计窗口
+     * @param ttl        热点key本地副本的有效期
+     * @param topK       最多同时保留的热点key数量
+     */
+    public HotKeyCache(double sampleRate, long threshold, Duration window, Duration ttl, int topK) {
+        this.sampleRate = Math.min(1.0, Math.max(sampleRate, 0.0001));
+        this.threshold = threshold;
+        this.windowNanos = window.toNanos();
+        this.sketchWidth = Math.max(1024, topK * 64);
+        this.sketch = new CountMinSketch(sketchWidth);
+        this.hotKeys = Caffeine.newBuilder()
+                .maximumSize(topK)
+                .expireAfterWrite(window.multipliedBy(2))
+                .build();
+        this.values = new LocalValueCache(topK);
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * 记录一次访问，按采样率计数
+     *
+     * @param iRedisKey key前缀
+     * @param key       完整key
+     */
+    public void record(IRedisKey iRedisKey, String key) {
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        long estimate = (long) (currentSketch().increment(key) / sampleRate);
+        if (estimate >= threshold) {
+            hotKeys.put(key, new HotKey(iRedisKey.getPrefixKey(), key, estimate));
+        }
+    }
+
+    /**
+     * 读取普通值，热点key优先读本地副本
+     *
+     * @param iRedisKey key前缀
+     * @param key       完整key
+     * @param loader    从Redis读取的函数
+     * @return 值
+     */
+    public Object get(IRedisKey iRedisKey, String key, Function<String, Object> loader) {
+        if (!isCacheable(iRedisKey, key)) {
+            return loader.apply(key);
+        }
+        return values.get(key, ttlNanos, loader);
+    }
+
+    /**
+     * 读取Hash字段，热点key优先读本地副本
+     *
+     * @param iRedisKey key前缀
+     * @param key       完整key
+     * @param hashKey   hash字段
+     * @param loader    从Redis读取的函数
+     * @return 字段值
+     */
+    public Object getHashField(IRedisKey iRedisKey, String key, Object hashKey, Function<String, Object> loader) {
+        if (!isCacheable(iRedisKey, key)) {
+            return loader.apply(key);
+        }
+        return values.getHashField(key, hashKey, ttlNanos, loader);
+    }
+
+    /**
+     * 失效本地副本
+     *
+     * @param key 完整key
+     */
+    public void invalidate(String key) {
+        values.invalidate(key);
+    }
+
+    /**
+     * 批量失效本地副本
+     *
+     * @param keys 完整key列表
+     */
+    public void invalidate(Collection<String> keys) {
+        values.invalidateAll(keys);
+    }
+
+    /**
+     * 当前热点key，按估算访问次数降序
+     *
+     * @return 热点key列表
+     */
+    public List<HotKey> getHotKeys() {
+        List<HotKey> result = new ArrayList<>(hotKeys.asMap().values());
+        result.sort(Comparator.comparingLong(HotKey::getEstimatedCount).reversed());
+        return result;
+    }
+
+    public boolean isHot(String key) {
+        return hotKeys.getIfPresent(key) != null;
+    }
+
+    private boolean isCacheable(IRedisKey iRedisKey, String key) {
+        return iRedisKey.isHotKeyCacheable() && isHot(key);
+    }
+
+    // 每个窗口换一个新的sketch，旧窗口的计数整体丢弃
+    private CountMinSketch currentSketch() {
+        long now = System.nanoTime();
+        long start = windowStart;
+        if (now - start >= windowNanos) {
+            synchronized (this) {
+                if (windowStart == start) {
+                    sketch = new CountMinSketch(sketchWidth);
+                    windowStart = now;
+                }
+            }
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,24 @@
+package com.jianspring.starter.redis.cache;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * 当前热点key列表，访问 /actuator/redishotkeys
+ */
+@Endpoint(id = "redishotkeys")
+public class HotKeyEndpoint {
+
+    private final HotKeyCache hotKeyCache;
+
+    public HotKeyEndpoint(HotKeyCache hotKeyCache) {
+        this.hotKeyCache = hotKeyCache;
+    }
+
+    @ReadOperation
+    public List<HotKey> hotKeys() {
+        return hotKeyCache.getHotKeys();
+    }
+}
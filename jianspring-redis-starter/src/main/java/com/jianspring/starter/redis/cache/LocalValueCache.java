@@ -0,0 +1,164 @@
+package com.jianspring.starter.redis.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 本地副本存储，近端缓存、热点key副本和客户端缓存共用
+ * <p>
+ * 普通值和Hash字段分别缓存，每个条目有各自的有效期。本地未命中时回源，
+ * 回源期间发生过失效（本地写入、失效通知、重连）的结果不写入本地，避免旧值覆盖失效。
+ */
+final class LocalValueCache {
+
+    /**
+     * 不过期
+     */
+    static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private final Cache<String, Entry> cache;
+
+    // 每次失效加一，回源前后不一致说明期间发生过失效
+    private final AtomicLong invalidations = new AtomicLong();
+
+    LocalValueCache(long maximumSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new EntryExpiry())
+                .build();
+    }
+
+    /**
+     * 读取普通值，本地未命中时调用loader回源并写入本地，null值不缓存
+     *
+     * @param key      完整key
+     * @param ttlNanos 本地副本的有效期
+     * @param loader   回源函数
+     * @return 值
+     */
+    Object get(String key, long ttlNanos, Function<String, Object> loader) {
+        Object cached = getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long version = invalidations.get();
+        Object value = loader.apply(key);
+        if (value != null && invalidations.get() == version) {
+            cache.put(key, Entry.value(value, ttlNanos));
+        }
+        return value;
+    }
+
+    /**
+     * 读取Hash字段，本地未命中时调用loader回源并写入本地，null值不缓存
+     *
+     * @param key      完整key
+     * @param hashKey  hash字段
+     * @param ttlNanos 本地副本的有效期
+     * @param loader   回源函数
+     * @return 字段值
+     */
+    Object getHashField(String key, Object hashKey, long ttlNanos, Function<String, Object> loader) {
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && entry.fields != null) {
+            Object value = entry.fields.get(hashKey);
+            if (value != null) {
+                return value;
+            }
+        }
+        long version = invalidations.get();
+        Object value = loader.apply(key);
+        if (value != null && invalidations.get() == version) {
+            Entry hashEntry = cache.get(key, k -> Entry.hash(ttlNanos));
+            if (hashEntry.fields != null) {
+                hashEntry.fields.put(hashKey, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @param key 完整key
+     * @return 普通值的本地副本，未命中返回null
+     */
+    Object getIfPresent(String key) {
+        Entry entry = cache.getIfPresent(key);
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * 直接写入普通值，null值不缓存
+     */
+    void put(String key, Object value, long ttlNanos) {
+        if (value != null) {
+            cache.put(key, Entry.value(value, ttlNanos));
+        }
+    }
+
+    void invalidate(String key) {
+        invalidations.incrementAndGet();
+        cache.invalidate(key);
+    }
+
+    void invalidateAll(Collection<String> keys) {
+        invalidations.incrementAndGet();
+        cache.invalidateAll(keys);
+    }
+
+    void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    long size() {
+        return cache.estimatedSize();
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+
+        private final Map<Object, Object> fields;
+
+        private final long ttlNanos;
+
+        private Entry(Object value, Map<Object, Object> fields, long ttlNanos) {
+            this.value = value;
+            this.fields = fields;
+            this.ttlNanos = ttlNanos;
+        }
+
+        static Entry value(Object value, long ttlNanos) {
+            return new Entry(value, null, ttlNanos);
+        }
+
+        static Entry hash(long ttlNanos) {
+            return new Entry(null, new ConcurrentHashMap<>(), ttlNanos);
+        }
+    }
+
+    private static final class EntryExpiry implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry value, long currentTime) {
+            return value.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry value, long currentTime, long currentDuration) {
+            return value.ttlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.jianspring.starter.redis.cache;
+
+import com.jianspring.starter.redis.enums.IRedisKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * 本地近端缓存（L1），位于 Redis（L2）之前
+ * <p>
+ * 只缓存 IRedisKey.getLocalTtl() 大于0的key，写操作后通过 pub/sub 通知其它节点失效本地副本，
+ * 跨节点的不一致窗口最多为本地缓存的有效时长。
+ */
+public class NearCache {
+
+    private static final Logger log = LoggerFactory.getLogger(NearCache.class);
+
+    static final char INSTANCE_SEPARATOR = ':';
+
+    static final char KEY_SEPARATOR = '\n';
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final String channel;
+
+    private final String instanceId = UUID.randomUUID().toString().replace("-", "");
+
+    private final LocalValueCache cache;
+
+    public NearCache(RedisTemplate<String, Object> redisTemplate, long maximumSize, String channel) {
+        this.redisTemplate = redisTemplate;
+        this.channel = channel;
+        this.cache = new LocalValueCache(maximumSize);
+    }
+
+    /**
+     * 读取普通值，本地未命中时调用loader从Redis读取并写入本地
+     *
+     * @param iRedisKey key前缀
+     * @param key       完整key
+     * @param loader    本地未命中时的加载函数
+     * @return 值
+     */
+    public Object get(IRedisKey iRedisKey, String key, Function<String, Object> loader) {
+        if (!isCacheable(iRedisKey)) {
+            return loader.apply(key);
+        }
+        return cache.get(key, ttlNanos(iRedisKey), loader);
+    }
+
+    /**
+     * 只读本地缓存
+     *
+     * @param iRedisKey key前缀
+     * @param key       完整key
+     * @return 本地副本，未命中返回null
+     */
+    public Object getIfPresent(IRedisKey iRedisKey, String key) {
+        if (!isCacheable(iRedisKey)) {
+            return null;
+        }
+        return cache.getIfPresent(key);
+    }
+
+    /**
+     * 写入本地缓存，null值不缓存
+     *
+     * @param iRedisKey key前缀
+     * @param key       完整key
+     * @param value     从Redis读取到的值
+     */
+    public void put(IRedisKey iRedisKey, String key, Object value) {
+        if (isCacheable(iRedisKey)) {
+            cache.put(key, value, ttlNanos(iRedisKey));
+        }
+    }
+
+    /**
+     * 读取Hash字段，本地未命中时调用loader从Redis读取并写入本地
+     *
+     * @param iRedisKey key前缀
+     * @param key       完整key
+     * @param hashKey   hash字段
+     * @param loader    本地未命中时的加载函数
+     * @return 字段值
+     */
+    public Object getHashField(IRedisKey iRedisKey, String key, Object hashKey, Function<String, Object> loader) {
+        if (!isCacheable(iRedisKey)) {
+            return loader.apply(key);
+        }
+        return cache.getHashField(key, hashKey, ttlNanos(iRedisKey), loader);
+    }
+
+    /**
+     * 失效本地副本并通知其它节点
+     *
+     * @param iRedisKey key前缀
+     * @param key       完整key
+     */
+    public void invalidate(IRedisKey iRedisKey, String key) {
+        if (isCacheable(iRedisKey)) {
+            invalidate(Collections.singletonList(key));
+        }
+    }
+
+    /**
+     * 批量失效本地副本，并以一条消息通知其它节点
+     *
+     * @param keys 完整key列表
+     */
+    public void invalidate(Collection<String> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        invalidateLocal(keys);
+        byte[] channelBytes = RedisSerializer.string().serialize(channel);
+        byte[] messageBytes = RedisSerializer.string().serialize(invalidationMessage(keys));
+        try {
+            redisTemplate.execute((RedisCallback<Long>) connection -> connection.publish(channelBytes, messageBytes));
+        } catch (Exception e) {
+            // 通知失败时其它节点依靠本地TTL兜底，不影响本次写操作
+            log.warn("近端缓存失效通知发送失败, keys={}", keys, e);
+        }
+    }
+
+    /**
+     * 构造失效通知消息，格式为 {@code instanceId:key1\nkey2...}
+     *
+     * @param keys 完整key列表
+     * @return 消息内容
+     */
+    public String invalidationMessage(Collection<String> keys) {
+        StringBuilder message = new StringBuilder(instanceId).append(INSTANCE_SEPARATOR);
+        int i = 0;
+        for (String key : keys) {
+            if (i++ > 0) {
+                message.append(KEY_SEPARATOR);
+            }
+            message.append(key);
+        }
+        return message.toString();
+    }
+
+    /**
+     * 仅失效本地副本
+     *
+     * @param keys 完整key列表
+     */
+    public void invalidateLocal(Collection<String> keys) {
+        cache.invalidateAll(keys);
+    }
+
+    /**
+     * 清空本地缓存
+     */
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public boolean isCacheable(IRedisKey iRedisKey) {
+        return iRedisKey.getLocalTtl() > 0;
+    }
+
+    String getInstanceId() {
+        return instanceId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    private long ttlNanos(IRedisKey iRedisKey) {
+        return iRedisKey.getLocalTimeUnit().toNanos(iRedisKey.getLocalTtl());
+    }
+}
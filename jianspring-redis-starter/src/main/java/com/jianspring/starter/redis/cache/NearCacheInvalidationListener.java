@@ -0,0 +1,39 @@
+package com.jianspring.starter.redis.cache;
+
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+
+/**
+ * 接收其它节点发出的近端缓存失效通知
+ * <p>
+ * 消息格式为 {@code instanceId:key1\nkey2...}，本节点发出的消息在写入时已失效本地副本，直接忽略。
+ */
+public class NearCacheInvalidationListener implements MessageListener {
+
+    private final NearCache nearCache;
+
+    public NearCacheInvalidationListener(NearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = RedisSerializer.string().deserialize(message.getBody());
+        if (!StringUtils.hasText(body)) {
+            return;
+        }
+        int index = body.indexOf(NearCache.INSTANCE_SEPARATOR);
+        if (index < 0) {
+            return;
+        }
+        if (nearCache.getInstanceId().equals(body.substring(0, index))) {
+            return;
+        }
+        String keys = body.substring(index + 1);
+        nearCache.invalidateLocal(Arrays.asList(keys.split(String.valueOf(NearCache.KEY_SEPARATOR))));
+    }
+}
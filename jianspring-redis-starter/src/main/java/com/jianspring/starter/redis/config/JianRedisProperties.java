@@ -0,0 +1,823 @@
+package com.jianspring.starter.redis.config;
+
+import com.jianspring.starter.redis.script.RedisScriptRegistry;
+import com.jianspring.starter.redis.enums.CompressionTypeEnum;
+import com.jianspring.starter.redis.enums.SerializerFormatEnum;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Redis starter 配置属性
+ */
+@ConfigurationProperties(prefix = "jianspring.redis")
+public class JianRedisProperties {
+
+    /**
+     * 带TTL的写操作是否与EXPIRE合并为一次往返（管道或Lua脚本），关闭后先写入再单独发送EXPIRE
+     */
+    private boolean pipelineTtl = true;
+
+    /**
+     * 本地近端缓存配置
+     */
+    private NearCache nearCache = new NearCache();
+
+    /**
+     * value 序列化配置
+     */
+    private Serializer serializer = new Serializer();
+
+    /**
+     * getOrLoad 回源配置
+     */
+    private Loader loader = new Loader();
+
+    /**
+     * 按前缀扫描与批量删除配置
+     */
+    private Scan scan = new Scan();
+
+    /**
+     * 分布式限流配置
+     */
+    private RateLimit rateLimit = new RateLimit();
+
+    /**
+     * 热点key探测配置
+     */
+    private HotKey hotKey = new HotKey();
+
+    /**
+     * RESP3客户端缓存配置
+     */
+    private Tracking tracking = new Tracking();
+
+    /**
+     * 集群模式Lettuce客户端配置
+     */
+    private Cluster cluster = new Cluster();
+
+    /**
+     * Stream工作队列配置
+     */
+    private Stream stream = new Stream();
+
+    /**
+     * Lua脚本位置，支持classpath*:通配，默认加载starter内置脚本及业务工程相同目录下的脚本
+     */
+    private List<String> scriptLocations = new ArrayList<>(Collections.singletonList(RedisScriptRegistry.DEFAULT_LOCATION));
+
+    public boolean isPipelineTtl() {
+        return pipelineTtl;
+    }
+
+    public void setPipelineTtl(boolean pipelineTtl) {
+        this.pipelineTtl = pipelineTtl;
+    }
+
+    public NearCache getNearCache() {
+        return nearCache;
+    }
+
+    public void setNearCache(NearCache nearCache) {
+        this.nearCache = nearCache;
+    }
+
+    public Serializer getSerializer() {
+        return serializer;
+    }
+
+    public void setSerializer(Serializer serializer) {
+        this.serializer = serializer;
+    }
+
+    public Loader getLoader() {
+        return loader;
+    }
+
+    public void setLoader(Loader loader) {
+        this.loader = loader;
+    }
+
+    public Scan getScan() {
+        return scan;
+    }
+
+    public void setScan(Scan scan) {
+        this.scan = scan;
+    }
+
+    public RateLimit getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimit rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public List<String> getScriptLocations() {
+        return scriptLocations;
+    }
+
+    public void setScriptLocations(List<String> scriptLocations) {
+        this.scriptLocations = scriptLocations;
+    }
+
+    public HotKey getHotKey() {
+        return hotKey;
+    }
+
+    public void setHotKey(HotKey hotKey) {
+        this.hotKey = hotKey;
+    }
+
+    public Tracking getTracking() {
+        return tracking;
+    }
+
+    public void setTracking(Tracking tracking) {
+        this.tracking = tracking;
+    }
+
+    public Cluster getCluster() {
+        return cluster;
+    }
+
+    public void setCluster(Cluster cluster) {
+        this.cluster = cluster;
+    }
+
+    public Stream getStream() {
+        return stream;
+    }
+
+    public void setStream(Stream stream) {
+        this.stream = stream;
+    }
+
+    /**
+     * 本地近端缓存配置
+     */
+    public static class NearCache {
+        /**
+         * 是否启用近端缓存，默认关闭；启用后仅对 IRedisKey.getLocalTtl() 大于0的key生效
+         */
+        private boolean enabled;
+
+        /**
+         * 本地缓存最大条目数
+         */
+        private long maximumSize = 10000;
+
+        /**
+         * 跨节点失效通知的 pub/sub 频道
+         */
+        private String channel = "jianspring:redis:near-cache:invalidate";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public String getChannel() {
+            return channel;
+        }
+
+        public void setChannel(String channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * value 序列化配置
+     */
+    public static class Serializer {
+        /**
+         * 写入时的编码格式，读取时按数据头自动识别
+         */
+        private SerializerFormatEnum format = SerializerFormatEnum.JSON;
+
+        /**
+         * 写入时的压缩算法
+         */
+        private CompressionTypeEnum compression = CompressionTypeEnum.NONE;
+
+        /**
+         * 编码后字节数达到该值才压缩
+         */
+        private int compressionThreshold = 1024;
+
+        public SerializerFormatEnum getFormat() {
+            return format;
+        }
+
+        public void setFormat(SerializerFormatEnum format) {
+            this.format = format;
+        }
+
+        public CompressionTypeEnum getCompression() {
+            return compression;
+        }
+
+        public void setCompression(CompressionTypeEnum compression) {
+            this.compression = compression;
+        }
+
+        public int getCompressionThreshold() {
+            return compressionThreshold;
+        }
+
+        public void setCompressionThreshold(int compressionThreshold) {
+            this.compressionThreshold = compressionThreshold;
+        }
+    }
+
+    /**
+     * getOrLoad 回源配置
+     */
+    public static class Loader {
+        /**
+         * MUTEX模式下回源锁的过期时间
+         */
+        private Duration lockTimeout = Duration.ofSeconds(5);
+
+        /**
+         * MUTEX模式下未抢到锁时等待其它节点回源的最长时间，超时后自行回源
+         */
+        private Duration waitTimeout = Duration.ofSeconds(3);
+
+        /**
+         * MUTEX模式下等待期间轮询Redis的间隔
+         */
+        private Duration retryInterval = Duration.ofMillis(50);
+
+        /**
+         * EARLY_REFRESH模式的提前刷新系数，越大越早刷新
+         */
+        private double beta = 1.0;
+
+        public Duration getLockTimeout() {
+            return lockTimeout;
+        }
+
+        public void setLockTimeout(Duration lockTimeout) {
+            this.lockTimeout = lockTimeout;
+        }
+
+        public Duration getWaitTimeout() {
+            return waitTimeout;
+        }
+
+        public void setWaitTimeout(Duration waitTimeout) {
+            this.waitTimeout = waitTimeout;
+        }
+
+        public Duration getRetryInterval() {
+            return retryInterval;
+        }
+
+        public void setRetryInterval(Duration retryInterval) {
+            this.retryInterval = retryInterval;
+        }
+
+        public double getBeta() {
+            return beta;
+        }
+
+        public void setBeta(double beta) {
+            this.beta = beta;
+        }
+    }
+
+    /**
+     * 按前缀扫描与批量删除配置
+     */
+    public static class Scan {
+        /**
+         * 每次SCAN的COUNT提示值
+         */
+        private int count = 1000;
+
+        /**
+         * 每批UNLINK的key数量，一批在一次管道中提交
+         */
+        private int deleteBatchSize = 500;
+
+        /**
+         * 每秒最多删除的key数量，小于等于0不限速
+         */
+        private int maxDeletesPerSecond = 10000;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public int getDeleteBatchSize() {
+            return deleteBatchSize;
+        }
+
+        public void setDeleteBatchSize(int deleteBatchSize) {
+            this.deleteBatchSize = deleteBatchSize;
+        }
+
+        public int getMaxDeletesPerSecond() {
+            return maxDeletesPerSecond;
+        }
+
+        public void setMaxDeletesPerSecond(int maxDeletesPerSecond) {
+            this.maxDeletesPerSecond = maxDeletesPerSecond;
+        }
+    }
+
+    /**
+     * 分布式限流配置
+     */
+    public static class RateLimit {
+        /**
+         * 本地预取配额的最长有效期，实际有效期不超过限流窗口，过期未用完的配额作废
+         */
+        private Duration leaseTimeout = Duration.ofSeconds(1);
+
+        /**
+         * 本地预取配额最多保留的key数量
+         */
+        private long maximumLeases = 10000;
+
+        /**
+         * Redis不可用时是否放行
+         */
+        private boolean failOpen = true;
+
+        public Duration getLeaseTimeout() {
+            return leaseTimeout;
+        }
+
+        public void setLeaseTimeout(Duration leaseTimeout) {
+            this.leaseTimeout = leaseTimeout;
+        }
+
+        public long getMaximumLeases() {
+            return maximumLeases;
+        }
+
+        public void setMaximumLeases(long maximumLeases) {
+            this.maximumLeases = maximumLeases;
+        }
+
+        public boolean isFailOpen() {
+            return failOpen;
+        }
+
+        public void setFailOpen(boolean failOpen) {
+            this.failOpen = failOpen;
+        }
+    }
+
+    /**
+     * 热点key探测配置
+     */
+    public static class HotKey {
+        /**
+         * 是否启用热点key探测与本地副本
+         */
+        private boolean enabled = false;
+
+        /**
+         * 访问采样率，(0, 1]
+         */
+        private double sampleRate = 0.1;
+
+        /**
+         * 统计窗口内估算访问次数达到该值视为热点
+         */
+        private long threshold = 1000;
+
+        /**
+         * 统计窗口
+         */
+        private Duration window = Duration.ofSeconds(1);
+
+        /**
+         * 热点key本地副本的有效期，即其它节点写入后本节点最长的不一致时间
+         */
+        private Duration ttl = Duration.ofSeconds(1);
+
+        /**
+         * 最多同时保留的热点key数量
+         */
+        private int topK = 100;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getSampleRate() {
+            return sampleRate;
+        }
+
+        public void setSampleRate(double sampleRate) {
+            this.sampleRate = sampleRate;
+        }
+
+        public long getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(long threshold) {
+            this.threshold = threshold;
+        }
+
+        public Duration getWindow() {
+            return window;
+        }
+
+        public void setWindow(Duration window) {
+            this.window = window;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public void setTtl(Duration ttl) {
+            this.ttl = ttl;
+        }
+
+        public int getTopK() {
+            return topK;
+        }
+
+        public void setTopK(int topK) {
+            this.topK = topK;
+        }
+    }
+
+    /**
+     * RESP3客户端缓存配置，需Redis 6.2+且连接使用RESP3协议
+     */
+    public static class Tracking {
+        /**
+         * 是否启用客户端缓存
+         */
+        private boolean enabled = false;
+
+        /**
+         * 开启跟踪的key前缀白名单，与IRedisKey.getPrefixKey()完全匹配，应只包含读多写少的前缀
+         */
+        private List<String> prefixes = new ArrayList<>();
+
+        /**
+         * 本地最大缓存条目数
+         */
+        private long maximumSize = 10000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getPrefixes() {
+            return prefixes;
+        }
+
+        public void setPrefixes(List<String> prefixes) {
+            this.prefixes = prefixes;
+        }
+
+        public long getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
+
+    /**
+     * 集群模式Lettuce客户端配置
+     */
+    public static class Cluster {
+        /**
+         * 只读命令的读取节点，取值同Lettuce ReadFrom：upstream、upstreamPreferred、replica、replicaPreferred、nearest、any。
+         * 从副本读取时刚写入的值可能短暂读不到，需要读己之写的场景保持upstream
+         */
+        private String readFrom = "upstream";
+
+        /**
+         * 周期性拓扑刷新间隔，为空时不做周期刷新
+         */
+        private Duration refreshPeriod = Duration.ofSeconds(30);
+
+        /**
+         * 是否在MOVED/ASK重定向、连接断开等事件发生时立即刷新拓扑，故障转移后尽快切到新主节点
+         */
+        private boolean adaptiveRefresh = true;
+
+        /**
+         * 是否从拓扑中发现的所有节点获取拓扑，关闭时只查询配置的种子节点
+         */
+        private boolean dynamicRefreshSources = true;
+
+        /**
+         * 命令超时时间，为空时使用spring.data.redis.timeout，再为空时使用Lettuce默认的60秒
+         */
+        private Duration commandTimeout;
+
+        /**
+         * IO线程数，即共享Netty事件循环的大小，0表示使用Lettuce默认值（CPU核数，至少2）
+         */
+        private int ioThreads = 0;
+
+        /**
+         * 计算线程数，0表示使用Lettuce默认值（CPU核数，至少2）
+         */
+        private int computationThreads = 0;
+
+        /**
+         * 连接池配置，仅用于阻塞命令和事务等不能共享连接的场景
+         */
+        private Pool pool = new Pool();
+
+        public String getReadFrom() {
+            return readFrom;
+        }
+
+        public void setReadFrom(String readFrom) {
+            this.readFrom = readFrom;
+        }
+
+        public Duration getRefreshPeriod() {
+            return refreshPeriod;
+        }
+
+        public void setRefreshPeriod(Duration refreshPeriod) {
+            this.refreshPeriod = refreshPeriod;
+        }
+
+        public boolean isAdaptiveRefresh() {
+            return adaptiveRefresh;
+        }
+
+        public void setAdaptiveRefresh(boolean adaptiveRefresh) {
+            this.adaptiveRefresh = adaptiveRefresh;
+        }
+
+        public boolean isDynamicRefreshSources() {
+            return dynamicRefreshSources;
+        }
+
+        public void setDynamicRefreshSources(boolean dynamicRefreshSources) {
+            this.dynamicRefreshSources = dynamicRefreshSources;
+        }
+
+        public Duration getCommandTimeout() {
+            return commandTimeout;
+        }
+
+        public void setCommandTimeout(Duration commandTimeout) {
+            this.commandTimeout = commandTimeout;
+        }
+
+        public int getIoThreads() {
+            return ioThreads;
+        }
+
+        public void setIoThreads(int ioThreads) {
+            this.ioThreads = ioThreads;
+        }
+
+        public int getComputationThreads() {
+            return computationThreads;
+        }
+
+        public void setComputationThreads(int computationThreads) {
+            this.computationThreads = computationThreads;
+        }
+
+        public Pool getPool() {
+            return pool;
+        }
+
+        public void setPool(Pool pool) {
+            this.pool = pool;
+        }
+    }
+
+    /**
+     * 连接池配置，需引入commons-pool2
+     */
+    public static class Pool {
+        /**
+         * 是否启用连接池
+         */
+        private boolean enabled = false;
+
+        /**
+         * 最大连接数
+         */
+        private int maxActive = 8;
+
+        /**
+         * 最大空闲连接数
+         */
+        private int maxIdle = 8;
+
+        /**
+         * 最小空闲连接数
+         */
+        private int minIdle = 0;
+
+        /**
+         * 连接耗尽时获取连接的最长等待时间
+         */
+        private Duration maxWait = Duration.ofSeconds(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxActive() {
+            return maxActive;
+        }
+
+        public void setMaxActive(int maxActive) {
+            this.maxActive = maxActive;
+        }
+
+        public int getMaxIdle() {
+            return maxIdle;
+        }
+
+        public void setMaxIdle(int maxIdle) {
+            this.maxIdle = maxIdle;
+        }
+
+        public int getMinIdle() {
+            return minIdle;
+        }
+
+        public void setMinIdle(int minIdle) {
+            this.minIdle = minIdle;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+    }
+
+    /**
+     * Stream工作队列配置
+     */
+    public static class Stream {
+        /**
+         * 写入时近似裁剪到的最大长度，小于等于0时不裁剪
+         */
+        private long maxLen = 100000;
+
+        /**
+         * 每批最多读取的消息数
+         */
+        private int batchSize = 100;
+
+        /**
+         * 无消息时阻塞读取的时长
+         */
+        private Duration block = Duration.ofSeconds(2);
+
+        /**
+         * 待确认消息空闲超过该时长后可被其它消费者认领，应大于单批最长处理时间
+         */
+        private Duration claimMinIdle = Duration.ofMinutes(1);
+
+        /**
+         * 认领空闲消息的检查间隔
+         */
+        private Duration claimInterval = Duration.ofSeconds(30);
+
+        /**
+         * 每个监听容器同时处理的最大批次数
+         */
+        private int concurrency = 1;
+
+        /**
+         * 停止时等待处理中批次完成的最长时间
+         */
+        private Duration shutdownTimeout = Duration.ofSeconds(10);
+
+        /**
+         * 消息最多投递次数，认领时超过该次数的消息转入死信Stream，小于等于0时不限制
+         */
+        private int maxDeliveries = 10;
+
+        /**
+         * 死信Stream的key后缀，死信key为原key加该后缀
+         */
+        private String deadLetterSuffix = ":dlq";
+
+        public long getMaxLen() {
+            return maxLen;
+        }
+
+        public void setMaxLen(long maxLen) {
+            this.maxLen = maxLen;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Duration getBlock() {
+            return block;
+        }
+
+        public void setBlock(Duration block) {
+            this.block = block;
+        }
+
+        public Duration getClaimMinIdle() {
+            return claimMinIdle;
+        }
+
+        public void setClaimMinIdle(Duration claimMinIdle) {
+            this.claimMinIdle = claimMinIdle;
+        }
+
+        public Duration getClaimInterval() {
+            return claimInterval;
+        }
+
+        public void setClaimInterval(Duration claimInterval) {
+            this.claimInterval = claimInterval;
+        }
+
+        public int getConcurrency() {
+            return concurrency;
+        }
+
+        public void setConcurrency(int concurrency) {
+            this.concurrency = concurrency;
+        }
+
+        public Duration getShutdownTimeout() {
+            return shutdownTimeout;
+        }
+
+        public void setShutdownTimeout(Duration shutdownTimeout) {
+            this.shutdownTimeout = shutdownTimeout;
+        }
+
+        public int getMaxDeliveries() {
+            return maxDeliveries;
+        }
+
+        public void setMaxDeliveries(int maxDeliveries) {
+            this.maxDeliveries = maxDeliveries;
+        }
+
+        public String getDeadLetterSuffix() {
+            return deadLetterSuffix;
+        }
+
+        public void setDeadLetterSuffix(String deadLetterSuffix) {
+            this.deadLetterSuffix = deadLetterSuffix;
+        }
+    }
+}
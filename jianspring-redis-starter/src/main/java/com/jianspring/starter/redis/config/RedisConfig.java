@@ -1,21 +1,50 @@
 package com.jianspring.starter.redis.config;
 
+import com.jianspring.starter.redis.cache.ClientTrackingCache;
+import com.jianspring.starter.redis.cache.HotKeyCache;
+import com.jianspring.starter.redis.cache.HotKeyEndpoint;
+import com.jianspring.starter.redis.cache.NearCache;
+import com.jianspring.starter.redis.cache.NearCacheInvalidationListener;
+import com.jianspring.starter.redis.operations.ReactiveRedisOperations;
 import com.jianspring.starter.redis.operations.RedisOperations;
+import com.jianspring.starter.redis.ratelimit.RateLimitHandler;
+import com.jianspring.starter.redis.ratelimit.RedisRateLimiter;
+import com.jianspring.starter.redis.script.RedisScriptRegistry;
+import com.jianspring.starter.redis.serializer.JianRedisSerializer;
+import com.jianspring.starter.redis.stream.RedisStreamQueue;
+import io.lettuce.core.ReadFrom;
+import io.lettuce.core.cluster.ClusterClientOptions;
+import io.lettuce.core.cluster.ClusterTopologyRefreshOptions;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.DefaultClientResources;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.data.redis.RedisProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisClusterConfiguration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisNode;
 import org.springframework.data.redis.connection.RedisPassword;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -27,30 +56,148 @@ import java.util.stream.Collectors;
  */
 @Configuration
 @ConditionalOnMissingBean(RedisProperties.class)
+@EnableConfigurationProperties(JianRedisProperties.class)
 public class RedisConfig {
 
     @Bean
     @ConditionalOnMissingBean(RedisTemplate.class)
-    RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory) {
+    RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory redisConnectionFactory, JianRedisProperties properties) {
         RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
         redisTemplate.setConnectionFactory(redisConnectionFactory);
-        GenericJackson2JsonRedisSerializer jackson2JsonRedisSerializer = new GenericJackson2JsonRedisSerializer();
+        JianRedisProperties.Serializer serializer = properties.getSerializer();
+        JianRedisSerializer valueSerializer = new JianRedisSerializer(serializer.getFormat(),
+                serializer.getCompression(), serializer.getCompressionThreshold());
         redisTemplate.setKeySerializer(RedisSerializer.string());
         redisTemplate.setHashKeySerializer(RedisSerializer.string());
-        redisTemplate.setValueSerializer(jackson2JsonRedisSerializer);
+        redisTemplate.setValueSerializer(valueSerializer);
         redisTemplate.afterPropertiesSet();
         return redisTemplate;
     }
 
     @Bean
-    RedisOperations redisOperations(RedisTemplate<String, Object> redisTemplate) {
-        return new RedisOperations(redisTemplate);
+    RedisOperations redisOperations(RedisTemplate<String, Object> redisTemplate, ObjectProvider<NearCache> nearCache,
+                                    ObjectProvider<HotKeyCache> hotKeyCache, ObjectProvider<ClientTrackingCache> trackingCache,
+                                    RedisScriptRegistry redisScriptRegistry, JianRedisProperties properties) {
+        return new RedisOperations(redisTemplate, nearCache.getIfAvailable(), hotKeyCache.getIfAvailable(),
+                trackingCache.getIfAvailable(), redisScriptRegistry, properties);
+    }
+
+    @Bean(initMethod = "preload")
+    @ConditionalOnMissingBean
+    RedisScriptRegistry redisScriptRegistry(RedisTemplate<String, Object> redisTemplate, JianRedisProperties properties) {
+        return new RedisScriptRegistry(redisTemplate, properties.getScriptLocations());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "jianspring.redis.hot-key", name = "enabled", havingValue = "true")
+    HotKeyCache hotKeyCache(JianRedisProperties properties) {
+        JianRedisProperties.HotKey hotKey = properties.getHotKey();
+        return new HotKeyCache(hotKey.getSampleRate(), hotKey.getThreshold(), hotKey.getWindow(), hotKey.getTtl(), hotKey.getTopK());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "jianspring.redis.tracking", name = "enabled", havingValue = "true")
+    ClientTrackingCache clientTrackingCache(RedisConnectionFactory redisConnectionFactory, JianRedisProperties properties) {
+        JianRedisProperties.Tracking tracking = properties.getTracking();
+        return new ClientTrackingCache(redisConnectionFactory, tracking.getPrefixes(), tracking.getMaximumSize());
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = "org.springframework.boot.actuate.endpoint.annotation.Endpoint")
+    @ConditionalOnProperty(prefix = "jianspring.redis.hot-key", name = "enabled", havingValue = "true")
+    static class HotKeyEndpointConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        HotKeyEndpoint hotKeyEndpoint(HotKeyCache hotKeyCache) {
+            return new HotKeyEndpoint(hotKeyCache);
+        }
+    }
+
+    // 需要ReactiveRedisConnectionFactory（Lettuce），Jedis等客户端下不可用，默认关闭
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnClass(name = "reactor.core.publisher.Flux")
+    @ConditionalOnProperty(prefix = "jianspring.redis.reactive", name = "enabled", havingValue = "true")
+    @SuppressWarnings("unchecked")
+    ReactiveRedisOperations reactiveRedisOperations(ReactiveRedisConnectionFactory reactiveRedisConnectionFactory,
+                                                    RedisTemplate<String, Object> redisTemplate,
+                                                    ObjectProvider<NearCache> nearCache) {
+        // 与阻塞版共用同一套序列化器，保证两边读写的数据互通
+        RedisSerializationContext<String, Object> serializationContext = RedisSerializationContext
+                .<String, Object>newSerializationContext(RedisSerializer.string())
+                .value((RedisSerializer<Object>) redisTemplate.getValueSerializer())
+                .hashValue(redisTemplate.getHashValueSerializer())
+                .build();
+        ReactiveRedisTemplate<String, Object> reactiveRedisTemplate =
+                new ReactiveRedisTemplate<>(reactiveRedisConnectionFactory, serializationContext);
+        return new ReactiveRedisOperations(reactiveRedisTemplate, nearCache.getIfAvailable());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    RedisRateLimiter redisRateLimiter(RedisOperations redisOperations, JianRedisProperties properties) {
+        return new RedisRateLimiter(redisOperations, properties);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    RedisStreamQueue redisStreamQueue(RedisOperations redisOperations, JianRedisProperties properties) {
+        return new RedisStreamQueue(redisOperations, properties);
+    }
+
+    @Configuration
+    @ConditionalOnClass(name = {"org.aspectj.lang.annotation.Aspect", "com.jianspring.starter.commons.exception.BizException"})
+    @EnableAspectJAutoProxy
+    static class RateLimitAspectConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        RateLimitHandler rateLimitHandler(RedisRateLimiter redisRateLimiter) {
+            return new RateLimitHandler(redisRateLimiter);
+        }
+    }
+
+    // 近端缓存需要额外的pub/sub订阅连接，默认关闭
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "jianspring.redis.near-cache", name = "enabled", havingValue = "true")
+    NearCache nearCache(RedisTemplate<String, Object> redisTemplate, JianRedisProperties properties) {
+        JianRedisProperties.NearCache nearCache = properties.getNearCache();
+        return new NearCache(redisTemplate, nearCache.getMaximumSize(), nearCache.getChannel());
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "jianspring.redis.near-cache", name = "enabled", havingValue = "true")
+    RedisMessageListenerContainer nearCacheListenerContainer(RedisConnectionFactory redisConnectionFactory, NearCache nearCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(new NearCacheInvalidationListener(nearCache), new ChannelTopic(nearCache.getChannel()));
+        return container;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnProperty(name = "spring.redis.cluster.nodes")
+    @ConditionalOnMissingBean(ClientResources.class)
+    public ClientResources lettuceClientResources(JianRedisProperties properties) {
+        JianRedisProperties.Cluster cluster = properties.getCluster();
+        DefaultClientResources.Builder builder = DefaultClientResources.builder();
+        if (cluster.getIoThreads() > 0) {
+            builder.ioThreadPoolSize(cluster.getIoThreads());
+        }
+        if (cluster.getComputationThreads() > 0) {
+            builder.computationThreadPoolSize(cluster.getComputationThreads());
+        }
+        return builder.build();
     }
 
     @Bean
     @ConditionalOnProperty(name = "spring.redis.cluster.nodes")
     @ConditionalOnMissingBean(RedisClusterConfiguration.class)
-    public RedisConnectionFactory redisConnectionFactory(RedisProperties redisProperties) {
+    public LettuceConnectionFactory redisConnectionFactory(RedisProperties redisProperties, JianRedisProperties properties,
+                                                           ClientResources clientResources) {
         RedisClusterConfiguration clusterConfig = new RedisClusterConfiguration();
 
         // 设置集群节点
@@ -65,7 +212,41 @@ public class RedisConfig {
             clusterConfig.setPassword(RedisPassword.of(redisProperties.getPassword()));
         }
 
-        return new LettuceConnectionFactory(clusterConfig);
+        return new LettuceConnectionFactory(clusterConfig,
+                clusterClientConfiguration(redisProperties, properties.getCluster(), clientResources));
+    }
+
+    // 拓扑刷新、副本读取、命令超时及连接池，所有连接共享同一组事件循环
+    private LettuceClientConfiguration clusterClientConfiguration(RedisProperties redisProperties,
+                                                                  JianRedisProperties.Cluster cluster,
+                                                                  ClientResources clientResources) {
+        ClusterTopologyRefreshOptions.Builder refreshOptions = ClusterTopologyRefreshOptions.builder()
+                .dynamicRefreshSources(cluster.isDynamicRefreshSources());
+        if (cluster.getRefreshPeriod() != null) {
+            refreshOptions.enablePeriodicRefresh(cluster.getRefreshPeriod());
+        }
+        if (cluster.isAdaptiveRefresh()) {
+            refreshOptions.enableAllAdaptiveRefreshTriggers();
+        }
+        ClusterClientOptions clientOptions = ClusterClientOptions.builder()
+                .topologyRefreshOptions(refreshOptions.build())
+                .build();
+
+        if (cluster.getPool().isEnabled()
+                && !ClassUtils.isPresent("org.apache.commons.pool2.impl.GenericObjectPoolConfig", RedisConfig.class.getClassLoader())) {
+            throw new IllegalStateException("启用Redis连接池需引入commons-pool2");
+        }
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = cluster.getPool().isEnabled()
+                ? PoolingConfigurations.builder(cluster.getPool())
+                : LettuceClientConfiguration.builder();
+        builder.clientOptions(clientOptions)
+                .clientResources(clientResources)
+                .readFrom(ReadFrom.valueOf(cluster.getReadFrom()));
+        Duration commandTimeout = cluster.getCommandTimeout() != null ? cluster.getCommandTimeout() : redisProperties.getTimeout();
+        if (commandTimeout != null) {
+            builder.commandTimeout(commandTimeout);
+        }
+        return builder.build();
     }
 
     private List<RedisNode> getClusterNodes(String[] nodes) {
@@ -77,4 +258,21 @@ public class RedisConfig {
                 .collect(Collectors.toList());
     }
 
-}
\ No newline at end of file
+    /**
+     * 单独放在内部类中，未启用连接池时不加载commons-pool2
+     */
+    private static class PoolingConfigurations {
+
+        static LettuceClientConfiguration.LettuceClientConfigurationBuilder builder(JianRedisProperties.Pool pool) {
+            GenericObjectPoolConfig<?> poolConfig = new GenericObjectPoolConfig<>();
+            poolConfig.setMaxTotal(pool.getMaxActive());
+            poolConfig.setMaxIdle(pool.getMaxIdle());
+            poolConfig.setMinIdle(pool.getMinIdle());
+            if (pool.getMaxWait() != null) {
+                poolConfig.setMaxWait(pool.getMaxWait());
+            }
+            return LettucePoolingClientConfiguration.builder().poolConfig(poolConfig);
+        }
+    }
+
+}
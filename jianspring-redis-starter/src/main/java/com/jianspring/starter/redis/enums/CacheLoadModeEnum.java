@@ -0,0 +1,24 @@
+package com.jianspring.starter.redis.enums;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * getOrLoad 的回源方式
+ */
+@Getter
+@ToString
+public enum CacheLoadModeEnum {
+
+    LOCAL("仅在本JVM内合并并发回源"),
+    MUTEX("本JVM合并后再通过Redis短锁保证全集群只有一个节点回源"),
+    EARLY_REFRESH("按回源耗时与剩余TTL概率性提前刷新（XFetch）"),
+    ;
+
+    private final String desc;
+
+    CacheLoadModeEnum(String desc) {
+        this.desc = desc;
+    }
+
+}
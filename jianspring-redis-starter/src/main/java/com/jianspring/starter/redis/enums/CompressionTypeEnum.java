@@ -0,0 +1,35 @@
+package com.jianspring.starter.redis.enums;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Redis value 压缩算法，id写入数据头
+ */
+@Getter
+@ToString
+public enum CompressionTypeEnum {
+
+    NONE((byte) 0, "不压缩"),
+    LZ4((byte) 1, "LZ4，需要 org.lz4:lz4-java"),
+    ZSTD((byte) 2, "Zstandard，需要 com.github.luben:zstd-jni"),
+    ;
+
+    private final byte id;
+
+    private final String desc;
+
+    CompressionTypeEnum(byte id, String desc) {
+        this.id = id;
+        this.desc = desc;
+    }
+
+    public static CompressionTypeEnum of(byte id) {
+        for (CompressionTypeEnum type : values()) {
+            if (type.id == id) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的Redis压缩算法: " + id);
+    }
+}
@@ -21,4 +21,31 @@ public interface IRedisKey {
 
     TimeUnit getTimeUnit();
 
+    /**
+     * 本地近端缓存的有效时长，大于0时get/hashGet会先读本地缓存
+     *
+     * @return 本地缓存时长，默认0表示不启用
+     */
+    default long getLocalTtl() {
+        return 0L;
+    }
+
+    /**
+     * 本地近端缓存有效时长的单位
+     *
+     * @return 时间单位
+     */
+    default TimeUnit getLocalTimeUnit() {
+        return TimeUnit.SECONDS;
+    }
+
+    /**
+     * 被探测为热点时是否允许在本地短暂缓存读取结果，对一致性敏感的前缀应返回false
+     *
+     * @return 默认true
+     */
+    default boolean isHotKeyCacheable() {
+        return true;
+    }
+
 }
\ No newline at end of file
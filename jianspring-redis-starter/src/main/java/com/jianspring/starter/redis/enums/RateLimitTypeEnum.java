@@ -0,0 +1,23 @@
+package com.jianspring.starter.redis.enums;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 分布式限流算法
+ */
+@Getter
+@ToString
+public enum RateLimitTypeEnum {
+
+    SLIDING_WINDOW("滑动窗口，基于ZSET记录窗口内每次请求"),
+    TOKEN_BUCKET("令牌桶，按速率补充令牌，允许一定突发"),
+    ;
+
+    private final String desc;
+
+    RateLimitTypeEnum(String desc) {
+        this.desc = desc;
+    }
+
+}
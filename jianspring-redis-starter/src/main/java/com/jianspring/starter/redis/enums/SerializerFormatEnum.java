@@ -0,0 +1,35 @@
+package com.jianspring.starter.redis.enums;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Redis value 编码格式，id写入数据头
+ */
+@Getter
+@ToString
+public enum SerializerFormatEnum {
+
+    JSON((byte) 1, "文本JSON，与原 GenericJackson2JsonRedisSerializer 一致"),
+    SMILE((byte) 2, "Jackson Smile 二进制JSON，需要 jackson-dataformat-smile"),
+    CBOR((byte) 3, "CBOR 二进制编码，需要 jackson-dataformat-cbor"),
+    ;
+
+    private final byte id;
+
+    private final String desc;
+
+    SerializerFormatEnum(byte id, String desc) {
+        this.id = id;
+        this.desc = desc;
+    }
+
+    public static SerializerFormatEnum of(byte id) {
+        for (SerializerFormatEnum format : values()) {
+            if (format.id == id) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("未知的Redis编码格式: " + id);
+    }
+}
@@ -0,0 +1,498 @@
+package com.jianspring.starter.redis.operations;
+
+import com.jianspring.starter.redis.cache.NearCache;
+import com.jianspring.starter.redis.enums.IRedisKey;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveRedisCallback;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.lang.Nullable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * RedisOperations 的非阻塞版本，key、默认值与TTL约定与 RedisOperations 一致
+ * <p>
+ * 批量命令在同一连接上并发发出，由Lettuce自动合并为管道；写操作同样会通知近端缓存失效。
+ */
+public class ReactiveRedisOperations {
+
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+
+    @Nullable
+    private final NearCache nearCache;
+
+    public ReactiveRedisOperations(ReactiveRedisTemplate<String, Object> reactiveRedisTemplate) {
+        this(reactiveRedisTemplate, null);
+    }
+
+    public ReactiveRedisOperations(ReactiveRedisTemplate<String, Object> reactiveRedisTemplate, @Nullable NearCache nearCache) {
+        this.reactiveRedisTemplate = reactiveRedisTemplate;
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * 获取ReactiveRedisTemplate实例
+     *
+     * @return ReactiveRedisTemplate实例
+     */
+    public ReactiveRedisTemplate<String, Object> getReactiveRedisTemplate() {
+        return this.reactiveRedisTemplate;
+    }
+
+    /**
+     * 设置key为默认值
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @return 是否成功
+     */
+    public Mono<Boolean> set(IRedisKey iRedisKey, String bizKey) {
+        return set(iRedisKey, bizKey, null);
+    }
+
+    /**
+     * 设置key
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param value     业务value，为null时写入默认值
+     * @return 是否成功
+     */
+    public Mono<Boolean> set(IRedisKey iRedisKey, String bizKey, @Nullable Object value) {
+        return executeCommand(iRedisKey, bizKey, key -> reactiveRedisTemplate.opsForValue()
+                .set(key, valueOrDefault(iRedisKey, value), ttl(iRedisKey))
+                .flatMap(result -> evictNearCache(iRedisKey, Collections.singletonList(key)).thenReturn(result)), false);
+    }
+
+    /**
+     * 获取key，IRedisKey.getLocalTtl() 大于0时优先读取本地近端缓存
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @return 值，不存在时为空
+     */
+    public Mono<Object> get(IRedisKey iRedisKey, String bizKey) {
+        return executeCommand(iRedisKey, bizKey, key -> {
+            Object cached = nearCache == null ? null : nearCache.getIfPresent(iRedisKey, key);
+            if (cached != null) {
+                return Mono.just(cached);
+            }
+            return reactiveRedisTemplate.opsForValue().get(key)
+                    .doOnNext(value -> {
+                        if (nearCache != null) {
+                            nearCache.put(iRedisKey, key, value);
+                        }
+                    });
+        }, false);
+    }
+
+    /**
+     * 删除key
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @return 删除的数量
+     */
+    public Mono<Long> delete(IRedisKey iRedisKey, String bizKey) {
+        return executeCommand(iRedisKey, bizKey, key -> reactiveRedisTemplate.delete(key)
+                .flatMap(count -> evictNearCache(iRedisKey, Collections.singletonList(key)).thenReturn(count)), false);
+    }
+
+    /**
+     * key 不存在时,则设置值
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param value     业务value
+     * @return 是否设置成功
+     */
+    public Mono<Boolean> setIfAbsent(IRedisKey iRedisKey, String bizKey, @Nullable Object value) {
+        return executeCommand(iRedisKey, bizKey, key -> reactiveRedisTemplate.opsForValue()
+                .setIfAbsent(key, valueOrDefault(iRedisKey, value), ttl(iRedisKey))
+                .flatMap(flag -> flag
+                        ? evictNearCache(iRedisKey, Collections.singletonList(key)).thenReturn(true)
+                        : Mono.just(false)), false);
+    }
+
+    /**
+     * key 存在时，则设置值
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param value     业务value
+     * @return 是否设置成功
+     */
+    public Mono<Boolean> setIfPresent(IRedisKey iRedisKey, String bizKey, @Nullable Object value) {
+        return executeCommand(iRedisKey, bizKey, key -> reactiveRedisTemplate.opsForValue()
+                .setIfPresent(key, valueOrDefault(iRedisKey, value), ttl(iRedisKey))
+                .flatMap(flag -> flag
+                        ? evictNearCache(iRedisKey, Collections.singletonList(key)).thenReturn(true)
+                        : Mono.just(false)), false);
+    }
+
+    /**
+     * 是否含有key
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @return 是否存在
+     */
+    public Mono<Boolean> hasKey(IRedisKey iRedisKey, String bizKey) {
+        return executeCommand(iRedisKey, bizKey, reactiveRedisTemplate::hasKey, false);
+    }
+
+    // ================ Set类型操作 ================
+
+    /**
+     * 添加Set元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param values    元素列表
+     * @return 新增的元素数量
+     */
+    public Mono<Long> setSet(IRedisKey iRedisKey, String bizKey, List<Object> values) {
+        return executeCommand(iRedisKey, bizKey, key ->
+                reactiveRedisTemplate.opsForSet().add(key, values.toArray()), true);
+    }
+
+    /**
+     * 弹出Set元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @return 弹出的元素
+     */
+    public Mono<Object> popSet(IRedisKey iRedisKey, String bizKey) {
+        return executeCommand(iRedisKey, bizKey, key ->
+                reactiveRedisTemplate.opsForSet().pop(key), true);
+    }
+
+    /**
+     * 删除Set元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param values    元素列表
+     * @return 删除的元素数量
+     */
+    public Mono<Long> removeSet(IRedisKey iRedisKey, String bizKey, Object... values) {
+        return executeCommand(iRedisKey, bizKey, key ->
+                reactiveRedisTemplate.opsForSet().remove(key, values), true);
+    }
+
+    /**
+     * 获取所有Set元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @return 元素流
+     */
+    public Flux<Object> getSetValues(IRedisKey iRedisKey, String bizKey) {
+        return reactiveRedisTemplate.opsForSet().members(buildKey(iRedisKey, bizKey));
+    }
+
+    // ================ Hash类型操作 ================
+
+    /**
+     * 设置Hash字段值
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param hashKey   hash字段
+     * @param value     值
+     * @return 是否新增字段
+     */
+    public Mono<Boolean> hashPut(IRedisKey iRedisKey, String bizKey, Object hashKey, Object value) {
+        return executeCommand(iRedisKey, bizKey, key -> reactiveRedisTemplate.opsForHash().put(key, hashKey, value)
+                .flatMap(result -> evictNearCache(iRedisKey, Collections.singletonList(key)).thenReturn(result)), true);
+    }
+
+    /**
+     * 获取Hash字段值
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param hashKey   hash字段
+     * @return 字段值
+     */
+    public Mono<Object> hashGet(IRedisKey iRedisKey, String bizKey, Object hashKey) {
+        return executeCommand(iRedisKey, bizKey, key ->
+                reactiveRedisTemplate.opsForHash().get(key, hashKey), false);
+    }
+
+    /**
+     * 获取Hash所有字段和值
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @return 字段和值的流
+     */
+    public Flux<Map.Entry<Object, Object>> hashGetAll(IRedisKey iRedisKey, String bizKey) {
+        return reactiveRedisTemplate.opsForHash().entries(buildKey(iRedisKey, bizKey));
+    }
+
+    /**
+     * 删除Hash字段
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param hashKeys  hash字段列表
+     * @return 删除的字段数量
+     */
+    public Mono<Long> hashDelete(IRedisKey iRedisKey, String bizKey, Object... hashKeys) {
+        return executeCommand(iRedisKey, bizKey, key -> reactiveRedisTemplate.opsForHash().remove(key, hashKeys)
+                .flatMap(count -> evictNearCache(iRedisKey, Collections.singletonList(key)).thenReturn(count)), false);
+    }
+
+    // ================ List类型操作 ================
+
+    /**
+     * 向List左侧添加元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param value     值
+     * @return 添加后的List长度
+     */
+    public Mono<Long> listLeftPush(IRedisKey iRedisKey, String bizKey, Object value) {
+        return executeCommand(iRedisKey, bizKey, key ->
+                reactiveRedisTemplate.opsForList().leftPush(key, value), true);
+    }
+
+    /**
+     * 向List右侧添加元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param value     值
+     * @return 添加后的List长度
+     */
+    public Mono<Long> listRightPush(IRedisKey iRedisKey, String bizKey, Object value) {
+        return executeCommand(iRedisKey, bizKey, key ->
+                reactiveRedisTemplate.opsForList().rightPush(key, value), true);
+    }
+
+    /**
+     * 获取List指定范围的元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param start     开始索引
+     * @param end       结束索引
+     * @return 元素流
+     */
+    public Flux<Object> listRange(IRedisKey iRedisKey, String bizKey, long start, long end) {
+        return reactiveRedisTemplate.opsForList().range(buildKey(iRedisKey, bizKey), start, end);
+    }
+
+    /**
+     * 从List左侧弹出元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @return 弹出的元素
+     */
+    public Mono<Object> listLeftPop(IRedisKey iRedisKey, String bizKey) {
+        return executeCommand(iRedisKey, bizKey, key ->
+                reactiveRedisTemplate.opsForList().leftPop(key), false);
+    }
+
+    /**
+     * 从List右侧弹出元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @return 弹出的元素
+     */
+    public Mono<Object> listRightPop(IRedisKey iRedisKey, String bizKey) {
+        return executeCommand(iRedisKey, bizKey, key ->
+                reactiveRedisTemplate.opsForList().rightPop(key), false);
+    }
+
+    // ================ ZSet类型操作 ================
+
+    /**
+     * 向ZSet添加元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param value     值
+     * @param score     分数
+     * @return 是否新增
+     */
+    public Mono<Boolean> zSetAdd(IRedisKey iRedisKey, String bizKey, Object value, double score) {
+        return executeCommand(iRedisKey, bizKey, key ->
+                reactiveRedisTemplate.opsForZSet().add(key, value, score), true);
+    }
+
+    /**
+     * 获取ZSet指定分数范围的元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param min       最小分数
+     * @param max       最大分数
+     * @return 元素流
+     */
+    public Flux<Object> zSetRangeByScore(IRedisKey iRedisKey, String bizKey, double min, double max) {
+        return reactiveRedisTemplate.opsForZSet().rangeByScore(buildKey(iRedisKey, bizKey), Range.closed(min, max));
+    }
+
+    /**
+     * 删除ZSet元素
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param values    元素列表
+     * @return 删除的元素数量
+     */
+    public Mono<Long> zSetRemove(IRedisKey iRedisKey, String bizKey, Object... values) {
+        return executeCommand(iRedisKey, bizKey, key ->
+                reactiveRedisTemplate.opsForZSet().remove(key, values), true);
+    }
+
+    // ================ 批量操作 ================
+
+    /**
+     * 批量获取key，集群模式下按slot分组并发MGET，结果与入参顺序一致
+     *
+     * @param iRedisKey key前缀
+     * @param bizKeys   业务key列表
+     * @return 值列表，不存在的key对应null
+     */
+    public Mono<List<Object>> multiGet(IRedisKey iRedisKey, Collection<String> bizKeys) {
+        List<String> keys = buildKeys(iRedisKey, bizKeys);
+        Object[] results = new Object[keys.size()];
+        List<Integer> missIndexes = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Object cached = nearCache == null ? null : nearCache.getIfPresent(iRedisKey, keys.get(i));
+            if (cached != null) {
+                results[i] = cached;
+            } else {
+                missIndexes.add(i);
+            }
+        }
+        return Flux.fromIterable(RedisSlotUtils.groupBySlot(keys, missIndexes, isCluster()))
+                .flatMap(group -> {
+                    List<String> groupKeys = new ArrayList<>(group.size());
+                    for (Integer index : group) {
+                        groupKeys.add(keys.get(index));
+                    }
+                    return reactiveRedisTemplate.opsForValue().multiGet(groupKeys)
+                            .doOnNext(values -> {
+                                for (int i = 0; i < group.size(); i++) {
+                                    Object value = values.get(i);
+                                    results[group.get(i)] = value;
+                                    if (nearCache != null) {
+                                        nearCache.put(iRedisKey, groupKeys.get(i), value);
+                                    }
+                                }
+                            });
+                })
+                .then(Mono.fromSupplier(() -> Arrays.asList(results)))
+                .onErrorMap(e -> new RuntimeException("Redis批量操作失败: " + e.getMessage(), e));
+    }
+
+    /**
+     * 批量设置key并应用IRedisKey的ttl，命令并发发出由Lettuce合并为管道
+     *
+     * @param iRedisKey key前缀
+     * @param values    业务key与值的映射，值为null时写入默认值
+     * @return 完成信号
+     */
+    public Mono<Void> multiSet(IRedisKey iRedisKey, Map<String, Object> values) {
+        List<String> keys = new ArrayList<>(values.size());
+        return Flux.fromIterable(values.entrySet())
+                .flatMap(entry -> {
+                    String key = buildKey(iRedisKey, entry.getKey());
+                    keys.add(key);
+                    Object value = valueOrDefault(iRedisKey, entry.getValue());
+                    return iRedisKey.getTtl() > 0
+                            ? reactiveRedisTemplate.opsForValue().set(key, value, ttl(iRedisKey))
+                            : reactiveRedisTemplate.opsForValue().set(key, value);
+                })
+                .then(Mono.defer(() -> evictNearCache(iRedisKey, keys)))
+                .onErrorMap(e -> new RuntimeException("Redis批量操作失败: " + e.getMessage(), e));
+    }
+
+    /**
+     * 通用Redis操作方法
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param operation 具体操作函数
+     * @param applyTtl  是否执行ttl
+     * @param <T>       返回值类型
+     * @return 操作结果
+     */
+    public <T> Mono<T> executeCommand(IRedisKey iRedisKey, String bizKey, Function<String, Mono<T>> operation, boolean applyTtl) {
+        String key = buildKey(iRedisKey, bizKey);
+        Mono<T> result = Mono.defer(() -> operation.apply(key));
+        if (applyTtl && iRedisKey.getTtl() > 0) {
+            // 写命令返回后再发EXPIRE，先于写命令执行时key尚不存在，EXPIRE不生效
+            Mono<Boolean> expire = reactiveRedisTemplate.expire(key, ttl(iRedisKey));
+            result = result.flatMap(value -> expire.thenReturn(value))
+                    .switchIfEmpty(expire.then(Mono.empty()));
+        }
+        return result.onErrorMap(e -> new RuntimeException("Redis操作失败: " + e.getMessage(), e));
+    }
+
+    /**
+     * 执行自定义Redis操作
+     *
+     * @param callback 自定义操作回调
+     * @param <T>      返回值类型
+     * @return 操作结果
+     */
+    public <T> Flux<T> execute(ReactiveRedisCallback<T> callback) {
+        return reactiveRedisTemplate.execute(callback);
+    }
+
+    private String buildKey(IRedisKey redisKey, String bizKey) {
+        return redisKey.getPrefixKey() + bizKey;
+    }
+
+    private List<String> buildKeys(IRedisKey redisKey, Collection<String> bizKeys) {
+        List<String> keys = new ArrayList<>(bizKeys.size());
+        for (String bizKey : bizKeys) {
+            keys.add(buildKey(redisKey, bizKey));
+        }
+        return keys;
+    }
+
+    private Object valueOrDefault(IRedisKey redisKey, @Nullable Object value) {
+        return null == value ? redisKey.getDefaultValue() : value;
+    }
+
+    private Duration ttl(IRedisKey redisKey) {
+        return Duration.of(redisKey.getTtl(), redisKey.getTimeUnit().toChronoUnit());
+    }
+
+    private boolean isCluster() {
+        return RedisSlotUtils.isCluster(reactiveRedisTemplate.getConnectionFactory());
+    }
+
+    // 失效本地近端缓存，并以非阻塞方式通知其它节点
+    private Mono<Void> evictNearCache(IRedisKey redisKey, List<String> keys) {
+        if (nearCache == null || !nearCache.isCacheable(redisKey) || keys.isEmpty()) {
+            return Mono.empty();
+        }
+        nearCache.invalidateLocal(keys);
+        ByteBuffer channel = ByteBuffer.wrap(nearCache.getChannel().getBytes(StandardCharsets.UTF_8));
+        ByteBuffer message = ByteBuffer.wrap(nearCache.invalidationMessage(keys).getBytes(StandardCharsets.UTF_8));
+        return reactiveRedisTemplate.execute(connection -> connection.pubSubCommands().publish(channel, message))
+                .then();
+    }
+}
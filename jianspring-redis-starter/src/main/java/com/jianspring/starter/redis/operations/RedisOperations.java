@@ -1,21 +1,54 @@
 package com.jianspring.starter.redis.operations;
 
+import com.jianspring.starter.redis.cache.ClientTrackingCache;
+import com.jianspring.starter.redis.cache.HotKeyCache;
+import com.jianspring.starter.redis.cache.NearCache;
+import com.jianspring.starter.redis.config.JianRedisProperties;
+import com.jianspring.starter.redis.enums.CacheLoadModeEnum;
 import com.jianspring.starter.redis.enums.IRedisKey;
+import com.jianspring.starter.redis.script.RedisScriptRegistry;
+import io.lettuce.core.ScanArgs;
+import io.lettuce.core.ScanIterator;
+import io.lettuce.core.cluster.api.StatefulRedisClusterConnection;
+import io.lettuce.core.cluster.api.async.RedisAdvancedClusterAsyncCommands;
+import org.springframework.dao.DataAccessException;
 import org.springframework.data.geo.Circle;
 import org.springframework.data.geo.GeoResults;
 import org.springframework.data.geo.Point;
 import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisClusterNode;
 import org.springframework.data.redis.connection.RedisGeoCommands;
+import org.springframework.data.redis.core.Cursor;
 import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.lang.Nullable;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * @Author: InfoInsights
@@ -25,11 +58,65 @@ import java.util.function.Function;
 public class RedisOperations {
 
 
+    // 单次脚本调用的参数上限，超出时退回管道，避免Lua unpack栈溢出
+    private static final int MAX_SCRIPT_ARGS = 1000;
+
+    private static final RedisScript<Long> RELEASE_LOCK_SCRIPT = RedisScript.of(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end", Long.class);
+
     private final RedisTemplate<String, Object> redisTemplate;
 
+    @Nullable
+    private final NearCache nearCache;
+
+    @Nullable
+    private final HotKeyCache hotKeyCache;
+
+    @Nullable
+    private final ClientTrackingCache trackingCache;
+
+    private final JianRedisProperties properties;
+
+    private final RedisScriptRegistry scriptRegistry;
+
+    // 正在回源的key，同一JVM内并发的getOrLoad共享同一次回源
+    private final Map<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+
+    // 按key前缀记录最近一次回源耗时(ms)，用于提前刷新
+    private final Map<String, Long> loadCostMillis = new ConcurrentHashMap<>();
+
 
     public RedisOperations(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, null);
+    }
+
+    public RedisOperations(RedisTemplate<String, Object> redisTemplate, @Nullable NearCache nearCache) {
+        this(redisTemplate, nearCache, new JianRedisProperties());
+    }
+
+    public RedisOperations(RedisTemplate<String, Object> redisTemplate, @Nullable NearCache nearCache, JianRedisProperties properties) {
+        this(redisTemplate, nearCache, null, properties);
+    }
+
+    public RedisOperations(RedisTemplate<String, Object> redisTemplate, @Nullable NearCache nearCache,
+                           @Nullable HotKeyCache hotKeyCache, JianRedisProperties properties) {
+        this(redisTemplate, nearCache, hotKeyCache, new RedisScriptRegistry(redisTemplate), properties);
+    }
+
+    public RedisOperations(RedisTemplate<String, Object> redisTemplate, @Nullable NearCache nearCache,
+                           @Nullable HotKeyCache hotKeyCache, RedisScriptRegistry scriptRegistry, JianRedisProperties properties) {
+        this(redisTemplate, nearCache, hotKeyCache, null, scriptRegistry, properties);
+    }
+
+    public RedisOperations(RedisTemplate<String, Object> redisTemplate, @Nullable NearCache nearCache,
+                           @Nullable HotKeyCache hotKeyCache, @Nullable ClientTrackingCache trackingCache,
+                           RedisScriptRegistry scriptRegistry, JianRedisProperties properties) {
         this.redisTemplate = redisTemplate;
+        this.nearCache = nearCache;
+        this.hotKeyCache = hotKeyCache;
+        this.trackingCache = trackingCache;
+        this.scriptRegistry = scriptRegistry;
+        this.properties = properties;
     }
 
     /**
@@ -41,6 +128,15 @@ public class RedisOperations {
         return this.redisTemplate;
     }
 
+    /**
+     * 获取Lua脚本注册表
+     *
+     * @return 脚本注册表
+     */
+    public RedisScriptRegistry getScriptRegistry() {
+        return this.scriptRegistry;
+    }
+
     /**
      * 设置key
      *
@@ -50,6 +146,7 @@ public class RedisOperations {
     public void set(IRedisKey iRedisKey, String bizKey) {
         String key = buildKey(iRedisKey, bizKey);
         redisTemplate.opsForValue().set(key, iRedisKey.getDefaultValue(), iRedisKey.getTtl(), iRedisKey.getTimeUnit());
+        evictNearCache(iRedisKey, key);
     }
 
     /**
@@ -62,10 +159,28 @@ public class RedisOperations {
     public void set(IRedisKey iRedisKey, String bizKey, Object value) {
         String key = buildKey(iRedisKey, bizKey);
         redisTemplate.opsForValue().set(key, null == value ? iRedisKey.getDefaultValue() : value, iRedisKey.getTtl(), iRedisKey.getTimeUnit());
+        evictNearCache(iRedisKey, key);
     }
 
+    /**
+     * 获取key，开启客户端缓存的前缀优先读取本地跟踪副本，IRedisKey.getLocalTtl() 大于0时优先读取本地近端缓存，热点key优先读取本地副本
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @return 值
+     */
     public Object get(IRedisKey iRedisKey, String bizKey) {
         String key = buildKey(iRedisKey, bizKey);
+        recordAccess(iRedisKey, key);
+        if (trackingCache != null && trackingCache.isTracked(iRedisKey)) {
+            return trackingCache.get(key, k -> redisTemplate.opsForValue().get(k));
+        }
+        if (nearCache != null && nearCache.isCacheable(iRedisKey)) {
+            return nearCache.get(iRedisKey, key, k -> redisTemplate.opsForValue().get(k));
+        }
+        if (hotKeyCache != null) {
+            return hotKeyCache.get(iRedisKey, key, k -> redisTemplate.opsForValue().get(k));
+        }
         return redisTemplate.opsForValue().get(key);
     }
 
@@ -78,6 +193,7 @@ public class RedisOperations {
     public void delete(IRedisKey iRedisKey, String bizKey) {
         String key = buildKey(iRedisKey, bizKey);
         redisTemplate.delete(key);
+        evictNearCache(iRedisKey, key);
     }
 
     /**
@@ -90,6 +206,9 @@ public class RedisOperations {
     public boolean setIfPresent(IRedisKey iRedisKey, String bizKey, Object value) {
         String key = buildKey(iRedisKey, bizKey);
         Boolean flag = redisTemplate.opsForValue().setIfPresent(key, null == value ? iRedisKey.getDefaultValue() : value, iRedisKey.getTtl(), iRedisKey.getTimeUnit());
+        if (Boolean.TRUE.equals(flag)) {
+            evictNearCache(iRedisKey, key);
+        }
         return null == flag ? Boolean.FALSE : flag;
     }
 
@@ -106,6 +225,9 @@ public class RedisOperations {
                 null == value ? iRedisKey.getDefaultValue() : value,
                 iRedisKey.getTtl(),
                 iRedisKey.getTimeUnit());
+        if (Boolean.TRUE.equals(flag)) {
+            evictNearCache(iRedisKey, key);
+        }
         return null == flag ? Boolean.FALSE : flag;
     }
 
@@ -118,9 +240,17 @@ public class RedisOperations {
      * @param values    list 值
      */
     public void setSet(IRedisKey iRedisKey, String bizKey, List<Object> values) {
+        if (useTtlScript(iRedisKey) && !values.isEmpty() && values.size() <= MAX_SCRIPT_ARGS) {
+            Object[] args = new Object[values.size() + 1];
+            args[0] = ttlMillis(iRedisKey);
+            for (int i = 0; i < values.size(); i++) {
+                args[i + 1] = serializeValue(values.get(i));
+            }
+            executeScript(RedisScriptRegistry.SADD_EXPIRE, Long.class, iRedisKey, bizKey, args);
+            return;
+        }
         String key = buildKey(iRedisKey, bizKey);
-        redisTemplate.opsForSet().add(key, values.toArray());
-        applyTtl(iRedisKey, key);
+        writeWithTtl(iRedisKey, key, k -> redisTemplate.opsForSet().add(k, values.toArray()));
     }
 
     /**
@@ -131,9 +261,12 @@ public class RedisOperations {
      * @param value     list 值
      */
     public void setSet(IRedisKey iRedisKey, String bizKey, Object value) {
+        if (useTtlScript(iRedisKey)) {
+            executeScript(RedisScriptRegistry.SADD_EXPIRE, Long.class, iRedisKey, bizKey, ttlMillis(iRedisKey), serializeValue(value));
+            return;
+        }
         String key = buildKey(iRedisKey, bizKey);
-        redisTemplate.opsForSet().add(key, value);
-        applyTtl(iRedisKey, key);
+        writeWithTtl(iRedisKey, key, k -> redisTemplate.opsForSet().add(k, value));
     }
 
     /**
@@ -143,9 +276,11 @@ public class RedisOperations {
      * @param bizKey    业务key
      */
     public Object popSet(IRedisKey iRedisKey, String bizKey) {
-        Object value = redisTemplate.opsForSet().pop(iRedisKey.getPrefixKey() + bizKey);
-        redisTemplate.expire(iRedisKey.getPrefixKey() + bizKey, iRedisKey.getTtl(), iRedisKey.getTimeUnit());
-        return value;
+        if (useTtlScript(iRedisKey)) {
+            return executeScript(RedisScriptRegistry.SPOP_EXPIRE, Object.class, iRedisKey, bizKey, ttlMillis(iRedisKey));
+        }
+        String key = buildKey(iRedisKey, bizKey);
+        return writeWithTtl(iRedisKey, key, k -> redisTemplate.opsForSet().pop(k));
     }
 
     /**
@@ -156,8 +291,7 @@ public class RedisOperations {
      */
     public void removeSet(IRedisKey iRedisKey, String bizKey, String obj) {
         String key = buildKey(iRedisKey, bizKey);
-        redisTemplate.opsForSet().remove(key, obj);
-        applyTtl(iRedisKey, key);
+        writeWithTtl(iRedisKey, key, k -> redisTemplate.opsForSet().remove(k, obj));
     }
 
     /**
@@ -168,6 +302,7 @@ public class RedisOperations {
      * @return set 的size
      */
     public long getSetSize(IRedisKey iRedisKey, String bizKey) {
+        recordAccess(iRedisKey, buildKey(iRedisKey, bizKey));
         Long size = redisTemplate.opsForSet().size(iRedisKey.getPrefixKey() + bizKey);
         if (null == size) {
             return 0L;
@@ -183,6 +318,7 @@ public class RedisOperations {
      * @return set的值
      */
     public Set<Object> getSetValues(IRedisKey iRedisKey, String bizKey) {
+        recordAccess(iRedisKey, buildKey(iRedisKey, bizKey));
         Set<Object> members = redisTemplate.opsForSet().members(iRedisKey.getPrefixKey() + bizKey);
         if (null == members || members.isEmpty()) {
             return Collections.emptySet();
@@ -212,9 +348,7 @@ public class RedisOperations {
      */
     public Long geoAdd(IRedisKey iRedisKey, String bizKey, Point point, String member) {
         String key = buildKey(iRedisKey, bizKey);
-        long result = redisTemplate.opsForGeo().add(key, point, member);
-        applyTtl(iRedisKey, key);
-        return result;
+        return writeWithTtl(iRedisKey, key, k -> redisTemplate.opsForGeo().add(k, point, member));
     }
 
     /**
@@ -260,6 +394,38 @@ public class RedisOperations {
         return redisKey.getPrefixKey() + bizKey;
     }
 
+    // 写操作后失效本地近端缓存并通知其它节点，热点key的本地副本只在本节点失效，客户端缓存的其它节点由Redis推送失效
+    private void evictNearCache(IRedisKey redisKey, String fullKey) {
+        if (nearCache != null) {
+            nearCache.invalidate(redisKey, fullKey);
+        }
+        if (hotKeyCache != null) {
+            hotKeyCache.invalidate(fullKey);
+        }
+        if (trackingCache != null) {
+            trackingCache.invalidate(Collections.singletonList(fullKey));
+        }
+    }
+
+    private void evictNearCache(IRedisKey redisKey, List<String> fullKeys) {
+        if (nearCache != null && nearCache.isCacheable(redisKey)) {
+            nearCache.invalidate(fullKeys);
+        }
+        if (hotKeyCache != null) {
+            hotKeyCache.invalidate(fullKeys);
+        }
+        if (trackingCache != null) {
+            trackingCache.invalidate(fullKeys);
+        }
+    }
+
+    // 热点key探测的访问计数
+    private void recordAccess(IRedisKey redisKey, String fullKey) {
+        if (hotKeyCache != null) {
+            hotKeyCache.record(redisKey, fullKey);
+        }
+    }
+
     // 新增TTL设置方法（集中过期策略）
     private void applyTtl(IRedisKey redisKey, String fullKey) {
         if (redisKey.getTtl() > 0) {
@@ -267,8 +433,46 @@ public class RedisOperations {
         }
     }
 
+    // 有TTL且开启合并时，由Lua脚本在一次原子调用中完成写入与EXPIRE
+    private boolean useTtlScript(IRedisKey redisKey) {
+        return redisKey.getTtl() > 0 && properties.isPipelineTtl();
+    }
+
+    private long ttlMillis(IRedisKey redisKey) {
+        return redisKey.getTimeUnit().toMillis(redisKey.getTtl());
+    }
+
+    // 写命令与EXPIRE放在同一个管道中提交，只需一次往返，返回写命令的结果
+    // operation只能发出一条命令且不能使用命令的返回值，管道内命令的直接返回值为null，仅用于内部的固定写操作
+    @SuppressWarnings("unchecked")
+    private <T> T writeWithTtl(IRedisKey redisKey, String fullKey, Function<String, T> operation) {
+        if (redisKey.getTtl() <= 0 || !properties.isPipelineTtl()) {
+            T result = operation.apply(fullKey);
+            applyTtl(redisKey, fullKey);
+            return result;
+        }
+        List<Object> results = pipelined(template -> {
+            operation.apply(fullKey);
+            template.expire(fullKey, redisKey.getTtl(), redisKey.getTimeUnit());
+        });
+        return results.size() > 1 ? (T) results.get(0) : null;
+    }
+
+    // 内部单条写命令，有TTL时与EXPIRE合并提交
+    private <T> T writeCommand(IRedisKey iRedisKey, String bizKey, Function<String, T> operation) {
+        String key = buildKey(iRedisKey, bizKey);
+        recordAccess(iRedisKey, key);
+        try {
+            return writeWithTtl(iRedisKey, key, operation);
+        } catch (Exception e) {
+            throw new RuntimeException("Redis操作失败: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * 通用Redis操作方法 - 带返回值
+     * <p>
+     * applyTtl为true时operation执行完成后再设置过期时间，operation可以使用命令的返回值
      *
      * @param iRedisKey key前缀
      * @param bizKey    业务key
@@ -279,6 +483,7 @@ public class RedisOperations {
      */
     public <T> T executeCommand(IRedisKey iRedisKey, String bizKey, Function<String, T> operation, boolean applyTtl) {
         String key = buildKey(iRedisKey, bizKey);
+        recordAccess(iRedisKey, key);
         try {
             T result = operation.apply(key);
             if (applyTtl) {
@@ -292,6 +497,8 @@ public class RedisOperations {
 
     /**
      * 通用Redis操作方法 - 无返回值
+     * <p>
+     * applyTtl为true时operation执行完成后再设置过期时间
      *
      * @param iRedisKey key前缀
      * @param bizKey    业务key
@@ -321,12 +528,15 @@ public class RedisOperations {
      * @param value     值
      */
     public void hashPut(IRedisKey iRedisKey, String bizKey, Object hashKey, Object value) {
-        executeVoidCommand(iRedisKey, bizKey, key ->
-                redisTemplate.opsForHash().put(key, hashKey, value), true);
+        writeCommand(iRedisKey, bizKey, key -> {
+            redisTemplate.opsForHash().put(key, hashKey, value);
+            return null;
+        });
+        evictNearCache(iRedisKey, buildKey(iRedisKey, bizKey));
     }
 
     /**
-     * 获取Hash字段值
+     * 获取Hash字段值，开启客户端缓存的前缀优先读取本地跟踪副本，IRedisKey.getLocalTtl() 大于0时优先读取本地近端缓存，热点key优先读取本地副本
      *
      * @param iRedisKey key前缀
      * @param bizKey    业务key
@@ -334,6 +544,18 @@ public class RedisOperations {
      * @return 字段值
      */
     public Object hashGet(IRedisKey iRedisKey, String bizKey, Object hashKey) {
+        if (trackingCache != null && trackingCache.isTracked(iRedisKey)) {
+            return executeCommand(iRedisKey, bizKey, key ->
+                    trackingCache.getHashField(key, hashKey, k -> redisTemplate.opsForHash().get(k, hashKey)), false);
+        }
+        if (nearCache != null && nearCache.isCacheable(iRedisKey)) {
+            return executeCommand(iRedisKey, bizKey, key ->
+                    nearCache.getHashField(iRedisKey, key, hashKey, k -> redisTemplate.opsForHash().get(k, hashKey)), false);
+        }
+        if (hotKeyCache != null) {
+            return executeCommand(iRedisKey, bizKey, key ->
+                    hotKeyCache.getHashField(iRedisKey, key, hashKey, k -> redisTemplate.opsForHash().get(k, hashKey)), false);
+        }
         return executeCommand(iRedisKey, bizKey, key ->
                 redisTemplate.opsForHash().get(key, hashKey), false);
     }
@@ -359,8 +581,11 @@ public class RedisOperations {
      * @return 删除的字段数量
      */
     public Long hashDelete(IRedisKey iRedisKey, String bizKey, Object... hashKeys) {
-        return executeCommand(iRedisKey, bizKey, key ->
-                redisTemplate.opsForHash().delete(key, hashKeys), false);
+        return executeCommand(iRedisKey, bizKey, key -> {
+            Long count = redisTemplate.opsForHash().delete(key, hashKeys);
+            evictNearCache(iRedisKey, key);
+            return count;
+        }, false);
     }
 
     // ================ List类型操作 ================
@@ -374,8 +599,8 @@ public class RedisOperations {
      * @return 添加后的List长度
      */
     public Long listLeftPush(IRedisKey iRedisKey, String bizKey, Object value) {
-        return executeCommand(iRedisKey, bizKey, key ->
-                redisTemplate.opsForList().leftPush(key, value), true);
+        return writeCommand(iRedisKey, bizKey, key ->
+                redisTemplate.opsForList().leftPush(key, value));
     }
 
     /**
@@ -387,8 +612,8 @@ public class RedisOperations {
      * @return 添加后的List长度
      */
     public Long listRightPush(IRedisKey iRedisKey, String bizKey, Object value) {
-        return executeCommand(iRedisKey, bizKey, key ->
-                redisTemplate.opsForList().rightPush(key, value), true);
+        return writeCommand(iRedisKey, bizKey, key ->
+                redisTemplate.opsForList().rightPush(key, value));
     }
 
     /**
@@ -441,8 +666,8 @@ public class RedisOperations {
      * @return 添加成功的数量
      */
     public Boolean zSetAdd(IRedisKey iRedisKey, String bizKey, Object value, double score) {
-        return executeCommand(iRedisKey, bizKey, key ->
-                redisTemplate.opsForZSet().add(key, value, score), true);
+        return writeCommand(iRedisKey, bizKey, key ->
+                redisTemplate.opsForZSet().add(key, value, score));
     }
 
     /**
@@ -495,8 +720,8 @@ public class RedisOperations {
      * @return 删除的元素数量
      */
     public Long zSetRemove(IRedisKey iRedisKey, String bizKey, Object... values) {
-        return executeCommand(iRedisKey, bizKey, key ->
-                redisTemplate.opsForZSet().remove(key, values), true);
+        return writeCommand(iRedisKey, bizKey, key ->
+                redisTemplate.opsForZSet().remove(key, values));
     }
 
     // ================ HyperLogLog类型操作 ================
@@ -510,8 +735,8 @@ public class RedisOperations {
      * @return 添加后影响的键数量
      */
     public Long hyperLogLogAdd(IRedisKey iRedisKey, String bizKey, Object... values) {
-        return executeCommand(iRedisKey, bizKey, key ->
-                redisTemplate.opsForHyperLogLog().add(key, values), true);
+        return writeCommand(iRedisKey, bizKey, key ->
+                redisTemplate.opsForHyperLogLog().add(key, values));
     }
 
     /**
@@ -538,8 +763,8 @@ public class RedisOperations {
      * @return 原来的位值
      */
     public Boolean bitMapSetBit(IRedisKey iRedisKey, String bizKey, long offset, boolean value) {
-        return executeCommand(iRedisKey, bizKey, key ->
-                redisTemplate.opsForValue().setBit(key, offset, value), true);
+        return writeCommand(iRedisKey, bizKey, key ->
+                redisTemplate.opsForValue().setBit(key, offset, value));
     }
 
     /**
@@ -568,6 +793,552 @@ public class RedisOperations {
     }
 
 
+    // ================ 缓存加载 ================
+
+    /**
+     * 读取缓存，未命中时回源并写入，同一JVM内同一key的并发回源只执行一次
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param loader    回源函数，返回null时写入IRedisKey的默认值
+     * @param <T>       返回值类型
+     * @return 缓存值，读到默认值时返回null
+     */
+    public <T> T getOrLoad(IRedisKey iRedisKey, String bizKey, Supplier<T> loader) {
+        return getOrLoad(iRedisKey, bizKey, loader, CacheLoadModeEnum.LOCAL);
+    }
+
+    /**
+     * 读取缓存，未命中时按指定方式回源并写入
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param loader    回源函数，返回null时写入IRedisKey的默认值
+     * @param mode      回源方式
+     * @param <T>       返回值类型
+     * @return 缓存值，读到默认值时返回null
+     */
+    public <T> T getOrLoad(IRedisKey iRedisKey, String bizKey, Supplier<T> loader, CacheLoadModeEnum mode) {
+        String key = buildKey(iRedisKey, bizKey);
+        Object cached;
+        if (mode == CacheLoadModeEnum.EARLY_REFRESH) {
+            List<Object> results = pipelined(template -> {
+                template.opsForValue().get(key);
+                template.getExpire(key, TimeUnit.MILLISECONDS);
+            });
+            cached = results.get(0);
+            if (cached != null && !shouldRefreshEarly(iRedisKey, (Long) results.get(1))) {
+                return unwrapLoaded(iRedisKey, cached);
+            }
+        } else {
+            cached = get(iRedisKey, bizKey);
+            if (cached != null) {
+                return unwrapLoaded(iRedisKey, cached);
+            }
+        }
+        return unwrapLoaded(iRedisKey, loadSingleFlight(iRedisKey, bizKey, key, loader, mode, cached));
+    }
+
+    private Object loadSingleFlight(IRedisKey iRedisKey, String bizKey, String key, Supplier<?> loader,
+                                    CacheLoadModeEnum mode, @Nullable Object stale) {
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(key, future);
+        if (inFlight != null) {
+            // 提前刷新时已有线程在回源，直接返回旧值
+            if (stale != null) {
+                return stale;
+            }
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+        try {
+            Object value = mode == CacheLoadModeEnum.MUTEX
+                    ? loadWithMutex(iRedisKey, bizKey, key, loader)
+                    : loadAndCache(iRedisKey, bizKey, loader);
+            future.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(key, future);
+        }
+    }
+
+    private Object loadWithMutex(IRedisKey iRedisKey, String bizKey, String key, Supplier<?> loader) {
+        JianRedisProperties.Loader config = properties.getLoader();
+        String lockKey = iRedisKey.getLockPrefix() + key;
+        String token = UUID.randomUUID().toString();
+        Boolean locked = redisTemplate.opsForValue().setIfAbsent(lockKey, token, config.getLockTimeout());
+        if (Boolean.TRUE.equals(locked)) {
+            try {
+                return loadAndCache(iRedisKey, bizKey, loader);
+            } finally {
+                redisTemplate.execute(RELEASE_LOCK_SCRIPT, Collections.singletonList(lockKey), token);
+            }
+        }
+        // 其它节点正在回源，轮询等待其写入
+        long deadline = System.nanoTime() + config.getWaitTimeout().toNanos();
+        while (System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(config.getRetryInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            Object value = redisTemplate.opsForValue().get(key);
+            if (value != null) {
+                return value;
+            }
+        }
+        return loadAndCache(iRedisKey, bizKey, loader);
+    }
+
+    private Object loadAndCache(IRedisKey iRedisKey, String bizKey, Supplier<?> loader) {
+        long start = System.nanoTime();
+        Object value = loader.get();
+        loadCostMillis.put(iRedisKey.getPrefixKey(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        Object stored = null == value ? iRedisKey.getDefaultValue() : value;
+        if (stored != null) {
+            set(iRedisKey, bizKey, stored);
+        }
+        return stored;
+    }
+
+    // XFetch：-delta * beta * ln(rand) >= 剩余TTL 时提前刷新，剩余时间越短、回源越慢，刷新概率越大
+    private boolean shouldRefreshEarly(IRedisKey iRedisKey, @Nullable Long ttlMillis) {
+        if (ttlMillis == null || ttlMillis < 0) {
+            return false;
+        }
+        Long delta = loadCostMillis.get(iRedisKey.getPrefixKey());
+        if (delta == null || delta <= 0) {
+            return false;
+        }
+        double gap = -delta * properties.getLoader().getBeta() * Math.log(ThreadLocalRandom.current().nextDouble());
+        return gap >= ttlMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T unwrapLoaded(IRedisKey iRedisKey, @Nullable Object value) {
+        if (value == null || value.equals(iRedisKey.getDefaultValue())) {
+            return null;
+        }
+        return (T) value;
+    }
+
+    // ================ 脚本操作 ================
+
+    /**
+     * 执行已注册的Lua脚本，单个业务key
+     *
+     * @param name       脚本名
+     * @param resultType 返回类型
+     * @param iRedisKey  key前缀
+     * @param bizKey     业务key
+     * @param args       脚本参数
+     * @param <T>        返回类型
+     * @return 脚本返回值
+     */
+    public <T> T executeScript(String name, Class<T> resultType, IRedisKey iRedisKey, String bizKey, Object... args) {
+        return executeScript(name, resultType, iRedisKey, Collections.singletonList(bizKey), args);
+    }
+
+    /**
+     * 执行已注册的Lua脚本，集群模式下多个key需在同一slot
+     *
+     * @param name       脚本名
+     * @param resultType 返回类型
+     * @param iRedisKey  key前缀
+     * @param bizKeys    业务key列表
+     * @param args       脚本参数
+     * @param <T>        返回类型
+     * @return 脚本返回值
+     */
+    public <T> T executeScript(String name, Class<T> resultType, IRedisKey iRedisKey, List<String> bizKeys, Object... args) {
+        try {
+            return scriptRegistry.execute(name, resultType, iRedisKey, bizKeys, args);
+        } catch (Exception e) {
+            throw new RuntimeException("Redis脚本执行失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 当前值等于期望值时写入新值并应用IRedisKey的ttl，比较的是value序列化器序列化后的字节，数字、布尔值同样适用
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param expect    期望的当前值
+     * @param update    新值
+     * @return 是否写入成功
+     */
+    public boolean compareAndSet(IRedisKey iRedisKey, String bizKey, Object expect, Object update) {
+        Long result = executeScript(RedisScriptRegistry.COMPARE_AND_SET, Long.class, iRedisKey, bizKey,
+                serializeValue(expect), serializeValue(update), iRedisKey.getTtl() > 0 ? ttlMillis(iRedisKey) : 0L);
+        boolean success = result != null && result == 1L;
+        if (success) {
+            evictNearCache(iRedisKey, buildKey(iRedisKey, bizKey));
+        }
+        return success;
+    }
+
+    /**
+     * 计数器自增，首次创建时应用IRedisKey的ttl，之后的自增不延长过期时间
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param delta     增量
+     * @return 自增后的值
+     */
+    public long incrementWithTtl(IRedisKey iRedisKey, String bizKey, long delta) {
+        Long value = executeScript(RedisScriptRegistry.INCR_EXPIRE, Long.class, iRedisKey, bizKey,
+                delta, iRedisKey.getTtl() > 0 ? ttlMillis(iRedisKey) : 0L);
+        evictNearCache(iRedisKey, buildKey(iRedisKey, bizKey));
+        return value == null ? 0L : value;
+    }
+
+    /**
+     * 向List左侧添加元素并裁剪到最大长度，应用IRedisKey的ttl
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param value     值
+     * @param maxSize   最大长度
+     * @return 裁剪后的List长度
+     */
+    public long listLeftPushCapped(IRedisKey iRedisKey, String bizKey, Object value, long maxSize) {
+        Long size = executeScript(RedisScriptRegistry.CAPPED_LPUSH, Long.class, iRedisKey, bizKey,
+                iRedisKey.getTtl() > 0 ? ttlMillis(iRedisKey) : 0L, maxSize, serializeValue(value));
+        return size == null ? 0L : size;
+    }
+
+    // ================ 批量操作 ================
+
+    /**
+     * 批量获取key，集群模式下按slot分组，各组的MGET放在同一个管道中并发发往所属节点，结果与入参顺序一致
+     *
+     * @param iRedisKey key前缀
+     * @param bizKeys   业务key列表
+     * @return 值列表，不存在的key对应null
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object> multiGet(IRedisKey iRedisKey, Collection<String> bizKeys) {
+        List<String> keys = buildKeys(iRedisKey, bizKeys);
+        Object[] results = new Object[keys.size()];
+        List<Integer> missIndexes = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            Object cached = nearCache == null ? null : nearCache.getIfPresent(iRedisKey, keys.get(i));
+            if (cached != null) {
+                results[i] = cached;
+            } else {
+                missIndexes.add(i);
+            }
+        }
+        try {
+            List<List<Integer>> groups = new ArrayList<>(groupBySlot(keys, missIndexes));
+            List<List<String>> groupKeys = new ArrayList<>(groups.size());
+            for (List<Integer> group : groups) {
+                List<String> slotKeys = new ArrayList<>(group.size());
+                for (Integer index : group) {
+                    slotKeys.add(keys.get(index));
+                }
+                groupKeys.add(slotKeys);
+            }
+            List<Object> groupValues;
+            if (groups.isEmpty()) {
+                return Arrays.asList(results);
+            } else if (groups.size() == 1) {
+                groupValues = Collections.singletonList(redisTemplate.opsForValue().multiGet(groupKeys.get(0)));
+            } else {
+                // 单slot的MGET不跨节点，全部进入管道后一轮往返即可取回
+                groupValues = pipelined(template -> {
+                    for (List<String> slotKeys : groupKeys) {
+                        template.opsForValue().multiGet(slotKeys);
+                    }
+                });
+            }
+            for (int g = 0; g < groups.size(); g++) {
+                List<Integer> group = groups.get(g);
+                List<Object> values = g < groupValues.size() ? (List<Object>) groupValues.get(g) : null;
+                for (int i = 0; i < group.size(); i++) {
+                    Object value = values == null ? null : values.get(i);
+                    results[group.get(i)] = value;
+                    if (nearCache != null) {
+                        nearCache.put(iRedisKey, groupKeys.get(g).get(i), value);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Redis批量操作失败: " + e.getMessage(), e);
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * 批量设置key并应用IRedisKey的ttl，全部SET在同一个管道中提交，集群模式下由Lettuce按节点并发发出
+     *
+     * @param iRedisKey key前缀
+     * @param values    业务key与值的映射，值为null时写入默认值
+     */
+    public void multiSet(IRedisKey iRedisKey, Map<String, Object> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(values.size());
+        List<Object> vals = new ArrayList<>(values.size());
+        values.forEach((bizKey, value) -> {
+            keys.add(buildKey(iRedisKey, bizKey));
+            vals.add(null == value ? iRedisKey.getDefaultValue() : value);
+        });
+        try {
+            pipelined(template -> {
+                for (int i = 0; i < keys.size(); i++) {
+                    if (iRedisKey.getTtl() > 0) {
+                        template.opsForValue().set(keys.get(i), vals.get(i), iRedisKey.getTtl(), iRedisKey.getTimeUnit());
+                    } else {
+                        template.opsForValue().set(keys.get(i), vals.get(i));
+                    }
+                }
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("Redis批量操作失败: " + e.getMessage(), e);
+        }
+        evictNearCache(iRedisKey, keys);
+    }
+
+    /**
+     * 批量获取多个Hash的字段（HMGET），全部HMGET在同一个管道中提交，集群模式下由Lettuce按节点并发发出
+     *
+     * @param iRedisKey key前缀
+     * @param bizKeys   业务key列表
+     * @param hashKeys  hash字段列表
+     * @return 与bizKeys顺序一致的字段值列表，每个元素与hashKeys顺序一致
+     */
+    @SuppressWarnings("unchecked")
+    public List<List<Object>> multiHashGet(IRedisKey iRedisKey, Collection<String> bizKeys, Collection<Object> hashKeys) {
+        List<String> keys = buildKeys(iRedisKey, bizKeys);
+        List<List<Object>> results = new ArrayList<>(Collections.nCopies(keys.size(), null));
+        try {
+            if (keys.isEmpty()) {
+                return results;
+            }
+            List<Object> values = pipelined(template -> {
+                for (String key : keys) {
+                    template.opsForHash().multiGet(key, hashKeys);
+                }
+            }, redisTemplate.getHashValueSerializer());
+            for (int i = 0; i < keys.size(); i++) {
+                results.set(i, (List<Object>) values.get(i));
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Redis批量操作失败: " + e.getMessage(), e);
+        }
+        return results;
+    }
+
+    private List<String> buildKeys(IRedisKey redisKey, Collection<String> bizKeys) {
+        List<String> keys = new ArrayList<>(bizKeys.size());
+        for (String bizKey : bizKeys) {
+            keys.add(buildKey(redisKey, bizKey));
+        }
+        return keys;
+    }
+
+    private Collection<List<Integer>> groupBySlot(List<String> keys, List<Integer> indexes) {
+        return RedisSlotUtils.groupBySlot(keys, indexes, RedisSlotUtils.isCluster(redisTemplate.getConnectionFactory()));
+    }
+
+    // 写入Redis的值在传给脚本前先按value序列化器编码，脚本参数序列化时会把数字、布尔值转成十进制字符串
+    @SuppressWarnings("unchecked")
+    private byte[] serializeValue(Object value) {
+        return ((RedisSerializer<Object>) redisTemplate.getValueSerializer()).serialize(value);
+    }
+
+    // 在绑定的管道连接上执行回调，回调内通过RedisTemplate发出的命令都会进入管道
+    private List<Object> pipelined(Consumer<RedisTemplate<String, Object>> callback) {
+        return pipelined(callback, redisTemplate.getValueSerializer());
+    }
+
+    // 管道结果中的字节数组统一用resultSerializer反序列化，HMGET等Hash命令需传入hash value的序列化器
+    private List<Object> pipelined(Consumer<RedisTemplate<String, Object>> callback, RedisSerializer<?> resultSerializer) {
+        return redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(org.springframework.data.redis.core.RedisOperations<K, V> operations) throws DataAccessException {
+                callback.accept(redisTemplate);
+                return null;
+            }
+        }, resultSerializer);
+    }
+
+    // ================ 按前缀扫描 ================
+
+    /**
+     * 用SCAN惰性遍历前缀下的业务key，集群模式下依次扫描每个master节点
+     * <p>
+     * 返回的Stream持有Redis连接，需在try-with-resources中使用或显式close。
+     * SCAN期间新增或删除的key可能被遗漏或重复返回。
+     *
+     * @param iRedisKey key前缀
+     * @return 业务key流
+     */
+    public Stream<String> scanKeys(IRedisKey iRedisKey) {
+        return scanKeys(iRedisKey, properties.getScan().getCount());
+    }
+
+    /**
+     * 用SCAN惰性遍历前缀下的业务key，集群模式下依次扫描每个master节点
+     *
+     * @param iRedisKey key前缀
+     * @param count     每次SCAN的COUNT提示值
+     * @return 业务key流
+     */
+    public Stream<String> scanKeys(IRedisKey iRedisKey, int count) {
+        String prefix = iRedisKey.getPrefixKey();
+        String pattern = escapeGlob(prefix) + "*";
+        Stream<String> keys;
+        try {
+            if (RedisSlotUtils.isCluster(redisTemplate.getConnectionFactory())) {
+                keys = scanClusterKeys(pattern, count);
+            } else {
+                Cursor<String> cursor = redisTemplate.scan(ScanOptions.scanOptions().match(pattern).count(count).build());
+                keys = cursor.stream();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Redis扫描失败: " + e.getMessage(), e);
+        }
+        return keys.map(key -> key.substring(prefix.length()));
+    }
+
+    /**
+     * 删除前缀下的全部key，SCAN遍历后按批以管道UNLINK提交，并按配置限制每秒删除数
+     *
+     * @param iRedisKey key前缀
+     * @return 删除的key数量
+     */
+    public long deleteByPrefix(IRedisKey iRedisKey) {
+        JianRedisProperties.Scan scan = properties.getScan();
+        int batchSize = Math.max(1, scan.getDeleteBatchSize());
+        long startNanos = System.nanoTime();
+        long deleted = 0;
+        try (Stream<String> bizKeys = scanKeys(iRedisKey, scan.getCount())) {
+            Iterator<String> iterator = bizKeys.iterator();
+            List<String> batch = new ArrayList<>(batchSize);
+            while (iterator.hasNext()) {
+                batch.add(buildKey(iRedisKey, iterator.next()));
+                if (batch.size() >= batchSize || !iterator.hasNext()) {
+                    deleted += unlinkBatch(iRedisKey, batch);
+                    batch = new ArrayList<>(batchSize);
+                    throttle(startNanos, deleted, scan.getMaxDeletesPerSecond());
+                }
+            }
+        }
+        return deleted;
+    }
+
+    // 一批key按slot分组，每组一条UNLINK，全部放在同一个管道里
+    private long unlinkBatch(IRedisKey iRedisKey, List<String> keys) {
+        try {
+            Collection<List<Integer>> groups = groupBySlot(keys, RedisSlotUtils.indexes(keys.size()));
+            List<Object> results = pipelined(template -> {
+                for (List<Integer> group : groups) {
+                    List<String> groupKeys = new ArrayList<>(group.size());
+                    for (Integer index : group) {
+                        groupKeys.add(keys.get(index));
+                    }
+                    template.unlink(groupKeys);
+                }
+            });
+            evictNearCache(iRedisKey, keys);
+            long count = 0;
+            for (Object result : results) {
+                if (result instanceof Long unlinked) {
+                    count += unlinked;
+                }
+            }
+            return count;
+        } catch (Exception e) {
+            throw new RuntimeException("Redis批量删除失败: " + e.getMessage(), e);
+        }
+    }
+
+    // 已删除数超出限速允许的量时休眠到对应时间点
+    private void throttle(long startNanos, long deleted, int maxPerSecond) {
+        if (maxPerSecond <= 0) {
+            return;
+        }
+        long expectedNanos = TimeUnit.SECONDS.toNanos(deleted) / maxPerSecond;
+        long aheadNanos = expectedNanos - (System.nanoTime() - startNanos);
+        if (aheadNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(aheadNanos);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Redis批量删除被中断", e);
+            }
+        }
+    }
+
+    // 集群模式下SCAN只作用于单个节点，需要逐个master扫描
+    @SuppressWarnings("unchecked")
+    private Stream<String> scanClusterKeys(String pattern, int count) {
+        RedisClusterConnection clusterConnection = redisTemplate.getConnectionFactory().getClusterConnection();
+        try {
+            List<RedisClusterNode> masters = new ArrayList<>();
+            for (RedisClusterNode node : clusterConnection.clusterGetNodes()) {
+                if (node.isMaster()) {
+                    masters.add(node);
+                }
+            }
+            StatefulRedisClusterConnection<byte[], byte[]> nativeConnection =
+                    ((RedisAdvancedClusterAsyncCommands<byte[], byte[]>) clusterConnection.getNativeConnection()).getStatefulConnection();
+            ScanArgs scanArgs = ScanArgs.Builder.matches(pattern).limit(count);
+            Iterator<RedisClusterNode> nodeIterator = masters.iterator();
+            Iterator<String> keyIterator = new Iterator<>() {
+                private Iterator<byte[]> current = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext() {
+                    while (!current.hasNext() && nodeIterator.hasNext()) {
+                        RedisClusterNode node = nodeIterator.next();
+                        current = ScanIterator.scan(nativeConnection.getConnection(node.getHost(), node.getPort()).sync(), scanArgs);
+                    }
+                    return current.hasNext();
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return RedisSerializer.string().deserialize(current.next());
+                }
+            };
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(keyIterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(clusterConnection::close);
+        } catch (RuntimeException e) {
+            clusterConnection.close();
+            throw e;
+        }
+    }
+
+    // 转义glob特殊字符，避免前缀中的 * ? [ ] \ 被当作通配符
+    private static String escapeGlob(String prefix) {
+        StringBuilder builder = new StringBuilder(prefix.length() + 8);
+        for (int i = 0; i < prefix.length(); i++) {
+            char c = prefix.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == ']' || c == '\\') {
+                builder.append('\\');
+            }
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
     /**
      * 执行自定义Redis操作
      *
@@ -636,10 +1407,7 @@ public class RedisOperations {
      * @return 管道执行结果
      */
     public List<Object> executePipeline(Consumer<RedisTemplate<String, Object>> pipelineCallback) {
-        return redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
-            pipelineCallback.accept(redisTemplate);
-            return null;
-        });
+        return pipelined(pipelineCallback);
     }
 
 
@@ -0,0 +1,61 @@
+package com.jianspring.starter.redis.operations;
+
+import org.springframework.data.redis.connection.ClusterSlotHashUtil;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 批量命令按集群slot分组的工具
+ */
+final class RedisSlotUtils {
+
+    private RedisSlotUtils() {
+    }
+
+    /**
+     * 是否集群模式
+     *
+     * @param connectionFactory 连接工厂
+     * @return Lettuce集群连接时为true
+     */
+    static boolean isCluster(Object connectionFactory) {
+        return connectionFactory instanceof LettuceConnectionFactory lettuceConnectionFactory
+                && lettuceConnectionFactory.isClusterAware();
+    }
+
+    /**
+     * 集群模式下按slot对key下标分组，单机模式下只有一组，组内保持入参顺序
+     *
+     * @param keys    完整key列表
+     * @param indexes 参与分组的下标
+     * @param cluster 是否集群模式
+     * @return 下标分组
+     */
+    static Collection<List<Integer>> groupBySlot(List<String> keys, List<Integer> indexes, boolean cluster) {
+        if (indexes.isEmpty()) {
+            return Collections.emptyList();
+        }
+        if (!cluster) {
+            return Collections.singletonList(indexes);
+        }
+        Map<Integer, List<Integer>> groups = new LinkedHashMap<>();
+        for (Integer index : indexes) {
+            groups.computeIfAbsent(ClusterSlotHashUtil.calculateSlot(keys.get(index)), slot -> new ArrayList<>()).add(index);
+        }
+        return groups.values();
+    }
+
+    static List<Integer> indexes(int size) {
+        List<Integer> indexes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+}
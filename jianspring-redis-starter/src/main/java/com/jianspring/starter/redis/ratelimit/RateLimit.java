@@ -0,0 +1,44 @@
+package com.jianspring.starter.redis.ratelimit;
+
+import com.jianspring.starter.redis.enums.RateLimitTypeEnum;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.util.concurrent.TimeUnit;
+
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD})
+public @interface RateLimit {
+    // 限流的key 表达式，支持spel，如 #tenantId
+    String key() default "";
+
+    // 限流key的前缀
+    String prefixKey() default "RateLimit:";
+
+    // 限流算法
+    RateLimitTypeEnum type() default RateLimitTypeEnum.SLIDING_WINDOW;
+
+    // 窗口内允许的请求数，令牌桶时为桶容量
+    long limit();
+
+    // 窗口长度，令牌桶时为补满整桶的时间
+    long window() default 1;
+
+    TimeUnit timeUnit() default TimeUnit.SECONDS;
+
+    // 本地预取的配额数，大于1时多数请求只在本地判定，不访问Redis，限流变为近似限流
+    int lease() default 1;
+
+    // 异常提示
+    String errorDesc() default "请求过于频繁，请稍后再试";
+
+    // 限流key的前缀是否加上方法名
+    boolean needMethodPrefix() default true;
+
+}
@@ -0,0 +1,120 @@
+package com.jianspring.starter.redis.ratelimit;
+
+import com.jianspring.starter.commons.error.CommonErrorCode;
+import com.jianspring.starter.commons.exception.BizException;
+import com.jianspring.starter.redis.enums.IRedisKey;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+@Aspect
+public class RateLimitHandler {
+    private static final Logger log = LoggerFactory.getLogger(RateLimitHandler.class);
+
+    private final RedisRateLimiter redisRateLimiter;
+
+    private final SpelExpressionParser parser = new SpelExpressionParser();
+
+    private final ParameterNameDiscoverer nameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    // 限流在每次请求上执行，SpEL表达式解析一次后复用
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    private final Map<String, IRedisKey> redisKeys = new ConcurrentHashMap<>();
+
+    public RateLimitHandler(RedisRateLimiter redisRateLimiter) {
+        this.redisRateLimiter = redisRateLimiter;
+    }
+
+    @Around("@annotation(rateLimit)")
+    public Object around(ProceedingJoinPoint proceedingJoinPoint, RateLimit rateLimit) throws Throwable {
+        String prefixKey = rateLimit.prefixKey();
+        if (rateLimit.needMethodPrefix()) {
+            prefixKey = prefixKey + proceedingJoinPoint.getSignature().toShortString() + ":";
+        }
+        IRedisKey redisKey = redisKeys.computeIfAbsent(prefixKey, RateLimitRedisKey::new);
+        String bizKey = this.getBizKey(proceedingJoinPoint, rateLimit);
+        Duration window = Duration.ofNanos(rateLimit.timeUnit().toNanos(rateLimit.window()));
+
+        if (!redisRateLimiter.tryAcquire(redisKey, bizKey, rateLimit.type(), rateLimit.limit(), window, 1, rateLimit.lease())) {
+            throw new BizException(CommonErrorCode.TOO_MANY_REQUESTS.getCode(), rateLimit.errorDesc());
+        }
+        return proceedingJoinPoint.proceed();
+    }
+
+    private String getBizKey(ProceedingJoinPoint proceedingJoinPoint, RateLimit rateLimit) {
+        String key = rateLimit.key();
+        if (!StringUtils.hasText(key)) {
+            return "rateLimit";
+        }
+
+        Object[] parameterValues = proceedingJoinPoint.getArgs();
+        Method method = ((MethodSignature) proceedingJoinPoint.getSignature()).getMethod();
+        String[] parameterNames = nameDiscoverer.getParameterNames(method);
+
+        // SpEL表达式
+        StandardEvaluationContext evaluationContext = new StandardEvaluationContext();
+        if (parameterNames != null && parameterNames.length > 0) {
+            for (int i = 0; i < parameterNames.length; ++i) {
+                evaluationContext.setVariable(parameterNames[i], parameterValues[i]);
+            }
+        }
+
+        try {
+            Expression expression = expressions.computeIfAbsent(key, parser::parseExpression);
+            Object expressionValue = expression.getValue(evaluationContext);
+
+            return (expressionValue != null && !"".equals(expressionValue.toString())) ? expressionValue.toString() : key;
+        } catch (Exception e) {
+            log.error("执行spel表达式失败：{}", key, e);
+            return key;
+        }
+    }
+
+    /**
+     * 注解限流使用的key前缀，限流数据的过期时间由窗口决定
+     */
+    private static final class RateLimitRedisKey implements IRedisKey {
+
+        private final String prefixKey;
+
+        private RateLimitRedisKey(String prefixKey) {
+            this.prefixKey = prefixKey;
+        }
+
+        @Override
+        public String getPrefixKey() {
+            return prefixKey;
+        }
+
+        @Override
+        public Object getDefaultValue() {
+            return null;
+        }
+
+        @Override
+        public long getTtl() {
+            return 0;
+        }
+
+        @Override
+        public TimeUnit getTimeUnit() {
+            return TimeUnit.SECONDS;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.jianspring.starter.redis.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.jianspring.starter.redis.config.JianRedisProperties;
+import com.jianspring.starter.redis.enums.IRedisKey;
+import com.jianspring.starter.redis.enums.RateLimitTypeEnum;
+import com.jianspring.starter.redis.operations.RedisOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于Redis的分布式限流，每次判定是一次原子的Lua脚本调用，脚本见 jianspring/redis/scripts/rate_limit_*.lua
+ * <p>
+ * lease大于1时一次从Redis预取多个配额放在本地，本地配额用完或过期前不再访问Redis。
+ * 预取模式是近似限流：配额在Redis中按预取时刻计数，本地在之后的 leaseTimeout（不超过窗口长度）内使用，
+ * 跨窗口使用时任一窗口内的实际放行量可能超过限额，超出部分不超过各节点未用完的预取量；
+ * 过期未用完的配额作废，也可能少放行。不预取时每次判定都在Redis中完成，放行量严格不超过限额。
+ * 时间取自Redis服务端，各节点时钟偏差不影响判定。
+ */
+public class RedisRateLimiter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisRateLimiter.class);
+
+    private static final String SLIDING_WINDOW_SCRIPT = "rate_limit_sliding_window";
+
+    private static final String TOKEN_BUCKET_SCRIPT = "rate_limit_token_bucket";
+
+    private final RedisOperations redisOperations;
+
+    private final JianRedisProperties.RateLimit config;
+
+    // 本地预取的配额，key为完整的Redis key
+    private final Cache<String, Lease> leases;
+
+    // 滑动窗口ZSET成员的唯一前缀
+    private final String instanceId = UUID.randomUUID().toString();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    public RedisRateLimiter(RedisOperations redisOperations) {
+        this(redisOperations, new JianRedisProperties());
+    }
+
+    public RedisRateLimiter(RedisOperations redisOperations, JianRedisProperties properties) {
+        this.redisOperations = redisOperations;
+        this.config = properties.getRateLimit();
+        this.leases = Caffeine.newBuilder()
+                .maximumSize(config.getMaximumLeases())
+                .expireAfterWrite(config.getLeaseTimeout())
+                .build();
+    }
+
+    /**
+     * 尝试获取1个配额，不预取
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key，如租户ID、用户ID
+     * @param type      限流算法
+     * @param limit     窗口内允许的请求数，令牌桶时为桶容量
+     * @param window    窗口长度，令牌桶时为补满整桶的时间
+     * @return 是否放行
+     */
+    public boolean tryAcquire(IRedisKey iRedisKey, String bizKey, RateLimitTypeEnum type, long limit, Duration window) {
+        return tryAcquire(iRedisKey, bizKey, type, limit, window, 1, 1);
+    }
+
+    /**
+     * 尝试获取配额
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key，如租户ID、用户ID
+     * @param type      限流算法
+     * @param limit     窗口内允许的请求数，令牌桶时为桶容量
+     * @param window    窗口长度，令牌桶时为补满整桶的时间
+     * @param permits   本次需要的配额数
+     * @param lease     本地配额不足时一次从Redis预取的配额数，小于等于permits时不预取
+     * @return 是否放行
+     */
+    public boolean tryAcquire(IRedisKey iRedisKey, String bizKey, RateLimitTypeEnum type, long limit, Duration window,
+                              int permits, int lease) {
+        String key = iRedisKey.getPrefixKey() + bizKey;
+        if (lease > permits) {
+            Lease local = leases.getIfPresent(key);
+            if (local != null && local.tryTake(permits)) {
+                return true;
+            }
+        }
+        long granted;
+        try {
+            granted = acquire(iRedisKey, bizKey, type, limit, window, Math.max(permits, lease), permits);
+        } catch (Exception e) {
+            log.warn("分布式限流判定失败, key={}, failOpen={}", key, config.isFailOpen(), e);
+            return config.isFailOpen();
+        }
+        if (granted < permits) {
+            return false;
+        }
+        if (granted > permits) {
+            Duration leaseTimeout = window.compareTo(config.getLeaseTimeout()) < 0 ? window : config.getLeaseTimeout();
+            long extra = granted - permits;
+            long deadlineNanos = System.nanoTime() + leaseTimeout.toNanos();
+            // 多个线程同时未命中本地配额时各自预取，合并到未过期的配额中，避免互相覆盖丢弃已计数的配额
+            leases.asMap().compute(key, (k, current) ->
+                    current != null && current.add(extra) ? current : new Lease(extra, deadlineNanos));
+        }
+        return true;
+    }
+
+    private long acquire(IRedisKey iRedisKey, String bizKey, RateLimitTypeEnum type, long limit, Duration window,
+                         int requested, int minPermits) {
+        long windowMillis = Math.max(1L, window.toMillis());
+        Long granted = switch (type) {
+            case SLIDING_WINDOW -> redisOperations.executeScript(SLIDING_WINDOW_SCRIPT, Long.class, iRedisKey, bizKey,
+                    windowMillis, limit, requested, minPermits, instanceId + ":" + sequence.incrementAndGet());
+            case TOKEN_BUCKET -> redisOperations.executeScript(TOKEN_BUCKET_SCRIPT, Long.class, iRedisKey, bizKey,
+                    limit, windowMillis, requested, minPermits);
+        };
+        return granted == null ? 0L : granted;
+    }
+
+    /**
+     * 本地预取的配额
+     */
+    private static final class Lease {
+
+        private final AtomicLong remaining;
+
+        private final long deadlineNanos;
+
+        private Lease(long remaining, long deadlineNanos) {
+            this.remaining = new AtomicLong(remaining);
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        // 未过期时追加配额，沿用原过期时间
+        private boolean add(long permits) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+            remaining.addAndGet(permits);
+            return true;
+        }
+
+        private boolean tryTake(int permits) {
+            if (System.nanoTime() - deadlineNanos >= 0) {
+                return false;
+            }
+            long current;
+            do {
+                current = remaining.get();
+                if (current < permits) {
+                    return false;
+                }
+            } while (!remaining.compareAndSet(current, current - permits));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.jianspring.starter.redis.script;
+
+import com.jianspring.starter.redis.enums.IRedisKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lua脚本注册表
+ * <p>
+ * 启动时从classpath加载脚本并计算SHA1，执行时使用EVALSHA，Redis返回NOSCRIPT时自动退回EVAL。
+ * 单机模式下启动时执行一次SCRIPT LOAD，集群模式下由各节点首次EVAL时加载。
+ * 脚本名为去掉 .lua 后缀的文件名，后加载的同名脚本覆盖先加载的。
+ */
+public class RedisScriptRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisScriptRegistry.class);
+
+    /**
+     * 默认脚本位置，业务工程放在相同目录下的脚本也会被加载
+     */
+    public static final String DEFAULT_LOCATION = "classpath*:jianspring/redis/scripts/*.lua";
+
+    /**
+     * SADD后设置过期时间
+     */
+    public static final String SADD_EXPIRE = "sadd_expire";
+
+    /**
+     * SPOP后刷新过期时间
+     */
+    public static final String SPOP_EXPIRE = "spop_expire";
+
+    /**
+     * 当前值等于期望值时写入新值
+     */
+    public static final String COMPARE_AND_SET = "compare_and_set";
+
+    /**
+     * 计数器自增，首次创建时设置过期时间
+     */
+    public static final String INCR_EXPIRE = "incr_expire";
+
+    /**
+     * LPUSH后裁剪到最大长度并设置过期时间
+     */
+    public static final String CAPPED_LPUSH = "capped_lpush";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final RedisSerializer<Object> argsSerializer;
+
+    // 脚本名 -> 脚本内容
+    private final Map<String, String> sources = new ConcurrentHashMap<>();
+
+    // 脚本名#返回类型 -> 已计算SHA1的脚本
+    private final Map<String, RedisScript<?>> scripts = new ConcurrentHashMap<>();
+
+    public RedisScriptRegistry(RedisTemplate<String, Object> redisTemplate) {
+        this(redisTemplate, Collections.singletonList(DEFAULT_LOCATION));
+    }
+
+    /**
+     * @param redisTemplate RedisTemplate
+     * @param locations     脚本位置，支持classpath*:通配
+     */
+    public RedisScriptRegistry(RedisTemplate<String, Object> redisTemplate, Collection<String> locations) {
+        this.redisTemplate = redisTemplate;
+        this.argsSerializer = new ScriptArgsSerializer(redisTemplate.getValueSerializer());
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        for (String location : locations) {
+            try {
+                for (Resource resource : resolver.getResources(location)) {
+                    String filename = resource.getFilename();
+                    if (filename == null || !filename.endsWith(".lua")) {
+                        continue;
+                    }
+                    register(filename.substring(0, filename.length() - ".lua".length()),
+                            StreamUtils.copyToString(resource.getInputStream(), StandardCharsets.UTF_8));
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("加载Lua脚本失败: " + location, e);
+            }
+        }
+    }
+
+    /**
+     * 注册脚本，同名脚本会被覆盖
+     *
+     * @param name   脚本名
+     * @param source 脚本内容
+     */
+    public void register(String name, String source) {
+        sources.put(name, source);
+        scripts.keySet().removeIf(key -> key.startsWith(name + "#"));
+    }
+
+    /**
+     * 已注册的脚本名
+     *
+     * @return 脚本名集合
+     */
+    public Set<String> getScriptNames() {
+        return Collections.unmodifiableSet(sources.keySet());
+    }
+
+    /**
+     * 预加载全部脚本，单机模式下执行SCRIPT LOAD，失败不影响使用
+     */
+    public void preload() {
+        for (String source : sources.values()) {
+            byte[] bytes = source.getBytes(StandardCharsets.UTF_8);
+            try {
+                redisTemplate.execute((RedisCallback<String>) connection -> {
+                    if (connection instanceof RedisClusterConnection) {
+                        return null;
+                    }
+                    return connection.scriptingCommands().scriptLoad(bytes);
+                });
+            } catch (Exception e) {
+                log.warn("Lua脚本预加载失败，首次执行时再加载: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    /**
+     * 执行脚本
+     * <p>
+     * 数字、布尔参数以十进制字符串传递，便于脚本中tonumber，与value序列化器写入的值不同，需要与存储值比较或写入存储的
+     * 数字应先用value序列化器编码成字节数组；字节数组原样传递；其它参数用value序列化器序列化，与RedisOperations写入的值一致。
+     * 字节数组结果用value序列化器反序列化。
+     *
+     * @param name       脚本名
+     * @param resultType 返回类型，Long、Boolean、List 或 Object
+     * @param iRedisKey  key前缀
+     * @param bizKeys    业务key列表，对应KEYS
+     * @param args       对应ARGV
+     * @param <T>        返回类型
+     * @return 脚本返回值
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String name, Class<T> resultType, IRedisKey iRedisKey, List<String> bizKeys, Object... args) {
+        List<String> keys = new ArrayList<>(bizKeys.size());
+        for (String bizKey : bizKeys) {
+            keys.add(iRedisKey.getPrefixKey() + bizKey);
+        }
+        RedisScript<T> script = (RedisScript<T>) scripts.computeIfAbsent(name + "#" + resultType.getName(), k -> {
+            String source = sources.get(name);
+            if (source == null) {
+                throw new IllegalArgumentException("未注册的Lua脚本: " + name);
+            }
+            DefaultRedisScript<T> redisScript = new DefaultRedisScript<>(source, resultType);
+            // 提前计算并缓存SHA1
+            redisScript.getSha1();
+            return redisScript;
+        });
+        return redisTemplate.execute(script, argsSerializer, (RedisSerializer<T>) redisTemplate.getValueSerializer(), keys, args);
+    }
+
+    /**
+     * 脚本参数序列化：数字转十进制字符串，字节数组原样传递，其它交给value序列化器
+     * <p>
+     * 数字按十进制字符串传递是为了脚本中tonumber，与value序列化器写入的字节不同；
+     * 要写入或比较存储值的数字参数需先用value序列化器编码成字节数组再传入
+     */
+    private static final class ScriptArgsSerializer implements RedisSerializer<Object> {
+
+        private final RedisSerializer<?> valueSerializer;
+
+        private ScriptArgsSerializer(RedisSerializer<?> valueSerializer) {
+            this.valueSerializer = valueSerializer;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public byte[] serialize(Object value) throws SerializationException {
+            if (value instanceof Number || value instanceof Boolean) {
+                return value.toString().getBytes(StandardCharsets.UTF_8);
+            }
+            if (value instanceof byte[] bytes) {
+                return bytes;
+            }
+            return ((RedisSerializer<Object>) valueSerializer).serialize(value);
+        }
+
+        @Override
+        public Object deserialize(byte[] bytes) throws SerializationException {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.jianspring.starter.redis.serializer;
+
+/**
+ * 压缩算法实现，按需加载以避免可选依赖缺失时出错
+ */
+interface Compressor {
+
+    byte[] compress(byte[] source);
+
+    byte[] decompress(byte[] source, int offset, int length, int originalLength);
+}
@@ -0,0 +1,183 @@
+package com.jianspring.starter.redis.serializer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.TypeResolverBuilder;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jianspring.starter.redis.enums.CompressionTypeEnum;
+import com.jianspring.starter.redis.enums.SerializerFormatEnum;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * 可配置编码格式与压缩的 Redis value 序列化器
+ * <p>
+ * 非JSON格式或经过压缩的数据带4字节头：{@code 0x00 'J' 格式 压缩}，压缩时紧跟4字节原始长度。
+ * 不带头的数据按原 GenericJackson2JsonRedisSerializer 的JSON读取，滚动升级期间新旧节点写入的数据都能读出。
+ * 格式为JSON且未触发压缩时不写头，旧节点也能读取。
+ * <p>
+ * JSON直接使用 GenericJackson2JsonRedisSerializer 默认构造，SMILE/CBOR复用其类型信息规则
+ * （基本类型包装类、枚举和 java.* 下的final类型不带类型信息），三种格式写出的类型信息一致。
+ */
+public class JianRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC_0 = 0x00;
+
+    static final byte MAGIC_1 = 'J';
+
+    static final int HEADER_LENGTH = 4;
+
+    private static final byte[] EMPTY_ARRAY = new byte[0];
+
+    // GenericJackson2JsonRedisSerializer 默认构造使用的类型信息规则
+    private static final TypeResolverBuilder<?> DEFAULT_TYPER = defaultTyper();
+
+    private final SerializerFormatEnum format;
+
+    private final CompressionTypeEnum compression;
+
+    private final int compressionThreshold;
+
+    private final Consumer<ObjectMapper> mapperCustomizer;
+
+    private final Map<SerializerFormatEnum, RedisSerializer<Object>> codecs = new ConcurrentHashMap<>();
+
+    private final Map<CompressionTypeEnum, Compressor> compressors = new ConcurrentHashMap<>();
+
+    public JianRedisSerializer() {
+        this(SerializerFormatEnum.JSON, CompressionTypeEnum.NONE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param format               写入时使用的编码格式
+     * @param compression          写入时使用的压缩算法
+     * @param compressionThreshold 编码后达到该字节数才压缩
+     */
+    public JianRedisSerializer(SerializerFormatEnum format, CompressionTypeEnum compression, int compressionThreshold) {
+        this(format, compression, compressionThreshold, mapper -> {
+        });
+    }
+
+    /**
+     * @param format               写入时使用的编码格式
+     * @param compression          写入时使用的压缩算法
+     * @param compressionThreshold 编码后达到该字节数才压缩
+     * @param mapperCustomizer     对各格式ObjectMapper的额外配置，如注册JavaTimeModule，所有节点需保持一致
+     */
+    public JianRedisSerializer(SerializerFormatEnum format, CompressionTypeEnum compression, int compressionThreshold,
+                               Consumer<ObjectMapper> mapperCustomizer) {
+        this.format = format;
+        this.compression = compression;
+        this.compressionThreshold = compressionThreshold;
+        this.mapperCustomizer = mapperCustomizer;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY_ARRAY;
+        }
+        byte[] payload = codec(format).serialize(value);
+        int originalLength = payload.length;
+        CompressionTypeEnum applied = CompressionTypeEnum.NONE;
+        if (compression != CompressionTypeEnum.NONE && originalLength >= compressionThreshold) {
+            byte[] compressed = compressor(compression).compress(payload);
+            if (compressed.length < originalLength) {
+                payload = compressed;
+                applied = compression;
+            }
+        }
+        if (format == SerializerFormatEnum.JSON && applied == CompressionTypeEnum.NONE) {
+            return payload;
+        }
+        int lengthField = applied == CompressionTypeEnum.NONE ? 0 : Integer.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + lengthField + payload.length);
+        buffer.put(MAGIC_0).put(MAGIC_1).put(format.getId()).put(applied.getId());
+        if (applied != CompressionTypeEnum.NONE) {
+            buffer.putInt(originalLength);
+        }
+        buffer.put(payload);
+        return buffer.array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (!hasHeader(bytes)) {
+            return codec(SerializerFormatEnum.JSON).deserialize(bytes);
+        }
+        try {
+            SerializerFormatEnum dataFormat = SerializerFormatEnum.of(bytes[2]);
+            CompressionTypeEnum dataCompression = CompressionTypeEnum.of(bytes[3]);
+            byte[] payload;
+            if (dataCompression == CompressionTypeEnum.NONE) {
+                payload = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+            } else {
+                int originalLength = ByteBuffer.wrap(bytes, HEADER_LENGTH, Integer.BYTES).getInt();
+                int offset = HEADER_LENGTH + Integer.BYTES;
+                payload = compressor(dataCompression).decompress(bytes, offset, bytes.length - offset, originalLength);
+            }
+            return codec(dataFormat).deserialize(payload);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new SerializationException("Redis value 反序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    public SerializerFormatEnum getFormat() {
+        return format;
+    }
+
+    public CompressionTypeEnum getCompression() {
+        return compression;
+    }
+
+    static boolean hasHeader(byte[] bytes) {
+        return bytes.length >= HEADER_LENGTH && bytes[0] == MAGIC_0 && bytes[1] == MAGIC_1;
+    }
+
+    private RedisSerializer<Object> codec(SerializerFormatEnum serializerFormat) {
+        return codecs.computeIfAbsent(serializerFormat, f -> f == SerializerFormatEnum.JSON
+                ? new GenericJackson2JsonRedisSerializer().configure(mapperCustomizer)
+                : new GenericJackson2JsonRedisSerializer(createObjectMapper(f, mapperCustomizer)));
+    }
+
+    private Compressor compressor(CompressionTypeEnum compressionType) {
+        return compressors.computeIfAbsent(compressionType, type -> switch (type) {
+            case LZ4 -> new Lz4Compressor();
+            case ZSTD -> new ZstdCompressor();
+            default -> throw new IllegalArgumentException("不支持的压缩算法: " + type);
+        });
+    }
+
+    // 二进制格式的ObjectMapper，类型信息规则与 GenericJackson2JsonRedisSerializer 默认构造一致，只替换底层编码
+    static ObjectMapper createObjectMapper(SerializerFormatEnum serializerFormat, Consumer<ObjectMapper> mapperCustomizer) {
+        ObjectMapper mapper = switch (serializerFormat) {
+            case SMILE -> new ObjectMapper(new SmileFactory());
+            case CBOR -> new ObjectMapper(new CBORFactory());
+            default -> throw new IllegalArgumentException("JSON格式直接使用GenericJackson2JsonRedisSerializer");
+        };
+        GenericJackson2JsonRedisSerializer.registerNullValueSerializer(mapper, null);
+        mapper.setDefaultTyping(DEFAULT_TYPER);
+        mapperCustomizer.accept(mapper);
+        return mapper;
+    }
+
+    // 类型信息规则是 GenericJackson2JsonRedisSerializer 的内部类，从默认构造的ObjectMapper中取出复用
+    private static TypeResolverBuilder<?> defaultTyper() {
+        AtomicReference<ObjectMapper> mapper = new AtomicReference<>();
+        new GenericJackson2JsonRedisSerializer().configure(mapper::set);
+        return mapper.get().getSerializationConfig().getDefaultTyper(null);
+    }
+}
@@ -0,0 +1,20 @@
+package com.jianspring.starter.redis.serializer;
+
+import net.jpountz.lz4.LZ4Factory;
+
+class Lz4Compressor implements Compressor {
+
+    private final LZ4Factory factory = LZ4Factory.fastestInstance();
+
+    @Override
+    public byte[] compress(byte[] source) {
+        return factory.fastCompressor().compress(source);
+    }
+
+    @Override
+    public byte[] decompress(byte[] source, int offset, int length, int originalLength) {
+        byte[] target = new byte[originalLength];
+        factory.fastDecompressor().decompress(source, offset, target, 0, originalLength);
+        return target;
+    }
+}
@@ -0,0 +1,20 @@
+package com.jianspring.starter.redis.serializer;
+
+import com.github.luben.zstd.Zstd;
+
+import java.util.Arrays;
+
+class ZstdCompressor implements Compressor {
+
+    private static final int LEVEL = 3;
+
+    @Override
+    public byte[] compress(byte[] source) {
+        return Zstd.compress(source, LEVEL);
+    }
+
+    @Override
+    public byte[] decompress(byte[] source, int offset, int length, int originalLength) {
+        return Zstd.decompress(Arrays.copyOfRange(source, offset, offset + length), originalLength);
+    }
+}
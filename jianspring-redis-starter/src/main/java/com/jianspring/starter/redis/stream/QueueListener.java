@@ -0,0 +1,21 @@
+package com.jianspring.starter.redis.stream;
+
+import java.util.List;
+
+/**
+ * Stream队列批量消费回调
+ * <p>
+ * 正常返回后整批消息被确认；抛出异常时整批不确认，空闲超过 claimMinIdle 后由任一消费者重新认领处理，
+ * 因此处理逻辑需要幂等。无法处理的消息应自行记录后正常返回，否则会被反复投递。
+ */
+@FunctionalInterface
+public interface QueueListener {
+
+    /**
+     * 处理一批消息
+     *
+     * @param messages 消息列表，按Stream中的顺序排列
+     * @throws Exception 处理失败
+     */
+    void onMessages(List<QueueMessage> messages) throws Exception;
+}
@@ -0,0 +1,221 @@
+package com.jianspring.starter.redis.stream;
+
+import com.jianspring.starter.redis.config.JianRedisProperties;
+import com.jianspring.starter.redis.enums.IRedisKey;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stream队列的监听容器
+ * <p>
+ * 一个拉取线程循环阻塞读取批量消息并提交到executor处理，处理成功后整批确认。
+ * 同时处理中的批次数不超过 concurrency，达到上限时暂停拉取，消息留在Redis中不会堆积在内存里。
+ * 每隔 claimInterval 认领一次空闲超过 claimMinIdle 的待确认消息，接管崩溃消费者的未完成工作。
+ * 认领到的消息投递次数超过 maxDeliveries 时不再处理，转入死信Stream，避免无法处理的消息无限重试；
+ * 处理失败时整批都不确认，批内消息的投递次数一起增加。
+ * 可直接声明为Spring Bean，随容器启动和停止。
+ */
+public class QueueListenerContainer implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(QueueListenerContainer.class);
+
+    // 拉取出错后的退避时长
+    private static final long ERROR_BACKOFF_MILLIS = 1000;
+
+    private final RedisStreamQueue queue;
+
+    private final IRedisKey iRedisKey;
+
+    private final String bizKey;
+
+    private final String group;
+
+    private final String consumer;
+
+    private final QueueListener listener;
+
+    private final Executor executor;
+
+    private final JianRedisProperties.Stream config;
+
+    private final Semaphore inFlight;
+
+    private volatile boolean running;
+
+    private volatile Thread poller;
+
+    private long nextClaimNanos;
+
+    /**
+     * @param queue     Stream队列
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param group     消费组，不存在时自动创建
+     * @param consumer  消费者名，同一消费组内唯一，通常取实例ID
+     * @param listener  批量处理回调
+     * @param executor  处理批次的线程池
+     */
+    public QueueListenerContainer(RedisStreamQueue queue, IRedisKey iRedisKey, String bizKey, String group,
+                                  String consumer, QueueListener listener, Executor executor) {
+        this.queue = queue;
+        this.iRedisKey = iRedisKey;
+        this.bizKey = bizKey;
+        this.group = group;
+        this.consumer = consumer;
+        this.listener = listener;
+        this.executor = executor;
+        this.config = queue.getConfig();
+        this.inFlight = new Semaphore(Math.max(1, config.getConcurrency()));
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        queue.createGroup(iRedisKey, bizKey, group);
+        running = true;
+        nextClaimNanos = System.nanoTime();
+        Thread thread = new Thread(this::pollLoop, "redis-stream-" + group + "-" + consumer);
+        thread.setDaemon(true);
+        poller = thread;
+        thread.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = poller;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(config.getBlock().toMillis() + ERROR_BACKOFF_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 等待处理中的批次完成，未完成的消息留在待确认列表中，由其它消费者认领
+        try {
+            int permits = Math.max(1, config.getConcurrency());
+            if (inFlight.tryAcquire(permits, config.getShutdownTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                inFlight.release(permits);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void pollLoop() {
+        while (running) {
+            boolean acquired = false;
+            try {
+                inFlight.acquire();
+                acquired = true;
+                List<QueueMessage> batch = claimIfDue();
+                if (batch.isEmpty()) {
+                    batch = queue.read(iRedisKey, bizKey, group, consumer, config.getBatchSize(), config.getBlock());
+                }
+                if (!batch.isEmpty()) {
+                    dispatch(batch);
+                    acquired = false;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Stream队列拉取失败, group={}, consumer={}: {}", group, consumer, e.getMessage());
+                sleepQuietly();
+            } finally {
+                if (acquired) {
+                    inFlight.release();
+                }
+            }
+        }
+    }
+
+    private List<QueueMessage> claimIfDue() {
+        if (System.nanoTime() - nextClaimNanos < 0) {
+            return Collections.emptyList();
+        }
+        nextClaimNanos = System.nanoTime() + config.getClaimInterval().toNanos();
+        List<QueueMessage> claimed = queue.claimIdle(iRedisKey, bizKey, group, consumer, config.getClaimMinIdle(), config.getBatchSize());
+        if (!claimed.isEmpty()) {
+            log.info("Stream队列认领空闲消息{}条, group={}, consumer={}", claimed.size(), group, consumer);
+            // 还有积压时下一轮继续认领
+            if (claimed.size() >= config.getBatchSize()) {
+                nextClaimNanos = System.nanoTime();
+            }
+        }
+        return deadLetterExhausted(claimed);
+    }
+
+    // 投递次数超限的消息转入死信，返回其余消息
+    private List<QueueMessage> deadLetterExhausted(List<QueueMessage> claimed) {
+        int maxDeliveries = config.getMaxDeliveries();
+        if (maxDeliveries <= 0 || claimed.isEmpty()) {
+            return claimed;
+        }
+        List<QueueMessage> exhausted = new ArrayList<>();
+        List<QueueMessage> retry = new ArrayList<>(claimed.size());
+        for (QueueMessage message : claimed) {
+            (message.getDeliveryCount() > maxDeliveries ? exhausted : retry).add(message);
+        }
+        if (!exhausted.isEmpty()) {
+            queue.deadLetter(iRedisKey, bizKey, group, exhausted);
+            log.error("Stream队列消息投递超过{}次，已转入死信, group={}, messages={}", maxDeliveries, group, exhausted);
+        }
+        return retry;
+    }
+
+    // 调用方已持有一个inFlight许可，由处理任务释放
+    private void dispatch(List<QueueMessage> batch) {
+        Runnable task = () -> {
+            try {
+                listener.onMessages(batch);
+                List<String> ids = new ArrayList<>(batch.size());
+                for (QueueMessage message : batch) {
+                    ids.add(message.getId());
+                }
+                queue.ack(iRedisKey, bizKey, group, ids);
+            } catch (Exception e) {
+                log.warn("Stream队列消息处理失败，等待重新认领, group={}, messages={}", group, batch, e);
+            } finally {
+                inFlight.release();
+            }
+        };
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            inFlight.release();
+            log.warn("Stream队列处理线程池已满，等待重新认领, group={}, size={}", group, batch.size());
+        }
+    }
+
+    private void sleepQuietly() {
+        try {
+            Thread.sleep(ERROR_BACKOFF_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.jianspring.starter.redis.stream;
+
+/**
+ * Stream队列中的一条消息
+ */
+public class QueueMessage {
+
+    /**
+     * Stream消息ID，确认时使用
+     */
+    private final String id;
+
+    /**
+     * 消息内容
+     */
+    private final Object payload;
+
+    /**
+     * 投递次数，新读取的消息为1，每被认领一次加1
+     */
+    private final long deliveryCount;
+
+    public QueueMessage(String id, Object payload) {
+        this(id, payload, 1);
+    }
+
+    public QueueMessage(String id, Object payload, long deliveryCount) {
+        this.id = id;
+        this.payload = payload;
+        this.deliveryCount = deliveryCount;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Object getPayload() {
+        return payload;
+    }
+
+    public long getDeliveryCount() {
+        return deliveryCount;
+    }
+
+    @Override
+    public String toString() {
+        return "QueueMessage{id='" + id + "', deliveryCount=" + deliveryCount + "}";
+    }
+}
@@ -0,0 +1,328 @@
+package com.jianspring.starter.redis.stream;
+
+import com.jianspring.starter.redis.config.JianRedisProperties;
+import com.jianspring.starter.redis.enums.IRedisKey;
+import com.jianspring.starter.redis.operations.RedisOperations;
+import io.lettuce.core.XAutoClaimArgs;
+import io.lettuce.core.api.async.RedisStreamAsyncCommands;
+import io.lettuce.core.models.stream.ClaimedMessages;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.RedisStreamCommands;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.Consumer;
+import org.springframework.data.redis.connection.stream.PendingMessage;
+import org.springframework.data.redis.connection.stream.PendingMessages;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.RecordId;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.connection.stream.StreamRecords;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 基于Redis Stream的持久化工作队列
+ * <p>
+ * 消息写入后由消费组内的消费者竞争消费，未确认的消息留在组的待确认列表(PEL)中，
+ * 消费者崩溃后其它消费者可通过 {@link #claimIdle} 认领重新处理，不会因重启丢失。
+ * 不同消费组各自消费全量消息。消息体使用value序列化器，与RedisOperations写入的值一致。
+ * 反复处理失败的消息可通过 {@link #deadLetter} 转入死信Stream，避免无限重试。
+ */
+public class RedisStreamQueue {
+
+    private static final byte[] PAYLOAD_FIELD = "payload".getBytes(StandardCharsets.UTF_8);
+
+    // 死信消息额外记录的字段
+    private static final byte[] SOURCE_ID_FIELD = "sourceId".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] GROUP_FIELD = "group".getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] DELIVERIES_FIELD = "deliveries".getBytes(StandardCharsets.UTF_8);
+
+    private static final String BUSY_GROUP = "BUSYGROUP";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    private final JianRedisProperties.Stream config;
+
+    public RedisStreamQueue(RedisOperations redisOperations) {
+        this(redisOperations, new JianRedisProperties());
+    }
+
+    public RedisStreamQueue(RedisOperations redisOperations, JianRedisProperties properties) {
+        this.redisTemplate = redisOperations.getRedisTemplate();
+        this.config = properties.getStream();
+    }
+
+    /**
+     * 写入消息，按 maxLen 近似裁剪
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param payload   消息内容
+     * @return 消息ID
+     */
+    public String publish(IRedisKey iRedisKey, String bizKey, Object payload) {
+        return publish(iRedisKey, bizKey, payload, config.getMaxLen());
+    }
+
+    /**
+     * 写入消息
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param payload   消息内容
+     * @param maxLen    Stream最大长度，近似裁剪（MAXLEN ~），小于等于0时不裁剪
+     * @return 消息ID
+     */
+    public String publish(IRedisKey iRedisKey, String bizKey, Object payload, long maxLen) {
+        byte[] key = rawKey(iRedisKey, bizKey);
+        byte[] value = valueSerializer().serialize(payload);
+        RedisStreamCommands.XAddOptions options = addOptions(maxLen);
+        try {
+            RecordId id = redisTemplate.execute((RedisCallback<RecordId>) connection -> connection.streamCommands()
+                    .xAdd(StreamRecords.rawBytes(Collections.singletonMap(PAYLOAD_FIELD, value)).withStreamKey(key), options));
+            return id == null ? null : id.getValue();
+        } catch (Exception e) {
+            throw new RuntimeException("Redis操作失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 创建消费组，Stream不存在时一并创建，消费组已存在时忽略
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param group     消费组
+     */
+    public void createGroup(IRedisKey iRedisKey, String bizKey, String group) {
+        byte[] key = rawKey(iRedisKey, bizKey);
+        try {
+            redisTemplate.execute((RedisCallback<String>) connection -> connection.streamCommands()
+                    .xGroupCreate(key, group, ReadOffset.from("0"), true));
+        } catch (Exception e) {
+            String message = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            if (message != null && message.contains(BUSY_GROUP)) {
+                return;
+            }
+            throw new RuntimeException("Redis操作失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 读取一批新消息（XREADGROUP >），读到的消息进入该消费者的待确认列表
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param group     消费组
+     * @param consumer  消费者名，同一消费组内唯一
+     * @param count     最多读取条数
+     * @param block     无消息时的阻塞时长，为空或0时不阻塞
+     * @return 消息列表，无消息时为空
+     */
+    public List<QueueMessage> read(IRedisKey iRedisKey, String bizKey, String group, String consumer,
+                                   int count, Duration block) {
+        byte[] key = rawKey(iRedisKey, bizKey);
+        StreamReadOptions options = StreamReadOptions.empty().count(count);
+        if (block != null && !block.isZero()) {
+            options = options.block(block);
+        }
+        StreamReadOptions readOptions = options;
+        try {
+            List<ByteRecord> records = redisTemplate.execute((RedisCallback<List<ByteRecord>>) connection -> connection
+                    .streamCommands().xReadGroup(Consumer.from(group, consumer), readOptions,
+                            StreamOffset.create(key, ReadOffset.lastConsumed())));
+            if (records == null || records.isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<QueueMessage> messages = new ArrayList<>(records.size());
+            for (ByteRecord record : records) {
+                messages.add(new QueueMessage(record.getId().getValue(), deserializePayload(record.getValue())));
+            }
+            return messages;
+        } catch (Exception e) {
+            throw new RuntimeException("Redis操作失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 确认消息，从消费组的待确认列表中移除
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param group     消费组
+     * @param ids       消息ID列表
+     * @return 确认成功的条数
+     */
+    public long ack(IRedisKey iRedisKey, String bizKey, String group, List<String> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        byte[] key = rawKey(iRedisKey, bizKey);
+        RecordId[] recordIds = ids.stream().map(RecordId::of).toArray(RecordId[]::new);
+        try {
+            Long acked = redisTemplate.execute((RedisCallback<Long>) connection -> connection.streamCommands()
+                    .xAck(key, group, recordIds));
+            return acked == null ? 0 : acked;
+        } catch (Exception e) {
+            throw new RuntimeException("Redis操作失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 认领空闲超过 minIdle 的待确认消息（XAUTOCLAIM），用于接管崩溃消费者未确认的消息
+     * <p>
+     * 已被裁剪删除的消息无法再处理，直接确认掉。返回的消息带有投递次数（含本次认领），
+     * XAUTOCLAIM不返回该值，认领后再用一次XPENDING查询。
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param group     消费组
+     * @param consumer  认领到的消费者名
+     * @param minIdle   最小空闲时长
+     * @param count     最多认领条数
+     * @return 认领到的消息列表
+     */
+    @SuppressWarnings("unchecked")
+    public List<QueueMessage> claimIdle(IRedisKey iRedisKey, String bizKey, String group, String consumer,
+                                        Duration minIdle, int count) {
+        byte[] key = rawKey(iRedisKey, bizKey);
+        XAutoClaimArgs<byte[]> args = XAutoClaimArgs.Builder.xautoclaim(
+                io.lettuce.core.Consumer.from(group.getBytes(StandardCharsets.UTF_8), consumer.getBytes(StandardCharsets.UTF_8)),
+                minIdle, "0-0").count(count);
+        try {
+            // Spring Data Redis 未提供XAUTOCLAIM，直接使用Lettuce原生连接
+            ClaimedMessages<byte[], byte[]> claimed = redisTemplate.execute((RedisCallback<ClaimedMessages<byte[], byte[]>>) connection -> {
+                Object nativeConnection = connection.getNativeConnection();
+                if (!(nativeConnection instanceof RedisStreamAsyncCommands)) {
+                    throw new UnsupportedOperationException("XAUTOCLAIM仅支持Lettuce连接");
+                }
+                return ((RedisStreamAsyncCommands<byte[], byte[]>) nativeConnection).xautoclaim(key, args)
+                        .toCompletableFuture().join();
+            });
+            if (claimed == null || claimed.getMessages().isEmpty()) {
+                return Collections.emptyList();
+            }
+            List<io.lettuce.core.StreamMessage<byte[], byte[]>> live = new ArrayList<>(claimed.getMessages().size());
+            List<String> deleted = new ArrayList<>();
+            for (io.lettuce.core.StreamMessage<byte[], byte[]> message : claimed.getMessages()) {
+                if (message.getBody() == null || message.getBody().isEmpty()) {
+                    deleted.add(message.getId());
+                } else {
+                    live.add(message);
+                }
+            }
+            ack(iRedisKey, bizKey, group, deleted);
+            if (live.isEmpty()) {
+                return Collections.emptyList();
+            }
+            Map<String, Long> deliveries = deliveryCounts(key, group, consumer, live.get(0).getId(),
+                    live.get(live.size() - 1).getId(), count);
+            List<QueueMessage> messages = new ArrayList<>(live.size());
+            for (io.lettuce.core.StreamMessage<byte[], byte[]> message : live) {
+                messages.add(new QueueMessage(message.getId(), deserializePayload(message.getBody()),
+                        deliveries.getOrDefault(message.getId(), 1L)));
+            }
+            return messages;
+        } catch (Exception e) {
+            throw new RuntimeException("Redis操作失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 把消息转入死信Stream并从消费组中确认
+     * <p>
+     * 死信Stream的key为原key加 deadLetterSuffix，除消息内容外记录原消息ID、消费组和投递次数，
+     * 可用 {@link #read} 以 bizKey + deadLetterSuffix 消费。先写入后确认，中途失败时消息可能重复进入死信。
+     *
+     * @param iRedisKey key前缀
+     * @param bizKey    业务key
+     * @param group     消费组
+     * @param messages  消息列表
+     */
+    public void deadLetter(IRedisKey iRedisKey, String bizKey, String group, List<QueueMessage> messages) {
+        if (messages.isEmpty()) {
+            return;
+        }
+        byte[] deadKey = rawKey(iRedisKey, bizKey + config.getDeadLetterSuffix());
+        RedisStreamCommands.XAddOptions options = addOptions(config.getMaxLen());
+        byte[] groupName = group.getBytes(StandardCharsets.UTF_8);
+        List<String> ids = new ArrayList<>(messages.size());
+        try {
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                for (QueueMessage message : messages) {
+                    byte[] value = valueSerializer().serialize(message.getPayload());
+                    Map<byte[], byte[]> body = new LinkedHashMap<>(8);
+                    body.put(PAYLOAD_FIELD, value != null ? value : new byte[0]);
+                    body.put(SOURCE_ID_FIELD, message.getId().getBytes(StandardCharsets.UTF_8));
+                    body.put(GROUP_FIELD, groupName);
+                    body.put(DELIVERIES_FIELD, String.valueOf(message.getDeliveryCount()).getBytes(StandardCharsets.UTF_8));
+                    connection.streamCommands().xAdd(StreamRecords.rawBytes(body).withStreamKey(deadKey), options);
+                    ids.add(message.getId());
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            throw new RuntimeException("Redis操作失败: " + e.getMessage(), e);
+        }
+        ack(iRedisKey, bizKey, group, ids);
+    }
+
+    public JianRedisProperties.Stream getConfig() {
+        return config;
+    }
+
+    // 本消费者在 [firstId, lastId] 范围内待确认消息的投递次数，范围内还可能有本消费者正在处理的消息
+    private Map<String, Long> deliveryCounts(byte[] key, String group, String consumer, String firstId, String lastId, int count) {
+        long limit = (long) count + (long) config.getBatchSize() * Math.max(1, config.getConcurrency());
+        RedisStreamCommands.XPendingOptions options = RedisStreamCommands.XPendingOptions
+                .range(Range.closed(firstId, lastId), limit)
+                .consumer(consumer);
+        PendingMessages pending = redisTemplate.execute((RedisCallback<PendingMessages>) connection -> connection
+                .streamCommands().xPending(key, group, options));
+        if (pending == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, Long> counts = new HashMap<>(pending.size() * 2);
+        for (PendingMessage message : pending) {
+            counts.put(message.getIdAsString(), message.getTotalDeliveryCount());
+        }
+        return counts;
+    }
+
+    private static RedisStreamCommands.XAddOptions addOptions(long maxLen) {
+        return maxLen > 0
+                ? RedisStreamCommands.XAddOptions.maxlen(maxLen).approximateTrimming(true)
+                : RedisStreamCommands.XAddOptions.none();
+    }
+
+    private byte[] rawKey(IRedisKey iRedisKey, String bizKey) {
+        return (iRedisKey.getPrefixKey() + bizKey).getBytes(StandardCharsets.UTF_8);
+    }
+
+    @SuppressWarnings("unchecked")
+    private RedisSerializer<Object> valueSerializer() {
+        return (RedisSerializer<Object>) redisTemplate.getValueSerializer();
+    }
+
+    private Object deserializePayload(Map<byte[], byte[]> body) {
+        for (Map.Entry<byte[], byte[]> entry : body.entrySet()) {
+            if (Arrays.equals(PAYLOAD_FIELD, entry.getKey())) {
+                return valueSerializer().deserialize(entry.getValue());
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,9 @@
+-- LPUSH 后裁剪到最大长度并设置过期时间
+-- KEYS[1]: key  ARGV[1]: 过期时间(ms)，小于等于0不过期  ARGV[2]: 最大长度  ARGV[3]: 值
+-- 返回裁剪后的长度
+redis.call('LPUSH', KEYS[1], ARGV[3])
+redis.call('LTRIM', KEYS[1], 0, tonumber(ARGV[2]) - 1)
+if tonumber(ARGV[1]) > 0 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[1])
+end
+return redis.call('LLEN', KEYS[1])
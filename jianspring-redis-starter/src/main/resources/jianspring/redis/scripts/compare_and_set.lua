@@ -0,0 +1,12 @@
+-- 当前值等于期望值时写入新值
+-- KEYS[1]: key  ARGV[1]: 期望值  ARGV[2]: 新值  ARGV[3]: 过期时间(ms)，小于等于0不过期
+-- 返回1表示写入成功，0表示当前值不等于期望值
+if redis.call('GET', KEYS[1]) ~= ARGV[1] then
+    return 0
+end
+if tonumber(ARGV[3]) > 0 then
+    redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+else
+    redis.call('SET', KEYS[1], ARGV[2], 'KEEPTTL')
+end
+return 1
@@ -0,0 +1,8 @@
+-- 计数器自增，首次创建时设置过期时间，之后的自增不延长过期时间
+-- KEYS[1]: key  ARGV[1]: 增量  ARGV[2]: 过期时间(ms)，小于等于0不过期
+-- 返回自增后的值
+local value = redis.call('INCRBY', KEYS[1], ARGV[1])
+if tonumber(ARGV[2]) > 0 and redis.call('PTTL', KEYS[1]) == -1 then
+    redis.call('PEXPIRE', KEYS[1], ARGV[2])
+end
+return value
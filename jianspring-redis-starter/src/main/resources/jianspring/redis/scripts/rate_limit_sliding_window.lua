@@ -0,0 +1,16 @@
+-- 滑动窗口限流，窗口内每次放行记为ZSET中的一个成员
+-- KEYS[1]: key  ARGV[1]: 窗口(ms)  ARGV[2]: 限额  ARGV[3]: 申请数  ARGV[4]: 最少放行数  ARGV[5]: 请求标识
+-- 返回实际放行数，不足最少放行数时返回0
+local now = redis.call('TIME')
+local nowMs = tonumber(now[1]) * 1000 + math.floor(tonumber(now[2]) / 1000)
+local window = tonumber(ARGV[1])
+redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', nowMs - window)
+local granted = math.min(tonumber(ARGV[3]), tonumber(ARGV[2]) - redis.call('ZCARD', KEYS[1]))
+if granted < tonumber(ARGV[4]) then
+    return 0
+end
+for i = 1, granted do
+    redis.call('ZADD', KEYS[1], nowMs, ARGV[5] .. ':' .. i)
+end
+redis.call('PEXPIRE', KEYS[1], window)
+return granted
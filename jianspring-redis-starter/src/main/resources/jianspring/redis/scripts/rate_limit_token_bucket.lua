@@ -0,0 +1,18 @@
+-- 令牌桶限流，按经过的时间补充令牌
+-- KEYS[1]: key  ARGV[1]: 桶容量  ARGV[2]: 补满整桶的时间(ms)  ARGV[3]: 申请数  ARGV[4]: 最少放行数
+-- 返回实际放行数，不足最少放行数时返回0
+local now = redis.call('TIME')
+local nowMs = tonumber(now[1]) * 1000 + math.floor(tonumber(now[2]) / 1000)
+local capacity = tonumber(ARGV[1])
+local window = tonumber(ARGV[2])
+local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+local tokens = tonumber(bucket[1]) or capacity
+local ts = tonumber(bucket[2]) or nowMs
+tokens = math.min(capacity, tokens + math.max(0, nowMs - ts) * capacity / window)
+local granted = math.min(tonumber(ARGV[3]), math.floor(tokens))
+if granted < tonumber(ARGV[4]) then
+    granted = 0
+end
+redis.call('HSET', KEYS[1], 'tokens', tostring(tokens - granted), 'ts', nowMs)
+redis.call('PEXPIRE', KEYS[1], window)
+return granted
@@ -0,0 +1,6 @@
+-- SADD 后设置过期时间
+-- KEYS[1]: key  ARGV[1]: 过期时间(ms)  ARGV[2..n]: 成员
+-- 返回新增成员数
+local added = redis.call('SADD', KEYS[1], unpack(ARGV, 2))
+redis.call('PEXPIRE', KEYS[1], ARGV[1])
+return added
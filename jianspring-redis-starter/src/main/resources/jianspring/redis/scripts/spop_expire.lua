@@ -0,0 +1,8 @@
+-- SPOP 后刷新过期时间
+-- KEYS[1]: key  ARGV[1]: 过期时间(ms)
+-- 返回弹出的成员，集合为空时返回nil
+local member = redis.call('SPOP', KEYS[1])
+if member then
+    redis.call('PEXPIRE', KEYS[1], ARGV[1])
+end
+return member
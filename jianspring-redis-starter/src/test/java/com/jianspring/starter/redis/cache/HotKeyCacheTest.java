@@ -0,0 +1,101 @@
+package com.jianspring.starter.redis.cache;
+
+import com.jianspring.starter.redis.enums.IRedisKey;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HotKeyCacheTest {
+
+    static class TestRedisKey implements IRedisKey {
+
+        private final boolean hotKeyCacheable;
+
+        TestRedisKey(boolean hotKeyCacheable) {
+            this.hotKeyCacheable = hotKeyCacheable;
+        }
+
+        @Override
+        public String getPrefixKey() {
+            return "test:";
+        }
+
+        @Override
+        public Object getDefaultValue() {
+            return null;
+        }
+
+        @Override
+        public long getTtl() {
+            return 60;
+        }
+
+        @Override
+        public TimeUnit getTimeUnit() {
+            return TimeUnit.SECONDS;
+        }
+
+        @Override
+        public boolean isHotKeyCacheable() {
+            return hotKeyCacheable;
+        }
+    }
+
+    @Test
+    void testPromoteHotKey() {
+        HotKeyCache hotKeyCache = new HotKeyCache(1.0, 10, Duration.ofMinutes(1), Duration.ofMinutes(1), 10);
+        TestRedisKey redisKey = new TestRedisKey(true);
+        AtomicInteger loads = new AtomicInteger();
+
+        // 未达到阈值前每次都回源
+        for (int i = 0; i < 9; i++) {
+            hotKeyCache.record(redisKey, "test:hot");
+            assertEquals("value", hotKeyCache.get(redisKey, "test:hot", k -> {
+                loads.incrementAndGet();
+                return "value";
+            }));
+        }
+        assertEquals(9, loads.get());
+        assertFalse(hotKeyCache.isHot("test:hot"));
+
+        // 达到阈值后只回源一次，之后读本地副本
+        for (int i = 0; i < 5; i++) {
+            hotKeyCache.record(redisKey, "test:hot");
+            hotKeyCache.get(redisKey, "test:hot", k -> {
+                loads.incrementAndGet();
+                return "value";
+            });
+        }
+        assertEquals(10, loads.get());
+        assertEquals("test:hot", hotKeyCache.getHotKeys().get(0).getKey());
+
+        // 写操作失效本地副本
+        hotKeyCache.invalidate("test:hot");
+        hotKeyCache.get(redisKey, "test:hot", k -> {
+            loads.incrementAndGet();
+            return "value";
+        });
+        assertEquals(11, loads.get());
+    }
+
+    @Test
+    void testNotCacheablePrefix() {
+        HotKeyCache hotKeyCache = new HotKeyCache(1.0, 1, Duration.ofMinutes(1), Duration.ofMinutes(1), 10);
+        TestRedisKey redisKey = new TestRedisKey(false);
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            hotKeyCache.record(redisKey, "test:strict");
+            hotKeyCache.get(redisKey, "test:strict", k -> {
+                loads.incrementAndGet();
+                return "value";
+            });
+        }
+        // 探测为热点但不缓存
+        assertTrue(hotKeyCache.isHot("test:strict"));
+        assertEquals(3, loads.get());
+    }
+}
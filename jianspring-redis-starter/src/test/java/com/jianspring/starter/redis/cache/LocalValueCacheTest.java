@@ -0,0 +1,55 @@
+package com.jianspring.starter.redis.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * LocalValueCache 本地副本存储的单元测试
+ */
+public class LocalValueCacheTest {
+
+    @Test
+    @DisplayName("测试条目按各自的有效期过期")
+    void testEntryTtl() throws InterruptedException {
+        LocalValueCache cache = new LocalValueCache(100);
+        cache.put("short", "v", TimeUnit.MILLISECONDS.toNanos(20));
+        cache.put("long", "v", LocalValueCache.NO_EXPIRY);
+        assertEquals("v", cache.getIfPresent("short"));
+
+        Thread.sleep(50);
+        assertNull(cache.getIfPresent("short"));
+        assertEquals("v", cache.getIfPresent("long"));
+    }
+
+    @Test
+    @DisplayName("测试null值不缓存")
+    void testNullNotCached() {
+        LocalValueCache cache = new LocalValueCache(100);
+        assertNull(cache.get("k", LocalValueCache.NO_EXPIRY, k -> null));
+        assertEquals("v", cache.get("k", LocalValueCache.NO_EXPIRY, k -> "v"));
+        assertEquals("v", cache.get("k", LocalValueCache.NO_EXPIRY, k -> "other"));
+    }
+
+    @Test
+    @DisplayName("测试回源期间任意key失效时不缓存回源结果")
+    void testInvalidatedDuringLoad() {
+        LocalValueCache cache = new LocalValueCache(100);
+        assertEquals("old", cache.get("k", LocalValueCache.NO_EXPIRY, k -> {
+            cache.invalidateAll(Collections.singletonList("k"));
+            return "old";
+        }));
+        assertNull(cache.getIfPresent("k"));
+
+        assertEquals("old", cache.getHashField("h", "f", LocalValueCache.NO_EXPIRY, k -> {
+            cache.invalidateAll();
+            return "old";
+        }));
+        assertEquals("new", cache.getHashField("h", "f", LocalValueCache.NO_EXPIRY, k -> "new"));
+        assertEquals("new", cache.getHashField("h", "f", LocalValueCache.NO_EXPIRY, k -> "newer"));
+    }
+}
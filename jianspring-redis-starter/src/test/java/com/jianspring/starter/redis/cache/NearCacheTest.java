@@ -0,0 +1,102 @@
+package com.jianspring.starter.redis.cache;
+
+import com.jianspring.starter.redis.enums.IRedisKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * NearCache 回源与失效并发的单元测试
+ */
+public class NearCacheTest {
+
+    private final IRedisKey redisKey = new IRedisKey() {
+        @Override
+        public String getPrefixKey() {
+            return "test:";
+        }
+
+        @Override
+        public Object getDefaultValue() {
+            return null;
+        }
+
+        @Override
+        public long getTtl() {
+            return 60;
+        }
+
+        @Override
+        public TimeUnit getTimeUnit() {
+            return TimeUnit.SECONDS;
+        }
+
+        @Override
+        public long getLocalTtl() {
+            return 60;
+        }
+    };
+
+    private NearCache nearCache;
+
+    @SuppressWarnings("unchecked")
+    @BeforeEach
+    void setUp() {
+        nearCache = new NearCache(mock(RedisTemplate.class), 100, "test:near-cache");
+    }
+
+    @Test
+    @DisplayName("测试回源结果写入本地")
+    void testLoadCached() {
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("v1", nearCache.get(redisKey, "test:1", k -> {
+            loads.incrementAndGet();
+            return "v1";
+        }));
+        assertEquals("v1", nearCache.get(redisKey, "test:1", k -> {
+            loads.incrementAndGet();
+            return "v2";
+        }));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("测试回源期间发生失效时不缓存回源结果")
+    void testInvalidatedDuringLoad() {
+        assertEquals("old", nearCache.get(redisKey, "test:1", k -> {
+            // 其它节点的写入通知在回源返回前到达
+            nearCache.invalidateLocal(Collections.singletonList(k));
+            return "old";
+        }));
+        assertNull(nearCache.getIfPresent(redisKey, "test:1"));
+        assertEquals("new", nearCache.get(redisKey, "test:1", k -> "new"));
+        assertEquals("new", nearCache.getIfPresent(redisKey, "test:1"));
+    }
+
+    @Test
+    @DisplayName("测试Hash字段回源期间发生失效时不缓存回源结果")
+    void testHashFieldInvalidatedDuringLoad() {
+        assertEquals("old", nearCache.getHashField(redisKey, "test:hash", "f", k -> {
+            nearCache.invalidate(redisKey, k);
+            return "old";
+        }));
+        AtomicInteger loads = new AtomicInteger();
+        assertEquals("new", nearCache.getHashField(redisKey, "test:hash", "f", k -> {
+            loads.incrementAndGet();
+            return "new";
+        }));
+        assertEquals("new", nearCache.getHashField(redisKey, "test:hash", "f", k -> {
+            loads.incrementAndGet();
+            return "newer";
+        }));
+        assertEquals(1, loads.get());
+    }
+}
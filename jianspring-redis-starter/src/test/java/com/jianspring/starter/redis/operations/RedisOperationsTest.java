@@ -1,6 +1,9 @@
 package com.jianspring.starter.redis.operations;
 
+import com.jianspring.starter.redis.cache.ClientTrackingCache;
+import com.jianspring.starter.redis.config.JianRedisProperties;
 import com.jianspring.starter.redis.config.TestRedisConfig;
+import com.jianspring.starter.redis.enums.CacheLoadModeEnum;
 import com.jianspring.starter.redis.enums.IRedisKey;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,15 +24,24 @@ import org.testcontainers.utility.DockerImageName;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
-@SpringBootTest(classes = TestRedisConfig.class)
+@SpringBootTest(classes = TestRedisConfig.class, properties = {"jianspring.redis.near-cache.enabled=true",
+        "jianspring.redis.reactive.enabled=true"})
 @Testcontainers
 public class RedisOperationsTest {
 
@@ -53,6 +65,9 @@ public class RedisOperationsTest {
     @Autowired
     private RedisOperations redisOperations;
 
+    @Autowired
+    private ReactiveRedisOperations reactiveRedisOperations;
+
     @Autowired
     private RedisTemplate<String, Object> redisTemplate;
 
@@ -88,6 +103,19 @@ public class RedisOperationsTest {
         }
     }
 
+    // 开启本地近端缓存的RedisKey实现
+    static class TestLocalRedisKey extends TestRedisKey {
+        @Override
+        public String getPrefixKey() {
+            return "test:local:";
+        }
+
+        @Override
+        public long getLocalTtl() {
+            return 30;
+        }
+    }
+
     // ================ 基本操作测试 ================
 
     @Test
@@ -147,6 +175,211 @@ public class RedisOperationsTest {
         assertEquals(value1, redisOperations.get(testKey, bizKey));
     }
 
+    // ================ 近端缓存测试 ================
+
+    @Test
+    void testNearCache() {
+        TestLocalRedisKey localKey = new TestLocalRedisKey();
+        String bizKey = "near";
+
+        redisOperations.set(localKey, bizKey, "value1");
+        assertEquals("value1", redisOperations.get(localKey, bizKey));
+
+        // 绕过RedisOperations直接修改，本地缓存仍然命中
+        redisTemplate.opsForValue().set(localKey.getPrefixKey() + bizKey, "value2");
+        assertEquals("value1", redisOperations.get(localKey, bizKey));
+
+        // 通过RedisOperations写入后本地缓存失效
+        redisOperations.set(localKey, bizKey, "value3");
+        assertEquals("value3", redisOperations.get(localKey, bizKey));
+
+        redisOperations.hashPut(localKey, "nearHash", "field", "value1");
+        assertEquals("value1", redisOperations.hashGet(localKey, "nearHash", "field"));
+        redisOperations.hashPut(localKey, "nearHash", "field", "value2");
+        assertEquals("value2", redisOperations.hashGet(localKey, "nearHash", "field"));
+
+        redisOperations.delete(localKey, bizKey);
+        assertNull(redisOperations.get(localKey, bizKey));
+    }
+
+    @Test
+    void testClientTracking() throws Exception {
+        ClientTrackingCache trackingCache = new ClientTrackingCache(redisTemplate.getConnectionFactory(),
+                List.of(testKey.getPrefixKey()), 100);
+        trackingCache.start();
+        try {
+            assumeTrue(trackingCache.isTracked(testKey), "Redis连接未协商RESP3");
+            RedisOperations trackingOperations = new RedisOperations(redisTemplate, null, null, trackingCache,
+                    redisOperations.getScriptRegistry(), new JianRedisProperties());
+            String bizKey = "tracked";
+
+            trackingOperations.set(testKey, bizKey, "value1");
+            assertEquals("value1", trackingOperations.get(testKey, bizKey));
+            assertEquals(1, trackingCache.size());
+
+            // 绕过RedisOperations直接修改，由Redis推送失效通知
+            redisTemplate.opsForValue().set(testKey.getPrefixKey() + bizKey, "value2");
+            long deadline = System.currentTimeMillis() + 2000;
+            while (!"value2".equals(trackingOperations.get(testKey, bizKey)) && System.currentTimeMillis() < deadline) {
+                Thread.sleep(10);
+            }
+            assertEquals("value2", trackingOperations.get(testKey, bizKey));
+        } finally {
+            trackingCache.close();
+        }
+    }
+
+    // ================ 批量操作测试 ================
+
+    @Test
+    void testMultiOperations() {
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("m1", "value1");
+        values.put("m2", "value2");
+        values.put("m3", null);
+
+        redisOperations.multiSet(testKey, values);
+
+        List<Object> results = redisOperations.multiGet(testKey, Arrays.asList("m3", "missing", "m1", "m2"));
+        assertEquals(Arrays.asList(testKey.getDefaultValue(), null, "value1", "value2"), results);
+
+        Long ttl = redisTemplate.getExpire(testKey.getPrefixKey() + "m1", TimeUnit.SECONDS);
+        assertTrue(ttl != null && ttl > 0 && ttl <= testKey.getTtl());
+
+        redisOperations.hashPut(testKey, "h1", "field1", "a");
+        redisOperations.hashPut(testKey, "h2", "field2", "b");
+        List<List<Object>> hashResults = redisOperations.multiHashGet(testKey, Arrays.asList("h2", "h1"), Arrays.asList("field1", "field2"));
+        assertEquals(Arrays.asList(null, "b"), hashResults.get(0));
+        assertEquals(Arrays.asList("a", null), hashResults.get(1));
+    }
+
+    // ================ 按前缀扫描测试 ================
+
+    @Test
+    void testScanAndDeleteByPrefix() {
+        for (int i = 0; i < 1200; i++) {
+            redisOperations.set(testKey, "scan" + i, "value" + i);
+        }
+        redisTemplate.opsForValue().set("other:scan0", "value");
+
+        try (Stream<String> keys = redisOperations.scanKeys(testKey, 100)) {
+            Set<String> bizKeys = keys.collect(Collectors.toSet());
+            assertEquals(1200, bizKeys.size());
+            assertTrue(bizKeys.contains("scan0"));
+        }
+
+        assertEquals(1200, redisOperations.deleteByPrefix(testKey));
+        assertFalse(redisOperations.hasKey(testKey, "scan0"));
+        assertTrue(redisTemplate.hasKey("other:scan0"));
+    }
+
+    // ================ 脚本操作测试 ================
+
+    @Test
+    void testScriptOperations() {
+        assertTrue(redisOperations.getScriptRegistry().getScriptNames().contains("spop_expire"));
+
+        redisOperations.set(testKey, "cas", "v1");
+        assertFalse(redisOperations.compareAndSet(testKey, "cas", "v0", "v2"));
+        assertTrue(redisOperations.compareAndSet(testKey, "cas", "v1", "v2"));
+        assertEquals("v2", redisOperations.get(testKey, "cas"));
+
+        // 数字、布尔值按value序列化器编码后比较
+        redisOperations.set(testKey, "casNumber", 1L);
+        assertFalse(redisOperations.compareAndSet(testKey, "casNumber", 2L, 3L));
+        assertTrue(redisOperations.compareAndSet(testKey, "casNumber", 1L, 3L));
+        assertEquals(3L, ((Number) redisOperations.get(testKey, "casNumber")).longValue());
+        redisOperations.set(testKey, "casBoolean", true);
+        assertTrue(redisOperations.compareAndSet(testKey, "casBoolean", true, false));
+        assertEquals(false, redisOperations.get(testKey, "casBoolean"));
+
+        redisOperations.setSet(testKey, "numberSet", 7L);
+        assertEquals(7L, ((Number) redisOperations.popSet(testKey, "numberSet")).longValue());
+
+        assertEquals(1L, redisOperations.incrementWithTtl(testKey, "counter", 1));
+        assertEquals(3L, redisOperations.incrementWithTtl(testKey, "counter", 2));
+        Long ttl = redisTemplate.getExpire(testKey.getPrefixKey() + "counter", TimeUnit.SECONDS);
+        assertTrue(ttl != null && ttl > 0);
+
+        for (int i = 0; i < 5; i++) {
+            redisOperations.listLeftPushCapped(testKey, "capped", "value" + i, 3);
+        }
+        assertEquals(Arrays.asList("value4", "value3", "value2"), redisOperations.listRange(testKey, "capped", 0, -1));
+    }
+
+    // ================ 响应式操作测试 ================
+
+    @Test
+    void testReactiveInterop() {
+        redisOperations.set(testKey, "reactive1", "value1");
+        assertEquals("value1", reactiveRedisOperations.get(testKey, "reactive1").block());
+
+        reactiveRedisOperations.set(testKey, "reactive2", "value2").block();
+        assertEquals("value2", redisOperations.get(testKey, "reactive2"));
+
+        reactiveRedisOperations.hashPut(testKey, "reactiveHash", "field", "value").block();
+        assertEquals("value", redisOperations.hashGet(testKey, "reactiveHash", "field"));
+
+        reactiveRedisOperations.listRightPush(testKey, "reactiveList", "value").block();
+        Long ttl = redisTemplate.getExpire(testKey.getPrefixKey() + "reactiveList", TimeUnit.SECONDS);
+        assertTrue(ttl != null && ttl > 0);
+
+        assertEquals(Arrays.asList("value1", null, "value2"),
+                reactiveRedisOperations.multiGet(testKey, Arrays.asList("reactive1", "missing", "reactive2")).block());
+    }
+
+    // ================ 缓存加载测试 ================
+
+    @Test
+    void testGetOrLoadSingleFlight() throws Exception {
+        String bizKey = "load";
+        AtomicInteger loads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> redisOperations.getOrLoad(testKey, bizKey, () -> {
+                    loads.incrementAndGet();
+                    sleepQuietly(200);
+                    return "loaded";
+                })));
+            }
+            for (Future<String> future : futures) {
+                assertEquals("loaded", future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, loads.get());
+        assertEquals("loaded", redisOperations.get(testKey, bizKey));
+    }
+
+    @Test
+    void testGetOrLoadCachesNull() {
+        String bizKey = "loadNull";
+        AtomicInteger loads = new AtomicInteger();
+
+        assertNull(redisOperations.getOrLoad(testKey, bizKey, () -> {
+            loads.incrementAndGet();
+            return null;
+        }, CacheLoadModeEnum.MUTEX));
+        assertNull(redisOperations.getOrLoad(testKey, bizKey, () -> {
+            loads.incrementAndGet();
+            return null;
+        }, CacheLoadModeEnum.MUTEX));
+
+        assertEquals(1, loads.get());
+        assertEquals(testKey.getDefaultValue(), redisOperations.get(testKey, bizKey));
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
     // ================ Set类型操作测试 ================
 
     @Test
@@ -377,6 +610,21 @@ public class RedisOperationsTest {
         assertEquals(value, result);
     }
 
+    @Test
+    void testExecuteWithTtlUsesOperationResult() {
+        String bizKey = "executeWithTtl";
+
+        // operation内可以使用命令的返回值，返回值原样返回
+        String result = redisOperations.executeCommand(testKey, bizKey, key -> {
+            Long count = redisTemplate.opsForValue().increment(key);
+            return count == 1 ? "first" : "again";
+        }, true);
+
+        assertEquals("first", result);
+        Long ttl = redisTemplate.getExpire(testKey.getPrefixKey() + bizKey);
+        assertTrue(ttl != null && ttl > 0 && ttl <= testKey.getTtl());
+    }
+
     @Test
     void testExecuteCallback() {
         String value = "testValue";
@@ -451,6 +699,22 @@ public class RedisOperationsTest {
         assertTrue(ttl <= testKey.getTtl() && ttl > 0);
     }
 
+    @Test
+    void testWriteWithTtl() {
+        // 写命令与EXPIRE同管道提交后，返回值与TTL都应正确
+        redisOperations.setSet(testKey, "ttlSet", "value");
+        assertEquals("value", redisOperations.popSet(testKey, "ttlSet"));
+        assertEquals(1L, redisOperations.geoAdd(testKey, "ttlGeo", new Point(116.397128, 39.916527), "beijing"));
+        redisOperations.hashPut(testKey, "ttlHash", "field", "value");
+        assertEquals(1L, redisOperations.listRightPush(testKey, "ttlList", "value"));
+
+        for (String bizKey : Arrays.asList("ttlGeo", "ttlHash", "ttlList")) {
+            Long ttl = redisTemplate.getExpire(testKey.getPrefixKey() + bizKey, TimeUnit.SECONDS);
+            assertNotNull(ttl);
+            assertTrue(ttl <= testKey.getTtl() && ttl > 0);
+        }
+    }
+
     @Test
     void testGetRedisTemplate() {
         // 测试获取RedisTemplate
@@ -0,0 +1,104 @@
+package com.jianspring.starter.redis.operations;
+
+import com.jianspring.starter.redis.config.JianRedisProperties;
+import com.jianspring.starter.redis.serializer.JianRedisSerializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带TTL写操作的往返次数对比：pipelineTtl=false 为写入后单独EXPIRE，true 为写入与EXPIRE同管道提交
+ * <p>
+ * 运行：直接执行 main 方法。未指定 -Dredis.host/-Dredis.port 时启动 redis:6.2.6 容器，
+ * 本机回环的RTT很小，指向跨机房的Redis时差距更明显
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisTtlWriteBenchmark {
+
+    @Param({"false", "true"})
+    private boolean pipelineTtl;
+
+    private GenericContainer<?> redisContainer;
+
+    private LettuceConnectionFactory connectionFactory;
+
+    private RedisOperations redisOperations;
+
+    private final RedisOperationsTest.TestRedisKey redisKey = new RedisOperationsTest.TestRedisKey();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        String host = System.getProperty("redis.host");
+        int port = Integer.getInteger("redis.port", 6379);
+        if (host == null) {
+            redisContainer = new GenericContainer<>(DockerImageName.parse("redis:6.2.6")).withExposedPorts(6379);
+            redisContainer.start();
+            host = redisContainer.getHost();
+            port = redisContainer.getFirstMappedPort();
+        }
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(host, port));
+        connectionFactory.afterPropertiesSet();
+
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.setKeySerializer(RedisSerializer.string());
+        redisTemplate.setHashKeySerializer(RedisSerializer.string());
+        redisTemplate.setValueSerializer(new JianRedisSerializer());
+        redisTemplate.afterPropertiesSet();
+
+        JianRedisProperties properties = new JianRedisProperties();
+        properties.setPipelineTtl(pipelineTtl);
+        redisOperations = new RedisOperations(redisTemplate, null, properties);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        connectionFactory.destroy();
+        if (redisContainer != null) {
+            redisContainer.stop();
+        }
+    }
+
+    @Benchmark
+    public void setSet() {
+        redisOperations.setSet(redisKey, "bench:set", "member" + ThreadLocalRandom.current().nextInt(1000));
+    }
+
+    @Benchmark
+    public void hashPut() {
+        redisOperations.hashPut(redisKey, "bench:hash", "field" + ThreadLocalRandom.current().nextInt(1000), "value");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RedisTtlWriteBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,116 @@
+package com.jianspring.starter.redis.ratelimit;
+
+import com.jianspring.starter.redis.config.TestRedisConfig;
+import com.jianspring.starter.redis.enums.IRedisKey;
+import com.jianspring.starter.redis.enums.RateLimitTypeEnum;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TestRedisConfig.class)
+@Testcontainers
+public class RedisRateLimiterTest {
+
+    @Container
+    public static GenericContainer<?> redisContainer = new GenericContainer<>(DockerImageName.parse("redis:6.2.6"))
+            .withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", redisContainer::getHost);
+        registry.add("spring.data.redis.port", redisContainer::getFirstMappedPort);
+    }
+
+    @Autowired
+    private RedisRateLimiter redisRateLimiter;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    private final IRedisKey limitKey = new IRedisKey() {
+        @Override
+        public String getPrefixKey() {
+            return "test:limit:";
+        }
+
+        @Override
+        public Object getDefaultValue() {
+            return null;
+        }
+
+        @Override
+        public long getTtl() {
+            return 0;
+        }
+
+        @Override
+        public TimeUnit getTimeUnit() {
+            return TimeUnit.SECONDS;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().flushAll();
+    }
+
+    @Test
+    void testSlidingWindow() {
+        for (int i = 0; i < 5; i++) {
+            assertTrue(redisRateLimiter.tryAcquire(limitKey, "window", RateLimitTypeEnum.SLIDING_WINDOW, 5, Duration.ofSeconds(10)));
+        }
+        assertFalse(redisRateLimiter.tryAcquire(limitKey, "window", RateLimitTypeEnum.SLIDING_WINDOW, 5, Duration.ofSeconds(10)));
+        // 不同业务key互不影响
+        assertTrue(redisRateLimiter.tryAcquire(limitKey, "other", RateLimitTypeEnum.SLIDING_WINDOW, 5, Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void testTokenBucket() {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(redisRateLimiter.tryAcquire(limitKey, "bucket", RateLimitTypeEnum.TOKEN_BUCKET, 3, Duration.ofSeconds(30)));
+        }
+        assertFalse(redisRateLimiter.tryAcquire(limitKey, "bucket", RateLimitTypeEnum.TOKEN_BUCKET, 3, Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void testLocalLease() {
+        // 一次预取4个配额，之后3次在本地判定，Redis中只有一次计数
+        for (int i = 0; i < 4; i++) {
+            assertTrue(redisRateLimiter.tryAcquire(limitKey, "lease", RateLimitTypeEnum.SLIDING_WINDOW, 6, Duration.ofSeconds(10), 1, 4));
+        }
+        assertEquals(4L, redisTemplate.opsForZSet().size("test:limit:lease"));
+        // 剩余2个配额不足一次预取，按实际剩余放行
+        assertTrue(redisRateLimiter.tryAcquire(limitKey, "lease", RateLimitTypeEnum.SLIDING_WINDOW, 6, Duration.ofSeconds(10), 1, 4));
+        assertTrue(redisRateLimiter.tryAcquire(limitKey, "lease", RateLimitTypeEnum.SLIDING_WINDOW, 6, Duration.ofSeconds(10), 1, 4));
+        assertFalse(redisRateLimiter.tryAcquire(limitKey, "lease", RateLimitTypeEnum.SLIDING_WINDOW, 6, Duration.ofSeconds(10), 1, 4));
+    }
+
+    @Test
+    void testLeaseMerged() {
+        Duration window = Duration.ofSeconds(10);
+        // 预取10个，本地剩9个，再用掉6个
+        for (int i = 0; i < 7; i++) {
+            assertTrue(redisRateLimiter.tryAcquire(limitKey, "merge", RateLimitTypeEnum.SLIDING_WINDOW, 20, window, 1, 10));
+        }
+        // 本地剩余3个不够5个，再预取10个，多出的5个与剩余的3个合并
+        assertTrue(redisRateLimiter.tryAcquire(limitKey, "merge", RateLimitTypeEnum.SLIDING_WINDOW, 20, window, 5, 10));
+        for (int i = 0; i < 8; i++) {
+            assertTrue(redisRateLimiter.tryAcquire(limitKey, "merge", RateLimitTypeEnum.SLIDING_WINDOW, 20, window, 1, 10));
+        }
+        assertFalse(redisRateLimiter.tryAcquire(limitKey, "merge", RateLimitTypeEnum.SLIDING_WINDOW, 20, window, 1, 10));
+        assertEquals(20L, redisTemplate.opsForZSet().size("test:limit:merge"));
+    }
+}
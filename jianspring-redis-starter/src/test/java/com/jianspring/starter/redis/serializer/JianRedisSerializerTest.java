@@ -0,0 +1,202 @@
+package com.jianspring.starter.redis.serializer;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.jianspring.starter.redis.enums.CompressionTypeEnum;
+import com.jianspring.starter.redis.enums.SerializerFormatEnum;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JianRedisSerializer 的单元测试
+ */
+public class JianRedisSerializerTest {
+
+    @ParameterizedTest
+    @EnumSource(SerializerFormatEnum.class)
+    @DisplayName("测试各编码格式往返一致")
+    void testRoundTrip(SerializerFormatEnum format) {
+        JianRedisSerializer serializer = new JianRedisSerializer(format, CompressionTypeEnum.NONE, Integer.MAX_VALUE);
+        Map<String, Object> value = sampleValue(10);
+
+        byte[] bytes = serializer.serialize(value);
+        assertEquals(format != SerializerFormatEnum.JSON, JianRedisSerializer.hasHeader(bytes), "非JSON格式应带数据头");
+        assertEquals(value, serializer.deserialize(bytes));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = CompressionTypeEnum.class, names = {"LZ4", "ZSTD"})
+    @DisplayName("测试超过阈值时压缩")
+    void testCompression(CompressionTypeEnum compression) {
+        JianRedisSerializer serializer = new JianRedisSerializer(SerializerFormatEnum.SMILE, compression, 256);
+        JianRedisSerializer plain = new JianRedisSerializer(SerializerFormatEnum.SMILE, CompressionTypeEnum.NONE, 256);
+        Map<String, Object> value = sampleValue(200);
+
+        byte[] compressed = serializer.serialize(value);
+        assertEquals(compression.getId(), compressed[3], "数据头应记录压缩算法");
+        assertTrue(compressed.length < plain.serialize(value).length, "压缩后应更小");
+        assertEquals(value, serializer.deserialize(compressed));
+        // 未开启压缩的节点也能读出压缩数据
+        assertEquals(value, plain.deserialize(compressed));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SerializerFormatEnum.class, names = {"SMILE", "CBOR"})
+    @DisplayName("测试二进制格式比原JSON序列化器体积更小")
+    void testBinarySize(SerializerFormatEnum format) {
+        GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer();
+        JianRedisSerializer serializer = new JianRedisSerializer(format, CompressionTypeEnum.NONE, Integer.MAX_VALUE);
+        Map<String, Object> value = sampleValue(500);
+
+        byte[] bytes = serializer.serialize(value);
+        assertTrue(bytes.length < legacy.serialize(value).length, format + " 编码应小于JSON");
+    }
+
+    @Test
+    @DisplayName("测试兼容读取旧节点写入的JSON数据")
+    void testReadLegacyJson() {
+        GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer();
+        JianRedisSerializer serializer = new JianRedisSerializer(SerializerFormatEnum.CBOR, CompressionTypeEnum.LZ4, 0);
+        Map<String, Object> value = sampleValue(3);
+
+        assertEquals(value, serializer.deserialize(legacy.serialize(value)));
+        assertEquals("text", serializer.deserialize(legacy.serialize("text")));
+        assertEquals(1, serializer.deserialize(legacy.serialize(1)));
+    }
+
+    @Test
+    @DisplayName("测试默认配置写出的数据旧节点可读")
+    void testDefaultWritesLegacyJson() {
+        GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer();
+        JianRedisSerializer serializer = new JianRedisSerializer();
+        Map<String, Object> value = sampleValue(3);
+
+        assertEquals(value, legacy.deserialize(serializer.serialize(value)));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    @DisplayName("测试默认配置写出的POJO与原序列化器字节一致")
+    void testPojoBytesMatchLegacy() {
+        // 原序列化器默认不支持java.time，两边注册同样的模块后比较
+        Consumer<ObjectMapper> javaTime = mapper -> mapper.registerModule(new JavaTimeModule());
+        GenericJackson2JsonRedisSerializer legacy = new GenericJackson2JsonRedisSerializer().configure(javaTime);
+        JianRedisSerializer serializer = new JianRedisSerializer(SerializerFormatEnum.JSON, CompressionTypeEnum.NONE,
+                Integer.MAX_VALUE, javaTime);
+        SamplePojo value = SamplePojo.sample();
+
+        byte[] legacyBytes = legacy.serialize(value);
+        assertArrayEquals(legacyBytes, serializer.serialize(value));
+        assertEquals(value, serializer.deserialize(legacyBytes));
+        assertEquals(value, legacy.deserialize(serializer.serialize(value)));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = SerializerFormatEnum.class, names = {"SMILE", "CBOR"})
+    @DisplayName("测试二进制格式的POJO类型信息与JSON一致")
+    void testPojoRoundTrip(SerializerFormatEnum format) throws IOException {
+        Consumer<ObjectMapper> javaTime = mapper -> mapper.registerModule(new JavaTimeModule());
+        JianRedisSerializer serializer = new JianRedisSerializer(format, CompressionTypeEnum.NONE, Integer.MAX_VALUE, javaTime);
+        SamplePojo value = SamplePojo.sample();
+
+        assertEquals(value, serializer.deserialize(serializer.serialize(value)));
+        // Long、枚举和LocalDateTime字段不带类型包装，只有POJO本身带@class
+        byte[] bytes = serializer.serialize(value);
+        JsonNode tree = JianRedisSerializer.createObjectMapper(format, javaTime)
+                .readTree(Arrays.copyOfRange(bytes, JianRedisSerializer.HEADER_LENGTH, bytes.length));
+        assertEquals(SamplePojo.class.getName(), tree.get("@class").asText());
+        assertTrue(tree.get("id").isNumber());
+        assertTrue(tree.get("status").isTextual());
+        assertTrue(tree.get("createdTime").get(0).isNumber());
+    }
+
+    static Map<String, Object> sampleValue(int size) {
+        Map<String, Object> value = new HashMap<>();
+        List<String> tags = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            tags.add("tag-" + i);
+        }
+        value.put("id", 1024L);
+        value.put("name", "jianspring");
+        value.put("enabled", true);
+        value.put("tags", tags);
+        return value;
+    }
+
+    enum SampleStatus {
+        ACTIVE, DISABLED
+    }
+
+    public static class SamplePojo {
+
+        private Long id;
+
+        private SampleStatus status;
+
+        private LocalDateTime createdTime;
+
+        static SamplePojo sample() {
+            SamplePojo pojo = new SamplePojo();
+            pojo.setId(1024L);
+            pojo.setStatus(SampleStatus.ACTIVE);
+            pojo.setCreatedTime(LocalDateTime.of(2024, 1, 2, 3, 4, 5));
+            return pojo;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public SampleStatus getStatus() {
+            return status;
+        }
+
+        public void setStatus(SampleStatus status) {
+            this.status = status;
+        }
+
+        public LocalDateTime getCreatedTime() {
+            return createdTime;
+        }
+
+        public void setCreatedTime(LocalDateTime createdTime) {
+            this.createdTime = createdTime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SamplePojo that)) {
+                return false;
+            }
+            return Objects.equals(id, that.id) && status == that.status && Objects.equals(createdTime, that.createdTime);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, status, createdTime);
+        }
+    }
+}
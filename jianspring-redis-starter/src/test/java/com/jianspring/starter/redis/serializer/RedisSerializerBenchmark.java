@@ -0,0 +1,80 @@
+package com.jianspring.starter.redis.serializer;
+
+import com.jianspring.starter.redis.enums.CompressionTypeEnum;
+import com.jianspring.starter.redis.enums.SerializerFormatEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 序列化吞吐与体积对比，基线为原 GenericJackson2JsonRedisSerializer
+ * <p>
+ * 运行：直接执行 main 方法；各格式的体积由 JianRedisSerializerTest 断言
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RedisSerializerBenchmark {
+
+    @Param({"BASELINE", "JSON", "SMILE", "CBOR"})
+    private String format;
+
+    @Param({"NONE", "LZ4", "ZSTD"})
+    private String compression;
+
+    @Param({"20", "500"})
+    private int size;
+
+    private RedisSerializer<Object> serializer;
+
+    private Map<String, Object> value;
+
+    private byte[] bytes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if ("BASELINE".equals(format)) {
+            serializer = new GenericJackson2JsonRedisSerializer();
+        } else {
+            serializer = new JianRedisSerializer(SerializerFormatEnum.valueOf(format), CompressionTypeEnum.valueOf(compression), 512);
+        }
+        value = JianRedisSerializerTest.sampleValue(size);
+        bytes = serializer.serialize(value);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(value);
+    }
+
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(bytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RedisSerializerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
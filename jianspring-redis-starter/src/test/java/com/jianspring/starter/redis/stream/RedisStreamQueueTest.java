@@ -0,0 +1,178 @@
+package com.jianspring.starter.redis.stream;
+
+import com.jianspring.starter.redis.config.JianRedisProperties;
+import com.jianspring.starter.redis.config.TestRedisConfig;
+import com.jianspring.starter.redis.enums.IRedisKey;
+import com.jianspring.starter.redis.operations.RedisOperations;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(classes = TestRedisConfig.class)
+@Testcontainers
+public class RedisStreamQueueTest {
+
+    @Container
+    public static GenericContainer<?> redisContainer = new GenericContainer<>(DockerImageName.parse("redis:6.2.6"))
+            .withExposedPorts(6379);
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.data.redis.host", redisContainer::getHost);
+        registry.add("spring.data.redis.port", redisContainer::getFirstMappedPort);
+    }
+
+    @Autowired
+    private RedisStreamQueue redisStreamQueue;
+
+    @Autowired
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Autowired
+    private RedisOperations redisOperations;
+
+    private final IRedisKey queueKey = new IRedisKey() {
+        @Override
+        public String getPrefixKey() {
+            return "test:queue:";
+        }
+
+        @Override
+        public Object getDefaultValue() {
+            return null;
+        }
+
+        @Override
+        public long getTtl() {
+            return 0;
+        }
+
+        @Override
+        public TimeUnit getTimeUnit() {
+            return TimeUnit.SECONDS;
+        }
+    };
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.getConnectionFactory().getConnection().flushAll();
+    }
+
+    @Test
+    void testReadAckAndClaim() throws Exception {
+        redisStreamQueue.createGroup(queueKey, "jobs", "workers");
+        // 重复创建忽略
+        redisStreamQueue.createGroup(queueKey, "jobs", "workers");
+
+        for (int i = 0; i < 5; i++) {
+            redisStreamQueue.publish(queueKey, "jobs", "job" + i);
+        }
+
+        List<QueueMessage> batch = redisStreamQueue.read(queueKey, "jobs", "workers", "c1", 3, null);
+        assertEquals(3, batch.size());
+        assertEquals("job0", batch.get(0).getPayload());
+        assertEquals(1, redisStreamQueue.ack(queueKey, "jobs", "workers", Collections.singletonList(batch.get(0).getId())));
+
+        // c1未确认的2条由c2认领
+        Thread.sleep(50);
+        List<QueueMessage> claimed = redisStreamQueue.claimIdle(queueKey, "jobs", "workers", "c2", Duration.ofMillis(10), 10);
+        assertEquals(2, claimed.size());
+        assertEquals("job1", claimed.get(0).getPayload());
+        // 读取一次，认领一次
+        assertEquals(2, claimed.get(0).getDeliveryCount());
+
+        List<QueueMessage> rest = redisStreamQueue.read(queueKey, "jobs", "workers", "c2", 10, Duration.ofMillis(100));
+        assertEquals(2, rest.size());
+        assertTrue(redisStreamQueue.read(queueKey, "jobs", "workers", "c2", 10, Duration.ofMillis(100)).isEmpty());
+    }
+
+    @Test
+    void testListenerContainer() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Object> received = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch latch = new CountDownLatch(10);
+        QueueListenerContainer container = new QueueListenerContainer(redisStreamQueue, queueKey, "container", "workers",
+                "c1", messages -> {
+            for (QueueMessage message : messages) {
+                received.add(message.getPayload());
+                latch.countDown();
+            }
+        }, executor);
+        container.start();
+        try {
+            for (int i = 0; i < 10; i++) {
+                redisStreamQueue.publish(queueKey, "container", i);
+            }
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertEquals(10, received.size());
+        } finally {
+            container.stop();
+            executor.shutdown();
+        }
+        // 处理成功的消息均已确认
+        Thread.sleep(50);
+        assertTrue(redisStreamQueue.claimIdle(queueKey, "container", "workers", "c2", Duration.ofMillis(1), 100).isEmpty());
+    }
+
+    @Test
+    void testDeadLetter() throws Exception {
+        JianRedisProperties properties = new JianRedisProperties();
+        properties.getStream().setMaxDeliveries(2);
+        properties.getStream().setClaimMinIdle(Duration.ofMillis(50));
+        properties.getStream().setClaimInterval(Duration.ofMillis(50));
+        properties.getStream().setBlock(Duration.ofMillis(50));
+        RedisStreamQueue queue = new RedisStreamQueue(redisOperations, properties);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        List<Long> deliveries = Collections.synchronizedList(new ArrayList<>());
+        QueueListenerContainer container = new QueueListenerContainer(queue, queueKey, "poison", "workers", "c1", messages -> {
+            for (QueueMessage message : messages) {
+                deliveries.add(message.getDeliveryCount());
+            }
+            throw new IllegalStateException("处理失败");
+        }, executor);
+        container.start();
+        try {
+            String id = queue.publish(queueKey, "poison", "bad");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (redisTemplate.opsForStream().size("test:queue:poison:dlq") < 1 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+            assertEquals(1L, redisTemplate.opsForStream().size("test:queue:poison:dlq"));
+            // 投递2次后第3次认领时转入死信，不再交给监听器
+            assertEquals(List.of(1L, 2L), deliveries);
+            assertNotNull(id);
+        } finally {
+            container.stop();
+            executor.shutdown();
+        }
+        // 原消费组中已确认
+        Thread.sleep(60);
+        assertTrue(queue.claimIdle(queueKey, "poison", "workers", "c2", Duration.ofMillis(1), 10).isEmpty());
+
+        // 从头消费死信
+        queue.createGroup(queueKey, "poison:dlq", "ops");
+        List<QueueMessage> dead = queue.read(queueKey, "poison:dlq", "ops", "o1", 10, null);
+        assertEquals(1, dead.size());
+        assertEquals("bad", dead.get(0).getPayload());
+    }
+}